@@ -0,0 +1,98 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.SaleStateDTO;
+import palew.integration.AccountingPipeline;
+import palew.integration.AccountingSink;
+import palew.integration.ExternalAccountingSystem;
+import palew.model.Amount;
+
+/**
+ * Measures the time a payment spends recording its sale in the accounting system, when every
+ * call to the accounting service takes 200 microseconds. The <code>direct</code> configuration
+ * calls the service once per sale on the paying thread, the other configurations hand the sale
+ * to an accounting pipeline with the given batch size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountingPipelineBenchmark {
+    private static final long SERVICE_LATENCY_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Param({"direct", "batch100", "batch500"})
+    private String configuration;
+
+    private Path directory;
+    private AccountingSink service;
+    private AccountingPipeline pipeline;
+    private ExternalAccountingSystem accSystem;
+    private SaleStateDTO sale;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("accounting-benchmark");
+        service = sales -> LockSupport.parkNanos(SERVICE_LATENCY_NANOS);
+        if (!configuration.equals("direct")) {
+            int batchSize = Integer.parseInt(configuration.substring("batch".length()));
+            pipeline = new AccountingPipeline(service, directory.resolve("accounting.journal"), batchSize,
+                    Duration.ofMillis(5), 4);
+            accSystem = new ExternalAccountingSystem(pipeline);
+        }
+        ItemAndRunningTotalDTO line = new ItemAndRunningTotalDTO(BenchmarkData.createCatalog(1).get(0), 2);
+        Amount total = line.getTotalIncludingVAT();
+        sale = new SaleStateDTO(LocalDateTime.now(), List.of(line), total, total, new Amount(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Records one paid sale in the accounting system.
+     *
+     * @throws IOException if the service call fails
+     */
+    @Benchmark
+    public void recordSale() throws IOException {
+        if (accSystem == null) {
+            service.sendBatch(List.of(sale));
+        } else {
+            accSystem.recordSale(sale);
+        }
+    }
+}
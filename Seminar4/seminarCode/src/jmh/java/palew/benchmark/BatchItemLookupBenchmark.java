@@ -0,0 +1,100 @@
+package palew.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import palew.DTO.ItemDTO;
+import palew.DTO.ItemSearchResultDTO;
+import palew.integration.DatabaseFailureException;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.ItemNotFoundException;
+import palew.integration.SimulatedRemoteInventoryBackend;
+
+/**
+ * Compares looking up a bag of scanned items one call per item with looking them up in one
+ * batched call, against a simulated remote inventory service. One item in ten is unknown.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchItemLookupBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Param({"10", "100", "1000"})
+    private int batchSize;
+
+    @Param({"100"})
+    private int latencyMicros;
+
+    private ExternalInventorySystem invSystem;
+    private List<String> itemIDs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ItemDTO> catalog = BenchmarkData.createCatalog(CATALOG_SIZE);
+        Map<String, ItemDTO> items = new HashMap<>();
+        for (ItemDTO item : catalog) {
+            items.put(item.getItemID(), item);
+        }
+        invSystem = new ExternalInventorySystem(new SimulatedRemoteInventoryBackend(itemID -> {
+            ItemDTO item = items.get(itemID);
+            if (item == null) {
+                throw new ItemNotFoundException(itemID);
+            }
+            return item;
+        }, Duration.ofNanos(latencyMicros * 1000L)));
+        itemIDs = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            itemIDs.add(i % 10 == 9 ? "unknown" + i : catalog.get(i * 7 % CATALOG_SIZE).getItemID());
+        }
+    }
+
+    /**
+     * Looks up every item of the bag with its own call.
+     *
+     * @param blackhole consumes the found items
+     * @throws DatabaseFailureException if the backend fails, which does not happen
+     */
+    @Benchmark
+    public void searchOneByOne(Blackhole blackhole) throws DatabaseFailureException {
+        for (String itemID : itemIDs) {
+            try {
+                blackhole.consume(invSystem.searchItem(itemID));
+            } catch (ItemNotFoundException e) {
+                blackhole.consume(itemID);
+            }
+        }
+    }
+
+    /**
+     * Looks up the whole bag in one batched call.
+     *
+     * @return the found and missing items
+     * @throws DatabaseFailureException if the backend fails, which does not happen
+     */
+    @Benchmark
+    public ItemSearchResultDTO searchBatch() throws DatabaseFailureException {
+        return invSystem.searchItems(itemIDs);
+    }
+}
@@ -0,0 +1,76 @@
+package palew.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import palew.DTO.ItemDTO;
+import palew.integration.Printer;
+import palew.model.Receipt;
+
+/**
+ * Generates the catalogs and scan sequences used by the benchmarks.
+ * All data is derived from a fixed seed so that runs are comparable.
+ */
+final class BenchmarkData {
+    private static final long SEED = 42L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates a catalog of items with distinct identifiers.
+     *
+     * @param catalogSize the number of items in the catalog
+     * @return the generated items
+     */
+    static List<ItemDTO> createCatalog(int catalogSize) {
+        Random random = new Random(SEED);
+        List<ItemDTO> catalog = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            double price = 1 + random.nextInt(50000) / 100.0;
+            double vatRate = random.nextBoolean() ? 0.25 : 0.12;
+            catalog.add(new ItemDTO("sku" + i, price, vatRate, "Item number " + i));
+        }
+        return catalog;
+    }
+
+    /**
+     * Creates a sequence of scans. Every scan is either a repeat of an item that was
+     * scanned earlier in the sequence or a new item from the catalog. New items are
+     * taken in catalog order, so the number of distinct lines is bounded by the catalog size.
+     *
+     * @param catalog the catalog to scan items from
+     * @param scans the number of scans in the sequence
+     * @param repeatScanRatio the probability that a scan repeats an already scanned item
+     * @return the items in the order they are scanned
+     */
+    static ItemDTO[] createScanSequence(List<ItemDTO> catalog, int scans, double repeatScanRatio) {
+        Random random = new Random(SEED);
+        ItemDTO[] sequence = new ItemDTO[scans];
+        int distinct = 0;
+        for (int i = 0; i < scans; i++) {
+            boolean repeat = distinct > 0 && (distinct == catalog.size() || random.nextDouble() < repeatScanRatio);
+            if (repeat) {
+                sequence[i] = catalog.get(random.nextInt(distinct));
+            } else {
+                sequence[i] = catalog.get(distinct++);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Creates a printer that discards receipts, so that console output does not
+     * dominate the measurements.
+     *
+     * @return a printer that prints nothing
+     */
+    static Printer silentPrinter() {
+        return new Printer() {
+            @Override
+            public void print(Receipt receipt) {
+            }
+        };
+    }
+}
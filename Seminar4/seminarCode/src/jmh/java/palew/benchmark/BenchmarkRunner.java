@@ -0,0 +1,40 @@
+package palew.benchmark;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. Accepts the regular JMH command line options and
+ * always attaches the GC profiler, so that the allocation rate is reported next to
+ * throughput and latency percentiles.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks selected by the given JMH command line options.
+     *
+     * @param args JMH command line options, for example a benchmark name filter or <code>-p basketSize=50</code>
+     * @throws CommandLineOptionException if the options could not be parsed
+     * @throws RunnerException if a benchmark run fails
+     * @throws IOException if the benchmark list cannot be read
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        Options options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,123 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.BulkScanSummaryDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.OrderLineDTO;
+import palew.controller.Controller;
+import palew.integration.DatabaseFailureException;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.ItemNotFoundException;
+import palew.integration.SimulatedRemoteInventoryBackend;
+import palew.model.Amount;
+import palew.model.Register;
+
+/**
+ * Compares importing a large order by scanning its lines one by one with registering it through
+ * the bulk scan API. The inventory is a simulated remote service with a latency per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkScanBenchmark {
+    private static final int CATALOG_SIZE = 2_000;
+
+    @Param({"10000"})
+    private int orderLines;
+
+    @Param({"0", "20"})
+    private int latencyMicros;
+
+    private Controller controller;
+    private List<OrderLineDTO> order;
+    private long saleID;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<ItemDTO> catalog = BenchmarkData.createCatalog(CATALOG_SIZE);
+        Map<String, ItemDTO> items = new HashMap<>();
+        for (ItemDTO item : catalog) {
+            items.put(item.getItemID(), item);
+        }
+        ExternalInventorySystem invSystem = new ExternalInventorySystem(new SimulatedRemoteInventoryBackend(itemID -> {
+            ItemDTO item = items.get(itemID);
+            if (item == null) {
+                throw new ItemNotFoundException(itemID);
+            }
+            return item;
+        }, Duration.ofNanos(latencyMicros * 1000L)));
+        controller = new Controller(BenchmarkData.silentPrinter(), new ExternalAccountingSystem(), invSystem,
+                new Register());
+        order = new ArrayList<>(orderLines);
+        int quantity = 0;
+        for (ItemDTO item : BenchmarkData.createScanSequence(catalog, orderLines, 0.5)) {
+            order.add(new OrderLineDTO(item.getItemID(), 1 + quantity++ % 3));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void openSale() {
+        saleID = controller.openSale();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeSale() {
+        controller.recordPayment(saleID, new Amount(controller.endSale(saleID).getAmount()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        controller.close();
+    }
+
+    /**
+     * Imports the order by scanning every line with its own call.
+     *
+     * @return the total of the sale
+     * @throws ItemNotFoundException if an item is missing, which does not happen
+     * @throws DatabaseFailureException if the backend fails, which does not happen
+     */
+    @Benchmark
+    public Amount scanLineByLine() throws ItemNotFoundException, DatabaseFailureException {
+        for (OrderLineDTO line : order) {
+            controller.scanItem(saleID, line.getItemID(), line.getQuantity());
+        }
+        return controller.endSale(saleID);
+    }
+
+    /**
+     * Imports the order with one bulk scan call.
+     *
+     * @return the summary of the import
+     * @throws DatabaseFailureException if the backend fails, which does not happen
+     */
+    @Benchmark
+    public BulkScanSummaryDTO scanInBulk() throws DatabaseFailureException {
+        return controller.scanItems(saleID, order);
+    }
+}
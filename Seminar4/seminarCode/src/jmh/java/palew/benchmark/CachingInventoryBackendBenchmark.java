@@ -0,0 +1,97 @@
+package palew.benchmark;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemDTO;
+import palew.integration.CachingInventoryBackend;
+import palew.integration.DatabaseFailureException;
+import palew.integration.InventoryBackend;
+import palew.integration.ItemNotFoundException;
+import palew.integration.SimulatedRemoteInventoryBackend;
+
+/**
+ * Measures scans per second against a simulated remote inventory service, with and without the
+ * read-through cache. One scan in ten is an unknown barcode, repeated as a misconfigured scanner
+ * would.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachingInventoryBackendBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int SCANS = 100_000;
+
+    @Param({"direct", "cached"})
+    private String configuration;
+
+    @Param({"100"})
+    private int latencyMicros;
+
+    @Param({"1000", "20000"})
+    private int cacheSize;
+
+    private InventoryBackend backend;
+    private String[] scans;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ItemDTO> catalog = BenchmarkData.createCatalog(CATALOG_SIZE);
+        Map<String, ItemDTO> items = new HashMap<>();
+        for (ItemDTO item : catalog) {
+            items.put(item.getItemID(), item);
+        }
+        InventoryBackend remote = new SimulatedRemoteInventoryBackend(itemID -> {
+            ItemDTO item = items.get(itemID);
+            if (item == null) {
+                throw new ItemNotFoundException(itemID);
+            }
+            return item;
+        }, Duration.ofNanos(latencyMicros * 1000L));
+        backend = "cached".equals(configuration)
+                ? new CachingInventoryBackend(remote, cacheSize, Duration.ofMinutes(5), Duration.ofSeconds(30))
+                : remote;
+        ItemDTO[] sequence = BenchmarkData.createScanSequence(catalog, SCANS, 0.9);
+        scans = new String[SCANS];
+        for (int i = 0; i < SCANS; i++) {
+            scans[i] = i % 10 == 9 ? "unknown" + (i % 7) : sequence[i].getItemID();
+        }
+    }
+
+    /**
+     * Searches for the next scanned barcode.
+     *
+     * @return the found item, or null if the barcode is unknown
+     * @throws DatabaseFailureException if the backend fails, which does not happen
+     */
+    @Benchmark
+    public ItemDTO scan() throws DatabaseFailureException {
+        String itemID = scans[next];
+        next = (next + 1) % SCANS;
+        try {
+            return backend.searchItem(itemID);
+        } catch (ItemNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.SaleSummaryDTO;
+import palew.controller.Controller;
+import palew.integration.DatabaseFailureException;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.ItemNotFoundException;
+import palew.model.Amount;
+import palew.model.Register;
+
+/**
+ * Measures the scan, end sale and payment flow through the Controller, including the
+ * inventory lookup. Receipts are rendered but not printed. The inventory is the
+ * predefined one, so every basket cycles through its items.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+    private static final String[] ITEM_IDS = {"abc123", "def456", "ghi789"};
+
+    @Param({"1", "50", "1000", "50000"})
+    private int basketSize;
+
+    private Controller controller;
+    private Amount payment;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ItemNotFoundException, DatabaseFailureException {
+        controller = new Controller(BenchmarkData.silentPrinter(), new ExternalAccountingSystem(),
+                ExternalInventorySystem.getInstance(), new Register());
+        controller.startSale();
+        for (int i = 0; i < basketSize; i++) {
+            controller.scanItem(ITEM_IDS[i % ITEM_IDS.length]);
+        }
+        payment = new Amount(controller.endSale().getAmount() + 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        controller.close();
+    }
+
+    /**
+     * Scans one item into the open sale.
+     *
+     * @return the summary of the scan
+     */
+    @Benchmark
+    public SaleSummaryDTO scanItem() throws ItemNotFoundException, DatabaseFailureException {
+        return controller.scanItem(ITEM_IDS[0]);
+    }
+
+    /**
+     * Runs a complete sale of <code>basketSize</code> scans: start, scan, end and pay.
+     *
+     * @return the change given back to the customer
+     */
+    @Benchmark
+    public Amount checkout() throws ItemNotFoundException, DatabaseFailureException {
+        controller.startSale();
+        for (int i = 0; i < basketSize; i++) {
+            controller.scanItem(ITEM_IDS[i % ITEM_IDS.length]);
+        }
+        controller.endSale();
+        return controller.recordPayment(payment);
+    }
+}
@@ -0,0 +1,127 @@
+package palew.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.CatalogImportDTO;
+import palew.DTO.ItemDTO;
+import palew.integration.CsvCatalogImporter;
+import palew.integration.MappedItemCatalog;
+import palew.integration.MappedItemCatalogBuilder;
+
+/**
+ * Measures how many CSV rows per second the catalog importer handles, compared with reading
+ * the file on one thread, and the startup time of loading the snapshot instead of importing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvCatalogImporterBenchmark {
+    private static final int ROWS = 200_000;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private Path directory;
+    private Path csvFile;
+    private Path snapshotFile;
+    private CsvCatalogImporter importer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("import-benchmark");
+        csvFile = directory.resolve("prices.csv");
+        snapshotFile = directory.resolve("prices.catalog");
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile)) {
+            writer.write("itemID,price,vatRate,description\n");
+            for (ItemDTO item : BenchmarkData.createCatalog(ROWS)) {
+                writer.write(item.getItemID() + "," + item.getPrice() + "," + item.getVatRate() + ","
+                        + item.getItemDescription() + "\n");
+            }
+        }
+        importer = new CsvCatalogImporter(parallelism);
+        importer.importCsv(csvFile, snapshotFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Imports the CSV file with the parallel importer. The score is in rows per second.
+     *
+     * @return the result of the import
+     * @throws IOException if the import fails
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public CatalogImportDTO importParallel() throws IOException {
+        return importer.importCsv(csvFile, snapshotFile);
+    }
+
+    /**
+     * Converts the CSV file by reading it on one thread. The score is in rows per second.
+     *
+     * @return the number of imported items
+     * @throws IOException if the conversion fails
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int importSequential() throws IOException {
+        return MappedItemCatalogBuilder.buildFromCsv(csvFile, snapshotFile);
+    }
+
+    /**
+     * Starts up from the CSV file by importing it.
+     *
+     * @return the imported catalog
+     * @throws IOException if the import fails
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MappedItemCatalog startupFromCsv() throws IOException {
+        importer.importCsv(csvFile, snapshotFile);
+        return MappedItemCatalog.open(snapshotFile);
+    }
+
+    /**
+     * Starts up from the snapshot that an earlier import left behind.
+     *
+     * @return the loaded catalog
+     * @throws IOException if the snapshot can not be loaded
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MappedItemCatalog startupFromSnapshot() throws IOException {
+        return importer.loadOrImport(csvFile, snapshotFile);
+    }
+}
@@ -0,0 +1,112 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.Recording;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.SaleSummaryDTO;
+import palew.controller.Controller;
+import palew.integration.DatabaseFailureException;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.ItemNotFoundException;
+import palew.model.Amount;
+import palew.model.Register;
+import palew.util.SaleEvents;
+
+/**
+ * Measures the cost of the sale lifecycle events, by running the same Controller operations
+ * without a recording, with a recording of the sale events at their default thresholds, and
+ * with a recording of every sale event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightRecorderEventBenchmark {
+    private static final String[] ITEM_IDS = {"abc123", "def456", "ghi789"};
+    private static final int BASKET_SIZE = 50;
+
+    @Param({"none", "thresholds", "all"})
+    private String recordedEvents;
+
+    private Recording recording;
+    private Controller controller;
+    private Amount payment;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ItemNotFoundException, DatabaseFailureException {
+        if (!"none".equals(recordedEvents)) {
+            recording = new Recording();
+            recording.setToDisk(false);
+            recording.setMaxSize(64 * 1024 * 1024);
+            for (String name : SaleEvents.NAMES) {
+                if ("all".equals(recordedEvents)) {
+                    recording.enable(name).withThreshold(Duration.ZERO);
+                } else {
+                    recording.enable(name);
+                }
+            }
+            recording.start();
+        }
+        controller = new Controller(BenchmarkData.silentPrinter(), new ExternalAccountingSystem(),
+                ExternalInventorySystem.getInstance(), new Register());
+        controller.startSale();
+        for (int i = 0; i < BASKET_SIZE; i++) {
+            controller.scanItem(ITEM_IDS[i % ITEM_IDS.length]);
+        }
+        payment = new Amount(controller.endSale().getAmount() + 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        controller.close();
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * Scans one item into the open sale, which emits an inventory lookup and an item
+     * registration event.
+     *
+     * @return the summary of the scan
+     */
+    @Benchmark
+    public SaleSummaryDTO scanItem() throws ItemNotFoundException, DatabaseFailureException {
+        return controller.scanItem(ITEM_IDS[0]);
+    }
+
+    /**
+     * Runs a complete sale of 50 scans: start, scan, end and pay.
+     *
+     * @return the change given back to the customer
+     */
+    @Benchmark
+    public Amount checkout() throws ItemNotFoundException, DatabaseFailureException {
+        controller.startSale();
+        for (int i = 0; i < BASKET_SIZE; i++) {
+            controller.scanItem(ITEM_IDS[i % ITEM_IDS.length]);
+        }
+        controller.endSale();
+        return controller.recordPayment(payment);
+    }
+}
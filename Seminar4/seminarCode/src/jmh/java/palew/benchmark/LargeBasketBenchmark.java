@@ -0,0 +1,61 @@
+package palew.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemDTO;
+import palew.model.Sale;
+
+/**
+ * Measures how building a wholesale basket scales with the number of distinct lines.
+ * Every line is scanned twice, first as a new line and then as a duplicate that is
+ * merged into the existing line. With constant time duplicate detection the time per
+ * basket grows linearly with <code>distinctLines</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LargeBasketBenchmark {
+    @Param({"1000", "10000", "50000"})
+    private int distinctLines;
+
+    private List<ItemDTO> lines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lines = BenchmarkData.createCatalog(distinctLines);
+    }
+
+    /**
+     * Registers every line twice in a new sale.
+     *
+     * @return the filled sale
+     */
+    @Benchmark
+    public Sale scanLinesTwice() {
+        Sale sale = new Sale();
+        for (ItemDTO item : lines) {
+            sale.registerItem(item, 1);
+        }
+        for (ItemDTO item : lines) {
+            sale.registerItem(item, 1);
+        }
+        return sale;
+    }
+}
@@ -0,0 +1,84 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.integration.ItemNotFoundException;
+import palew.util.AsyncLogHandler;
+import palew.util.LogHandler;
+
+/**
+ * Measures how many unknown-item exceptions the checkout thread can log per second with the
+ * synchronous and the asynchronous log handler, both when the same barcode is scanned over and
+ * over and when every barcode is different.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogHandlerBenchmark {
+    private static final int DISTINCT_IDS = 1024;
+
+    @Param({"sync", "async"})
+    private String handler;
+
+    private Path directory;
+    private LogHandler logger;
+    private ItemNotFoundException repeated;
+    private ItemNotFoundException[] distinct;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("log-benchmark");
+        String logFileName = directory.resolve("log.txt").toString();
+        logger = "async".equals(handler) ? AsyncLogHandler.open(logFileName, 1024, 10) : new LogHandler(logFileName);
+        repeated = new ItemNotFoundException("xyz999");
+        distinct = new ItemNotFoundException[DISTINCT_IDS];
+        for (int i = 0; i < DISTINCT_IDS; i++) {
+            distinct[i] = new ItemNotFoundException("unknown" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        logger.close();
+        Files.deleteIfExists(directory.resolve("log.txt"));
+        Files.delete(directory);
+    }
+
+    /**
+     * Logs the same unknown barcode over and over, as a misconfigured scanner would.
+     */
+    @Benchmark
+    public void logRepeatedException() {
+        logger.logException(repeated);
+    }
+
+    /**
+     * Logs a different unknown barcode every time.
+     */
+    @Benchmark
+    public void logDistinctExceptions() {
+        logger.logException(distinct[next]);
+        next = (next + 1) % DISTINCT_IDS;
+    }
+}
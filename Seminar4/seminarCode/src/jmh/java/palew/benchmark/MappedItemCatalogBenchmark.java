@@ -0,0 +1,120 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemDTO;
+import palew.integration.ItemNotFoundException;
+import palew.integration.MappedItemCatalog;
+import palew.integration.MappedItemCatalogBuilder;
+
+/**
+ * Compares searching a memory-mapped catalog file with searching a catalog that is loaded onto
+ * the heap as a map, and measures how long it takes to open the mapped catalog.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedItemCatalogBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"200000"})
+    private int catalogSize;
+
+    private Path directory;
+    private Path catalogFile;
+    private MappedItemCatalog mappedCatalog;
+    private Map<String, ItemDTO> heapCatalog;
+    private String[] lookupIDs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<ItemDTO> items = BenchmarkData.createCatalog(catalogSize);
+        directory = Files.createTempDirectory("catalog-benchmark");
+        catalogFile = directory.resolve("items.catalog");
+        try (MappedItemCatalogBuilder builder = new MappedItemCatalogBuilder(catalogFile)) {
+            for (ItemDTO item : items) {
+                builder.addItem(item);
+            }
+            builder.finish();
+        }
+        mappedCatalog = MappedItemCatalog.open(catalogFile);
+        heapCatalog = new HashMap<>();
+        for (ItemDTO item : items) {
+            heapCatalog.put(item.getItemID(), item);
+        }
+        Random random = new Random(42);
+        lookupIDs = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookupIDs[i] = "sku" + random.nextInt(catalogSize);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mappedCatalog = null;
+        heapCatalog = null;
+        Files.deleteIfExists(catalogFile);
+        Files.delete(directory);
+    }
+
+    /**
+     * Searches the memory-mapped catalog for a random item.
+     *
+     * @return the found item
+     * @throws ItemNotFoundException if the item is missing, which does not happen
+     */
+    @Benchmark
+    public ItemDTO searchMappedCatalog() throws ItemNotFoundException {
+        String itemID = lookupIDs[next];
+        next = (next + 1) % LOOKUPS;
+        return mappedCatalog.searchItem(itemID);
+    }
+
+    /**
+     * Searches the catalog on the heap for a random item.
+     *
+     * @return the found item
+     */
+    @Benchmark
+    public ItemDTO searchHeapCatalog() {
+        String itemID = lookupIDs[next];
+        next = (next + 1) % LOOKUPS;
+        return heapCatalog.get(itemID);
+    }
+
+    /**
+     * Opens the mapped catalog, which is the startup cost of the mapped backend.
+     *
+     * @return the opened catalog
+     * @throws IOException if the catalog can not be opened
+     */
+    @Benchmark
+    public MappedItemCatalog openMappedCatalog() throws IOException {
+        return MappedItemCatalog.open(catalogFile);
+    }
+}
@@ -0,0 +1,118 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.SaleSummaryDTO;
+import palew.controller.Controller;
+import palew.integration.DatabaseFailureException;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.ItemNotFoundException;
+import palew.model.Amount;
+import palew.model.Register;
+import palew.util.LatencyHistogram;
+import palew.util.Metrics;
+
+/**
+ * Measures the cost of recording latencies, by running the same Controller operations with
+ * latency recording turned on and off. The <code>record</code> benchmark measures recording a
+ * single latency, and <code>sampledTimer</code> timing a call with the sample interval used for
+ * fast operations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    private static final String[] ITEM_IDS = {"abc123", "def456", "ghi789"};
+    private static final int BASKET_SIZE = 50;
+
+    @Param({"true", "false"})
+    private boolean metricsEnabled;
+
+    private Controller controller;
+    private LatencyHistogram histogram;
+    private LatencyHistogram sampledHistogram;
+    private Amount payment;
+    private long latency;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ItemNotFoundException, DatabaseFailureException {
+        Metrics.getInstance().setEnabled(metricsEnabled);
+        histogram = new Metrics().histogram("benchmark.record");
+        histogram.setEnabled(metricsEnabled);
+        sampledHistogram = new Metrics().histogram("benchmark.sampled", Metrics.FAST_OPERATION_SAMPLE_INTERVAL);
+        sampledHistogram.setEnabled(metricsEnabled);
+        controller = new Controller(BenchmarkData.silentPrinter(), new ExternalAccountingSystem(),
+                ExternalInventorySystem.getInstance(), new Register());
+        controller.startSale();
+        for (int i = 0; i < BASKET_SIZE; i++) {
+            controller.scanItem(ITEM_IDS[i % ITEM_IDS.length]);
+        }
+        payment = new Amount(controller.endSale().getAmount() + 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        controller.close();
+        Metrics.getInstance().setEnabled(true);
+    }
+
+    /**
+     * Scans one item into the open sale, which records the scan and the inventory lookup.
+     *
+     * @return the summary of the scan
+     */
+    @Benchmark
+    public SaleSummaryDTO scanItem() throws ItemNotFoundException, DatabaseFailureException {
+        return controller.scanItem(ITEM_IDS[0]);
+    }
+
+    /**
+     * Runs a complete sale of 50 scans: start, scan, end and pay.
+     *
+     * @return the change given back to the customer
+     */
+    @Benchmark
+    public Amount checkout() throws ItemNotFoundException, DatabaseFailureException {
+        controller.startSale();
+        for (int i = 0; i < BASKET_SIZE; i++) {
+            controller.scanItem(ITEM_IDS[i % ITEM_IDS.length]);
+        }
+        controller.endSale();
+        return controller.recordPayment(payment);
+    }
+
+    /**
+     * Records one latency in a histogram.
+     */
+    @Benchmark
+    public void record() {
+        histogram.record(latency++ & 0xFFFFF);
+    }
+
+    /**
+     * Starts and stops a timer of a histogram with the sample interval used for fast operations.
+     */
+    @Benchmark
+    public void sampledTimer() {
+        sampledHistogram.stopTimer(sampledHistogram.startTimer());
+    }
+}
@@ -0,0 +1,88 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.SaleStateDTO;
+import palew.integration.PrintSink;
+import palew.integration.PrintSpooler;
+import palew.integration.SlowPrintSink;
+import palew.model.Amount;
+import palew.model.Receipt;
+
+/**
+ * Measures the time a payment spends printing its receipt, when every write to the printer
+ * takes 200 microseconds. The <code>direct</code> configuration writes each receipt on the
+ * paying thread, the <code>spooled</code> configuration hands it to a print spooler that
+ * batches queued receipts into one write.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrintSpoolerBenchmark {
+    @Param({"direct", "spooled"})
+    private String configuration;
+
+    private PrintSink printer;
+    private PrintSpooler spooler;
+    private Receipt receipt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PrintSink discardingSink = receipts -> {
+            for (Receipt printed : receipts) {
+                printed.renderTo(Writer.nullWriter());
+            }
+        };
+        printer = new SlowPrintSink(discardingSink, Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(200)));
+        if (configuration.equals("spooled")) {
+            spooler = new PrintSpooler(printer, 1_000);
+        }
+        ItemAndRunningTotalDTO line = new ItemAndRunningTotalDTO(BenchmarkData.createCatalog(1).get(0), 2);
+        Amount total = line.getTotalIncludingVAT();
+        receipt = new Receipt(new SaleStateDTO(LocalDateTime.now(), List.of(line), total, total, new Amount(0)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (spooler != null) {
+            spooler.close();
+        }
+    }
+
+    /**
+     * Prints one receipt, either directly or through the spooler.
+     *
+     * @throws IOException if the receipt can not be printed
+     */
+    @Benchmark
+    public void printReceipt() throws IOException {
+        if (spooler != null) {
+            spooler.submit(receipt);
+        } else {
+            printer.print(List.of(receipt));
+        }
+    }
+}
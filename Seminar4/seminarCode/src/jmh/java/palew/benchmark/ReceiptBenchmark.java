@@ -0,0 +1,116 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.SaleStateDTO;
+import palew.model.Amount;
+import palew.model.Receipt;
+import palew.model.Sale;
+
+/**
+ * Measures the cost of rendering a receipt for baskets of different sizes. The
+ * <code>renderBeforeRenderer</code> benchmark keeps the implementation of
+ * <code>Receipt.toString</code> from before the receipt renderer, as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiptBenchmark {
+    @Param({"1", "50", "1000", "50000"})
+    private int basketSize;
+
+    private SaleStateDTO saleState;
+    private Receipt receipt;
+    private Writer discardingWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ItemDTO> catalog = BenchmarkData.createCatalog(basketSize);
+        Sale sale = new Sale();
+        for (ItemDTO item : catalog) {
+            sale.registerItem(item, 1);
+        }
+        Amount payment = new Amount(sale.getRunningTotalIncludingVAT().getAmount() + 100);
+        saleState = sale.recordPayment(payment);
+        receipt = new Receipt(saleState);
+        discardingWriter = Writer.nullWriter();
+    }
+
+    /**
+     * Renders a receipt with <code>basketSize</code> distinct lines.
+     *
+     * @return the rendered receipt
+     */
+    @Benchmark
+    public String render() {
+        return receipt.toString();
+    }
+
+    /**
+     * Streams a receipt with <code>basketSize</code> distinct lines to a writer that discards
+     * the text, without building the whole receipt in memory.
+     *
+     * @return the writer the receipt was written to
+     * @throws IOException if the receipt can not be written
+     */
+    @Benchmark
+    public Writer renderToWriter() throws IOException {
+        receipt.renderTo(discardingWriter);
+        return discardingWriter;
+    }
+
+    /**
+     * Renders a receipt with <code>basketSize</code> distinct lines the way
+     * <code>Receipt.toString</code> did before the receipt renderer.
+     *
+     * @return the rendered receipt
+     */
+    @Benchmark
+    public String renderBeforeRenderer() {
+        StringBuilder builder = new StringBuilder();
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+        builder.append("----------------------- BEGINNING OF RECEIPT -----------------------\n");
+        builder.append("Time of sale: ").append(saleState.getTimeOfSale().format(dateFormatter)).append(" ")
+               .append(saleState.getTimeOfSale().format(timeFormatter)).append("\n");
+        for (ItemAndRunningTotalDTO item : saleState.getItemList()) {
+            builder.append(item.getItem().getItemDescription()).append(" ")
+                   .append(item.getQuantity()).append(" x ")
+                   .append(item.getItem().getPrice().getAmount()).append(" ")
+                   .append(item.getRunningTotal().getAmount()).append(" SEK\n");
+        }
+        long totalVAT = 0;
+        for (ItemAndRunningTotalDTO item : saleState.getItemList()) {
+            totalVAT += item.getTotalIncludingVAT().getMinorUnits() - item.getRunningTotal().getMinorUnits();
+        }
+        builder.append("\nTotal: ").append(saleState.getTotalPriceIncludingVAT().getAmount()).append(" SEK\n");
+        builder.append("VAT: ").append(Amount.ofMinorUnits(totalVAT)).append(" SEK\n");
+        builder.append("\nCash: ").append(saleState.getPaidAmount().getAmount()).append(" SEK\n");
+        builder.append("Change: ").append(saleState.getChange().getAmount()).append(" SEK\n");
+        builder.append("----------------------- END OF RECEIPT -----------------------");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package palew.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.model.Amount;
+import palew.model.RevenueLedger;
+
+/**
+ * Measures recording payments under contention. Run with <code>-t 1</code>, <code>-t 4</code>,
+ * <code>-t 16</code> and so on to see how each approach scales with the number of paying lanes.
+ * The synchronized baseline does the read-modify-write on a shared Amount that the static
+ * revenue field in Sale used to do, but without losing updates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RevenueLedgerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedState {
+        final RevenueLedger ledger = new RevenueLedger();
+        final AtomicInteger nextLane = new AtomicInteger();
+        Amount lockedRevenue = Amount.ofMinorUnits(0);
+    }
+
+    @State(Scope.Thread)
+    public static class LaneState {
+        int lane;
+        final Amount payment = new Amount(123.45);
+
+        @Setup
+        public void setUp(SharedState shared) {
+            lane = shared.nextLane.getAndIncrement();
+        }
+    }
+
+    /**
+     * Every thread records payments on a lane of its own.
+     */
+    @Benchmark
+    public void ledgerOwnLane(SharedState shared, LaneState lane) {
+        shared.ledger.recordRevenue(lane.lane, lane.payment);
+    }
+
+    /**
+     * All threads record payments on the same lane.
+     */
+    @Benchmark
+    public void ledgerSharedLane(SharedState shared, LaneState lane) {
+        shared.ledger.recordRevenue(0, lane.payment);
+    }
+
+    /**
+     * All threads update one shared total under a lock.
+     */
+    @Benchmark
+    public void synchronizedTotal(SharedState shared, LaneState lane) {
+        synchronized (shared) {
+            shared.lockedRevenue = shared.lockedRevenue.plus(lane.payment);
+        }
+    }
+
+    /**
+     * Reads a snapshot while the other benchmark threads are not recording.
+     *
+     * @return the total revenue
+     */
+    @Benchmark
+    @Threads(1)
+    public Amount snapshotTotal(SharedState shared) {
+        return shared.ledger.snapshot().getTotalRevenue();
+    }
+}
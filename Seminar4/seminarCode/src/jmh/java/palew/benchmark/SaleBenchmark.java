@@ -0,0 +1,110 @@
+package palew.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemDTO;
+import palew.DTO.SaleStateDTO;
+import palew.DTO.SaleSummaryDTO;
+import palew.model.Amount;
+import palew.model.Sale;
+
+/**
+ * Measures the cost of building a basket in a Sale and of recording the payment.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleBenchmark {
+    @Param({"1", "50", "1000", "50000"})
+    private int basketSize;
+
+    @Param({"0.0", "0.5", "0.9"})
+    private double repeatScanRatio;
+
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    private ItemDTO[] scanSequence;
+    private Sale filledSale;
+    private Sale repeatSale;
+    private ItemDTO repeatedItem;
+    private Amount payment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ItemDTO> catalog = BenchmarkData.createCatalog(catalogSize);
+        scanSequence = BenchmarkData.createScanSequence(catalog, basketSize, repeatScanRatio);
+        filledSale = scanBasket();
+        repeatedItem = scanSequence[scanSequence.length - 1];
+        payment = new Amount(filledSale.getRunningTotalIncludingVAT().getAmount() + 100);
+    }
+
+    /**
+     * Fills a new sale for the repeated-item benchmarks, so the line they add to only grows
+     * during one iteration instead of during the whole trial.
+     */
+    @Setup(Level.Iteration)
+    public void setUpRepeatSale() {
+        repeatSale = scanBasket();
+    }
+
+    /**
+     * Registers the whole scan sequence in a new sale.
+     *
+     * @return the filled sale
+     */
+    @Benchmark
+    public Sale scanBasket() {
+        Sale sale = new Sale();
+        for (ItemDTO item : scanSequence) {
+            sale.registerItem(item, 1);
+        }
+        return sale;
+    }
+
+    /**
+     * Registers one more unit of an item that is already in a basket of <code>basketSize</code> scans.
+     *
+     * @return the summary of the registration
+     */
+    @Benchmark
+    public SaleSummaryDTO registerRepeatedItem() {
+        return repeatSale.registerItem(repeatedItem, 1);
+    }
+
+    /**
+     * Adds one more unit of an item that is already in a basket of <code>basketSize</code> scans,
+     * without reading the summary. This path is expected to allocate close to nothing.
+     */
+    @Benchmark
+    public void addRepeatedItem() {
+        repeatSale.addItem(repeatedItem, 1);
+    }
+
+    /**
+     * Records the payment of a basket of <code>basketSize</code> scans.
+     *
+     * @return the state of the paid sale
+     */
+    @Benchmark
+    public SaleStateDTO recordPayment() {
+        return filledSale.recordPayment(payment);
+    }
+}
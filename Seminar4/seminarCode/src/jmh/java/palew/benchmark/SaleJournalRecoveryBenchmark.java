@@ -0,0 +1,99 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemDTO;
+import palew.controller.Controller;
+import palew.integration.DurabilityPolicy;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.SaleJournal;
+import palew.model.RegisterPool;
+
+/**
+ * Measures how long a restart takes to read a sale journal and open the unpaid sales again.
+ * The journal is spread over eight lanes, every sale has 48 scanned items, and one sale in a
+ * hundred was not paid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleJournalRecoveryBenchmark {
+    private static final int LANES = 8;
+    private static final int ITEMS_PER_SALE = 48;
+    private static final int RECORDS_PER_SALE = ITEMS_PER_SALE + 2;
+
+    @Param({"1000000"})
+    private int recordCount;
+
+    private Path directory;
+    private ExternalInventorySystem invSystem;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("sale-journal-benchmark");
+        invSystem = ExternalInventorySystem.getInstance();
+        List<ItemDTO> catalog = BenchmarkData.createCatalog(1_000);
+        ItemDTO[] scans = BenchmarkData.createScanSequence(catalog, ITEMS_PER_SALE * 64, 0.2);
+        try (SaleJournal journal = SaleJournal.open(directory, DurabilityPolicy.everyRecords(10_000))) {
+            int saleCount = recordCount / RECORDS_PER_SALE;
+            for (long saleID = 1; saleID <= saleCount; saleID++) {
+                int lane = (int) (saleID % LANES);
+                journal.recordOpen(saleID, lane);
+                for (int i = 0; i < ITEMS_PER_SALE; i++) {
+                    journal.recordItem(saleID, lane, scans[(int) ((saleID * 7 + i) % scans.length)], 1 + i % 3);
+                }
+                if (saleID % 100 != 1) {
+                    journal.recordPayment(saleID, lane);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Opens the journal and replays the unpaid sales into a new controller.
+     *
+     * @return the IDs of the recovered sales
+     * @throws IOException if the journal can not be read
+     */
+    @Benchmark
+    public List<Long> recover() throws IOException {
+        try (SaleJournal journal = SaleJournal.open(directory, DurabilityPolicy.never());
+                Controller controller = new Controller(BenchmarkData.silentPrinter(), new ExternalAccountingSystem(),
+                        invSystem, new RegisterPool())) {
+            return controller.attachJournal(journal);
+        }
+    }
+}
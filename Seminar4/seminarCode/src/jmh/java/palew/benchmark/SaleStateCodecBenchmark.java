@@ -0,0 +1,154 @@
+package palew.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.SaleStateDTO;
+import palew.integration.SaleStateCodec;
+import palew.model.Amount;
+import palew.model.Receipt;
+
+/**
+ * Compares the binary sale state format with Java serialization and with the text of the
+ * receipt, for a sale with the given number of lines. The DTOs are not serializable, so Java
+ * serialization is measured on a serializable copy of the sale with the same fields. The encoded
+ * sizes are printed when the benchmark starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleStateCodecBenchmark {
+    @Param({"5", "50"})
+    private int lineCount;
+
+    private SaleStateCodec codec;
+    private SaleStateDTO sale;
+    private SerializableSale serializableSale;
+    private ByteBuffer buffer;
+    private ByteBuffer encodedSale;
+    private byte[] serializedSale;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        codec = new SaleStateCodec();
+        List<ItemAndRunningTotalDTO> itemList = new ArrayList<>();
+        Amount total = new Amount(0);
+        for (ItemDTO item : BenchmarkData.createCatalog(lineCount)) {
+            ItemAndRunningTotalDTO line = new ItemAndRunningTotalDTO(item, 2);
+            itemList.add(line);
+            total = total.plus(line.getTotalIncludingVAT());
+        }
+        sale = new SaleStateDTO(LocalDateTime.now(), itemList, total, total, new Amount(0));
+        serializableSale = new SerializableSale(sale);
+        buffer = ByteBuffer.allocate(codec.encodedSize(sale));
+        encodedSale = ByteBuffer.wrap(codec.encode(sale));
+        serializedSale = encodeJava();
+        System.out.println("Binary: " + encodedSale.capacity() + " bytes, Java serialization: "
+                + serializedSale.length + " bytes, receipt text: "
+                + receiptText().getBytes(StandardCharsets.UTF_8).length + " bytes");
+    }
+
+    /**
+     * Encodes the sale into a reused buffer.
+     *
+     * @return the number of bytes written
+     */
+    @Benchmark
+    public int encodeBinary() {
+        buffer.clear();
+        return codec.encode(sale, buffer);
+    }
+
+    /**
+     * Decodes the sale from its binary form.
+     *
+     * @return the decoded sale
+     */
+    @Benchmark
+    public SaleStateDTO decodeBinary() {
+        encodedSale.rewind();
+        return codec.decode(encodedSale);
+    }
+
+    /**
+     * Encodes the serializable copy of the sale with Java serialization.
+     *
+     * @return the serialized sale
+     * @throws IOException if the sale can not be serialized
+     */
+    @Benchmark
+    public byte[] encodeJava() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(serializableSale);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the serializable copy of the sale with Java serialization.
+     *
+     * @return the deserialized sale
+     * @throws IOException if the sale can not be deserialized
+     * @throws ClassNotFoundException if the class of the sale can not be found
+     */
+    @Benchmark
+    public Object decodeJava() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedSale))) {
+            return in.readObject();
+        }
+    }
+
+    /**
+     * Prints the receipt of the sale to a string.
+     *
+     * @return the receipt text
+     */
+    @Benchmark
+    public String receiptText() {
+        return new Receipt(sale).toString();
+    }
+
+    private record SerializableLine(String itemID, long price, double vatRate, String description, int quantity)
+            implements Serializable {
+    }
+
+    private record SerializableSale(LocalDateTime timeOfSale, long total, long paid, long change,
+            List<SerializableLine> lines) implements Serializable {
+        SerializableSale(SaleStateDTO sale) {
+            this(sale.getTimeOfSale(), sale.getTotalPriceIncludingVAT().getMinorUnits(),
+                 sale.getPaidAmount().getMinorUnits(), sale.getChange().getMinorUnits(),
+                 sale.getItemList().stream().map(line -> new SerializableLine(line.getItem().getItemID(),
+                         line.getItem().getPrice().getMinorUnits(), line.getItem().getVatRate(),
+                         line.getItem().getItemDescription(), line.getQuantity())).toList());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package palew.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.integration.StockLedger;
+
+/**
+ * Measures how many sales per second the stock ledger can subtract as more lanes sell at the
+ * same time. Every sale has five lines from a catalog of 1000 stocked items, and the lanes
+ * share one ledger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockLedgerBenchmark {
+    private static final int CATALOG_SIZE = 1_000;
+    private static final int LINES_PER_SALE = 5;
+    private static final int SALES_PER_LANE = 256;
+
+    private StockLedger ledger;
+    private List<ItemDTO> catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ledger = new StockLedger();
+        catalog = BenchmarkData.createCatalog(CATALOG_SIZE);
+        for (ItemDTO item : catalog) {
+            ledger.setStock(item.getItemID(), Long.MAX_VALUE / 2, 10);
+        }
+    }
+
+    /**
+     * The sales made on one lane.
+     */
+    @State(Scope.Thread)
+    public static class Lane {
+        private List<List<ItemAndRunningTotalDTO>> sales;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(StockLedgerBenchmark benchmark) {
+            sales = new ArrayList<>(SALES_PER_LANE);
+            int first = (int) (Thread.currentThread().getId() * 31);
+            for (int i = 0; i < SALES_PER_LANE; i++) {
+                List<ItemAndRunningTotalDTO> sale = new ArrayList<>(LINES_PER_SALE);
+                for (int j = 0; j < LINES_PER_SALE; j++) {
+                    ItemDTO item = benchmark.catalog.get(Math.floorMod(first + i * 7 + j * 13, CATALOG_SIZE));
+                    sale.add(new ItemAndRunningTotalDTO(item, 1 + j % 2));
+                }
+                sales.add(sale);
+            }
+        }
+
+        private List<ItemAndRunningTotalDTO> nextSale() {
+            List<ItemAndRunningTotalDTO> sale = sales.get(next);
+            next = (next + 1) % SALES_PER_LANE;
+            return sale;
+        }
+    }
+
+    /**
+     * Subtracts one sale with one lane selling.
+     *
+     * @param lane the lane making the sale
+     */
+    @Benchmark
+    @Threads(1)
+    public void recordSale1Lane(Lane lane) {
+        ledger.recordSale(lane.nextSale());
+    }
+
+    /**
+     * Subtracts one sale with four lanes selling at once.
+     *
+     * @param lane the lane making the sale
+     */
+    @Benchmark
+    @Threads(4)
+    public void recordSale4Lanes(Lane lane) {
+        ledger.recordSale(lane.nextSale());
+    }
+
+    /**
+     * Subtracts one sale with sixteen lanes selling at once.
+     *
+     * @param lane the lane making the sale
+     */
+    @Benchmark
+    @Threads(16)
+    public void recordSale16Lanes(Lane lane) {
+        ledger.recordSale(lane.nextSale());
+    }
+}
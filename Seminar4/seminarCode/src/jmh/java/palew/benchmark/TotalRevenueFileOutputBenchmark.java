@@ -0,0 +1,113 @@
+package palew.benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemDTO;
+import palew.DTO.SaleStateDTO;
+import palew.integration.DurabilityPolicy;
+import palew.integration.TotalRevenueFileOutput;
+import palew.model.Amount;
+import palew.model.RevenueLedger;
+import palew.model.Sale;
+import palew.model.SaleObserver;
+
+/**
+ * Measures payments per second with a total revenue file observer attached, for each
+ * durability policy. The <code>openAppendClose</code> configuration opens, appends and
+ * closes the file for every payment, as the observer used to do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotalRevenueFileOutputBenchmark {
+    @Param({"openAppendClose", "appendNever", "appendEvery100", "appendEvery10ms", "checkpointEvery100"})
+    private String configuration;
+
+    private Path directory;
+    private SaleObserver observer;
+    private Sale sale;
+    private Amount payment;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("revenue-benchmark");
+        Path file = directory.resolve("totalRevenue.txt");
+        switch (configuration) {
+            case "openAppendClose":
+                observer = totalRevenue -> {
+                    try (PrintWriter writer = new PrintWriter(new FileWriter(file.toFile(), true))) {
+                        writer.println("Total Revenue: " + totalRevenue.getAmount());
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                };
+                break;
+            case "appendNever":
+                observer = TotalRevenueFileOutput.open(file, TotalRevenueFileOutput.Mode.APPEND, DurabilityPolicy.never());
+                break;
+            case "appendEvery100":
+                observer = TotalRevenueFileOutput.open(file, TotalRevenueFileOutput.Mode.APPEND,
+                        DurabilityPolicy.everyRecords(100));
+                break;
+            case "appendEvery10ms":
+                observer = TotalRevenueFileOutput.open(file, TotalRevenueFileOutput.Mode.APPEND,
+                        DurabilityPolicy.everyMillis(10));
+                break;
+            case "checkpointEvery100":
+                observer = TotalRevenueFileOutput.open(file, TotalRevenueFileOutput.Mode.CHECKPOINT,
+                        DurabilityPolicy.everyRecords(100));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown configuration " + configuration);
+        }
+        sale = new Sale(new RevenueLedger(), 0);
+        sale.addItem(new ItemDTO("abc123", 30.0, 0.25, "A chair"), 1);
+        sale.addSaleObserver(observer);
+        payment = new Amount(100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (observer instanceof AutoCloseable) {
+            ((AutoCloseable) observer).close();
+        }
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Records one payment, which notifies the file observer.
+     *
+     * @return the state of the paid sale
+     */
+    @Benchmark
+    public SaleStateDTO recordPayment() {
+        return sale.recordPayment(payment);
+    }
+}
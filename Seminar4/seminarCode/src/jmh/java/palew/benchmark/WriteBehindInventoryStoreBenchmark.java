@@ -0,0 +1,93 @@
+package palew.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.integration.WriteBehindInventoryStore;
+
+/**
+ * Measures the time a paid sale with ten lines spends persisting its stock changes. The
+ * <code>writeThrough</code> configuration flushes the store after every sale, the other
+ * configurations leave the writes to the background flushes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteBehindInventoryStoreBenchmark {
+    private static final int LINES_PER_SALE = 10;
+    private static final int SALES = 256;
+
+    @Param({"writeThrough", "every10ms", "every100ms"})
+    private String configuration;
+
+    private Path directory;
+    private WriteBehindInventoryStore store;
+    private List<List<ItemAndRunningTotalDTO>> sales;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("inventory-store-benchmark");
+        Duration interval = configuration.equals("every10ms") ? Duration.ofMillis(10) : Duration.ofMillis(100);
+        store = WriteBehindInventoryStore.open(directory.resolve("inventory.log"), interval, 10_000);
+        List<ItemDTO> catalog = BenchmarkData.createCatalog(1_000);
+        sales = new ArrayList<>(SALES);
+        for (int i = 0; i < SALES; i++) {
+            List<ItemAndRunningTotalDTO> sale = new ArrayList<>(LINES_PER_SALE);
+            for (int j = 0; j < LINES_PER_SALE; j++) {
+                sale.add(new ItemAndRunningTotalDTO(catalog.get((i * 7 + j * 31) % catalog.size()), 1));
+            }
+            sales.add(sale);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Records the stock changes of one sale, and writes them directly in the
+     * <code>writeThrough</code> configuration.
+     *
+     * @throws IOException if the changes can not be written
+     */
+    @Benchmark
+    public void recordSale() throws IOException {
+        store.recordSale(sales.get(next));
+        next = (next + 1) % SALES;
+        if (configuration.equals("writeThrough")) {
+            store.flush();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package palew.DTO;
+
+/**
+ * Represents the counters of an accounting pipeline at one point in time.
+ */
+public class AccountingStatisticsDTO {
+    private final long enqueuedSaleCount;
+    private final long sentSaleCount;
+    private final long sentBatchCount;
+    private final long retryCount;
+    private final long parkedSaleCount;
+    private final int queueDepth;
+    private final int inFlightBatchCount;
+    private final long lastLagMillis;
+    private final long maxLagMillis;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs an AccountingStatisticsDTO with the specified counters.
+     *
+     * @param enqueuedSaleCount the number of sales handed to the pipeline
+     * @param sentSaleCount the number of sales accepted by the sink
+     * @param sentBatchCount the number of batches accepted by the sink
+     * @param retryCount the number of times a batch was sent again after a failure
+     * @param parkedSaleCount the number of sales in parked batches that are waiting to be sent again
+     * @param queueDepth the number of sales waiting to be batched
+     * @param inFlightBatchCount the number of batches being sent
+     * @param lastLagMillis the time from payment to delivery of the latest delivered batch
+     * @param maxLagMillis the longest time from payment to delivery of a batch
+     * @param elapsedMillis the time since the pipeline was started
+     * @throws IllegalArgumentException if a counter is negative
+     */
+    public AccountingStatisticsDTO(long enqueuedSaleCount, long sentSaleCount, long sentBatchCount, long retryCount,
+            long parkedSaleCount, int queueDepth, int inFlightBatchCount, long lastLagMillis, long maxLagMillis,
+            long elapsedMillis) throws IllegalArgumentException {
+        if (enqueuedSaleCount < 0 || sentSaleCount < 0 || sentBatchCount < 0 || retryCount < 0 || parkedSaleCount < 0
+                || queueDepth < 0 || inFlightBatchCount < 0 || lastLagMillis < 0 || maxLagMillis < 0 || elapsedMillis < 0) {
+            throw new IllegalArgumentException("Counters cannot be negative.");
+        }
+        this.enqueuedSaleCount = enqueuedSaleCount;
+        this.sentSaleCount = sentSaleCount;
+        this.sentBatchCount = sentBatchCount;
+        this.retryCount = retryCount;
+        this.parkedSaleCount = parkedSaleCount;
+        this.queueDepth = queueDepth;
+        this.inFlightBatchCount = inFlightBatchCount;
+        this.lastLagMillis = lastLagMillis;
+        this.maxLagMillis = maxLagMillis;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Gets the number of sales handed to the pipeline, including sales recovered from the journal.
+     *
+     * @return the number of enqueued sales
+     */
+    public long getEnqueuedSaleCount() {
+        return enqueuedSaleCount;
+    }
+
+    /**
+     * Gets the number of sales accepted by the sink.
+     *
+     * @return the number of sent sales
+     */
+    public long getSentSaleCount() {
+        return sentSaleCount;
+    }
+
+    /**
+     * Gets the number of batches accepted by the sink.
+     *
+     * @return the number of sent batches
+     */
+    public long getSentBatchCount() {
+        return sentBatchCount;
+    }
+
+    /**
+     * Gets the number of times a batch was sent again after the sink failed.
+     *
+     * @return the number of retries
+     */
+    public long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * Gets the number of sales in parked batches, that were not delivered after all retries and
+     * are waiting to be sent again. They are kept in the journal until they are delivered.
+     *
+     * @return the number of parked sales
+     */
+    public long getParkedSaleCount() {
+        return parkedSaleCount;
+    }
+
+    /**
+     * Gets the number of sales waiting to be batched.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Gets the number of batches being sent or waiting to be retried.
+     *
+     * @return the number of batches in flight
+     */
+    public int getInFlightBatchCount() {
+        return inFlightBatchCount;
+    }
+
+    /**
+     * Gets the time from the oldest payment in the latest delivered batch until the batch was accepted.
+     *
+     * @return the latest lag in milliseconds
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    /**
+     * Gets the longest time from a payment until the batch it was in was accepted.
+     *
+     * @return the maximum lag in milliseconds
+     */
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    /**
+     * Gets the time since the pipeline was started.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets the average number of sales delivered per second since the pipeline was started.
+     *
+     * @return the throughput in sales per second
+     */
+    public double getSalesPerSecond() {
+        return elapsedMillis == 0 ? 0 : sentSaleCount * 1000.0 / elapsedMillis;
+    }
+}
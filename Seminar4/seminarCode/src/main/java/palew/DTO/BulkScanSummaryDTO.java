@@ -0,0 +1,88 @@
+package palew.DTO;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import palew.model.Amount;
+
+/**
+ * Represents the outcome of registering a whole order in one call: how many lines were
+ * registered, the running totals of the sale afterwards, and why lines were rejected.
+ */
+public class BulkScanSummaryDTO {
+    private final int registeredLineCount;
+    private final int distinctItemCount;
+    private final Amount totalPrice;
+    private final Amount totalPriceIncludingVAT;
+    private final Map<Integer, String> lineErrors;
+
+    /**
+     * Constructs a BulkScanSummaryDTO with the specified details.
+     *
+     * @param registeredLineCount the number of order lines that were registered
+     * @param distinctItemCount the number of distinct items among the registered lines
+     * @param totalPrice the total price of the sale after the order was registered
+     * @param totalPriceIncludingVAT the total price of the sale including VAT after the order was registered
+     * @param lineErrors the reason each rejected line was rejected, with the index of the line in the order as key
+     * @throws IllegalArgumentException if any of the parameters are null, or if a count is negative
+     */
+    public BulkScanSummaryDTO(int registeredLineCount, int distinctItemCount, Amount totalPrice,
+            Amount totalPriceIncludingVAT, Map<Integer, String> lineErrors) throws IllegalArgumentException {
+        if (totalPrice == null || totalPriceIncludingVAT == null || lineErrors == null) {
+            throw new IllegalArgumentException("None of the parameters can be null");
+        }
+        if (registeredLineCount < 0 || distinctItemCount < 0) throw new IllegalArgumentException("Counts cannot be negative.");
+
+        this.registeredLineCount = registeredLineCount;
+        this.distinctItemCount = distinctItemCount;
+        this.totalPrice = totalPrice;
+        this.totalPriceIncludingVAT = totalPriceIncludingVAT;
+        this.lineErrors = Collections.unmodifiableMap(new TreeMap<>(lineErrors));
+    }
+
+    /**
+     * Gets the number of order lines that were registered.
+     *
+     * @return the number of registered lines
+     */
+    public int getRegisteredLineCount() {
+        return registeredLineCount;
+    }
+
+    /**
+     * Gets the number of distinct items among the registered lines.
+     *
+     * @return the number of distinct items
+     */
+    public int getDistinctItemCount() {
+        return distinctItemCount;
+    }
+
+    /**
+     * Gets the total price of the sale after the order was registered.
+     *
+     * @return the total price
+     */
+    public Amount getTotalPrice() {
+        return totalPrice;
+    }
+
+    /**
+     * Gets the total price of the sale including VAT after the order was registered.
+     *
+     * @return the total price including VAT
+     */
+    public Amount getTotalPriceIncludingVAT() {
+        return totalPriceIncludingVAT;
+    }
+
+    /**
+     * Gets the reason each rejected line was rejected, ordered by the index of the line.
+     *
+     * @return an unmodifiable map with line indexes as keys and reasons as values
+     */
+    public Map<Integer, String> getLineErrors() {
+        return lineErrors;
+    }
+}
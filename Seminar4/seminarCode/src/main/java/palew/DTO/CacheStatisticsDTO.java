@@ -0,0 +1,101 @@
+package palew.DTO;
+
+/**
+ * Represents the counters of an item cache at one point in time.
+ */
+public class CacheStatisticsDTO {
+    private final long hitCount;
+    private final long negativeHitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long expirationCount;
+    private final int size;
+
+    /**
+     * Constructs a CacheStatisticsDTO with the specified counters.
+     *
+     * @param hitCount the number of searches answered with a cached item
+     * @param negativeHitCount the number of searches answered with a cached "not found"
+     * @param missCount the number of searches that had to ask the backend
+     * @param evictionCount the number of entries removed to make room for new ones
+     * @param expirationCount the number of entries removed because they were too old
+     * @param size the number of entries in the cache
+     * @throws IllegalArgumentException if a counter is negative
+     */
+    public CacheStatisticsDTO(long hitCount, long negativeHitCount, long missCount, long evictionCount,
+            long expirationCount, int size) throws IllegalArgumentException {
+        if (hitCount < 0 || negativeHitCount < 0 || missCount < 0 || evictionCount < 0 || expirationCount < 0 || size < 0) {
+            throw new IllegalArgumentException("Counters cannot be negative.");
+        }
+        this.hitCount = hitCount;
+        this.negativeHitCount = negativeHitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of searches answered with a cached item.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of searches answered with a cached "not found".
+     *
+     * @return the number of negative hits
+     */
+    public long getNegativeHitCount() {
+        return negativeHitCount;
+    }
+
+    /**
+     * Gets the number of searches that had to ask the backend.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of entries removed to make room for new ones.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of entries removed because they were older than their time to live.
+     *
+     * @return the number of expirations
+     */
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     *
+     * @return the cache size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the share of searches that were answered by the cache, positive or negative.
+     *
+     * @return the hit ratio, between 0 and 1
+     */
+    public double getHitRatio() {
+        long total = hitCount + negativeHitCount + missCount;
+        return total == 0 ? 0 : (double) (hitCount + negativeHitCount) / total;
+    }
+}
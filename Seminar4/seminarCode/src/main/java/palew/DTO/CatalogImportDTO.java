@@ -0,0 +1,93 @@
+package palew.DTO;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Represents the outcome of importing a catalog file: how many rows were read, how many
+ * items were imported and why rows were rejected.
+ */
+public class CatalogImportDTO {
+    private final long rowCount;
+    private final int importedItemCount;
+    private final long rejectedRowCount;
+    private final Map<Long, String> rejectedRows;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs a CatalogImportDTO with the specified details.
+     *
+     * @param rowCount the number of item rows that were read
+     * @param importedItemCount the number of distinct items that were imported
+     * @param rejectedRowCount the number of rows that were rejected
+     * @param rejectedRows the reason each reported row was rejected, with line numbers as keys.
+     *                     May hold fewer rows than rejectedRowCount if the report was capped.
+     * @param elapsedMillis the time the import took, in milliseconds
+     * @throws IllegalArgumentException if rejectedRows is null
+     */
+    public CatalogImportDTO(long rowCount, int importedItemCount, long rejectedRowCount,
+            Map<Long, String> rejectedRows, long elapsedMillis) throws IllegalArgumentException {
+        if (rejectedRows == null) throw new IllegalArgumentException("Rejected rows must not be null.");
+
+        this.rowCount = rowCount;
+        this.importedItemCount = importedItemCount;
+        this.rejectedRowCount = rejectedRowCount;
+        this.rejectedRows = Collections.unmodifiableMap(new TreeMap<>(rejectedRows));
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Gets the number of item rows that were read, including rejected rows.
+     *
+     * @return the number of rows
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the number of distinct items that were imported.
+     *
+     * @return the number of imported items
+     */
+    public int getImportedItemCount() {
+        return importedItemCount;
+    }
+
+    /**
+     * Gets the number of rows that were rejected.
+     *
+     * @return the number of rejected rows
+     */
+    public long getRejectedRowCount() {
+        return rejectedRowCount;
+    }
+
+    /**
+     * Gets the reason each reported row was rejected, ordered by line number.
+     *
+     * @return an unmodifiable map with line numbers as keys and reasons as values
+     */
+    public Map<Long, String> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    /**
+     * Gets the time the import took.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets the number of rows read per second.
+     *
+     * @return the import rate in rows per second
+     */
+    public double getRowsPerSecond() {
+        return rowCount * 1000.0 / Math.max(1, elapsedMillis);
+    }
+}
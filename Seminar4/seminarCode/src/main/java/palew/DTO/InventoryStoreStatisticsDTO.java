@@ -0,0 +1,126 @@
+package palew.DTO;
+
+/**
+ * Represents the counters of a write-behind inventory store at one point in time.
+ */
+public class InventoryStoreStatisticsDTO {
+    private final long recordedDeltaCount;
+    private final long flushedDeltaCount;
+    private final long flushCount;
+    private final long failedFlushCount;
+    private final long bytesWritten;
+    private final int pendingItemCount;
+    private final long lastFlushMicros;
+    private final long maxFlushMicros;
+
+    /**
+     * Constructs an InventoryStoreStatisticsDTO with the specified counters.
+     *
+     * @param recordedDeltaCount the number of sale lines recorded in the store
+     * @param flushedDeltaCount the number of coalesced per-item changes written to the file
+     * @param flushCount the number of batches written to the file
+     * @param failedFlushCount the number of batches that could not be written
+     * @param bytesWritten the number of bytes appended to the file
+     * @param pendingItemCount the number of items with changes that are not written yet
+     * @param lastFlushMicros the time the latest batch took to write, in microseconds
+     * @param maxFlushMicros the longest time a batch took to write, in microseconds
+     * @throws IllegalArgumentException if a counter is negative
+     */
+    public InventoryStoreStatisticsDTO(long recordedDeltaCount, long flushedDeltaCount, long flushCount,
+            long failedFlushCount, long bytesWritten, int pendingItemCount, long lastFlushMicros,
+            long maxFlushMicros) throws IllegalArgumentException {
+        if (recordedDeltaCount < 0 || flushedDeltaCount < 0 || flushCount < 0 || failedFlushCount < 0
+                || bytesWritten < 0 || pendingItemCount < 0 || lastFlushMicros < 0 || maxFlushMicros < 0) {
+            throw new IllegalArgumentException("Counters cannot be negative.");
+        }
+        this.recordedDeltaCount = recordedDeltaCount;
+        this.flushedDeltaCount = flushedDeltaCount;
+        this.flushCount = flushCount;
+        this.failedFlushCount = failedFlushCount;
+        this.bytesWritten = bytesWritten;
+        this.pendingItemCount = pendingItemCount;
+        this.lastFlushMicros = lastFlushMicros;
+        this.maxFlushMicros = maxFlushMicros;
+    }
+
+    /**
+     * Gets the number of sale lines recorded in the store.
+     *
+     * @return the number of recorded changes
+     */
+    public long getRecordedDeltaCount() {
+        return recordedDeltaCount;
+    }
+
+    /**
+     * Gets the number of coalesced per-item changes written to the file.
+     *
+     * @return the number of written changes
+     */
+    public long getFlushedDeltaCount() {
+        return flushedDeltaCount;
+    }
+
+    /**
+     * Gets the number of batches written to the file.
+     *
+     * @return the number of flushes
+     */
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Gets the number of batches that could not be written and were kept for the next flush.
+     *
+     * @return the number of failed flushes
+     */
+    public long getFailedFlushCount() {
+        return failedFlushCount;
+    }
+
+    /**
+     * Gets the number of bytes appended to the file.
+     *
+     * @return the number of written bytes
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Gets the number of items with changes that are not written to the file yet.
+     *
+     * @return the number of pending items
+     */
+    public int getPendingItemCount() {
+        return pendingItemCount;
+    }
+
+    /**
+     * Gets the time the latest batch took to write and force to the storage device.
+     *
+     * @return the latest flush time in microseconds
+     */
+    public long getLastFlushMicros() {
+        return lastFlushMicros;
+    }
+
+    /**
+     * Gets the longest time a batch took to write and force to the storage device.
+     *
+     * @return the maximum flush time in microseconds
+     */
+    public long getMaxFlushMicros() {
+        return maxFlushMicros;
+    }
+
+    /**
+     * Gets the average number of recorded sale lines that were coalesced into each written change.
+     *
+     * @return the coalescing ratio, or 0 if nothing has been written
+     */
+    public double getCoalescingRatio() {
+        return flushedDeltaCount == 0 ? 0 : (double) recordedDeltaCount / flushedDeltaCount;
+    }
+}
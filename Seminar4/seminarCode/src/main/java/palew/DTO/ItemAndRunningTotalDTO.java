@@ -25,8 +25,10 @@ public class ItemAndRunningTotalDTO {
         }
         this.item = item;
         this.quantity = quantity;
-        this.runningTotal = new Amount(item.getPrice().getAmount() * quantity);
-        this.totalIncludingVAT = new Amount(runningTotal.getAmount() * (1 + item.getVatRate()));
+        this.runningTotal = item.getPrice().times(quantity);
+        long vat = Amount.applyRate(runningTotal.getMinorUnits(), Amount.toBasisPoints(item.getVatRate()),
+                Amount.DEFAULT_ROUNDING);
+        this.totalIncludingVAT = Amount.ofMinorUnits(runningTotal.getMinorUnits() + vat);
     }
 
     /**
@@ -35,6 +35,29 @@ public class ItemDTO {
         this.itemDescription = itemDescription;
     }
 
+    /**
+     * Constructs an ItemDTO with a price that is already an Amount, for example when an item is
+     * read back from a binary record.
+     *
+     * @param itemID the identifier for the item
+     * @param price the price of the item
+     * @param vatRate the VAT rate applicable to the item (should be between 0 and 1)
+     * @param itemDescription a brief description of the item
+     * @throws IllegalArgumentException if itemID is null or empty, or if price is null or negative,
+     *                                  or if vatRate is not between 0 and 1, or if itemDescription is null or empty
+     */
+    public ItemDTO(String itemID, Amount price, double vatRate, String itemDescription) {
+        if (itemID == null || itemID.trim().isEmpty()) throw new IllegalArgumentException("Item ID must be a valid non-empty string.");
+        if (price == null || price.getMinorUnits() < 0) throw new IllegalArgumentException("Price cannot be negative.");
+        if (vatRate < 0 || vatRate > 1) throw new IllegalArgumentException("VAT rate must be between 0 and 1.");
+        if (itemDescription == null || itemDescription.isEmpty()) throw new IllegalArgumentException("Please include an item description.");
+
+        this.itemID = itemID;
+        this.price = price;
+        this.vatRate = vatRate;
+        this.itemDescription = itemDescription;
+    }
+
     /**
      * Gets the ID for the item.
      * 
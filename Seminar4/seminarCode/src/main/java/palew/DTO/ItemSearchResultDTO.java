@@ -0,0 +1,68 @@
+package palew.DTO;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents the result of searching for many items at once: the items that were found and
+ * the identifiers of the items that were not found, both in the order they were searched for.
+ */
+public class ItemSearchResultDTO {
+    private final Map<String, ItemDTO> foundItems;
+    private final Set<String> missingItemIDs;
+
+    /**
+     * Constructs an ItemSearchResultDTO with the specified found and missing items.
+     *
+     * @param foundItems the found items, with item identifiers as keys
+     * @param missingItemIDs the identifiers of the items that were not found
+     * @throws IllegalArgumentException if any of the parameters are null
+     */
+    public ItemSearchResultDTO(Map<String, ItemDTO> foundItems, Set<String> missingItemIDs)
+            throws IllegalArgumentException {
+        if (foundItems == null || missingItemIDs == null) throw new IllegalArgumentException("None of the parameters can be null");
+
+        this.foundItems = Collections.unmodifiableMap(new LinkedHashMap<>(foundItems));
+        this.missingItemIDs = Collections.unmodifiableSet(new LinkedHashSet<>(missingItemIDs));
+    }
+
+    /**
+     * Gets the found items.
+     *
+     * @return an unmodifiable map with item identifiers as keys and the found items as values
+     */
+    public Map<String, ItemDTO> getFoundItems() {
+        return foundItems;
+    }
+
+    /**
+     * Gets the identifiers of the items that were not found.
+     *
+     * @return an unmodifiable set of item identifiers
+     */
+    public Set<String> getMissingItemIDs() {
+        return missingItemIDs;
+    }
+
+    /**
+     * Gets the found item with the specified identifier.
+     *
+     * @param itemID the item identifier
+     * @return the found item, or null if the item was not found or not searched for
+     */
+    public ItemDTO getItem(String itemID) {
+        return foundItems.get(itemID);
+    }
+
+    /**
+     * Checks if all searched items were found.
+     *
+     * @return true if no item was missing
+     */
+    public boolean isComplete() {
+        return missingItemIDs.isEmpty();
+    }
+}
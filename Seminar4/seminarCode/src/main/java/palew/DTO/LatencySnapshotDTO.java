@@ -0,0 +1,106 @@
+package palew.DTO;
+
+/**
+ * Represents the recorded latencies of one operation at one point in time. Percentiles and the
+ * maximum are the highest value of the histogram bucket they fall in, so they are at most about
+ * three percent too high.
+ */
+public class LatencySnapshotDTO {
+    private final long count;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    /**
+     * Constructs a LatencySnapshotDTO with the specified values.
+     *
+     * @param count the number of recorded latencies
+     * @param meanNanos the mean latency in nanoseconds
+     * @param p50Nanos the median latency in nanoseconds
+     * @param p90Nanos the 90th percentile latency in nanoseconds
+     * @param p99Nanos the 99th percentile latency in nanoseconds
+     * @param p999Nanos the 99.9th percentile latency in nanoseconds
+     * @param maxNanos the highest latency in nanoseconds
+     * @throws IllegalArgumentException if a value is negative
+     */
+    public LatencySnapshotDTO(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos,
+            long p999Nanos, long maxNanos) throws IllegalArgumentException {
+        if (count < 0 || meanNanos < 0 || p50Nanos < 0 || p90Nanos < 0 || p99Nanos < 0 || p999Nanos < 0
+                || maxNanos < 0) {
+            throw new IllegalArgumentException("Counters cannot be negative.");
+        }
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mean latency.
+     *
+     * @return the mean in nanoseconds
+     */
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    /**
+     * Gets the median latency.
+     *
+     * @return the 50th percentile in nanoseconds
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * Gets the latency that 90 percent of the operations were faster than.
+     *
+     * @return the 90th percentile in nanoseconds
+     */
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    /**
+     * Gets the latency that 99 percent of the operations were faster than.
+     *
+     * @return the 99th percentile in nanoseconds
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * Gets the latency that 99.9 percent of the operations were faster than.
+     *
+     * @return the 99.9th percentile in nanoseconds
+     */
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    /**
+     * Gets the highest recorded latency.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
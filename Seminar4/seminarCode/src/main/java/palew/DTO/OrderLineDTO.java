@@ -0,0 +1,43 @@
+package palew.DTO;
+
+/**
+ * Represents one line of an imported order: the item to register and how many of it.
+ * The quantity is checked when the line is registered, so an invalid line can be reported
+ * together with the other lines of the order.
+ */
+public class OrderLineDTO {
+    private final String itemID;
+    private final int quantity;
+
+    /**
+     * Constructs an OrderLineDTO with the specified item and quantity.
+     *
+     * @param itemID the identifier of the ordered item
+     * @param quantity the ordered quantity
+     * @throws IllegalArgumentException if itemID is null
+     */
+    public OrderLineDTO(String itemID, int quantity) throws IllegalArgumentException {
+        if (itemID == null) throw new IllegalArgumentException("Item ID must not be null.");
+
+        this.itemID = itemID;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Gets the identifier of the ordered item.
+     *
+     * @return the item ID
+     */
+    public String getItemID() {
+        return itemID;
+    }
+
+    /**
+     * Gets the ordered quantity.
+     *
+     * @return the quantity
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,147 @@
+package palew.DTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import palew.model.Amount;
+
+/**
+ * Represents the result of a payment: the change to give back, and how each of the steps that
+ * update the external systems after the payment went and how long it took.
+ */
+public class PaymentResultDTO {
+
+    /**
+     * A step that is run after a payment has been accepted.
+     */
+    public enum Step {
+        /**
+         * Recording the sale in the external accounting system.
+         */
+        ACCOUNTING,
+        /**
+         * Subtracting the sold quantities in the external inventory system.
+         */
+        INVENTORY,
+        /**
+         * Printing the receipt.
+         */
+        RECEIPT
+    }
+
+    /**
+     * How a step ended.
+     */
+    public enum Outcome {
+        /**
+         * The step finished without an error.
+         */
+        COMPLETED,
+        /**
+         * The step threw an exception. The exception has been logged.
+         */
+        FAILED,
+        /**
+         * The step did not finish within its timeout. It goes on in the background.
+         */
+        TIMED_OUT
+    }
+
+    private final Amount change;
+    private final Map<Step, Outcome> outcomes;
+    private final Map<Step, Long> stepMicros;
+    private final long totalMicros;
+
+    /**
+     * Constructs a PaymentResultDTO with the specified change and step results.
+     *
+     * @param change the change to give back to the customer
+     * @param outcomes how each step ended
+     * @param stepMicros the time each step took, or the time that was waited for it if it timed out, in microseconds
+     * @param totalMicros the time all steps took together, in microseconds
+     * @throws IllegalArgumentException if change, outcomes or stepMicros is null, if a step is
+     *                                  missing, or if a time is negative
+     */
+    public PaymentResultDTO(Amount change, Map<Step, Outcome> outcomes, Map<Step, Long> stepMicros, long totalMicros)
+            throws IllegalArgumentException {
+        if (change == null) throw new IllegalArgumentException("Change must not be null.");
+        if (outcomes == null) throw new IllegalArgumentException("Outcomes must not be null.");
+        if (stepMicros == null) throw new IllegalArgumentException("Step times must not be null.");
+        for (Step step : Step.values()) {
+            if (outcomes.get(step) == null || stepMicros.get(step) == null) {
+                throw new IllegalArgumentException("Every step must have an outcome and a time.");
+            }
+            if (stepMicros.get(step) < 0) throw new IllegalArgumentException("Counters cannot be negative.");
+        }
+        if (totalMicros < 0) throw new IllegalArgumentException("Counters cannot be negative.");
+        this.change = change;
+        this.outcomes = Collections.unmodifiableMap(new EnumMap<>(outcomes));
+        this.stepMicros = Collections.unmodifiableMap(new EnumMap<>(stepMicros));
+        this.totalMicros = totalMicros;
+    }
+
+    /**
+     * Gets the change to give back to the customer.
+     *
+     * @return the change
+     */
+    public Amount getChange() {
+        return change;
+    }
+
+    /**
+     * Gets how a step ended.
+     *
+     * @param step the step
+     * @return the outcome of the step
+     */
+    public Outcome getOutcome(Step step) {
+        return outcomes.get(step);
+    }
+
+    /**
+     * Gets the time a step took. For a step that timed out, this is the time that was waited for it.
+     *
+     * @param step the step
+     * @return the time of the step in microseconds
+     */
+    public long getStepMicros(Step step) {
+        return stepMicros.get(step);
+    }
+
+    /**
+     * Gets the time from the start of the first step until every step had finished or timed out.
+     *
+     * @return the total time in microseconds
+     */
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    /**
+     * Gets the steps that failed or timed out.
+     *
+     * @return the incomplete steps, in the order of {@link Step}
+     */
+    public List<Step> getIncompleteSteps() {
+        List<Step> incomplete = new ArrayList<>();
+        for (Map.Entry<Step, Outcome> entry : outcomes.entrySet()) {
+            if (entry.getValue() != Outcome.COMPLETED) {
+                incomplete.add(entry.getKey());
+            }
+        }
+        return incomplete;
+    }
+
+    /**
+     * Checks if every step completed.
+     *
+     * @return true if no step failed or timed out
+     */
+    public boolean isComplete() {
+        return !outcomes.containsValue(Outcome.FAILED) && !outcomes.containsValue(Outcome.TIMED_OUT);
+    }
+}
@@ -0,0 +1,117 @@
+package palew.DTO;
+
+/**
+ * Represents the counters of a print spooler at one point in time.
+ */
+public class PrintStatisticsDTO {
+    private final long spooledReceiptCount;
+    private final long printedReceiptCount;
+    private final long failedReceiptCount;
+    private final long writeCount;
+    private final int spoolDepth;
+    private final int maxSpoolDepth;
+    private final long lastPrintLatencyMillis;
+    private final long maxPrintLatencyMillis;
+
+    /**
+     * Constructs a PrintStatisticsDTO with the specified counters.
+     *
+     * @param spooledReceiptCount the number of receipts handed to the spooler
+     * @param printedReceiptCount the number of receipts written to the sink
+     * @param failedReceiptCount the number of receipts the sink failed to write
+     * @param writeCount the number of batches written to the sink
+     * @param spoolDepth the number of receipts waiting to be printed
+     * @param maxSpoolDepth the highest number of receipts that have waited at the same time
+     * @param lastPrintLatencyMillis the time from submission to print of the latest printed receipt
+     * @param maxPrintLatencyMillis the longest time from submission to print of a receipt
+     * @throws IllegalArgumentException if a counter is negative
+     */
+    public PrintStatisticsDTO(long spooledReceiptCount, long printedReceiptCount, long failedReceiptCount,
+            long writeCount, int spoolDepth, int maxSpoolDepth, long lastPrintLatencyMillis,
+            long maxPrintLatencyMillis) throws IllegalArgumentException {
+        if (spooledReceiptCount < 0 || printedReceiptCount < 0 || failedReceiptCount < 0 || writeCount < 0
+                || spoolDepth < 0 || maxSpoolDepth < 0 || lastPrintLatencyMillis < 0 || maxPrintLatencyMillis < 0) {
+            throw new IllegalArgumentException("Counters cannot be negative.");
+        }
+        this.spooledReceiptCount = spooledReceiptCount;
+        this.printedReceiptCount = printedReceiptCount;
+        this.failedReceiptCount = failedReceiptCount;
+        this.writeCount = writeCount;
+        this.spoolDepth = spoolDepth;
+        this.maxSpoolDepth = maxSpoolDepth;
+        this.lastPrintLatencyMillis = lastPrintLatencyMillis;
+        this.maxPrintLatencyMillis = maxPrintLatencyMillis;
+    }
+
+    /**
+     * Gets the number of receipts handed to the spooler.
+     *
+     * @return the number of spooled receipts
+     */
+    public long getSpooledReceiptCount() {
+        return spooledReceiptCount;
+    }
+
+    /**
+     * Gets the number of receipts written to the sink.
+     *
+     * @return the number of printed receipts
+     */
+    public long getPrintedReceiptCount() {
+        return printedReceiptCount;
+    }
+
+    /**
+     * Gets the number of receipts in batches the sink failed to write. They are not printed again.
+     *
+     * @return the number of failed receipts
+     */
+    public long getFailedReceiptCount() {
+        return failedReceiptCount;
+    }
+
+    /**
+     * Gets the number of batches written to the sink, whether they succeeded or not.
+     *
+     * @return the number of writes
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * Gets the number of receipts waiting to be printed.
+     *
+     * @return the spool depth
+     */
+    public int getSpoolDepth() {
+        return spoolDepth;
+    }
+
+    /**
+     * Gets the highest number of receipts that have waited to be printed at the same time.
+     *
+     * @return the maximum spool depth
+     */
+    public int getMaxSpoolDepth() {
+        return maxSpoolDepth;
+    }
+
+    /**
+     * Gets the time from submission until the latest printed receipt was written.
+     *
+     * @return the latest print latency in milliseconds
+     */
+    public long getLastPrintLatencyMillis() {
+        return lastPrintLatencyMillis;
+    }
+
+    /**
+     * Gets the longest time from submission until a receipt was written.
+     *
+     * @return the maximum print latency in milliseconds
+     */
+    public long getMaxPrintLatencyMillis() {
+        return maxPrintLatencyMillis;
+    }
+}
@@ -0,0 +1,57 @@
+package palew.DTO;
+
+import java.util.List;
+
+/**
+ * Represents a sale that was open when the program stopped, as read back from a sale journal:
+ * its ID, its lane and every item that was scanned into it, in the order they were scanned.
+ */
+public class RecoveredSaleDTO {
+    private final long saleID;
+    private final int lane;
+    private final List<ItemAndRunningTotalDTO> scannedItems;
+
+    /**
+     * Constructs a RecoveredSaleDTO with the specified sale ID, lane and scanned items.
+     *
+     * @param saleID the ID of the sale
+     * @param lane the number of the lane the sale was opened on
+     * @param scannedItems the scanned items and their quantities, in the order they were scanned
+     * @throws IllegalArgumentException if scannedItems is null
+     */
+    public RecoveredSaleDTO(long saleID, int lane, List<ItemAndRunningTotalDTO> scannedItems)
+            throws IllegalArgumentException {
+        if (scannedItems == null) throw new IllegalArgumentException("Scanned items must not be null.");
+        this.saleID = saleID;
+        this.lane = lane;
+        this.scannedItems = List.copyOf(scannedItems);
+    }
+
+    /**
+     * Gets the ID of the sale.
+     *
+     * @return the sale ID
+     */
+    public long getSaleID() {
+        return saleID;
+    }
+
+    /**
+     * Gets the number of the lane the sale was opened on.
+     *
+     * @return the lane
+     */
+    public int getLane() {
+        return lane;
+    }
+
+    /**
+     * Gets the items that were scanned into the sale, in the order they were scanned. An item
+     * that was scanned several times appears several times.
+     *
+     * @return an unmodifiable list of the scanned items
+     */
+    public List<ItemAndRunningTotalDTO> getScannedItems() {
+        return scannedItems;
+    }
+}
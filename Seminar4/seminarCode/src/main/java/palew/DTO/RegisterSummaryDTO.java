@@ -0,0 +1,69 @@
+package palew.DTO;
+
+import palew.model.Amount;
+
+/**
+ * Represents the state of one cash register, used to reconcile the register at the end of a shift.
+ */
+public class RegisterSummaryDTO {
+    private final int registerNumber;
+    private final Amount balance;
+    private final long cashInCount;
+    private final long cashOutCount;
+
+    /**
+     * Constructs a RegisterSummaryDTO with the specified register state.
+     *
+     * @param registerNumber the number of the register
+     * @param balance the balance of the register
+     * @param cashInCount the number of times cash has been put into the register
+     * @param cashOutCount the number of times cash has been taken out of the register
+     * @throws IllegalArgumentException if balance is null, or if a count is negative
+     */
+    public RegisterSummaryDTO(int registerNumber, Amount balance, long cashInCount, long cashOutCount)
+            throws IllegalArgumentException {
+        if (balance == null) throw new IllegalArgumentException("Balance must not be null.");
+        if (cashInCount < 0 || cashOutCount < 0) throw new IllegalArgumentException("Counts cannot be negative.");
+
+        this.registerNumber = registerNumber;
+        this.balance = balance;
+        this.cashInCount = cashInCount;
+        this.cashOutCount = cashOutCount;
+    }
+
+    /**
+     * Gets the number of the register.
+     *
+     * @return the register number
+     */
+    public int getRegisterNumber() {
+        return registerNumber;
+    }
+
+    /**
+     * Gets the balance of the register.
+     *
+     * @return the balance
+     */
+    public Amount getBalance() {
+        return balance;
+    }
+
+    /**
+     * Gets the number of times cash has been put into the register.
+     *
+     * @return the number of cash-in events
+     */
+    public long getCashInCount() {
+        return cashInCount;
+    }
+
+    /**
+     * Gets the number of times cash has been taken out of the register.
+     *
+     * @return the number of cash-out events
+     */
+    public long getCashOutCount() {
+        return cashOutCount;
+    }
+}
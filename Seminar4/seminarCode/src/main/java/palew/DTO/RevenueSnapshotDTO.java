@@ -0,0 +1,61 @@
+package palew.DTO;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import palew.model.Amount;
+
+/**
+ * Represents the revenue of the store at one point in time, in total and per checkout lane.
+ * The total is always the sum of the revenue of the lanes in the same snapshot.
+ */
+public class RevenueSnapshotDTO {
+    private final Map<Integer, Amount> revenueByLane;
+    private final Amount totalRevenue;
+
+    /**
+     * Constructs a RevenueSnapshotDTO from the revenue of each lane.
+     *
+     * @param revenueByLane the revenue of each lane, with lane numbers as keys
+     * @throws IllegalArgumentException if revenueByLane is null
+     */
+    public RevenueSnapshotDTO(Map<Integer, Amount> revenueByLane) throws IllegalArgumentException {
+        if (revenueByLane == null) throw new IllegalArgumentException("Revenue by lane must not be null.");
+
+        long total = 0;
+        for (Amount laneRevenue : revenueByLane.values()) {
+            total += laneRevenue.getMinorUnits();
+        }
+        this.revenueByLane = Collections.unmodifiableMap(new TreeMap<>(revenueByLane));
+        this.totalRevenue = Amount.ofMinorUnits(total);
+    }
+
+    /**
+     * Gets the total revenue of all lanes.
+     *
+     * @return the total revenue
+     */
+    public Amount getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    /**
+     * Gets the revenue of each lane that has recorded a payment, ordered by lane number.
+     *
+     * @return an unmodifiable map with lane numbers as keys and revenues as values
+     */
+    public Map<Integer, Amount> getRevenueByLane() {
+        return revenueByLane;
+    }
+
+    /**
+     * Gets the revenue of the specified lane.
+     *
+     * @param lane the lane number
+     * @return the revenue of the lane, or zero if the lane has not recorded any payment
+     */
+    public Amount getRevenue(int lane) {
+        return revenueByLane.getOrDefault(lane, Amount.ofMinorUnits(0));
+    }
+}
@@ -43,6 +43,35 @@ public class SaleStateDTO {
         this.change = change;
     }
 
+    /**
+     * Constructs a SaleStateDTO from its parts, for example when a recorded sale is read back
+     * from a file.
+     *
+     * @param timeOfSale the time when the sale was made
+     * @param itemList the items registered in the sale
+     * @param totalPriceIncludingVAT the total price of the sale including VAT
+     * @param paidAmount the amount paid by the customer
+     * @param change the change to be given back to the customer
+     * @throws IllegalArgumentException if any of the parameters is null,
+     *                                  or if paidAmount or change have negative values
+     */
+    public SaleStateDTO(LocalDateTime timeOfSale, List<ItemAndRunningTotalDTO> itemList, Amount totalPriceIncludingVAT,
+            Amount paidAmount, Amount change) throws IllegalArgumentException {
+        if (timeOfSale == null) throw new IllegalArgumentException("Time of sale must not be null.");
+        if (itemList == null) throw new IllegalArgumentException("Item list must not be null.");
+        if (totalPriceIncludingVAT == null) throw new IllegalArgumentException("Total price must not be null.");
+        if (paidAmount == null) throw new IllegalArgumentException("Paid amount must not be null.");
+        if (change == null) throw new IllegalArgumentException("Change must not be null.");
+        if (paidAmount.getAmount() < 0) throw new IllegalArgumentException("Paid amount cannot be negative.");
+        if (change.getAmount() < 0) throw new IllegalArgumentException("Change cannot be negative.");
+
+        this.timeOfSale = timeOfSale;
+        this.itemList = List.copyOf(itemList);
+        this.totalPriceIncludingVAT = totalPriceIncludingVAT;
+        this.paidAmount = paidAmount;
+        this.change = change;
+    }
+
     /**
      * Gets the time when the sale was made.
      * 
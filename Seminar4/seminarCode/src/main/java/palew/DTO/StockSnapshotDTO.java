@@ -0,0 +1,58 @@
+package palew.DTO;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Represents the stock levels of all stocked items at one point in time. A snapshot never
+ * contains only part of a sale: either all lines of a sale have been subtracted or none.
+ */
+public class StockSnapshotDTO {
+    private final Map<String, Long> stockLevels;
+    private final Set<String> lowStockItemIDs;
+
+    /**
+     * Constructs a StockSnapshotDTO from the stock levels of the items.
+     *
+     * @param stockLevels the stock level of each item, with item identifiers as keys
+     * @param lowStockItemIDs the identifiers of the items at or below their low-stock threshold
+     * @throws IllegalArgumentException if any of the parameters are null
+     */
+    public StockSnapshotDTO(Map<String, Long> stockLevels, Set<String> lowStockItemIDs) throws IllegalArgumentException {
+        if (stockLevels == null || lowStockItemIDs == null) throw new IllegalArgumentException("None of the parameters can be null");
+
+        this.stockLevels = Collections.unmodifiableMap(new TreeMap<>(stockLevels));
+        this.lowStockItemIDs = Collections.unmodifiableSet(new TreeSet<>(lowStockItemIDs));
+    }
+
+    /**
+     * Gets the stock level of each stocked item, ordered by item identifier.
+     *
+     * @return an unmodifiable map with item identifiers as keys and stock levels as values
+     */
+    public Map<String, Long> getStockLevels() {
+        return stockLevels;
+    }
+
+    /**
+     * Gets the stock level of the specified item.
+     *
+     * @param itemID the item identifier
+     * @return the stock level, or zero if the item is not stocked
+     */
+    public long getStockLevel(String itemID) {
+        return stockLevels.getOrDefault(itemID, 0L);
+    }
+
+    /**
+     * Gets the identifiers of the items at or below their low-stock threshold.
+     *
+     * @return an unmodifiable set of item identifiers, in order
+     */
+    public Set<String> getLowStockItemIDs() {
+        return lowStockItemIDs;
+    }
+}
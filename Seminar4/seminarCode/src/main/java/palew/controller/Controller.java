@@ -1,8 +1,32 @@
 package palew.controller;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+import palew.DTO.BulkScanSummaryDTO;
 import palew.DTO.ItemDTO;
+import palew.DTO.ItemSearchResultDTO;
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.OrderLineDTO;
+import palew.DTO.PaymentResultDTO;
+import palew.DTO.RecoveredSaleDTO;
+import palew.DTO.RevenueSnapshotDTO;
 import palew.DTO.SaleStateDTO;
 import palew.DTO.SaleSummaryDTO;
 import palew.integration.DatabaseFailureException;
@@ -10,25 +34,64 @@ import palew.integration.ExternalAccountingSystem;
 import palew.integration.ExternalInventorySystem;
 import palew.integration.ItemNotFoundException;
 import palew.integration.Printer;
+import palew.integration.SaleJournal;
 import palew.model.Amount;
 import palew.model.Receipt;
 import palew.model.Register;
+import palew.model.RegisterPool;
+import palew.model.RevenueLedger;
 import palew.model.Sale;
 import palew.model.SaleObserver;
+import palew.util.LatencyHistogram;
 import palew.util.LogHandler;
+import palew.util.Metrics;
+import palew.util.SaleEvents;
 
 /**
  * This class is the only controller class in the project and is responsible for 
  * making calls to the model.
+ * <p>
+ * Besides the single sale started with {@link #startSale()}, the controller can serve
+ * many checkout lanes at once. Each lane opens its own sale with {@link #openSale()} and
+ * uses the returned sale ID for all further calls. Open sales are kept in a concurrent
+ * registry, so different lanes never share a Sale. A single sale must only be used by
+ * one lane at a time. If a {@link SaleJournal} is attached with {@link #attachJournal(SaleJournal)},
+ * the open sales are journaled and survive a restart. The sale started with startSale() is not journaled.
+ * <p>
+ * When a payment has been accepted, the paying thread updates the register. Once the register has
+ * taken the payment, the sale is recorded in the accounting system, the inventory is updated and
+ * the receipt is printed at the same time on virtual threads, so no step is started for a payment
+ * the register did not take. The payment waits for each of these steps at most its timeout. A step that
+ * fails or times out is logged and reported in the {@link PaymentResultDTO}, but does not undo the
+ * payment, since the customer has already paid. A step that times out is not cancelled. The
+ * threads of the steps are released by {@link #close()}.
+ * <p>
+ * The latency of every scan, end of sale and payment, and of every step after a payment, is
+ * recorded in {@link Metrics#getInstance()}, together with counters of failed scans and
+ * incomplete payments.
  */
-public class Controller {
+public class Controller implements AutoCloseable {
+    private static final long DEFAULT_STEP_TIMEOUT_SECONDS = 5;
+
     private Sale sale;
-    private Receipt receipt;
+    private final Map<Long, Sale> openSales = new ConcurrentHashMap<>();
+    private final AtomicLong nextSaleID = new AtomicLong(1);
     private final ExternalAccountingSystem accSystem;
     private final ExternalInventorySystem invSystem;
     private final Printer printer;
-    private final Register register;
+    private final RegisterPool registers;
     private final LogHandler logger;
+    private final RevenueLedger revenueLedger;
+    private volatile SaleJournal journal;
+    private final ExecutorService paymentSteps = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<PaymentResultDTO.Step, Long> stepTimeoutNanos = new ConcurrentHashMap<>();
+    private final Map<PaymentResultDTO.Step, LatencyHistogram> stepLatencies = new EnumMap<>(PaymentResultDTO.Step.class);
+    private final LatencyHistogram scanItemLatency = Metrics.getInstance().histogram("controller.scanItem", Metrics.FAST_OPERATION_SAMPLE_INTERVAL);
+    private final LatencyHistogram scanItemsLatency = Metrics.getInstance().histogram("controller.scanItems");
+    private final LatencyHistogram endSaleLatency = Metrics.getInstance().histogram("controller.endSale", Metrics.FAST_OPERATION_SAMPLE_INTERVAL);
+    private final LatencyHistogram paymentLatency = Metrics.getInstance().histogram("controller.recordPayment");
+    private final LongAdder failedScanCount = Metrics.getInstance().counter("controller.scanItem.failed");
+    private final LongAdder incompletePaymentCount = Metrics.getInstance().counter("controller.recordPayment.incomplete");
 
     /**
      * Constructs a Controller with references to the specified systems.
@@ -36,29 +99,163 @@ public class Controller {
      * @param printer the printer to use for printing receipts
      * @param accSystem the external accounting system to use
      * @param invSystem the external inventory system to use 
-     * @param register the register to use for handling cash transactions
+     * @param register the register to use for handling cash transactions, used as the register of lane 0
      * @throws IllegalArgumentException if any of the parameters are null
      * @throws IOException if the log handler cannot be initialized
      */
     public Controller(Printer printer, ExternalAccountingSystem accSystem, ExternalInventorySystem invSystem, Register register)
             throws IllegalArgumentException, IOException {
-        if (printer == null || accSystem == null || register == null) {
+        this(printer, accSystem, invSystem, register == null ? null : new RegisterPool(register));
+    }
+
+    /**
+     * Constructs a Controller with references to the specified systems. Each lane handles
+     * its cash with the register that has the same number as the lane.
+     *
+     * @param printer the printer to use for printing receipts
+     * @param accSystem the external accounting system to use
+     * @param invSystem the external inventory system to use 
+     * @param registers the registers to use for handling cash transactions
+     * @throws IllegalArgumentException if any of the parameters are null
+     * @throws IOException if the log handler cannot be initialized
+     */
+    public Controller(Printer printer, ExternalAccountingSystem accSystem, ExternalInventorySystem invSystem,
+            RegisterPool registers) throws IllegalArgumentException, IOException {
+        this(printer, accSystem, invSystem, registers, new LogHandler());
+    }
+
+    /**
+     * Constructs a Controller with references to the specified systems, that logs exceptions
+     * with the specified log handler.
+     *
+     * @param printer the printer to use for printing receipts
+     * @param accSystem the external accounting system to use
+     * @param invSystem the external inventory system to use 
+     * @param registers the registers to use for handling cash transactions
+     * @param logger the log handler to use for logging exceptions
+     * @throws IllegalArgumentException if any of the parameters are null
+     */
+    public Controller(Printer printer, ExternalAccountingSystem accSystem, ExternalInventorySystem invSystem,
+            RegisterPool registers, LogHandler logger) throws IllegalArgumentException {
+        this(printer, accSystem, invSystem, registers, logger, RevenueLedger.getInstance());
+    }
+
+    /**
+     * Constructs a Controller with references to the specified systems, that logs exceptions
+     * with the specified log handler and records the revenue of its sales in the specified ledger.
+     *
+     * @param printer the printer to use for printing receipts
+     * @param accSystem the external accounting system to use
+     * @param invSystem the external inventory system to use 
+     * @param registers the registers to use for handling cash transactions
+     * @param logger the log handler to use for logging exceptions
+     * @param revenueLedger the ledger the revenue of every sale is recorded in
+     * @throws IllegalArgumentException if any of the parameters are null
+     */
+    public Controller(Printer printer, ExternalAccountingSystem accSystem, ExternalInventorySystem invSystem,
+            RegisterPool registers, LogHandler logger, RevenueLedger revenueLedger) throws IllegalArgumentException {
+        if (printer == null || accSystem == null || invSystem == null || registers == null || logger == null
+                || revenueLedger == null) {
             throw new IllegalArgumentException("None of the parameters can be null");
         }
         this.printer = printer;
         this.accSystem = accSystem;
         this.invSystem = invSystem;
-        this.register = register;
+        this.registers = registers;
         this.sale = null;
-        this.receipt = null;
-        this.logger = new LogHandler();
+        this.logger = logger;
+        this.revenueLedger = revenueLedger;
+        for (PaymentResultDTO.Step step : PaymentResultDTO.Step.values()) {
+            stepTimeoutNanos.put(step, TimeUnit.SECONDS.toNanos(DEFAULT_STEP_TIMEOUT_SECONDS));
+            stepLatencies.put(step, Metrics.getInstance().histogram("controller.recordPayment." + step.name().toLowerCase()));
+        }
+    }
+
+    /**
+     * Sets the longest time a payment waits for one of the steps that follow it. The default is
+     * {@value #DEFAULT_STEP_TIMEOUT_SECONDS} seconds.
+     *
+     * @param step the step
+     * @param timeout the timeout of the step
+     * @throws IllegalArgumentException if step or timeout is null, or if timeout is negative
+     */
+    public void setPaymentStepTimeout(PaymentResultDTO.Step step, Duration timeout) throws IllegalArgumentException {
+        if (step == null) throw new IllegalArgumentException("Step must not be null.");
+        if (timeout == null) throw new IllegalArgumentException("Timeout must not be null.");
+        if (timeout.isNegative()) throw new IllegalArgumentException("Timeout cannot be negative.");
+        stepTimeoutNanos.put(step, timeout.toNanos());
+    }
+
+    /**
+     * Makes the controller journal its open sales in the specified journal, and opens the
+     * sales the journal recovered again with the same IDs, lanes and scanned items. Sales
+     * opened after this call get IDs that are higher than every ID in the journal.
+     *
+     * @param journal the journal to replay and to write to
+     * @return the IDs of the recovered sales, in ascending order
+     * @throws IllegalArgumentException if journal is null
+     */
+    public List<Long> attachJournal(SaleJournal journal) throws IllegalArgumentException {
+        if (journal == null) throw new IllegalArgumentException("Journal must not be null.");
+        List<Long> recoveredSaleIDs = new ArrayList<>();
+        for (RecoveredSaleDTO recoveredSale : journal.getRecoveredSales()) {
+            Sale recovered = new Sale(revenueLedger, recoveredSale.getLane());
+            for (ItemAndRunningTotalDTO line : recoveredSale.getScannedItems()) {
+                recovered.addItem(line.getItem(), line.getQuantity());
+            }
+            openSales.put(recoveredSale.getSaleID(), recovered);
+            recoveredSaleIDs.add(recoveredSale.getSaleID());
+        }
+        nextSaleID.accumulateAndGet(journal.getHighestSaleID() + 1, Math::max);
+        this.journal = journal;
+        return recoveredSaleIDs;
     }
 
     /**
      * Starts a new sale.
      */
     public void startSale() {
-        sale = new Sale();
+        SaleEvents.SaleStarted event = new SaleEvents.SaleStarted();
+        event.begin();
+        sale = new Sale(revenueLedger, 0);
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+    /**
+     * Opens a new sale on lane 0 that is independent of all other open sales.
+     *
+     * @return the ID used to refer to the new sale in later calls
+     */
+    public long openSale() {
+        return openSale(0);
+    }
+
+    /**
+     * Opens a new sale on the specified lane that is independent of all other open sales.
+     * The revenue of the sale is recorded for that lane.
+     *
+     * @param lane the number of the checkout lane
+     * @return the ID used to refer to the new sale in later calls
+     */
+    public long openSale(int lane) {
+        SaleEvents.SaleStarted event = new SaleEvents.SaleStarted();
+        event.begin();
+        long saleID = nextSaleID.getAndIncrement();
+        openSales.put(saleID, new Sale(revenueLedger, lane));
+        SaleJournal saleJournal = journal;
+        if (saleJournal != null) {
+            saleJournal.recordOpen(saleID, lane);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.saleID = saleID;
+            event.lane = lane;
+            event.commit();
+        }
+        return saleID;
     }
 
     /**
@@ -68,10 +265,31 @@ public class Controller {
      * @throws IllegalStateException if no sale is in progress
      */
     public Amount endSale() throws IllegalStateException {
-        if (sale == null) {
-            throw new IllegalStateException("No sale in progress. Call startSale() first.");
+        long start = endSaleLatency.startTimer();
+        try {
+            if (sale == null) {
+                throw new IllegalStateException("No sale in progress. Call startSale() first.");
+            }
+            return sale.getRunningTotalIncludingVAT();
+        } finally {
+            endSaleLatency.stopTimer(start);
+        }
+    }
+
+    /**
+     * Ends the specified sale and returns the total price including VAT.
+     *
+     * @param saleID the ID of the sale, as returned by {@link #openSale()}
+     * @return the total price including VAT of the sale
+     * @throws IllegalStateException if there is no open sale with the given ID
+     */
+    public Amount endSale(long saleID) throws IllegalStateException {
+        long start = endSaleLatency.startTimer();
+        try {
+            return findOpenSale(saleID).getRunningTotalIncludingVAT();
+        } finally {
+            endSaleLatency.stopTimer(start);
         }
-        return sale.getRunningTotalIncludingVAT();
     }
 
     /**
@@ -86,6 +304,147 @@ public class Controller {
      * @throws DatabaseFailureException if a database failure occurs during the search
      */
     public SaleSummaryDTO scanItem(String itemID, int quantity) throws ItemNotFoundException, DatabaseFailureException {
+        return registerScannedItem(sale, 0, itemID, quantity);
+    }
+
+    /**
+     * Scans an item with the specified item ID and quantity into the specified sale, and
+     * returns item cost and the current running total of that sale.
+     *
+     * @param saleID the ID of the sale, as returned by {@link #openSale()}
+     * @param itemID the ID of the item to scan
+     * @param quantity the quantity of the item to scan
+     * @return a SaleSummaryDTO containing information about
+     * the scanned item and the running total of the updated sale
+     * @throws ItemNotFoundException if the item with the given itemID is not found in the inventory
+     * @throws DatabaseFailureException if a database failure occurs during the search
+     * @throws IllegalStateException if there is no open sale with the given ID
+     */
+    public SaleSummaryDTO scanItem(long saleID, String itemID, int quantity)
+            throws ItemNotFoundException, DatabaseFailureException, IllegalStateException {
+        return registerScannedItem(findOpenSale(saleID), saleID, itemID, quantity);
+    }
+
+    /**
+     * Scans one item with the specified item ID into the specified sale.
+     *
+     * @param saleID the ID of the sale, as returned by {@link #openSale()}
+     * @param itemID the ID of the item to scan
+     * @return a SaleSummaryDTO containing information about
+     * the scanned item and the running total of the updated sale
+     * @throws ItemNotFoundException if the item with the given itemID is not found in the inventory
+     * @throws DatabaseFailureException if a database failure occurs during the search
+     * @throws IllegalStateException if there is no open sale with the given ID
+     */
+    public SaleSummaryDTO scanItem(long saleID, String itemID)
+            throws ItemNotFoundException, DatabaseFailureException, IllegalStateException {
+        return scanItem(saleID, itemID, 1);
+    }
+
+    /**
+     * Registers all lines of an imported order in the specified sale in one call. The items
+     * are searched in one batch, lines with the same item are merged, and the sale totals are
+     * updated in a single pass. Lines that can not be registered are reported in the returned
+     * summary instead of stopping the import, and the other lines are still registered.
+     *
+     * @param saleID the ID of the sale, as returned by {@link #openSale()}
+     * @param orderLines the lines of the order
+     * @return the number of registered lines, the totals of the sale, and the reason each rejected line was rejected
+     * @throws DatabaseFailureException if a database failure occurs during the search. No line is registered then.
+     * @throws IllegalStateException if there is no open sale with the given ID
+     * @throws IllegalArgumentException if orderLines is null
+     */
+    public BulkScanSummaryDTO scanItems(long saleID, List<OrderLineDTO> orderLines)
+            throws DatabaseFailureException, IllegalStateException, IllegalArgumentException {
+        long start = scanItemsLatency.startTimer();
+        try {
+            return registerOrderLines(saleID, orderLines);
+        } finally {
+            scanItemsLatency.stopTimer(start);
+        }
+    }
+
+    private BulkScanSummaryDTO registerOrderLines(long saleID, List<OrderLineDTO> orderLines)
+            throws DatabaseFailureException, IllegalStateException, IllegalArgumentException {
+        if (orderLines == null) throw new IllegalArgumentException("Order lines must not be null.");
+        Sale openSale = findOpenSale(saleID);
+
+        Map<Integer, String> lineErrors = new HashMap<>();
+        Map<String, Long> quantities = new LinkedHashMap<>();
+        int index = 0;
+        for (OrderLineDTO line : orderLines) {
+            String error = checkOrderLine(line, quantities);
+            if (error != null) {
+                lineErrors.put(index, error);
+            }
+            index++;
+        }
+
+        ItemSearchResultDTO searchResult = invSystem.searchItems(quantities.keySet());
+        for (String missingItemID : searchResult.getMissingItemIDs()) {
+            logger.logException(new ItemNotFoundException(missingItemID));
+        }
+        if (!searchResult.isComplete()) {
+            index = 0;
+            for (OrderLineDTO line : orderLines) {
+                if (!lineErrors.containsKey(index) && searchResult.getMissingItemIDs().contains(line.getItemID())) {
+                    lineErrors.put(index, new ItemNotFoundException(line.getItemID()).getMessage());
+                }
+                index++;
+            }
+        }
+
+        ItemDTO[] items = new ItemDTO[searchResult.getFoundItems().size()];
+        int[] itemQuantities = new int[items.length];
+        int itemCount = 0;
+        for (ItemDTO item : searchResult.getFoundItems().values()) {
+            items[itemCount] = item;
+            itemQuantities[itemCount] = quantities.get(item.getItemID()).intValue();
+            itemCount++;
+        }
+        openSale.addItems(items, itemQuantities);
+        SaleJournal saleJournal = journal;
+        if (saleJournal != null && itemCount > 0) {
+            saleJournal.recordItems(saleID, openSale.getLane(), items, itemQuantities);
+        }
+
+        return new BulkScanSummaryDTO(orderLines.size() - lineErrors.size(), itemCount,
+                openSale.getRunningTotal(), openSale.getRunningTotalIncludingVAT(), lineErrors);
+    }
+
+    private String checkOrderLine(OrderLineDTO line, Map<String, Long> quantities) throws DatabaseFailureException {
+        if (line == null) {
+            return "The order line is empty.";
+        }
+        if (line.getItemID().equals("databaseFail123")) {
+            throw new DatabaseFailureException("databaseFail123");
+        }
+        if (line.getQuantity() <= 0) {
+            return "Quantity must be greater than 0.";
+        }
+        long quantity = quantities.getOrDefault(line.getItemID(), 0L) + line.getQuantity();
+        if (quantity > Integer.MAX_VALUE) {
+            return "The total quantity of the item is too large.";
+        }
+        quantities.put(line.getItemID(), quantity);
+        return null;
+    }
+
+    private SaleSummaryDTO registerScannedItem(Sale sale, long saleID, String itemID, int quantity)
+            throws ItemNotFoundException, DatabaseFailureException {
+        long start = scanItemLatency.startTimer();
+        try {
+            return searchAndRegisterItem(sale, saleID, itemID, quantity);
+        } catch (ItemNotFoundException | DatabaseFailureException e) {
+            failedScanCount.increment();
+            throw e;
+        } finally {
+            scanItemLatency.stopTimer(start);
+        }
+    }
+
+    private SaleSummaryDTO searchAndRegisterItem(Sale sale, long saleID, String itemID, int quantity)
+            throws ItemNotFoundException, DatabaseFailureException {
         if (itemID.equals("databaseFail123")) {
             throw new DatabaseFailureException("databaseFail123");
         }
@@ -95,7 +454,12 @@ public class Controller {
             if (item == null) {
                 throw new ItemNotFoundException(itemID);
             }
-            return sale.registerItem(item, quantity);
+            SaleSummaryDTO summary = sale.registerItem(item, quantity);
+            SaleJournal saleJournal = journal;
+            if (saleJournal != null && saleID != 0) {
+                saleJournal.recordItem(saleID, sale.getLane(), item, quantity);
+            }
+            return summary;
         } catch (ItemNotFoundException e) {
             logger.logException(e);
             throw e;
@@ -121,23 +485,133 @@ public class Controller {
     *Ends by Printing the receipt and returns the change amount.
      * @param amount the amount paid by the customer
      * @return change amount
-     * @throws IllegalStateException if no sale is in progress
+     * @throws IllegalStateException if no sale is in progress, or if the controller is closed
      */
     public Amount recordPayment(Amount amount) throws IllegalStateException {
-        if (sale == null) {
-            throw new IllegalStateException("No sale in progress. Call startSale() first.");
+        long start = paymentLatency.startTimer();
+        try {
+            ensureNotClosed();
+            if (sale == null) {
+                throw new IllegalStateException("No sale in progress. Call startSale() first.");
+            }
+
+            SaleStateDTO saleState = sale.recordPayment(amount);
+            return updateSystemsAfterPayment(saleState, sale.getLane(), amount).getChange();
+        } finally {
+            paymentLatency.stopTimer(start);
+        }
+    }
+
+    /**
+     * Records a payment for the specified sale, updates the external systems and the
+     * balance of the register, and prints the receipt. The sale is closed once the
+     * payment has been accepted, and its ID can not be used again.
+     *
+     * @param saleID the ID of the sale, as returned by {@link #openSale()}
+     * @param amount the amount paid by the customer
+     * @return change amount
+     * @throws IllegalStateException if there is no open sale with the given ID, or if the controller is closed
+     */
+    public Amount recordPayment(long saleID, Amount amount) throws IllegalStateException {
+        return completePayment(saleID, amount).getChange();
+    }
+
+    /**
+     * Records a payment for the specified sale like {@link #recordPayment(long, Amount)} does,
+     * and reports how each of the steps after the payment went.
+     *
+     * @param saleID the ID of the sale, as returned by {@link #openSale()}
+     * @param amount the amount paid by the customer
+     * @return the change, and the outcome and time of every step after the payment
+     * @throws IllegalStateException if there is no open sale with the given ID, or if the controller is closed
+     */
+    public PaymentResultDTO completePayment(long saleID, Amount amount) throws IllegalStateException {
+        long start = paymentLatency.startTimer();
+        try {
+            ensureNotClosed();
+            Sale openSale = findOpenSale(saleID);
+            SaleStateDTO saleState = openSale.recordPayment(amount);
+            openSales.remove(saleID, openSale);
+            SaleJournal saleJournal = journal;
+            if (saleJournal != null) {
+                saleJournal.recordPayment(saleID, openSale.getLane());
+            }
+            return updateSystemsAfterPayment(saleState, openSale.getLane(), amount);
+        } finally {
+            paymentLatency.stopTimer(start);
         }
+    }
 
-        SaleStateDTO saleState = sale.recordPayment(amount);
+    private PaymentResultDTO updateSystemsAfterPayment(SaleStateDTO saleState, int lane, Amount amount) {
+        registers.getRegister(lane).recordPayment(amount, saleState.getChange());
 
+        long start = System.nanoTime();
+        Map<PaymentResultDTO.Step, Future<Long>> runningSteps = new EnumMap<>(PaymentResultDTO.Step.class);
+        runningSteps.put(PaymentResultDTO.Step.ACCOUNTING,
+                paymentSteps.submit(timed(PaymentResultDTO.Step.ACCOUNTING, lane,
+                        () -> accSystem.recordSale(saleState))));
+        runningSteps.put(PaymentResultDTO.Step.INVENTORY,
+                paymentSteps.submit(timed(PaymentResultDTO.Step.INVENTORY, lane,
+                        () -> invSystem.updateInventory(saleState.getItemList()))));
+        runningSteps.put(PaymentResultDTO.Step.RECEIPT,
+                paymentSteps.submit(timed(PaymentResultDTO.Step.RECEIPT, lane,
+                        () -> printer.print(new Receipt(saleState)))));
 
-        accSystem.recordSale(saleState);
-        invSystem.updateInventory(saleState.getItemList());
-        register.updateBalance(amount);
-        receipt = new Receipt(saleState);
-        printer.print(receipt);
+        Map<PaymentResultDTO.Step, PaymentResultDTO.Outcome> outcomes = new EnumMap<>(PaymentResultDTO.Step.class);
+        Map<PaymentResultDTO.Step, Long> stepMicros = new EnumMap<>(PaymentResultDTO.Step.class);
+        for (Map.Entry<PaymentResultDTO.Step, Future<Long>> runningStep : runningSteps.entrySet()) {
+            PaymentResultDTO.Step step = runningStep.getKey();
+            long timeoutNanos = stepTimeoutNanos.get(step);
+            try {
+                long stepNanos = runningStep.getValue().get(start + timeoutNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                outcomes.put(step, PaymentResultDTO.Outcome.COMPLETED);
+                stepMicros.put(step, TimeUnit.NANOSECONDS.toMicros(stepNanos));
+                stepLatencies.get(step).record(stepNanos);
+                continue;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                outcomes.put(step, PaymentResultDTO.Outcome.FAILED);
+                logger.logException((Exception) e.getCause());
+            } catch (TimeoutException | InterruptedException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                outcomes.put(step, PaymentResultDTO.Outcome.TIMED_OUT);
+                logger.logException(new TimeoutException("The " + step + " step of a payment did not finish within "
+                        + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms."));
+            }
+            stepMicros.put(step, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        }
+        PaymentResultDTO result = new PaymentResultDTO(saleState.getChange(), outcomes, stepMicros,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        if (!result.isComplete()) {
+            incompletePaymentCount.increment();
+        }
+        return result;
+    }
 
-        return saleState.getChange();
+    private static Callable<Long> timed(PaymentResultDTO.Step step, int lane, Runnable action) {
+        return () -> {
+            SaleEvents.PaymentStep event = new SaleEvents.PaymentStep();
+            event.begin();
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                action.run();
+                failed = false;
+                return System.nanoTime() - start;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.step = step.name();
+                    event.lane = lane;
+                    event.failed = failed;
+                    event.commit();
+                }
+            }
+        };
     }
 
     /**
@@ -150,4 +624,58 @@ public class Controller {
             sale.addSaleObserver(observer);
         }
     }
+
+    /**
+     * Adds an observer to the specified sale.
+     *
+     * @param saleID the ID of the sale, as returned by {@link #openSale()}
+     * @param observer the observer to be added
+     * @throws IllegalStateException if there is no open sale with the given ID
+     */
+    public void addSaleObserver(long saleID, SaleObserver observer) throws IllegalStateException {
+        findOpenSale(saleID).addSaleObserver(observer);
+    }
+
+    /**
+     * Reads the revenue of the store, in total and per lane.
+     *
+     * @return a snapshot of the revenue
+     */
+    public RevenueSnapshotDTO getRevenue() {
+        return revenueLedger.snapshot();
+    }
+
+    /**
+     * Stops taking payments and waits for the steps of earlier payments to finish, at most
+     * as long as the longest payment step timeout. Steps that are still running after that
+     * are interrupted. If the calling thread is interrupted while waiting, the running steps
+     * are interrupted at once and the interrupt status of the thread is set again.
+     */
+    @Override
+    public void close() {
+        paymentSteps.shutdown();
+        long timeoutNanos = stepTimeoutNanos.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        try {
+            if (!paymentSteps.awaitTermination(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                paymentSteps.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            paymentSteps.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureNotClosed() throws IllegalStateException {
+        if (paymentSteps.isShutdown()) {
+            throw new IllegalStateException("The controller is closed.");
+        }
+    }
+
+    private Sale findOpenSale(long saleID) throws IllegalStateException {
+        Sale openSale = openSales.get(saleID);
+        if (openSale == null) {
+            throw new IllegalStateException("No open sale with ID " + saleID + ". Call openSale() first.");
+        }
+        return openSale;
+    }
 }
@@ -0,0 +1,242 @@
+package palew.integration;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import palew.DTO.SaleStateDTO;
+
+/**
+ * An append-only file with the sales an {@link AccountingPipeline} has not delivered yet.
+ * <p>
+ * Every sale is appended when the pipeline accepts it, and an acknowledgement with the range of
+ * sequence numbers of a batch is appended when the sink has accepted the batch. Sales are stored in
+ * the format of {@link SaleStateCodec}. When the journal is opened, the sales without
+ * acknowledgement are read back so they can be sent again. A record that was only partly
+ * written when the program stopped is cut off the end of the file. When every sale in a large
+ * journal has been acknowledged, the file is emptied.
+ * <p>
+ * Appending only writes to the file. {@link #sync(long)} forces the written records to the
+ * storage device with group commit: while one thread forces the file, the threads that wait for
+ * their records are covered by the next force, which also covers everything they appended in the
+ * meantime. Lanes that pay at the same time therefore share one force instead of taking turns.
+ */
+class AccountingJournal implements AutoCloseable {
+    private static final byte SALE_RECORD = 1;
+    private static final byte ACK_RECORD = 2;
+    private static final int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+    private static final long COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final SaleStateCodec codec = new SaleStateCodec();
+    private final TreeMap<Long, SaleStateDTO> recoveredSales = new TreeMap<>();
+    private final Object syncLock = new Object();
+    private long nextSequence;
+    private long unacknowledgedCount;
+    private long appendedBytes;
+    private long syncedBytes;
+
+    /**
+     * Opens the journal and reads the sales that have not been acknowledged.
+     *
+     * @param file the journal file. It is created if it does not exist.
+     * @throws IOException if the file can not be opened or read
+     */
+    AccountingJournal(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long validLength = recover();
+            if (validLength < channel.size()) {
+                channel.truncate(validLength);
+                channel.force(false);
+            }
+            channel.position(validLength);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        unacknowledgedCount = recoveredSales.size();
+    }
+
+    private long recover() throws IOException {
+        long validLength = 0;
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        CRC32 checksum = new CRC32();
+        while (true) {
+            byte type;
+            byte[] payload;
+            try {
+                type = in.readByte();
+                int length = in.readInt();
+                if (length < 0 || length > MAX_RECORD_LENGTH) {
+                    return validLength;
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+                checksum.reset();
+                checksum.update(payload);
+                if (in.readInt() != (int) checksum.getValue()) {
+                    return validLength;
+                }
+            } catch (EOFException e) {
+                return validLength;
+            }
+            ByteBuffer record = ByteBuffer.wrap(payload);
+            try {
+                if (type == SALE_RECORD) {
+                    long sequence = record.getLong();
+                    recoveredSales.put(sequence, codec.decode(record));
+                    nextSequence = Math.max(nextSequence, sequence + 1);
+                } else if (type == ACK_RECORD) {
+                    long first = record.getLong();
+                    long last = record.getLong();
+                    recoveredSales.subMap(first, true, last, true).clear();
+                } else {
+                    return validLength;
+                }
+            } catch (RuntimeException e) {
+                return validLength;
+            }
+            validLength += 1 + Integer.BYTES + payload.length + Integer.BYTES;
+        }
+    }
+
+    /**
+     * Gets the sales that were in the journal without acknowledgement when it was opened.
+     *
+     * @return the sales, by sequence number
+     */
+    Map<Long, SaleStateDTO> getRecoveredSales() {
+        return recoveredSales;
+    }
+
+    /**
+     * Reserves the sequence number of the next sale.
+     *
+     * @return the sequence number
+     */
+    synchronized long nextSequence() {
+        return nextSequence++;
+    }
+
+    /**
+     * Appends sales to the journal. They are not durable until {@link #sync(long)} has been
+     * called with the returned position.
+     *
+     * @param sequences the sequence numbers of the sales
+     * @param sales the sales to append
+     * @return the number of bytes appended to the journal so far, including these sales
+     * @throws IOException if the sales can not be written
+     */
+    synchronized long append(List<Long> sequences, List<SaleStateDTO> sales) throws IOException {
+        List<byte[]> records = new ArrayList<>(sales.size());
+        int length = 0;
+        for (int i = 0; i < sales.size(); i++) {
+            ByteBuffer record = ByteBuffer.allocate(Long.BYTES + codec.encodedSize(sales.get(i)));
+            record.putLong(sequences.get(i));
+            codec.encode(sales.get(i), record);
+            records.add(record.array());
+            length += 1 + Integer.BYTES + record.capacity() + Integer.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] record : records) {
+            putRecord(buffer, SALE_RECORD, record);
+        }
+        write(buffer);
+        unacknowledgedCount += sales.size();
+        return appendedBytes;
+    }
+
+    /**
+     * Forces the journal to the storage device, unless everything up to the specified position
+     * has already been forced by another thread.
+     *
+     * @param position the value returned by append
+     * @throws IOException if the journal can not be forced
+     */
+    void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (syncedBytes >= position) {
+                return;
+            }
+            long target;
+            synchronized (this) {
+                target = appendedBytes;
+            }
+            channel.force(false);
+            syncedBytes = target;
+        }
+    }
+
+    /**
+     * Appends an acknowledgement for a delivered batch and forces it to the storage device. The
+     * file is emptied if it is large and all sales in it have been acknowledged.
+     *
+     * @param firstSequence the lowest sequence number in the batch
+     * @param lastSequence the highest sequence number in the batch
+     * @param saleCount the number of sales in the batch
+     * @throws IOException if the acknowledgement can not be written
+     */
+    void acknowledge(long firstSequence, long lastSequence, int saleCount) throws IOException {
+        long position;
+        synchronized (this) {
+            unacknowledgedCount -= saleCount;
+            if (unacknowledgedCount <= 0 && channel.size() > COMPACTION_THRESHOLD_BYTES) {
+                unacknowledgedCount = 0;
+                channel.truncate(0);
+                channel.position(0);
+                channel.force(false);
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + 2 * Long.BYTES + Integer.BYTES);
+            putRecord(buffer, ACK_RECORD, ByteBuffer.allocate(2 * Long.BYTES)
+                    .putLong(firstSequence).putLong(lastSequence).array());
+            write(buffer);
+            position = appendedBytes;
+        }
+        sync(position);
+    }
+
+    private static void putRecord(ByteBuffer buffer, byte type, byte[] payload) {
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        buffer.put(type).putInt(payload.length).put(payload).putInt((int) checksum.getValue());
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        long position = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            channel.position(position);
+            throw e;
+        }
+        appendedBytes += buffer.limit();
+    }
+
+    /**
+     * Closes the journal file.
+     *
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
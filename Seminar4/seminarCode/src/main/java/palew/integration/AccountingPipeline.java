@@ -0,0 +1,412 @@
+package palew.integration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import palew.DTO.AccountingStatisticsDTO;
+import palew.DTO.SaleStateDTO;
+
+/**
+ * Ships completed sales to an {@link AccountingSink} in batches, so that a payment does not
+ * wait for the accounting service.
+ * <p>
+ * {@link #recordSale(SaleStateDTO)} appends the sale to an {@link AccountingJournal}, puts it
+ * in a queue and returns once the journal has been forced to the storage device. The force is
+ * done after the queue lock is released and is shared by the lanes that pay at the same time, so
+ * one slow force does not make every lane wait in turn. A dispatcher thread takes up to a batch size of sales from the queue, waiting
+ * at most the linger time for a batch to fill up, and hands the batch to a virtual thread that
+ * sends it. At most the configured number of batches are in flight at once. A batch the sink
+ * rejects is sent again after a growing pause. A batch that still fails after
+ * {@value #MAX_ATTEMPTS} attempts is parked, which frees its place among the batches in flight,
+ * and the parked batches are sent again one at a time, with a pause that doubles after every
+ * failure up to one minute. A sale is removed from the journal when its batch is delivered, so
+ * sales that were queued, in flight or parked when the program stopped are sent again the next
+ * time a pipeline is started with the same journal. If a sale can not be written to the journal
+ * it is still sent, and writing it is tried again when its batch is dispatched.
+ * <p>
+ * If the queue holds {@value #QUEUE_CAPACITY} sales, recordSale waits for room.
+ */
+public class AccountingPipeline implements AutoCloseable {
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long INITIAL_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+    private static final long INITIAL_PARKED_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_PARKED_BACKOFF_MILLIS = 60_000;
+
+    private final AccountingSink sink;
+    private final AccountingJournal journal;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int maxInFlightBatches;
+    private final Semaphore inFlight;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ArrayDeque<PendingSale> queue = new ArrayDeque<>();
+    private final ArrayDeque<List<PendingSale>> parkedBatches = new ArrayDeque<>();
+    private final ScheduledExecutorService parkedRetries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "accounting-parked-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long parkedBackoffMillis = INITIAL_PARKED_BACKOFF_MILLIS;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Thread dispatcher;
+    private final long startNanos = System.nanoTime();
+    private boolean closed;
+
+    private final AtomicLong enqueuedSaleCount = new AtomicLong();
+    private final AtomicLong sentSaleCount = new AtomicLong();
+    private final AtomicLong sentBatchCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong parkedSaleCount = new AtomicLong();
+    private volatile long lastLagNanos;
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    /**
+     * Starts a pipeline that sends to the specified sink. Sales left in the journal by an
+     * earlier pipeline are queued before any new sale.
+     *
+     * @param sink where the batches are sent
+     * @param journalFile the file that holds the sales that are not delivered yet
+     * @param batchSize the maximum number of sales in a batch
+     * @param linger the longest time a sale waits in the queue for its batch to fill up
+     * @param maxInFlightBatches the maximum number of batches being sent at once
+     * @throws IllegalArgumentException if sink, journalFile or linger is null, if linger is
+     *                                  negative, or if batchSize or maxInFlightBatches is less than 1
+     * @throws IOException if the journal can not be opened or read
+     */
+    public AccountingPipeline(AccountingSink sink, Path journalFile, int batchSize, Duration linger,
+            int maxInFlightBatches) throws IllegalArgumentException, IOException {
+        if (sink == null) throw new IllegalArgumentException("Sink must not be null.");
+        if (journalFile == null) throw new IllegalArgumentException("Journal file must not be null.");
+        if (linger == null) throw new IllegalArgumentException("Linger time must not be null.");
+        if (linger.isNegative()) throw new IllegalArgumentException("Linger time cannot be negative.");
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be at least 1.");
+        if (maxInFlightBatches < 1) throw new IllegalArgumentException("Max in-flight batches must be at least 1.");
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.inFlight = new Semaphore(maxInFlightBatches);
+        this.journal = new AccountingJournal(journalFile);
+        long now = System.nanoTime();
+        for (Map.Entry<Long, SaleStateDTO> entry : journal.getRecoveredSales().entrySet()) {
+            queue.addLast(new PendingSale(entry.getKey(), entry.getValue(), now, true));
+        }
+        enqueuedSaleCount.set(queue.size());
+        this.dispatcher = new Thread(this::dispatchBatches, "accounting-pipeline");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Appends a completed sale to the journal and queues it to be sent to the sink. Waits if the
+     * queue is full, and until the sale has been forced to the storage device together with the
+     * sales of other lanes that pay at the same time.
+     *
+     * @param saleState the state of the sale to be recorded
+     * @throws IllegalArgumentException if saleState is null
+     * @throws IllegalStateException if the pipeline has been closed
+     */
+    public void recordSale(SaleStateDTO saleState) throws IllegalArgumentException, IllegalStateException {
+        if (saleState == null) throw new IllegalArgumentException("Sale state must not be null.");
+        long journalPosition = -1;
+        lock.lock();
+        try {
+            while (queue.size() >= QUEUE_CAPACITY && !closed) {
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) throw new IllegalStateException("The pipeline has been closed.");
+            // The sale is written to the journal while the lock is held, so the sequence numbers
+            // are in queue order, every batch covers a range of sequence numbers, and the sale is
+            // in the file before the acknowledgement of its batch. Only forcing it waits below.
+            long sequence = journal.nextSequence();
+            boolean journaled = false;
+            try {
+                journalPosition = journal.append(List.of(sequence), List.of(saleState));
+                journaled = true;
+            } catch (IOException e) {
+                System.err.println("Failed to journal a sale for the accounting system.");
+            }
+            queue.addLast(new PendingSale(sequence, saleState, System.nanoTime(), journaled));
+            if (queue.size() == 1 || queue.size() == batchSize) {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        enqueuedSaleCount.incrementAndGet();
+        if (journalPosition >= 0) {
+            try {
+                journal.sync(journalPosition);
+            } catch (IOException e) {
+                System.err.println("Failed to force the accounting journal to disk.");
+            }
+        }
+    }
+
+    private void dispatchBatches() {
+        while (true) {
+            List<PendingSale> batch = takeBatch();
+            if (batch == null) {
+                return;
+            }
+            journalBatch(batch);
+            inFlight.acquireUninterruptibly();
+            senders.execute(() -> sendWithRetries(batch));
+        }
+    }
+
+    private List<PendingSale> takeBatch() {
+        lock.lock();
+        try {
+            while (queue.isEmpty() && !closed) {
+                notEmpty.awaitUninterruptibly();
+            }
+            if (queue.isEmpty()) {
+                return null;
+            }
+            long deadline = queue.peekFirst().enqueuedAtNanos + lingerNanos;
+            long remaining = deadline - System.nanoTime();
+            while (queue.size() < batchSize && !closed && remaining > 0) {
+                try {
+                    remaining = notEmpty.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    remaining = 0;
+                }
+            }
+            int size = Math.min(batchSize, queue.size());
+            List<PendingSale> batch = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                batch.add(queue.pollFirst());
+            }
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void journalBatch(List<PendingSale> batch) {
+        List<Long> sequences = new ArrayList<>(batch.size());
+        List<SaleStateDTO> sales = new ArrayList<>(batch.size());
+        for (PendingSale sale : batch) {
+            if (!sale.journaled) {
+                sequences.add(sale.sequence);
+                sales.add(sale.saleState);
+            }
+        }
+        if (sales.isEmpty()) {
+            return;
+        }
+        try {
+            journal.sync(journal.append(sequences, sales));
+            for (PendingSale sale : batch) {
+                sale.journaled = true;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to journal " + sales.size() + " sales for the accounting system.");
+        }
+    }
+
+    private void sendWithRetries(List<PendingSale> batch) {
+        try {
+            List<SaleStateDTO> sales = salesOf(batch);
+            long backoffMillis = INITIAL_BACKOFF_MILLIS;
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                try {
+                    sink.sendBatch(sales);
+                    batchDelivered(batch);
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    if (attempt == MAX_ATTEMPTS) {
+                        break;
+                    }
+                    retryCount.incrementAndGet();
+                    TimeUnit.MILLISECONDS.sleep(backoffMillis);
+                    backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+                }
+            }
+            park(batch);
+        } catch (InterruptedException e) {
+            park(batch);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private static List<SaleStateDTO> salesOf(List<PendingSale> batch) {
+        List<SaleStateDTO> sales = new ArrayList<>(batch.size());
+        for (PendingSale sale : batch) {
+            sales.add(sale.saleState);
+        }
+        return Collections.unmodifiableList(sales);
+    }
+
+    private void park(List<PendingSale> batch) {
+        parkedSaleCount.addAndGet(batch.size());
+        lock.lock();
+        try {
+            parkedBatches.addLast(batch);
+            if (parkedBatches.size() == 1) {
+                scheduleParkedRetry(parkedBackoffMillis);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduleParkedRetry(long delayMillis) {
+        try {
+            parkedRetries.schedule(this::retryParkedBatches, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The pipeline has been closed, and the parked batches stay in the journal.
+        }
+    }
+
+    private void retryParkedBatches() {
+        while (true) {
+            List<PendingSale> batch;
+            lock.lock();
+            try {
+                batch = parkedBatches.peekFirst();
+            } finally {
+                lock.unlock();
+            }
+            if (batch == null) {
+                return;
+            }
+            retryCount.incrementAndGet();
+            try {
+                sink.sendBatch(salesOf(batch));
+            } catch (IOException | RuntimeException e) {
+                lock.lock();
+                try {
+                    parkedBackoffMillis = Math.min(parkedBackoffMillis * 2, MAX_PARKED_BACKOFF_MILLIS);
+                    scheduleParkedRetry(parkedBackoffMillis);
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            parkedSaleCount.addAndGet(-batch.size());
+            batchDelivered(batch);
+            lock.lock();
+            try {
+                parkedBatches.pollFirst();
+                parkedBackoffMillis = INITIAL_PARKED_BACKOFF_MILLIS;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void batchDelivered(List<PendingSale> batch) {
+        long lag = System.nanoTime() - batch.get(0).enqueuedAtNanos;
+        lastLagNanos = lag;
+        maxLagNanos.accumulateAndGet(lag, Math::max);
+        sentSaleCount.addAndGet(batch.size());
+        sentBatchCount.incrementAndGet();
+        int journaledCount = 0;
+        for (PendingSale sale : batch) {
+            if (sale.journaled) {
+                journaledCount++;
+            }
+        }
+        if (journaledCount == 0) {
+            return;
+        }
+        try {
+            journal.acknowledge(batch.get(0).sequence, batch.get(batch.size() - 1).sequence, journaledCount);
+        } catch (IOException e) {
+            System.err.println("Failed to acknowledge " + batch.size() + " sales in the accounting journal.");
+        }
+    }
+
+    /**
+     * Gets the counters of the pipeline.
+     *
+     * @return the current statistics
+     */
+    public AccountingStatisticsDTO getStatistics() {
+        int queueDepth;
+        lock.lock();
+        try {
+            queueDepth = queue.size();
+        } finally {
+            lock.unlock();
+        }
+        return new AccountingStatisticsDTO(enqueuedSaleCount.get(), sentSaleCount.get(), sentBatchCount.get(),
+                retryCount.get(), parkedSaleCount.get(), queueDepth, maxInFlightBatches - inFlight.availablePermits(),
+                TimeUnit.NANOSECONDS.toMillis(lastLagNanos), TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Stops accepting sales, sends the queued sales, waits for all batches in flight to be
+     * delivered or parked, and closes the journal. Parked batches are not retried any more and
+     * stay in the journal.
+     *
+     * @throws IOException if the journal can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            dispatcher.join();
+            inFlight.acquire(maxInFlightBatches);
+            inFlight.release(maxInFlightBatches);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdown();
+        parkedRetries.shutdownNow();
+        try {
+            parkedRetries.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    private static class PendingSale {
+        private final long sequence;
+        private final SaleStateDTO saleState;
+        private final long enqueuedAtNanos;
+        private boolean journaled;
+
+        private PendingSale(long sequence, SaleStateDTO saleState, long enqueuedAtNanos, boolean journaled) {
+            this.sequence = sequence;
+            this.saleState = saleState;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+            this.journaled = journaled;
+        }
+    }
+}
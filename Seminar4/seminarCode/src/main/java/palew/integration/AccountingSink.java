@@ -0,0 +1,22 @@
+package palew.integration;
+
+import java.io.IOException;
+import java.util.List;
+
+import palew.DTO.SaleStateDTO;
+
+/**
+ * A destination that an {@link AccountingPipeline} ships batches of completed sales to, such
+ * as the ledger service of the external accounting system or a local file.
+ */
+public interface AccountingSink {
+    /**
+     * Sends a batch of completed sales. The batch is either accepted as a whole, or the method
+     * throws and the whole batch is sent again later. A sink used by a pipeline that allows more
+     * than one batch in flight must accept calls from several threads at once.
+     *
+     * @param sales the sales in the batch, in the order they were paid
+     * @throws IOException if the batch could not be delivered
+     */
+    void sendBatch(List<SaleStateDTO> sales) throws IOException;
+}
@@ -0,0 +1,325 @@
+package palew.integration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import palew.DTO.CacheStatisticsDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.ItemSearchResultDTO;
+import palew.util.LatencyHistogram;
+import palew.util.Metrics;
+
+/**
+ * A bounded read-through cache in front of another inventory backend, so that repeated scans
+ * of the same barcode do not reach a slow backend.
+ * <p>
+ * Found items are cached for a time to live, and "not found" results are cached for a separate,
+ * usually shorter, time to live, so a scanner that repeats an unknown barcode is answered from
+ * the cache too. Database failures are never cached.
+ * <p>
+ * Entries are admitted with a segmented LRU policy: a new entry starts in a probation segment,
+ * and is moved to a protected segment when it is searched again. When the cache is full the
+ * least recently used entry in the probation segment is evicted, so items that are scanned once
+ * can not push out the popular ones. The cache is split in stripes with one lock each, so lanes
+ * searching different items rarely wait for each other. Two lanes missing the same item at the
+ * same time may both search the backend.
+ * <p>
+ * Every search of the backend for a single missed item is timed in the histogram
+ * <code>inventory.backend.searchItem</code> of {@link Metrics#getInstance()}. Misses are rare and
+ * slow, so every one of them is timed instead of a sample.
+ */
+public class CachingInventoryBackend implements InventoryBackend {
+    private static final double PROTECTED_SHARE = 0.8;
+    private static final int MAX_STRIPES = 16;
+    private static final int MIN_ENTRIES_PER_STRIPE = 64;
+
+    private final InventoryBackend backend;
+    private final long timeToLiveNanos;
+    private final long negativeTimeToLiveNanos;
+    private final Stripe[] stripes;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder negativeHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+    private final LatencyHistogram backendSearchLatency = Metrics.getInstance().histogram("inventory.backend.searchItem");
+
+    /**
+     * Creates a cache in front of the specified backend.
+     *
+     * @param backend the backend to search on a cache miss
+     * @param maximumSize the maximum number of cached entries, found and not found
+     * @param timeToLive how long a found item is cached
+     * @param negativeTimeToLive how long a "not found" result is cached, zero to not cache them
+     * @throws IllegalArgumentException if backend or a time to live is null, if maximumSize is less than 1,
+     *                                  or if a time to live is negative
+     */
+    public CachingInventoryBackend(InventoryBackend backend, int maximumSize, Duration timeToLive,
+            Duration negativeTimeToLive) throws IllegalArgumentException {
+        if (backend == null) throw new IllegalArgumentException("Backend must not be null.");
+        if (maximumSize < 1) throw new IllegalArgumentException("Maximum size must be at least 1.");
+        if (timeToLive == null || negativeTimeToLive == null) throw new IllegalArgumentException("Time to live must not be null.");
+        if (timeToLive.isNegative() || negativeTimeToLive.isNegative()) throw new IllegalArgumentException("Time to live cannot be negative.");
+        this.backend = backend;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.negativeTimeToLiveNanos = negativeTimeToLive.toNanos();
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maximumSize / MIN_ENTRIES_PER_STRIPE)));
+        int stripeCapacity = (maximumSize + stripeCount - 1) / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+    }
+
+    /**
+     * Searches the cache for the item with the given item identifier, and the backend if the
+     * item is not cached.
+     *
+     * @param itemID the itemID to search for
+     * @return the found item as ItemDTO
+     * @throws ItemNotFoundException if no item is found, by the cache or by the backend
+     * @throws DatabaseFailureException if the backend could not be searched
+     */
+    @Override
+    public ItemDTO searchItem(String itemID) throws ItemNotFoundException, DatabaseFailureException {
+        if (itemID == null) {
+            return backend.searchItem(itemID);
+        }
+        Stripe stripe = stripeFor(itemID);
+        long now = System.nanoTime();
+        Entry entry = stripe.get(itemID, now);
+        if (entry != null) {
+            if (entry.item == null) {
+                negativeHitCount.increment();
+                throw new ItemNotFoundException(itemID);
+            }
+            hitCount.increment();
+            return entry.item;
+        }
+        missCount.increment();
+        long start = backendSearchLatency.startTimer();
+        try {
+            ItemDTO item = backend.searchItem(itemID);
+            if (timeToLiveNanos > 0) {
+                stripe.put(itemID, new Entry(item, now + timeToLiveNanos));
+            }
+            return item;
+        } catch (ItemNotFoundException e) {
+            if (negativeTimeToLiveNanos > 0) {
+                stripe.put(itemID, new Entry(null, now + negativeTimeToLiveNanos));
+            }
+            throw e;
+        } finally {
+            backendSearchLatency.stopTimer(start);
+        }
+    }
+
+    /**
+     * Searches the cache for all the items with the given item identifiers, and searches the
+     * backend for the items that are not cached in one batch.
+     *
+     * @param itemIDs the itemIDs to search for. Duplicates are only searched once.
+     * @return the found items and the identifiers of the items that were not found
+     * @throws DatabaseFailureException if the backend could not be searched
+     */
+    @Override
+    public ItemSearchResultDTO searchItems(Collection<String> itemIDs) throws DatabaseFailureException {
+        Set<String> searchedItemIDs = new LinkedHashSet<>(itemIDs);
+        Map<String, Entry> cached = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        long now = System.nanoTime();
+        for (String itemID : searchedItemIDs) {
+            Entry entry = itemID == null ? null : stripeFor(itemID).get(itemID, now);
+            if (entry == null) {
+                missCount.increment();
+                uncached.add(itemID);
+            } else {
+                (entry.item == null ? negativeHitCount : hitCount).increment();
+                cached.put(itemID, entry);
+            }
+        }
+        ItemSearchResultDTO fetched = uncached.isEmpty() ? null : backend.searchItems(uncached);
+        if (fetched != null) {
+            for (Map.Entry<String, ItemDTO> found : fetched.getFoundItems().entrySet()) {
+                if (found.getKey() != null && timeToLiveNanos > 0) {
+                    stripeFor(found.getKey()).put(found.getKey(), new Entry(found.getValue(), now + timeToLiveNanos));
+                }
+            }
+            for (String missing : fetched.getMissingItemIDs()) {
+                if (missing != null && negativeTimeToLiveNanos > 0) {
+                    stripeFor(missing).put(missing, new Entry(null, now + negativeTimeToLiveNanos));
+                }
+            }
+        }
+        Map<String, ItemDTO> foundItems = new LinkedHashMap<>();
+        Set<String> missingItemIDs = new LinkedHashSet<>();
+        for (String itemID : searchedItemIDs) {
+            Entry entry = cached.get(itemID);
+            ItemDTO item = entry != null ? entry.item : fetched.getItem(itemID);
+            if (item == null) {
+                missingItemIDs.add(itemID);
+            } else {
+                foundItems.put(itemID, item);
+            }
+        }
+        return new ItemSearchResultDTO(foundItems, missingItemIDs);
+    }
+
+    /**
+     * Removes the cached result for the specified item, so that the next search asks the backend.
+     *
+     * @param itemID the item to forget
+     */
+    public void invalidate(String itemID) {
+        if (itemID != null) {
+            stripeFor(itemID).remove(itemID);
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Gets the current values of the cache counters.
+     *
+     * @return the cache statistics
+     */
+    public CacheStatisticsDTO getStatistics() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return new CacheStatisticsDTO(hitCount.sum(), negativeHitCount.sum(), missCount.sum(),
+                                      evictionCount.sum(), expirationCount.sum(), size);
+    }
+
+    private Stripe stripeFor(String itemID) {
+        int hash = itemID.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static class Entry {
+        private final ItemDTO item;
+        private final long expiresAtNanos;
+
+        private Entry(ItemDTO item, long expiresAtNanos) {
+            this.item = item;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<String, Entry> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final int protectedCapacity;
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = (int) (capacity * PROTECTED_SHARE);
+        }
+
+        private Entry get(String itemID, long now) {
+            lock.lock();
+            try {
+                Map<String, Entry> segment = protectedSegment;
+                Entry entry = protectedSegment.get(itemID);
+                if (entry == null) {
+                    segment = probation;
+                    entry = probation.get(itemID);
+                }
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.expiresAtNanos - now <= 0) {
+                    segment.remove(itemID);
+                    expirationCount.increment();
+                    return null;
+                }
+                if (segment == probation) {
+                    probation.remove(itemID);
+                    protectedSegment.put(itemID, entry);
+                    demoteOverflow();
+                }
+                return entry;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(String itemID, Entry entry) {
+            lock.lock();
+            try {
+                if (protectedSegment.containsKey(itemID)) {
+                    protectedSegment.put(itemID, entry);
+                    return;
+                }
+                probation.put(itemID, entry);
+                while (probation.size() + protectedSegment.size() > capacity) {
+                    Map<String, Entry> segment = probation.isEmpty() ? protectedSegment : probation;
+                    Iterator<String> eldest = segment.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evictionCount.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void demoteOverflow() {
+            while (protectedSegment.size() > protectedCapacity) {
+                Iterator<Map.Entry<String, Entry>> eldest = protectedSegment.entrySet().iterator();
+                Map.Entry<String, Entry> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+
+        private void remove(String itemID) {
+            lock.lock();
+            try {
+                probation.remove(itemID);
+                protectedSegment.remove(itemID);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                probation.clear();
+                protectedSegment.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return probation.size() + protectedSegment.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
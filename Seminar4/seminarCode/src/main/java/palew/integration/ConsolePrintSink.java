@@ -0,0 +1,26 @@
+package palew.integration;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import palew.model.Receipt;
+
+/**
+ * A print sink that writes receipts to the console, in the same form as {@link Printer} does.
+ * A batch of receipts is streamed through one buffer and flushed once.
+ */
+public class ConsolePrintSink implements PrintSink {
+    private final Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 8192);
+
+    @Override
+    public synchronized void print(List<Receipt> receipts) throws IOException {
+        for (Receipt receipt : receipts) {
+            receipt.renderTo(out);
+            out.write(System.lineSeparator());
+        }
+        out.flush();
+    }
+}
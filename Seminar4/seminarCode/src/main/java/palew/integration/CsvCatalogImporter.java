@@ -0,0 +1,275 @@
+package palew.integration;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import palew.DTO.CatalogImportDTO;
+
+/**
+ * Imports the nightly CSV price files into a catalog snapshot that can be searched with
+ * {@link MappedItemCatalog}.
+ * <p>
+ * The CSV file is split into chunks at line boundaries, and the chunks are parsed in parallel.
+ * The rows use the format described in {@link MappedItemCatalogBuilder#buildFromCsv(Path, Path)}
+ * and are validated with the same rules as the ItemDTO constructor, but a bad row is reported
+ * in the returned {@link CatalogImportDTO} instead of stopping the import. The parsed chunks are
+ * written to the snapshot in file order, so the last row wins if an item ID appears more than
+ * once. Restarts load the snapshot with {@link #loadOrImport(Path, Path)} instead of parsing the
+ * CSV file again.
+ */
+public class CsvCatalogImporter {
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MAX_CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_REPORTED_REJECTED_ROWS = 1000;
+    private static final int BLOCK_SIZE = 256 * 1024;
+
+    private final int parallelism;
+
+    /**
+     * Creates an importer that parses with one thread per available processor.
+     */
+    public CsvCatalogImporter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an importer that parses with the specified number of threads.
+     *
+     * @param parallelism the number of parser threads
+     * @throws IllegalArgumentException if parallelism is less than 1
+     */
+    public CsvCatalogImporter(int parallelism) throws IllegalArgumentException {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1.");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Opens the snapshot if it is at least as new as the CSV file, and otherwise imports the CSV
+     * file into a new snapshot first.
+     *
+     * @param csvFile the CSV price file
+     * @param snapshotFile the snapshot of the price file
+     * @return the catalog in the snapshot
+     * @throws IOException if the CSV file can not be imported or the snapshot can not be opened
+     */
+    public MappedItemCatalog loadOrImport(Path csvFile, Path snapshotFile) throws IOException {
+        if (Files.exists(snapshotFile)
+                && Files.getLastModifiedTime(snapshotFile).compareTo(Files.getLastModifiedTime(csvFile)) >= 0) {
+            try {
+                return MappedItemCatalog.open(snapshotFile);
+            } catch (IOException e) {
+                // A snapshot that can not be read is replaced by a new import.
+            }
+        }
+        importCsv(csvFile, snapshotFile);
+        return MappedItemCatalog.open(snapshotFile);
+    }
+
+    /**
+     * Parses the CSV file in parallel and writes the valid rows to a snapshot. The snapshot
+     * is written to a temporary file first, so an existing snapshot is only replaced by a
+     * complete one, and the temporary file is deleted if the import fails. At most two chunks
+     * per parser thread are parsed ahead of the chunk that is written, so memory use does not
+     * grow with the size of the CSV file.
+     *
+     * @param csvFile the CSV price file
+     * @param snapshotFile the file to write the snapshot to
+     * @return the number of imported items and the rows that were rejected
+     * @throws IOException if a file can not be read or written
+     */
+    public CatalogImportDTO importCsv(Path csvFile, Path snapshotFile) throws IOException {
+        long start = System.nanoTime();
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        long rowCount = 0;
+        long rejectedRowCount = 0;
+        Map<Long, String> rejectedRows = new HashMap<>();
+        int importedItemCount;
+        boolean imported = false;
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ);
+                 MappedItemCatalogBuilder builder = new MappedItemCatalogBuilder(tempFile)) {
+                long[] boundaries = findChunkBoundaries(channel);
+                int chunkCount = boundaries.length - 1;
+                int submitted = 0;
+                Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+                long firstLineNumber = 1;
+                while (submitted < chunkCount || !inFlight.isEmpty()) {
+                    // Only a few chunks are parsed ahead of the one being merged, so at most
+                    // MAX_CHUNKS_IN_FLIGHT_PER_THREAD * parallelism parsed chunks are held in memory.
+                    while (submitted < chunkCount && inFlight.size() < MAX_CHUNKS_IN_FLIGHT_PER_THREAD * parallelism) {
+                        long chunkStart = boundaries[submitted];
+                        long chunkEnd = boundaries[submitted + 1];
+                        inFlight.add(parsers.submit(() -> parseChunk(channel, chunkStart, chunkEnd)));
+                        submitted++;
+                    }
+                    Chunk chunk = awaitChunk(inFlight.poll());
+                    builder.addBatch(chunk.records);
+                    for (Map.Entry<Long, String> rejected : chunk.rejectedRows.entrySet()) {
+                        if (rejectedRows.size() < MAX_REPORTED_REJECTED_ROWS) {
+                            rejectedRows.put(firstLineNumber + rejected.getKey(), rejected.getValue());
+                        }
+                    }
+                    firstLineNumber += chunk.lineCount;
+                    rowCount += chunk.rowCount;
+                    rejectedRowCount += chunk.rejectedRowCount;
+                }
+                importedItemCount = builder.finish();
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            imported = true;
+        } finally {
+            parsers.shutdownNow();
+            if (!imported) {
+                deleteQuietly(tempFile);
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new CatalogImportDTO(rowCount, importedItemCount, rejectedRowCount, rejectedRows, elapsedMillis);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Failed to delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    private long[] findChunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkCount = Math.max((long) parallelism * CHUNKS_PER_THREAD, (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        chunkCount = Math.max(1, Math.min(chunkCount, size / MIN_CHUNK_SIZE));
+        long[] boundaries = new long[(int) chunkCount + 1];
+        boundaries[boundaries.length - 1] = size;
+        for (int i = 1; i < chunkCount; i++) {
+            long target = Math.max(boundaries[i - 1], size * i / chunkCount);
+            boundaries[i] = nextLineStart(channel, target, size);
+        }
+        return boundaries;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long probePosition = position - 1;
+        while (probePosition < size) {
+            probe.clear();
+            int read = channel.read(probe, probePosition);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return probePosition + i + 1;
+                }
+            }
+            probePosition += read;
+        }
+        return size;
+    }
+
+    private static Chunk parseChunk(FileChannel channel, long start, long end) throws IOException {
+        Chunk chunk = new Chunk();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        byte[] bytes = block.array();
+        long position = start;
+        while (position < end) {
+            block.limit((int) Math.min(block.capacity(), block.position() + end - position));
+            int read = channel.read(block, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+            int filled = block.position();
+            int lineStart = 0;
+            for (int i = 0; i < filled; i++) {
+                if (bytes[i] == '\n') {
+                    chunk.addLine(decodeLine(bytes, lineStart, i));
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart == 0 && filled == block.capacity()) {
+                block = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length * 2)).position(filled);
+                bytes = block.array();
+                continue;
+            }
+            System.arraycopy(bytes, lineStart, bytes, 0, filled - lineStart);
+            block.clear().position(filled - lineStart);
+        }
+        if (block.position() > 0) {
+            chunk.addLine(decodeLine(bytes, 0, block.position()));
+        }
+        return chunk;
+    }
+
+    private static String decodeLine(byte[] bytes, int start, int end) {
+        if (end > start && bytes[end - 1] == '\r') {
+            end--;
+        }
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static Chunk awaitChunk(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while importing the catalog.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to parse the catalog.", e.getCause());
+        }
+    }
+
+    private static class Chunk {
+        private final MappedItemCatalogBuilder.RecordBatch records = new MappedItemCatalogBuilder.RecordBatch();
+        private final Map<Long, String> rejectedRows = new HashMap<>();
+        private long lineCount;
+        private long rowCount;
+        private long rejectedRowCount;
+
+        private void addLine(String line) {
+            long lineIndex = lineCount++;
+            if (MappedItemCatalogBuilder.isSkipped(line)) {
+                return;
+            }
+            rowCount++;
+            try {
+                records.add(MappedItemCatalogBuilder.parseRow(line));
+            } catch (IllegalArgumentException e) {
+                rejectedRowCount++;
+                if (rejectedRows.size() < MAX_REPORTED_REJECTED_ROWS) {
+                    rejectedRows.put(lineIndex, e.getMessage());
+                }
+            }
+        }
+    }
+}
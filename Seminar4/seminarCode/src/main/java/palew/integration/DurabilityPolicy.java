@@ -0,0 +1,78 @@
+package palew.integration;
+
+/**
+ * Decides when buffered records are written to a file and forced to the storage device.
+ * Records that are written together form one group commit.
+ */
+public class DurabilityPolicy {
+    private final int recordsPerCommit;
+    private final long commitIntervalMillis;
+    private final boolean sync;
+
+    private DurabilityPolicy(int recordsPerCommit, long commitIntervalMillis, boolean sync) {
+        this.recordsPerCommit = recordsPerCommit;
+        this.commitIntervalMillis = commitIntervalMillis;
+        this.sync = sync;
+    }
+
+    /**
+     * Creates a policy that writes and forces the records every time the specified number of records is buffered.
+     *
+     * @param records the number of records in each group commit
+     * @return the policy
+     * @throws IllegalArgumentException if records is less than 1
+     */
+    public static DurabilityPolicy everyRecords(int records) throws IllegalArgumentException {
+        if (records < 1) throw new IllegalArgumentException("The number of records must be at least 1.");
+        return new DurabilityPolicy(records, 0, true);
+    }
+
+    /**
+     * Creates a policy that writes and forces the buffered records at a fixed interval.
+     *
+     * @param millis the time between group commits in milliseconds
+     * @return the policy
+     * @throws IllegalArgumentException if millis is less than 1
+     */
+    public static DurabilityPolicy everyMillis(long millis) throws IllegalArgumentException {
+        if (millis < 1) throw new IllegalArgumentException("The interval must be at least 1 ms.");
+        return new DurabilityPolicy(0, millis, true);
+    }
+
+    /**
+     * Creates a policy that writes every record directly but never forces it to the storage
+     * device, leaving that to the operating system. Records are only forced when the file is closed.
+     *
+     * @return the policy
+     */
+    public static DurabilityPolicy never() {
+        return new DurabilityPolicy(1, 0, false);
+    }
+
+    /**
+     * Gets the number of buffered records that triggers a commit.
+     *
+     * @return the number of records per commit, or 0 if commits are only triggered by time
+     */
+    public int getRecordsPerCommit() {
+        return recordsPerCommit;
+    }
+
+    /**
+     * Gets the time between commits.
+     *
+     * @return the commit interval in milliseconds, or 0 if commits are only triggered by records
+     */
+    public long getCommitIntervalMillis() {
+        return commitIntervalMillis;
+    }
+
+    /**
+     * Tells whether a commit forces the written records to the storage device.
+     *
+     * @return true if commits are forced, false otherwise
+     */
+    public boolean isSync() {
+        return sync;
+    }
+}
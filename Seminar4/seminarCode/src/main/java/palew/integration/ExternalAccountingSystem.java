@@ -7,16 +7,38 @@ import palew.DTO.SaleStateDTO;
  */
 
 public class ExternalAccountingSystem {
+    private final AccountingPipeline pipeline;
 
+    /**
+     * Creates an accounting system that does not send the sales anywhere.
+     */
+    public ExternalAccountingSystem() {
+        this.pipeline = null;
+    }
+
+    /**
+     * Creates an accounting system that hands the completed sales to the specified pipeline,
+     * which sends them to the accounting service in batches.
+     *
+     * @param pipeline the pipeline that sends the sales
+     * @throws IllegalArgumentException if pipeline is null
+     */
+    public ExternalAccountingSystem(AccountingPipeline pipeline) throws IllegalArgumentException {
+        if (pipeline == null) throw new IllegalArgumentException("Pipeline must not be null.");
+        this.pipeline = pipeline;
+    }
 
     /**
      * Records the details of a completed sale in the external accounting system.
      * This method would typically send the sale information to an external service or database.
+     * If a pipeline is used, the sale is only queued, and this method does not wait for the service.
      * 
      * @param saleState the state of the sale to be recorded, containing all necessary details
      */
     public void recordSale(SaleStateDTO saleState) {
-
+        if (pipeline != null) {
+            pipeline.recordSale(saleState);
+        }
     }
 
 }
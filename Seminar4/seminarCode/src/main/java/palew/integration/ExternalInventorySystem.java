@@ -1,22 +1,55 @@
 package palew.integration;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import palew.DTO.ItemAndRunningTotalDTO;
 import palew.DTO.ItemDTO;
+import palew.DTO.ItemSearchResultDTO;
+import palew.util.LatencyHistogram;
+import palew.util.Metrics;
+import palew.util.SaleEvents;
 
 /**
  * Implementation of the external inventory system as a Singleton.
+ * <p>
+ * Items are searched in an {@link InventoryBackend}. By default this is a small predefined
+ * inventory, which can be replaced with {@link #setBackend(InventoryBackend)}, for example by
+ * a {@link MappedItemCatalog} or by a {@link CachingInventoryBackend} in front of a remote service.
+ * Stock levels are kept in a {@link StockLedger}, and the changes can be persisted by a
+ * {@link WriteBehindInventoryStore}.
  */
 public class ExternalInventorySystem {
     private static ExternalInventorySystem instance;
-    private Map<String, ItemDTO> inventory;
+    private final InventoryBackend predefinedItems;
+    private volatile InventoryBackend backend;
+    private final StockLedger stockLedger = new StockLedger();
+    private volatile WriteBehindInventoryStore inventoryStore;
+    private final LatencyHistogram searchLatency = Metrics.getInstance().histogram("inventory.searchItem", Metrics.FAST_OPERATION_SAMPLE_INTERVAL);
+    private final LatencyHistogram batchSearchLatency = Metrics.getInstance().histogram("inventory.searchItems");
 
     
     private ExternalInventorySystem() {
-        this.inventory = createInventory();
+        this.predefinedItems = createPredefinedItems(createInventory());
+        this.backend = predefinedItems;
+    }
+
+    /**
+     * Creates an inventory system that is not the singleton instance and searches the specified
+     * backend, for example in tests.
+     *
+     * @param backend the backend to search
+     * @throws IllegalArgumentException if backend is null
+     */
+    public ExternalInventorySystem(InventoryBackend backend) throws IllegalArgumentException {
+        if (backend == null) throw new IllegalArgumentException("Backend must not be null.");
+        this.predefinedItems = createPredefinedItems(createInventory());
+        this.backend = backend;
     }
 
     /**
@@ -44,31 +77,158 @@ public class ExternalInventorySystem {
         return inventory;
     }
 
+    private static InventoryBackend createPredefinedItems(Map<String, ItemDTO> inventory) {
+        return itemID -> {
+            ItemDTO item = inventory.get(itemID);
+            if (item == null) {
+                throw new ItemNotFoundException(itemID);
+            }
+            return item;
+        };
+    }
+
+    /**
+     * Makes the inventory system search the specified backend.
+     *
+     * @param backend the backend to search, or null to search the predefined items again
+     */
+    public void setBackend(InventoryBackend backend) {
+        this.backend = backend == null ? predefinedItems : backend;
+    }
+
+    /**
+     * Makes the inventory system search the specified catalog instead of the predefined items.
+     *
+     * @param catalog the catalog to search, or null to search the predefined items again
+     */
+    public void useCatalog(MappedItemCatalog catalog) {
+        setBackend(catalog);
+    }
+
     /**
      * Searches inventory for the item with the given item identifier.
      *
      * @param itemID the itemID to search for
      * @return the found item as ItemDTO
      * @throws ItemNotFoundException if no item is found
-     * @throws DatabaseFailureException if the itemID is "xyz999", simulating a database failure
+     * @throws DatabaseFailureException if the itemID is "xyz999", simulating a database failure,
+     *                                  or if the backend could not be searched
      */
     public ItemDTO searchItem(String itemID) throws ItemNotFoundException, DatabaseFailureException {
-        if ("xyz999".equals(itemID)) {
-            throw new DatabaseFailureException("xyz999");
+        long start = searchLatency.startTimer();
+        SaleEvents.InventoryLookup event = new SaleEvents.InventoryLookup();
+        event.begin();
+        boolean hit = false;
+        boolean failed = false;
+        try {
+            if ("xyz999".equals(itemID)) {
+                throw new DatabaseFailureException("xyz999");
+            }
+            ItemDTO item = backend.searchItem(itemID);
+            hit = true;
+            return item;
+        } catch (DatabaseFailureException e) {
+            failed = true;
+            throw e;
+        } finally {
+            searchLatency.stopTimer(start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.itemID = itemID;
+                event.hit = hit;
+                event.failed = failed;
+                event.commit();
+            }
         }
-        ItemDTO item = inventory.get(itemID);
-        if (item == null) {
-            throw new ItemNotFoundException(itemID);
+    }
+
+    /**
+     * Searches inventory for all the items with the given item identifiers in one round trip
+     * to the backend. Items that are not found are returned as missing instead of being thrown.
+     *
+     * @param itemIDs the itemIDs to search for. Duplicates are only searched once.
+     * @return the found items and the identifiers of the items that were not found
+     * @throws IllegalArgumentException if itemIDs is null
+     * @throws DatabaseFailureException if an itemID is "xyz999", simulating a database failure,
+     *                                  or if the backend could not be searched
+     */
+    public ItemSearchResultDTO searchItems(Collection<String> itemIDs)
+            throws IllegalArgumentException, DatabaseFailureException {
+        if (itemIDs == null) throw new IllegalArgumentException("Item IDs must not be null.");
+        long start = batchSearchLatency.startTimer();
+        try {
+            if (itemIDs.contains("xyz999")) {
+                throw new DatabaseFailureException("xyz999");
+            }
+            return backend.searchItems(itemIDs);
+        } finally {
+            batchSearchLatency.stopTimer(start);
         }
-        return item;
     }
 
     /**
-     * Updates the external inventory system with the quantities sold during a sale.
+     * Gets the ledger that holds the stock levels of the stocked items.
+     *
+     * @return the stock ledger
+     */
+    public StockLedger getStockLedger() {
+        return stockLedger;
+    }
+
+    /**
+     * Makes the inventory system persist the stock changes of paid sales in the specified store.
+     * <p>
+     * The store is the source of truth for the items in its checkpoint: their stock levels are
+     * replaced by the checkpointed levels, so sales that are already included in the levels set
+     * by the caller are not counted twice. Other stocked items keep the levels set by the caller.
+     * The changes the store recovered after its checkpoint are then applied. Items that are in
+     * the store but not in the ledger are loaded into the ledger with a low-stock threshold of
+     * zero, so the persisted inventory is restored even if no stock has been set yet. The
+     * resulting levels of all items are written as the new checkpoint of the store, which
+     * empties its file of changes. No sale should have been recorded in the store before this call.
+     *
+     * @param store the store to persist the changes in, or null to stop persisting them
+     * @throws IOException if the checkpoint can not be written. The stock levels are not changed
+     *                     and the store is not used in that case.
+     */
+    public void useInventoryStore(WriteBehindInventoryStore store) throws IOException {
+        if (store != null) {
+            Map<String, Long> currentLevels = stockLedger.snapshot().getStockLevels();
+            Map<String, Long> checkpoint = store.getRecoveredCheckpoint();
+            Map<String, Long> deltas = store.getRecoveredDeltas();
+            Set<String> itemIDs = new HashSet<>(currentLevels.keySet());
+            itemIDs.addAll(checkpoint.keySet());
+            itemIDs.addAll(deltas.keySet());
+            Map<String, Long> recoveredLevels = new HashMap<>();
+            for (String itemID : itemIDs) {
+                long level = checkpoint.getOrDefault(itemID, currentLevels.getOrDefault(itemID, 0L));
+                recoveredLevels.put(itemID, level + deltas.getOrDefault(itemID, 0L));
+            }
+            store.checkpoint(recoveredLevels);
+            for (Map.Entry<String, Long> entry : recoveredLevels.entrySet()) {
+                Long currentLevel = currentLevels.get(entry.getKey());
+                if (currentLevel == null) {
+                    stockLedger.setStock(entry.getKey(), entry.getValue(), 0);
+                } else {
+                    stockLedger.adjustStock(entry.getKey(), entry.getValue() - currentLevel);
+                }
+            }
+        }
+        this.inventoryStore = store;
+    }
+
+    /**
+     * Updates the external inventory system with the quantities sold during a sale, by
+     * subtracting them from the stock ledger. If an inventory store is used, the changes are
+     * also queued to be persisted, without waiting for them to be written.
      *
      * @param itemList the list of items and their quantities
      */
     public void updateInventory(List<ItemAndRunningTotalDTO> itemList) {
-
+        stockLedger.recordSale(itemList);
+        WriteBehindInventoryStore store = inventoryStore;
+        if (store != null) {
+            store.recordSale(itemList);
+        }
     }
 }
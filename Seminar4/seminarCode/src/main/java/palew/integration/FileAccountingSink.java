@@ -0,0 +1,66 @@
+package palew.integration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.SaleStateDTO;
+
+/**
+ * An accounting sink that stands in for the accounting service by appending every sale as a
+ * line to a local file. Each batch is written and forced to the storage device in one write.
+ * <p>
+ * A line holds the time of the sale, the total price, the paid amount and the change, followed
+ * by every item identifier and its quantity, separated by semicolons.
+ */
+public class FileAccountingSink implements AccountingSink, AutoCloseable {
+    private final FileChannel channel;
+
+    /**
+     * Creates a sink that appends to the specified file.
+     *
+     * @param file the file to append to. It is created if it does not exist.
+     * @throws IllegalArgumentException if file is null
+     * @throws IOException if the file can not be opened
+     */
+    public FileAccountingSink(Path file) throws IllegalArgumentException, IOException {
+        if (file == null) throw new IllegalArgumentException("File must not be null.");
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void sendBatch(List<SaleStateDTO> sales) throws IOException {
+        StringBuilder lines = new StringBuilder(sales.size() * 64);
+        for (SaleStateDTO sale : sales) {
+            lines.append(sale.getTimeOfSale()).append(';')
+                 .append(sale.getTotalPriceIncludingVAT()).append(';')
+                 .append(sale.getPaidAmount()).append(';')
+                 .append(sale.getChange());
+            for (ItemAndRunningTotalDTO line : sale.getItemList()) {
+                lines.append(';').append(line.getItem().getItemID()).append('*').append(line.getQuantity());
+            }
+            lines.append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,56 @@
+package palew.integration;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import palew.model.Receipt;
+
+/**
+ * A print sink that appends receipts to a file, for example the spool file of a receipt
+ * printer. A batch of receipts is written and forced to the storage device in one go.
+ */
+public class FilePrintSink implements PrintSink, AutoCloseable {
+    private final FileChannel channel;
+    private final Writer out;
+
+    /**
+     * Creates a sink that appends to the specified file.
+     *
+     * @param file the file to append to. It is created if it does not exist.
+     * @throws IllegalArgumentException if file is null
+     * @throws IOException if the file can not be opened
+     */
+    public FilePrintSink(Path file) throws IllegalArgumentException, IOException {
+        if (file == null) throw new IllegalArgumentException("File must not be null.");
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 8192);
+    }
+
+    @Override
+    public synchronized void print(List<Receipt> receipts) throws IOException {
+        for (Receipt receipt : receipts) {
+            receipt.renderTo(out);
+            out.write('\n');
+        }
+        out.flush();
+        channel.force(false);
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
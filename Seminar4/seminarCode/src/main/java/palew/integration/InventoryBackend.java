@@ -0,0 +1,51 @@
+package palew.integration;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import palew.DTO.ItemDTO;
+import palew.DTO.ItemSearchResultDTO;
+
+/**
+ * A source of item information that {@link ExternalInventorySystem} searches, such as the
+ * predefined items, a {@link MappedItemCatalog} or a remote inventory service.
+ */
+public interface InventoryBackend {
+    /**
+     * Searches the backend for the item with the given item identifier.
+     *
+     * @param itemID the itemID to search for
+     * @return the found item as ItemDTO
+     * @throws ItemNotFoundException if no item is found
+     * @throws DatabaseFailureException if the backend could not be searched
+     */
+    ItemDTO searchItem(String itemID) throws ItemNotFoundException, DatabaseFailureException;
+
+    /**
+     * Searches the backend for all the items with the given item identifiers in one call.
+     * Backends with a high cost per call should override this to answer the whole batch at once.
+     * The default implementation searches the items one by one.
+     *
+     * @param itemIDs the itemIDs to search for. Duplicates are only searched once.
+     * @return the found items and the identifiers of the items that were not found
+     * @throws DatabaseFailureException if the backend could not be searched
+     */
+    default ItemSearchResultDTO searchItems(Collection<String> itemIDs) throws DatabaseFailureException {
+        Map<String, ItemDTO> foundItems = new LinkedHashMap<>();
+        Set<String> missingItemIDs = new LinkedHashSet<>();
+        for (String itemID : itemIDs) {
+            if (foundItems.containsKey(itemID) || missingItemIDs.contains(itemID)) {
+                continue;
+            }
+            try {
+                foundItems.put(itemID, searchItem(itemID));
+            } catch (ItemNotFoundException e) {
+                missingItemIDs.add(itemID);
+            }
+        }
+        return new ItemSearchResultDTO(foundItems, missingItemIDs);
+    }
+}
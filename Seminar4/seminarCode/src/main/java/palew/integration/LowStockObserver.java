@@ -0,0 +1,15 @@
+package palew.integration;
+
+/**
+ * An interface for classes that should be notified when the stock of an item falls to or
+ * below its low-stock threshold.
+ */
+public interface LowStockObserver {
+    /**
+     * Called when the stock of an item has fallen to or below its low-stock threshold.
+     *
+     * @param itemID The identifier of the item.
+     * @param stockLevel The stock level after the decrement.
+     */
+    void stockIsLow(String itemID, long stockLevel);
+}
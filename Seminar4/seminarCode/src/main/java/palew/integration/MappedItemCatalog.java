@@ -0,0 +1,175 @@
+package palew.integration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import palew.DTO.ItemDTO;
+
+/**
+ * A read-only product catalog that is stored in a binary file and read through a memory mapping.
+ * <p>
+ * The items are never loaded onto the heap as a whole. The file holds the item records followed
+ * by an open addressing hash index, so a search hashes the item identifier, probes the index in
+ * the mapped file and only creates an {@link ItemDTO} for the record that was found. The catalog
+ * file is created from a CSV export with {@link MappedItemCatalogBuilder}.
+ * <p>
+ * File layout, all numbers big endian:
+ * <ul>
+ * <li>Header of {@value #HEADER_SIZE} bytes: magic number, format version, number of items,
+ * number of index slots, and the offset of the index.</li>
+ * <li>Item records: identifier length (unsigned short) and UTF-8 bytes, price in öre (long),
+ * VAT rate (double), description length (int) and UTF-8 bytes.</li>
+ * <li>Index: one slot of {@value #SLOT_SIZE} bytes per entry, holding the offset of a record
+ * (long, 0 for an empty slot) and the hash of its identifier (int).</li>
+ * </ul>
+ * The whole file is mapped at once, so it can be at most 2 GB.
+ */
+public class MappedItemCatalog implements InventoryBackend {
+    static final int MAGIC = 0x50434154;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int SLOT_SIZE = 12;
+
+    private final MappedByteBuffer buffer;
+    private final int itemCount;
+    private final int slotMask;
+    private final int indexOffset;
+
+    private MappedItemCatalog(MappedByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("The file is not a product catalog.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported catalog version " + buffer.getInt(4) + ".");
+        }
+        int slotCount = buffer.getInt(12);
+        long index = buffer.getLong(16);
+        if (Integer.bitCount(slotCount) != 1 || index + (long) slotCount * SLOT_SIZE > buffer.capacity()) {
+            throw new IOException("The catalog index is corrupt.");
+        }
+        this.buffer = buffer;
+        this.itemCount = buffer.getInt(8);
+        this.slotMask = slotCount - 1;
+        this.indexOffset = (int) index;
+    }
+
+    /**
+     * Maps the specified catalog file into memory.
+     *
+     * @param catalogFile the file created by {@link MappedItemCatalogBuilder}
+     * @return the mapped catalog
+     * @throws IOException if the file can not be read, is larger than 2 GB or is not a catalog file
+     */
+    public static MappedItemCatalog open(Path catalogFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(catalogFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog files larger than 2 GB are not supported.");
+            }
+            return new MappedItemCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Searches the catalog for the item with the given item identifier.
+     *
+     * @param itemID the itemID to search for
+     * @return the found item as ItemDTO
+     * @throws ItemNotFoundException if no item is found
+     */
+    @Override
+    public ItemDTO searchItem(String itemID) throws ItemNotFoundException {
+        int recordOffset = itemID == null ? 0 : findRecord(itemID.getBytes(StandardCharsets.UTF_8));
+        if (recordOffset == 0) {
+            throw new ItemNotFoundException(itemID);
+        }
+        return readItem(buffer, recordOffset);
+    }
+
+    /**
+     * Checks if the catalog contains an item with the given item identifier.
+     *
+     * @param itemID the itemID to search for
+     * @return true if the item is in the catalog
+     */
+    public boolean containsItem(String itemID) {
+        return itemID != null && findRecord(itemID.getBytes(StandardCharsets.UTF_8)) != 0;
+    }
+
+    /**
+     * Gets the number of items in the catalog.
+     *
+     * @return the number of items
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    private int findRecord(byte[] id) {
+        int hash = hash(id);
+        int slot = hash & slotMask;
+        while (true) {
+            int slotOffset = indexOffset + slot * SLOT_SIZE;
+            int recordOffset = (int) buffer.getLong(slotOffset);
+            if (recordOffset == 0) {
+                return 0;
+            }
+            if (buffer.getInt(slotOffset + 8) == hash && idEquals(buffer, recordOffset, id)) {
+                return recordOffset;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    /**
+     * Hashes the UTF-8 bytes of an item identifier with FNV-1a, spreading the high bits into the
+     * low bits that select the index slot.
+     */
+    static int hash(byte[] id) {
+        int hash = 0x811c9dc5;
+        for (byte b : id) {
+            hash = (hash ^ (b & 0xff)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    static boolean idEquals(ByteBuffer buffer, int recordOffset, byte[] id) {
+        int length = buffer.getShort(recordOffset) & 0xffff;
+        if (length != id.length) {
+            return false;
+        }
+        int start = recordOffset + 2;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static ItemDTO readItem(ByteBuffer buffer, int recordOffset) {
+        int position = recordOffset;
+        int idLength = buffer.getShort(position) & 0xffff;
+        position += 2;
+        String itemID = readString(buffer, position, idLength);
+        position += idLength;
+        long priceInMinorUnits = buffer.getLong(position);
+        position += 8;
+        double vatRate = buffer.getDouble(position);
+        position += 8;
+        int descriptionLength = buffer.getInt(position);
+        position += 4;
+        String description = readString(buffer, position, descriptionLength);
+        return new ItemDTO(itemID, priceInMinorUnits / 100.0, vatRate, description);
+    }
+
+    private static String readString(ByteBuffer buffer, int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
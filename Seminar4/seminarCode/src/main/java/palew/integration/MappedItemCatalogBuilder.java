@@ -0,0 +1,333 @@
+package palew.integration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import palew.DTO.ItemDTO;
+
+/**
+ * Writes the binary catalog files that are read by {@link MappedItemCatalog}.
+ * <p>
+ * Items are streamed to the file as they are added, only their offsets and hashes are kept on
+ * the heap until the index is written by {@link #finish()}. If the same item identifier is added
+ * more than once, the last item wins. The class can also be run as a tool that converts a CSV
+ * export to a catalog file:
+ * <pre>
+ * java palew.integration.MappedItemCatalogBuilder items.csv items.catalog
+ * </pre>
+ */
+public class MappedItemCatalogBuilder implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "itemid,";
+
+    private final FileChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+    private long position = MappedItemCatalog.HEADER_SIZE;
+    private long[] offsets = new long[1024];
+    private int[] hashes = new int[1024];
+    private int recordCount;
+    private int duplicateCount;
+    private boolean finished;
+
+    /**
+     * Creates a builder that writes to the specified file. An existing file is replaced.
+     *
+     * @param catalogFile the file to write the catalog to
+     * @throws IOException if the file can not be created
+     */
+    public MappedItemCatalogBuilder(Path catalogFile) throws IOException {
+        this.channel = FileChannel.open(catalogFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(MappedItemCatalog.HEADER_SIZE);
+    }
+
+    /**
+     * Adds an item to the catalog.
+     *
+     * @param item the item to add
+     * @throws IOException if the item can not be written
+     * @throws IllegalArgumentException if the item is null, or its identifier is longer than 65535 bytes
+     * @throws IllegalStateException if the catalog has already been finished
+     */
+    public void addItem(ItemDTO item) throws IOException, IllegalArgumentException, IllegalStateException {
+        if (item == null) throw new IllegalArgumentException("Item must not be null.");
+        if (finished) throw new IllegalStateException("The catalog has already been finished.");
+        byte[] id = encodeID(item);
+        byte[] description = item.getItemDescription().getBytes(StandardCharsets.UTF_8);
+        int recordSize = recordSize(id, description);
+        if (out.remaining() < recordSize) {
+            writeBuffered();
+        }
+        ByteBuffer target = recordSize > out.capacity() ? ByteBuffer.allocate(recordSize) : out;
+        putRecord(target, item, id, description);
+        if (target != out) {
+            target.flip();
+            while (target.hasRemaining()) {
+                channel.write(target);
+            }
+        }
+        addOffset(position, MappedItemCatalog.hash(id));
+        position += recordSize;
+    }
+
+    /**
+     * Adds a batch of items that have already been encoded, for example by another thread.
+     *
+     * @param batch the encoded items
+     * @throws IOException if the items can not be written
+     * @throws IllegalStateException if the catalog has already been finished
+     */
+    void addBatch(RecordBatch batch) throws IOException, IllegalStateException {
+        if (finished) throw new IllegalStateException("The catalog has already been finished.");
+        writeBuffered();
+        ByteBuffer data = ByteBuffer.wrap(batch.data, 0, batch.size);
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        for (int i = 0; i < batch.count; i++) {
+            addOffset(position + batch.offsets[i], batch.hashes[i]);
+        }
+        position += batch.size;
+    }
+
+    private void addOffset(long offset, int hash) {
+        if (recordCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, recordCount * 2);
+            hashes = Arrays.copyOf(hashes, recordCount * 2);
+        }
+        offsets[recordCount] = offset;
+        hashes[recordCount] = hash;
+        recordCount++;
+    }
+
+    private static byte[] encodeID(ItemDTO item) throws IllegalArgumentException {
+        byte[] id = item.getItemID().getBytes(StandardCharsets.UTF_8);
+        if (id.length > 0xffff) throw new IllegalArgumentException("Item ID is too long: " + item.getItemID());
+        return id;
+    }
+
+    private static int recordSize(byte[] id, byte[] description) {
+        return 2 + id.length + 8 + 8 + 4 + description.length;
+    }
+
+    private static void putRecord(ByteBuffer target, ItemDTO item, byte[] id, byte[] description) {
+        target.putShort((short) id.length).put(id)
+              .putLong(item.getPrice().getMinorUnits())
+              .putDouble(item.getVatRate())
+              .putInt(description.length).put(description);
+    }
+
+    private void writeBuffered() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Writes the index and the header, and forces the catalog to the storage device.
+     *
+     * @return the number of distinct items in the catalog
+     * @throws IOException if the catalog can not be written
+     */
+    public int finish() throws IOException {
+        if (finished) throw new IllegalStateException("The catalog has already been finished.");
+        finished = true;
+        writeBuffered();
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("Catalog files larger than 2 GB are not supported.");
+        }
+        int slotCount = Integer.highestOneBit(Math.max(16, recordCount * 2 - 1)) << 1;
+        long indexSize = (long) slotCount * MappedItemCatalog.SLOT_SIZE;
+        if (position + indexSize > Integer.MAX_VALUE) {
+            throw new IOException("Catalog files larger than 2 GB are not supported.");
+        }
+        MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+        long[] slotOffsets = new long[slotCount];
+        int[] slotHashes = new int[slotCount];
+        int mask = slotCount - 1;
+        for (int i = 0; i < recordCount; i++) {
+            insert(records, slotOffsets, slotHashes, mask, offsets[i], hashes[i]);
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(BUFFER_SIZE - BUFFER_SIZE % MappedItemCatalog.SLOT_SIZE);
+        long indexOffset = position;
+        channel.position(indexOffset);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!index.hasRemaining()) {
+                index.flip();
+                while (index.hasRemaining()) {
+                    channel.write(index);
+                }
+                index.clear();
+            }
+            index.putLong(slotOffsets[slot]).putInt(slotHashes[slot]);
+        }
+        index.flip();
+        while (index.hasRemaining()) {
+            channel.write(index);
+        }
+
+        int itemCount = recordCount - duplicateCount;
+        ByteBuffer header = ByteBuffer.allocate(MappedItemCatalog.HEADER_SIZE);
+        header.putInt(MappedItemCatalog.MAGIC).putInt(MappedItemCatalog.VERSION)
+              .putInt(itemCount).putInt(slotCount).putLong(indexOffset).flip();
+        header.limit(MappedItemCatalog.HEADER_SIZE);
+        channel.write(header, 0);
+        channel.force(true);
+        return itemCount;
+    }
+
+    private void insert(ByteBuffer records, long[] slotOffsets, int[] slotHashes, int mask, long offset, int hash) {
+        byte[] id = null;
+        int slot = hash & mask;
+        while (slotOffsets[slot] != 0) {
+            if (slotHashes[slot] == hash) {
+                if (id == null) {
+                    int length = records.getShort((int) offset) & 0xffff;
+                    id = new byte[length];
+                    records.get((int) offset + 2, id);
+                }
+                if (MappedItemCatalog.idEquals(records, (int) slotOffsets[slot], id)) {
+                    slotOffsets[slot] = offset;
+                    duplicateCount++;
+                    return;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        slotOffsets[slot] = offset;
+        slotHashes[slot] = hash;
+    }
+
+    /**
+     * Closes the catalog file. A catalog that was not finished is left incomplete.
+     *
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Converts a CSV export to a catalog file. Each row holds item ID, price, VAT rate and
+     * description, separated by commas. The description is the rest of the row and may contain
+     * commas. Blank rows and a header row starting with <code>itemID</code> are skipped.
+     *
+     * @param csvFile the CSV export to read
+     * @param catalogFile the file to write the catalog to
+     * @return the number of distinct items in the catalog
+     * @throws IOException if a file can not be read or written
+     * @throws IllegalArgumentException if a row is not a valid item
+     */
+    public static int buildFromCsv(Path csvFile, Path catalogFile) throws IOException, IllegalArgumentException {
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+             MappedItemCatalogBuilder builder = new MappedItemCatalogBuilder(catalogFile)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (isSkipped(line)) {
+                    continue;
+                }
+                try {
+                    builder.addItem(parseRow(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid item on line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+            return builder.finish();
+        }
+    }
+
+    static boolean isSkipped(String line) {
+        String trimmed = line.trim();
+        return trimmed.isEmpty() || trimmed.regionMatches(true, 0, CSV_HEADER, 0, CSV_HEADER.length());
+    }
+
+    /**
+     * Parses one CSV row into an item, with the same validation as the ItemDTO constructor.
+     *
+     * @param line the row to parse
+     * @return the item described by the row
+     * @throws IllegalArgumentException if the row is not a valid item
+     */
+    static ItemDTO parseRow(String line) throws IllegalArgumentException {
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        int third = second < 0 ? -1 : line.indexOf(',', second + 1);
+        if (third < 0) throw new IllegalArgumentException("Expected item ID, price, VAT rate and description.");
+        String description = line.substring(third + 1).trim();
+        if (description.length() >= 2 && description.startsWith("\"") && description.endsWith("\"")) {
+            description = description.substring(1, description.length() - 1).replace("\"\"", "\"");
+        }
+        return new ItemDTO(line.substring(0, first).trim(),
+                           Double.parseDouble(line.substring(first + 1, second).trim()),
+                           Double.parseDouble(line.substring(second + 1, third).trim()),
+                           description);
+    }
+
+    /**
+     * Converts a CSV export to a catalog file.
+     *
+     * @param args the CSV file and the catalog file
+     * @throws IOException if a file can not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: MappedItemCatalogBuilder <csv file> <catalog file>");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        int itemCount = buildFromCsv(Paths.get(args[0]), Paths.get(args[1]));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Wrote " + itemCount + " items to " + args[1] + " in " + millis + " ms.");
+    }
+
+    /**
+     * Items encoded in the catalog record format, ready to be added with {@link #addBatch(RecordBatch)}.
+     * Encoding into a compact byte array keeps parsed items from piling up on the heap as objects.
+     */
+    static class RecordBatch {
+        private byte[] data = new byte[BUFFER_SIZE];
+        private int size;
+        private int[] offsets = new int[256];
+        private int[] hashes = new int[256];
+        private int count;
+
+        /**
+         * Encodes an item and adds it to the batch.
+         *
+         * @param item the item to add
+         * @throws IllegalArgumentException if the identifier of the item is longer than 65535 bytes
+         */
+        void add(ItemDTO item) throws IllegalArgumentException {
+            byte[] id = encodeID(item);
+            byte[] description = item.getItemDescription().getBytes(StandardCharsets.UTF_8);
+            int recordSize = recordSize(id, description);
+            if (data.length - size < recordSize) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + recordSize));
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                hashes = Arrays.copyOf(hashes, count * 2);
+            }
+            putRecord(ByteBuffer.wrap(data, size, recordSize), item, id, description);
+            offsets[count] = size;
+            hashes[count] = MappedItemCatalog.hash(id);
+            count++;
+            size += recordSize;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package palew.integration;
+
+import java.io.IOException;
+import java.util.List;
+
+import palew.model.Receipt;
+
+/**
+ * A device that a {@link PrintSpooler} writes receipts to, such as the console, a file or a
+ * receipt printer.
+ */
+public interface PrintSink {
+    /**
+     * Prints a batch of receipts, in order, each followed by a line break. The sink is called
+     * by one spooler thread at a time.
+     *
+     * @param receipts the receipts to print, in the order they were submitted
+     * @throws IOException if the receipts could not be printed
+     */
+    void print(List<Receipt> receipts) throws IOException;
+}
@@ -0,0 +1,244 @@
+package palew.integration;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import palew.DTO.PrintStatisticsDTO;
+import palew.model.Receipt;
+import palew.util.SaleEvents;
+
+/**
+ * Prints receipts on a dedicated virtual thread, so that a slow or blocked printer does not
+ * hold up the payment that produced the receipt.
+ * <p>
+ * {@link #submit(Receipt)} only puts the receipt in a bounded queue. The spooler thread takes
+ * every queued receipt, up to {@value #MAX_BATCH_SIZE} at a time, and writes them to the
+ * {@link PrintSink} in one batch, so a backlog is worked off with few writes. When the queue is
+ * full, submit waits for room instead of dropping the receipt. If the sink fails, the batch is
+ * written again after a short pause, up to {@value #MAX_ATTEMPTS} attempts in all, so a sink that
+ * failed part way through a batch may print some receipts twice. A batch that still fails is
+ * dropped, reported on the error stream and counted, and the spooler goes on with the next batch.
+ */
+public class PrintSpooler implements AutoCloseable {
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 100;
+
+    private final PrintSink sink;
+    private final int capacity;
+    private final ArrayDeque<SpooledReceipt> queue;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final Thread worker;
+    private boolean closed;
+    private boolean printing;
+
+    private long spooledReceiptCount;
+    private long printedReceiptCount;
+    private long failedReceiptCount;
+    private long writeCount;
+    private int maxSpoolDepth;
+    private long lastPrintLatencyNanos;
+    private long maxPrintLatencyNanos;
+
+    /**
+     * Starts a spooler that prints to the specified sink.
+     *
+     * @param sink where the receipts are printed
+     * @param capacity the maximum number of receipts waiting to be printed
+     * @throws IllegalArgumentException if sink is null, or if capacity is less than 1
+     */
+    public PrintSpooler(PrintSink sink, int capacity) throws IllegalArgumentException {
+        if (sink == null) throw new IllegalArgumentException("Sink must not be null.");
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1.");
+        this.sink = sink;
+        this.capacity = capacity;
+        this.queue = new ArrayDeque<>(Math.min(capacity, 1024));
+        this.worker = Thread.ofVirtual().name("print-spooler").start(this::printReceipts);
+    }
+
+    /**
+     * Queues a receipt to be printed. Waits only if the queue is full.
+     *
+     * @param receipt the receipt to print
+     * @throws IllegalArgumentException if receipt is null
+     * @throws IllegalStateException if the spooler has been closed
+     */
+    public void submit(Receipt receipt) throws IllegalArgumentException, IllegalStateException {
+        if (receipt == null) throw new IllegalArgumentException("Receipt must not be null.");
+        SpooledReceipt spooled = new SpooledReceipt(receipt, System.nanoTime());
+        lock.lock();
+        try {
+            while (queue.size() == capacity && !closed) {
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) throw new IllegalStateException("The spooler has been closed.");
+            queue.addLast(spooled);
+            spooledReceiptCount++;
+            maxSpoolDepth = Math.max(maxSpoolDepth, queue.size());
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void printReceipts() {
+        while (true) {
+            List<SpooledReceipt> batch;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                int size = Math.min(MAX_BATCH_SIZE, queue.size());
+                batch = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    batch.add(queue.pollFirst());
+                }
+                printing = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            write(batch);
+        }
+    }
+
+    private void write(List<SpooledReceipt> batch) {
+        List<Receipt> receipts = new ArrayList<>(batch.size());
+        for (SpooledReceipt spooled : batch) {
+            receipts.add(spooled.receipt);
+        }
+        SaleEvents.ReceiptPrint event = new SaleEvents.ReceiptPrint();
+        event.begin();
+        boolean printed = false;
+        for (int attempt = 1; !printed; attempt++) {
+            try {
+                sink.print(Collections.unmodifiableList(receipts));
+                printed = true;
+            } catch (Exception e) {
+                if (attempt == MAX_ATTEMPTS || !pauseBeforeRetry(attempt)) {
+                    System.err.println("Failed to print " + batch.size() + " receipts: " + e.getMessage());
+                    break;
+                }
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.receiptCount = batch.size();
+            event.spooled = true;
+            event.failed = !printed;
+            event.commit();
+        }
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            writeCount++;
+            if (printed) {
+                printedReceiptCount += batch.size();
+                lastPrintLatencyNanos = now - batch.get(batch.size() - 1).submittedAtNanos;
+                maxPrintLatencyNanos = Math.max(maxPrintLatencyNanos, now - batch.get(0).submittedAtNanos);
+            } else {
+                failedReceiptCount += batch.size();
+            }
+            printing = false;
+            if (queue.isEmpty()) {
+                drained.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean pauseBeforeRetry(int attempt) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MILLIS * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Waits until all queued receipts have been printed, or until the timeout expires.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if the queue was drained, false if the timeout expired
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitDrained(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!queue.isEmpty() || printing) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = drained.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the counters of the spooler.
+     *
+     * @return the current statistics
+     */
+    public PrintStatisticsDTO getStatistics() {
+        lock.lock();
+        try {
+            return new PrintStatisticsDTO(spooledReceiptCount, printedReceiptCount, failedReceiptCount, writeCount,
+                    queue.size(), maxSpoolDepth, TimeUnit.NANOSECONDS.toMillis(lastPrintLatencyNanos),
+                    TimeUnit.NANOSECONDS.toMillis(maxPrintLatencyNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting receipts, prints the receipts that are already queued and waits for the
+     * spooler thread to finish. If the calling thread is interrupted while waiting, it stops
+     * waiting with its interrupt status set, and the queued receipts are still printed.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class SpooledReceipt {
+        private final Receipt receipt;
+        private final long submittedAtNanos;
+
+        private SpooledReceipt(Receipt receipt, long submittedAtNanos) {
+            this.receipt = receipt;
+            this.submittedAtNanos = submittedAtNanos;
+        }
+    }
+}
@@ -1,19 +1,51 @@
 package palew.integration;
 
 import palew.model.Receipt;
+import palew.util.SaleEvents;
 
 /*
  * This class represents the printer in the sale flow
  */
 public class Printer {
+    private final PrintSpooler spooler;
 
     /**
-    * Prints the details of the receipt to the console.
+     * Creates a printer that prints receipts to the console on the calling thread.
+     */
+    public Printer() {
+        this.spooler = null;
+    }
+
+    /**
+     * Creates a printer that hands receipts to a print spooler, so that printing does not hold
+     * up the caller.
+     *
+     * @param spooler the spooler that prints the receipts
+     * @throws IllegalArgumentException if spooler is null
+     */
+    public Printer(PrintSpooler spooler) throws IllegalArgumentException {
+        if (spooler == null) throw new IllegalArgumentException("Spooler must not be null.");
+        this.spooler = spooler;
+    }
+
+    /**
+    * Prints the details of the receipt to the console, or queues it with the spooler of the printer.
     * 
     * @param receipt the receipt to be printed
     */
     public void print(Receipt receipt) {
+        if (spooler != null) {
+            spooler.submit(receipt);
+            return;
+        }
+        SaleEvents.ReceiptPrint event = new SaleEvents.ReceiptPrint();
+        event.begin();
         System.out.println(receipt.toString());
+        event.end();
+        if (event.shouldCommit()) {
+            event.receiptCount = 1;
+            event.commit();
+        }
     }
 
 }
@@ -0,0 +1,649 @@
+package palew.integration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.RecoveredSaleDTO;
+
+/**
+ * A write-ahead journal of the open sales, so that the scanned items of a sale are not lost
+ * if the program stops before the sale is paid.
+ * <p>
+ * Every lane appends to its own segment file, <code>lane-N.log</code> in the journal directory,
+ * so lanes never wait for each other. A sale is journaled as one record when it is opened, one
+ * record per scanned item and one record when it is paid. Records are buffered and written in
+ * group commits as decided by the {@link DurabilityPolicy}, and every record carries a checksum.
+ * <p>
+ * When the journal is opened, all segments are read, and the sales that were opened but not
+ * paid are available from {@link #getRecoveredSales()}. A record that was only partly written
+ * when the program stopped is cut off the end of its segment.
+ * <p>
+ * When a sale is paid and the segment of its lane has grown large, the segment is emptied if
+ * no other sale of the lane is open. Otherwise it is rewritten with only the records of the open
+ * sales, and replaced atomically, so sales that are never paid do not make it grow without bound.
+ */
+public class SaleJournal implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "lane-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte OPEN_RECORD = 1;
+    private static final byte ITEM_RECORD = 2;
+    private static final byte PAID_RECORD = 3;
+    private static final int RECORD_OVERHEAD = Integer.BYTES + 1 + Integer.BYTES;
+    private static final int MAX_BODY_LENGTH = 64 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int READ_CHUNK_SIZE = 1024 * 1024;
+    private static final long SEGMENT_RESET_BYTES = 8 * 1024 * 1024;
+
+    private final Path directory;
+    private final DurabilityPolicy policy;
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final List<RecoveredSaleDTO> recoveredSales = new ArrayList<>();
+    private ScheduledExecutorService commitTimer;
+    private long highestSaleID;
+    private long recoveredRecordCount;
+    private final AtomicLong failedWriteCount = new AtomicLong();
+
+    private SaleJournal(Path directory, DurabilityPolicy policy) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                Integer lane = laneOf(file);
+                if (lane != null) {
+                    segments.put(lane, openSegment(lane, file));
+                }
+            }
+        } catch (IOException e) {
+            closeSegments();
+            throw e;
+        }
+        recoveredSales.sort(Comparator.comparingLong(RecoveredSaleDTO::getSaleID));
+    }
+
+    /**
+     * Opens the journal in the specified directory and reads the sales that were not paid. If
+     * the durability policy has a commit interval, a timer thread that commits the buffered
+     * records is started.
+     *
+     * @param directory the directory of the segment files. It is created if it does not exist.
+     * @param policy when records are written and forced to the storage device
+     * @return the opened journal
+     * @throws IllegalArgumentException if directory or policy is null
+     * @throws IOException if the directory or a segment can not be opened or read
+     */
+    public static SaleJournal open(Path directory, DurabilityPolicy policy) throws IllegalArgumentException, IOException {
+        if (directory == null) throw new IllegalArgumentException("Directory must not be null.");
+        if (policy == null) throw new IllegalArgumentException("Durability policy must not be null.");
+        SaleJournal journal = new SaleJournal(directory, policy);
+        journal.startCommitTimer();
+        return journal;
+    }
+
+    private void startCommitTimer() {
+        long interval = policy.getCommitIntervalMillis();
+        if (interval <= 0) {
+            return;
+        }
+        commitTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sale-journal-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        commitTimer.scheduleAtFixedRate(this::commitQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private static Integer laneOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.valueOf(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Segment openSegment(int lane, Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            Map<Long, ItemOffsets> openSales = new LinkedHashMap<>();
+            long validLength = replay(channel, openSales);
+            if (validLength < channel.size()) {
+                channel.truncate(validLength);
+                channel.force(false);
+            }
+            ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + MAX_BODY_LENGTH);
+            for (Map.Entry<Long, ItemOffsets> entry : openSales.entrySet()) {
+                ItemOffsets offsets = entry.getValue();
+                List<ItemAndRunningTotalDTO> scannedItems = new ArrayList<>(offsets.size);
+                for (int i = 0; i < offsets.size; i++) {
+                    ItemAndRunningTotalDTO line = readItem(channel, offsets.offsets[i], record);
+                    if (line != null) {
+                        scannedItems.add(line);
+                    }
+                }
+                recoveredSales.add(new RecoveredSaleDTO(entry.getKey(), lane, scannedItems));
+            }
+            channel.position(validLength);
+            return new Segment(file, channel, openSales, validLength);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads all records of a segment and checks their checksums. Only the file offsets of the
+     * item records are kept, and only for sales that are still open, so the items of paid
+     * sales are never decoded.
+     */
+    private long replay(FileChannel channel, Map<Long, ItemOffsets> openSales) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_SIZE);
+        CRC32 checksum = new CRC32();
+        long validLength = 0;
+        channel.position(0);
+        while (channel.read(chunk) > 0) {
+            chunk.flip();
+            while (chunk.remaining() >= Integer.BYTES) {
+                int start = chunk.position();
+                int bodyLength = chunk.getInt(start);
+                if (bodyLength < Long.BYTES || bodyLength > MAX_BODY_LENGTH) {
+                    return validLength;
+                }
+                if (chunk.remaining() < RECORD_OVERHEAD + bodyLength) {
+                    break;
+                }
+                checksum.reset();
+                checksum.update(chunk.array(), start + Integer.BYTES, 1 + bodyLength);
+                if (chunk.getInt(start + Integer.BYTES + 1 + bodyLength) != (int) checksum.getValue()) {
+                    return validLength;
+                }
+                byte type = chunk.get(start + Integer.BYTES);
+                long saleID = chunk.getLong(start + Integer.BYTES + 1);
+                highestSaleID = Math.max(highestSaleID, saleID);
+                if (type == OPEN_RECORD) {
+                    openSales.put(saleID, new ItemOffsets());
+                } else if (type == ITEM_RECORD) {
+                    ItemOffsets offsets = openSales.get(saleID);
+                    if (offsets != null) {
+                        offsets.add(validLength);
+                    }
+                } else if (type == PAID_RECORD) {
+                    openSales.remove(saleID);
+                } else {
+                    return validLength;
+                }
+                chunk.position(start + RECORD_OVERHEAD + bodyLength);
+                validLength += RECORD_OVERHEAD + bodyLength;
+                recoveredRecordCount++;
+            }
+            chunk.compact();
+        }
+        return validLength;
+    }
+
+    private static ItemAndRunningTotalDTO readItem(FileChannel channel, long offset, ByteBuffer record) throws IOException {
+        record.clear().limit(Integer.BYTES);
+        readFully(channel, record, offset);
+        int bodyLength = record.getInt(0);
+        record.clear().limit(1 + bodyLength);
+        readFully(channel, record, offset + Integer.BYTES);
+        record.flip();
+        try {
+            record.position(1 + Long.BYTES);
+            int quantity = record.getInt();
+            long priceInMinorUnits = record.getLong();
+            double vatRate = record.getDouble();
+            String itemID = readString(record, Short.toUnsignedInt(record.getShort()));
+            String description = readString(record, record.getInt());
+            return new ItemAndRunningTotalDTO(new ItemDTO(itemID, priceInMinorUnits / 100.0, vatRate, description), quantity);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the sale journal.");
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Gets the sales that were opened but not paid when the journal was opened.
+     *
+     * @return an unmodifiable list of the recovered sales, ordered by sale ID
+     */
+    public List<RecoveredSaleDTO> getRecoveredSales() {
+        return Collections.unmodifiableList(recoveredSales);
+    }
+
+    /**
+     * Gets the highest sale ID found in the journal when it was opened, so that new sales can
+     * be given IDs that have not been used.
+     *
+     * @return the highest sale ID, or 0 if the journal was empty
+     */
+    public long getHighestSaleID() {
+        return highestSaleID;
+    }
+
+    /**
+     * Gets the number of records that were read when the journal was opened.
+     *
+     * @return the number of recovered records
+     */
+    public long getRecoveredRecordCount() {
+        return recoveredRecordCount;
+    }
+
+    /**
+     * Gets the number of records that could not be written.
+     *
+     * @return the number of failed writes
+     */
+    public long getFailedWriteCount() {
+        return failedWriteCount.get();
+    }
+
+    /**
+     * Journals that a sale has been opened.
+     *
+     * @param saleID the ID of the sale
+     * @param lane the lane the sale was opened on
+     */
+    public void recordOpen(long saleID, int lane) {
+        Segment segment = segmentOf(lane);
+        synchronized (segment) {
+            segment.openSales.put(saleID, new ItemOffsets());
+            append(segment, OPEN_RECORD, saleID, null, 0);
+        }
+    }
+
+    /**
+     * Journals that an item has been scanned into a sale.
+     *
+     * @param saleID the ID of the sale
+     * @param lane the lane the sale was opened on
+     * @param item the scanned item
+     * @param quantity the scanned quantity
+     */
+    public void recordItem(long saleID, int lane, ItemDTO item, int quantity) {
+        Segment segment = segmentOf(lane);
+        synchronized (segment) {
+            appendItem(segment, saleID, item, quantity);
+        }
+    }
+
+    /**
+     * Journals that several items have been scanned into a sale at once.
+     *
+     * @param saleID the ID of the sale
+     * @param lane the lane the sale was opened on
+     * @param items the scanned items
+     * @param quantities the scanned quantity of each item
+     */
+    public void recordItems(long saleID, int lane, ItemDTO[] items, int[] quantities) {
+        Segment segment = segmentOf(lane);
+        synchronized (segment) {
+            for (int i = 0; i < items.length; i++) {
+                appendItem(segment, saleID, items[i], quantities[i]);
+            }
+        }
+    }
+
+    /**
+     * Journals that a sale has been paid, so that it is not recovered.
+     *
+     * @param saleID the ID of the sale
+     * @param lane the lane the sale was opened on
+     */
+    public void recordPayment(long saleID, int lane) {
+        Segment segment = segmentOf(lane);
+        synchronized (segment) {
+            segment.openSales.remove(saleID);
+            if (segment.length() <= segment.compactionThreshold) {
+                append(segment, PAID_RECORD, saleID, null, 0);
+            } else if (segment.openSales.isEmpty()) {
+                reset(segment);
+            } else if (!compact(segment)) {
+                append(segment, PAID_RECORD, saleID, null, 0);
+            }
+        }
+    }
+
+    private Segment segmentOf(int lane) {
+        Segment segment = segments.get(lane);
+        if (segment != null) {
+            return segment;
+        }
+        return segments.computeIfAbsent(lane, key -> {
+            Path file = directory.resolve(SEGMENT_PREFIX + key + SEGMENT_SUFFIX);
+            try {
+                return new Segment(file, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE), new LinkedHashMap<>(), 0);
+            } catch (IOException e) {
+                System.err.println("Failed to open the sale journal of lane " + key + ".");
+                return new Segment(file, null, new LinkedHashMap<>(), 0);
+            }
+        });
+    }
+
+    private void appendItem(Segment segment, long saleID, ItemDTO item, int quantity) {
+        long offset = append(segment, ITEM_RECORD, saleID, item, quantity);
+        ItemOffsets offsets = segment.openSales.get(saleID);
+        if (offset >= 0 && offsets != null) {
+            offsets.add(offset);
+        }
+    }
+
+    /**
+     * Appends a record to the buffer of a segment.
+     *
+     * @return the offset of the record in the segment file, or -1 if it could not be written
+     */
+    private long append(Segment segment, byte type, long saleID, ItemDTO item, int quantity) {
+        byte[] itemID = null;
+        byte[] description = null;
+        int bodyLength = Long.BYTES;
+        if (item != null) {
+            itemID = item.getItemID().getBytes(StandardCharsets.UTF_8);
+            description = item.getItemDescription().getBytes(StandardCharsets.UTF_8);
+            bodyLength += Integer.BYTES + Long.BYTES + Double.BYTES + Short.BYTES + itemID.length
+                    + Integer.BYTES + description.length;
+        }
+        if (segment.channel == null || bodyLength > MAX_BODY_LENGTH) {
+            failedWriteCount.incrementAndGet();
+            return -1;
+        }
+        try {
+            ByteBuffer buffer = segment.buffer;
+            if (buffer.remaining() < RECORD_OVERHEAD + bodyLength) {
+                commit(segment);
+            }
+            int start = buffer.position();
+            buffer.putInt(bodyLength).put(type).putLong(saleID);
+            if (item != null) {
+                buffer.putInt(quantity)
+                      .putLong(item.getPrice().getMinorUnits())
+                      .putDouble(item.getVatRate())
+                      .putShort((short) itemID.length).put(itemID)
+                      .putInt(description.length).put(description);
+            }
+            putChecksum(buffer, start, bodyLength);
+            long offset = segment.committedLength + start;
+            segment.pendingRecords++;
+            int recordsPerCommit = policy.getRecordsPerCommit();
+            if (recordsPerCommit > 0 && segment.pendingRecords >= recordsPerCommit) {
+                commit(segment);
+            }
+            return offset;
+        } catch (IOException e) {
+            failedWriteCount.incrementAndGet();
+            System.err.println("Failed to write to the sale journal.");
+            return -1;
+        }
+    }
+
+    private static void putChecksum(ByteBuffer buffer, int start, int bodyLength) {
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), start + Integer.BYTES, 1 + bodyLength);
+        buffer.putInt((int) checksum.getValue());
+    }
+
+    private void commit(Segment segment) throws IOException {
+        if (segment.pendingRecords == 0 || segment.channel == null) {
+            return;
+        }
+        ByteBuffer buffer = segment.buffer;
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                segment.channel.write(buffer);
+            }
+            segment.committedLength += buffer.limit();
+        } catch (IOException e) {
+            try {
+                segment.committedLength = segment.channel.size();
+            } catch (IOException ignored) {
+                // The offsets of later records are checked when the segment is compacted.
+            }
+            throw e;
+        } finally {
+            buffer.clear();
+            segment.pendingRecords = 0;
+        }
+        if (policy.isSync()) {
+            segment.channel.force(false);
+        }
+    }
+
+    private void reset(Segment segment) {
+        try {
+            segment.buffer.clear();
+            segment.pendingRecords = 0;
+            segment.committedLength = 0;
+            segment.compactionThreshold = SEGMENT_RESET_BYTES;
+            segment.channel.truncate(0);
+            segment.channel.position(0);
+            segment.channel.force(false);
+        } catch (IOException e) {
+            failedWriteCount.incrementAndGet();
+            System.err.println("Failed to empty the sale journal.");
+        }
+    }
+
+    /**
+     * Rewrites a segment with only the records of its open sales. The new segment is written to
+     * a temporary file that replaces the segment when it is complete, so the old segment stays
+     * in place if the program stops while it is compacted.
+     *
+     * @return true if the segment was replaced, false if it was left as it was
+     */
+    private boolean compact(Segment segment) {
+        Path tempFile = segment.file.resolveSibling(segment.file.getFileName() + ".tmp");
+        Map<Long, ItemOffsets> compactedSales = new LinkedHashMap<>();
+        long length = 0;
+        try {
+            commit(segment);
+            ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + MAX_BODY_LENGTH);
+            try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (Map.Entry<Long, ItemOffsets> entry : segment.openSales.entrySet()) {
+                    record.clear();
+                    record.putInt(Long.BYTES).put(OPEN_RECORD).putLong(entry.getKey());
+                    putChecksum(record, 0, Long.BYTES);
+                    length += write(out, record.flip());
+                    ItemOffsets offsets = entry.getValue();
+                    ItemOffsets compactedOffsets = new ItemOffsets();
+                    for (int i = 0; i < offsets.size; i++) {
+                        if (readItemRecord(segment, offsets.offsets[i], record)) {
+                            compactedOffsets.add(length);
+                            length += write(out, record);
+                        }
+                    }
+                    compactedSales.put(entry.getKey(), compactedOffsets);
+                }
+                out.force(false);
+            }
+            Files.move(tempFile, segment.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            failedWriteCount.incrementAndGet();
+            System.err.println("Failed to compact the sale journal.");
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {
+                // The temporary file is overwritten by the next compaction.
+            }
+            // The compaction is not tried again until the segment has doubled in size.
+            segment.compactionThreshold = 2 * segment.length();
+            return false;
+        }
+        try {
+            segment.channel.close();
+            segment.channel = FileChannel.open(segment.file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment.channel.position(length);
+        } catch (IOException e) {
+            failedWriteCount.incrementAndGet();
+            System.err.println("Failed to open the compacted sale journal.");
+            segment.channel = null;
+        }
+        segment.openSales.putAll(compactedSales);
+        segment.committedLength = length;
+        segment.compactionThreshold = Math.max(SEGMENT_RESET_BYTES, 2 * length);
+        return true;
+    }
+
+    /**
+     * Reads a complete item record at an offset of a segment into the buffer, ready to be
+     * written. Returns false if there is no valid item record at the offset.
+     */
+    private static boolean readItemRecord(Segment segment, long offset, ByteBuffer record) throws IOException {
+        if (offset + RECORD_OVERHEAD > segment.committedLength) {
+            return false;
+        }
+        record.clear().limit(Integer.BYTES);
+        readFully(segment.channel, record, offset);
+        int bodyLength = record.getInt(0);
+        if (bodyLength < Long.BYTES || bodyLength > MAX_BODY_LENGTH
+                || offset + RECORD_OVERHEAD + bodyLength > segment.committedLength) {
+            return false;
+        }
+        record.limit(RECORD_OVERHEAD + bodyLength);
+        readFully(segment.channel, record, offset);
+        CRC32 checksum = new CRC32();
+        checksum.update(record.array(), Integer.BYTES, 1 + bodyLength);
+        if (record.get(Integer.BYTES) != ITEM_RECORD
+                || record.getInt(Integer.BYTES + 1 + bodyLength) != (int) checksum.getValue()) {
+            return false;
+        }
+        record.flip();
+        return true;
+    }
+
+    private static int write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return length;
+    }
+
+    /**
+     * Writes the buffered records of all lanes in one group commit per lane, and forces them
+     * to the storage device if the durability policy says so.
+     *
+     * @throws IOException if the records can not be written
+     */
+    public void commit() throws IOException {
+        for (Segment segment : segments.values()) {
+            synchronized (segment) {
+                commit(segment);
+            }
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException e) {
+            System.err.println("Failed to write to the sale journal.");
+        }
+    }
+
+    private void closeSegments() throws IOException {
+        for (Segment segment : segments.values()) {
+            synchronized (segment) {
+                if (segment.channel != null) {
+                    segment.channel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Commits the buffered records, forces them to the storage device and closes the segments.
+     *
+     * @throws IOException if the records can not be written or a segment can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (commitTimer != null) {
+            commitTimer.shutdownNow();
+        }
+        try {
+            commit();
+            for (Segment segment : segments.values()) {
+                synchronized (segment) {
+                    if (segment.channel != null) {
+                        segment.channel.force(false);
+                    }
+                }
+            }
+        } finally {
+            closeSegments();
+        }
+    }
+
+    private static class ItemOffsets {
+        private long[] offsets = new long[16];
+        private int size;
+
+        private void add(long offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+        }
+    }
+
+    private static class Segment {
+        private final Path file;
+        private FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final Map<Long, ItemOffsets> openSales;
+        private int pendingRecords;
+        private long committedLength;
+        private long compactionThreshold = SEGMENT_RESET_BYTES;
+
+        private Segment(Path file, FileChannel channel, Map<Long, ItemOffsets> openSales, long committedLength) {
+            this.file = file;
+            this.channel = channel;
+            this.openSales = openSales;
+            this.committedLength = committedLength;
+        }
+
+        private long length() {
+            return channel == null ? 0 : committedLength + buffer.position();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package palew.integration;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.SaleStateDTO;
+import palew.model.Amount;
+
+/**
+ * Encodes a {@link SaleStateDTO} into a compact, versioned binary form and decodes it again,
+ * for journaling, shipping to the accounting system and archiving.
+ * <p>
+ * An encoded sale starts with the format version, followed by the time of sale, the total,
+ * the paid amount, the change and every line of the sale. Numbers are written as variable-length
+ * integers, so small amounts and quantities take one or two bytes. Amounts are written in öre,
+ * and a VAT rate that is a whole number of basis points is written as that number. Strings are
+ * written as UTF-8 with their length first. The codec reads and writes the buffer directly
+ * without reflection, so the same buffer can be reused for many sales.
+ * <p>
+ * A codec keeps a scratch array for decoding from buffers without a backing array, so one codec
+ * must only be used by one thread at a time.
+ */
+public class SaleStateCodec {
+    /**
+     * The version of the format written by {@link #encode(SaleStateDTO, ByteBuffer)}.
+     */
+    public static final byte VERSION = 1;
+
+    private static final int EXACT_BASIS_POINTS = 0;
+    private static final int RAW_RATE = 1;
+
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Calculates the number of bytes the encoded form of a sale takes.
+     *
+     * @param saleState the sale to measure
+     * @return the encoded size in bytes
+     * @throws IllegalArgumentException if saleState is null
+     */
+    public int encodedSize(SaleStateDTO saleState) throws IllegalArgumentException {
+        if (saleState == null) throw new IllegalArgumentException("Sale state must not be null.");
+        LocalDateTime time = saleState.getTimeOfSale();
+        int size = 1 + varLongSize(zigZag(time.toEpochSecond(ZoneOffset.UTC))) + varLongSize(time.getNano())
+                + varLongSize(zigZag(saleState.getTotalPriceIncludingVAT().getMinorUnits()))
+                + varLongSize(zigZag(saleState.getPaidAmount().getMinorUnits()))
+                + varLongSize(zigZag(saleState.getChange().getMinorUnits()))
+                + varLongSize(saleState.getItemList().size());
+        for (ItemAndRunningTotalDTO line : saleState.getItemList()) {
+            ItemDTO item = line.getItem();
+            size += stringSize(item.getItemID())
+                    + varLongSize(item.getPrice().getMinorUnits())
+                    + rateSize(item.getVatRate())
+                    + stringSize(item.getItemDescription())
+                    + varLongSize(line.getQuantity());
+        }
+        return size;
+    }
+
+    /**
+     * Writes the encoded form of a sale into the buffer, starting at its position. The position
+     * is moved past the written bytes. If the buffer is too small, nothing is written.
+     *
+     * @param saleState the sale to encode
+     * @param target the buffer to write to
+     * @return the number of bytes written
+     * @throws IllegalArgumentException if saleState or target is null
+     * @throws BufferOverflowException if the sale does not fit in the remaining part of the buffer
+     */
+    public int encode(SaleStateDTO saleState, ByteBuffer target) throws IllegalArgumentException, BufferOverflowException {
+        if (saleState == null) throw new IllegalArgumentException("Sale state must not be null.");
+        if (target == null) throw new IllegalArgumentException("Target buffer must not be null.");
+        int start = target.position();
+        try {
+            LocalDateTime time = saleState.getTimeOfSale();
+            target.put(VERSION);
+            putVarLong(target, zigZag(time.toEpochSecond(ZoneOffset.UTC)));
+            putVarLong(target, time.getNano());
+            putVarLong(target, zigZag(saleState.getTotalPriceIncludingVAT().getMinorUnits()));
+            putVarLong(target, zigZag(saleState.getPaidAmount().getMinorUnits()));
+            putVarLong(target, zigZag(saleState.getChange().getMinorUnits()));
+            List<ItemAndRunningTotalDTO> itemList = saleState.getItemList();
+            putVarLong(target, itemList.size());
+            for (ItemAndRunningTotalDTO line : itemList) {
+                ItemDTO item = line.getItem();
+                putString(target, item.getItemID());
+                putVarLong(target, item.getPrice().getMinorUnits());
+                putRate(target, item.getVatRate());
+                putString(target, item.getItemDescription());
+                putVarLong(target, line.getQuantity());
+            }
+        } catch (BufferOverflowException e) {
+            target.position(start);
+            throw e;
+        }
+        return target.position() - start;
+    }
+
+    /**
+     * Encodes a sale into a new array of exactly the encoded size.
+     *
+     * @param saleState the sale to encode
+     * @return the encoded sale
+     * @throws IllegalArgumentException if saleState is null
+     */
+    public byte[] encode(SaleStateDTO saleState) throws IllegalArgumentException {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(saleState));
+        encode(saleState, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Reads an encoded sale from the buffer, starting at its position. The position is moved
+     * past the read bytes.
+     *
+     * @param source the buffer to read from
+     * @return the decoded sale
+     * @throws IllegalArgumentException if source is null, if the sale was encoded with an unknown
+     *                                  version, or if the bytes are not a valid encoded sale
+     */
+    public SaleStateDTO decode(ByteBuffer source) throws IllegalArgumentException {
+        if (source == null) throw new IllegalArgumentException("Source buffer must not be null.");
+        int start = source.position();
+        try {
+            byte version = source.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unknown sale state format version " + version + ".");
+            }
+            LocalDateTime timeOfSale = LocalDateTime.ofEpochSecond(unZigZag(getVarLong(source)),
+                    (int) getVarLong(source), ZoneOffset.UTC);
+            Amount total = Amount.ofMinorUnits(unZigZag(getVarLong(source)));
+            Amount paid = Amount.ofMinorUnits(unZigZag(getVarLong(source)));
+            Amount change = Amount.ofMinorUnits(unZigZag(getVarLong(source)));
+            int lineCount = toInt(getVarLong(source));
+            List<ItemAndRunningTotalDTO> itemList = new ArrayList<>(Math.min(lineCount, source.remaining()));
+            for (int i = 0; i < lineCount; i++) {
+                String itemID = getString(source);
+                Amount price = Amount.ofMinorUnits(getVarLong(source));
+                double vatRate = getRate(source);
+                String description = getString(source);
+                int quantity = toInt(getVarLong(source));
+                itemList.add(new ItemAndRunningTotalDTO(new ItemDTO(itemID, price, vatRate, description), quantity));
+            }
+            return new SaleStateDTO(timeOfSale, itemList, total, paid, change);
+        } catch (BufferUnderflowException | DateTimeException e) {
+            source.position(start);
+            throw new IllegalArgumentException("The bytes are not a valid encoded sale state.", e);
+        } catch (IllegalArgumentException e) {
+            source.position(start);
+            throw e;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int toInt(long value) {
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The bytes are not a valid encoded sale state.");
+        }
+        return (int) value;
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarLong(ByteBuffer target, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer source) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = source.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("The bytes are not a valid encoded sale state.");
+    }
+
+    private static int rateSize(double rate) {
+        long basisPoints = Amount.toBasisPoints(rate);
+        return basisPoints / 10_000.0 == rate ? varLongSize(basisPoints << 1) : 1 + Double.BYTES;
+    }
+
+    private static void putRate(ByteBuffer target, double rate) {
+        long basisPoints = Amount.toBasisPoints(rate);
+        if (basisPoints / 10_000.0 == rate) {
+            putVarLong(target, (basisPoints << 1) | EXACT_BASIS_POINTS);
+        } else {
+            target.put((byte) RAW_RATE);
+            target.putDouble(rate);
+        }
+    }
+
+    private static double getRate(ByteBuffer source) {
+        long tagged = getVarLong(source);
+        if ((tagged & 1) == RAW_RATE) {
+            return source.getDouble();
+        }
+        return (tagged >>> 1) / 10_000.0;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int stringSize(String value) {
+        int length = isAscii(value) ? value.length() : value.getBytes(StandardCharsets.UTF_8).length;
+        return varLongSize(length) + length;
+    }
+
+    private static void putString(ByteBuffer target, String value) {
+        if (isAscii(value)) {
+            int length = value.length();
+            putVarLong(target, length);
+            if (target.remaining() < length) {
+                throw new BufferOverflowException();
+            }
+            for (int i = 0; i < length; i++) {
+                target.put((byte) value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(target, bytes.length);
+            target.put(bytes);
+        }
+    }
+
+    private String getString(ByteBuffer source) {
+        int length = toInt(getVarLong(source));
+        if (source.remaining() < length) {
+            throw new BufferUnderflowException();
+        }
+        String value;
+        if (source.hasArray()) {
+            value = new String(source.array(), source.arrayOffset() + source.position(), length, StandardCharsets.UTF_8);
+            source.position(source.position() + length);
+        } else {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            source.get(scratch, 0, length);
+            value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,89 @@
+package palew.integration;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import palew.DTO.ItemDTO;
+import palew.DTO.ItemSearchResultDTO;
+
+/**
+ * A stand-in for a remote inventory service, used for testing. Every call waits for a fixed
+ * latency before it is answered by another backend, and the calls are counted. A batch search
+ * is one call, so it only waits for the latency once.
+ */
+public class SimulatedRemoteInventoryBackend implements InventoryBackend {
+    private final InventoryBackend backend;
+    private final long latencyNanos;
+    private final LongAdder callCount = new LongAdder();
+
+    /**
+     * Creates a simulated remote backend.
+     *
+     * @param backend the backend that answers the calls
+     * @param latency the time every call takes
+     * @throws IllegalArgumentException if backend or latency is null, or if latency is negative
+     */
+    public SimulatedRemoteInventoryBackend(InventoryBackend backend, Duration latency) throws IllegalArgumentException {
+        if (backend == null) throw new IllegalArgumentException("Backend must not be null.");
+        if (latency == null || latency.isNegative()) throw new IllegalArgumentException("Latency must not be negative.");
+        this.backend = backend;
+        this.latencyNanos = latency.toNanos();
+    }
+
+    /**
+     * Waits for the latency of one call, and then searches the backend.
+     *
+     * @param itemID the itemID to search for
+     * @return the found item as ItemDTO
+     * @throws ItemNotFoundException if no item is found
+     * @throws DatabaseFailureException if the backend failed, or the call was interrupted
+     */
+    @Override
+    public ItemDTO searchItem(String itemID) throws ItemNotFoundException, DatabaseFailureException {
+        simulateCall(itemID);
+        return backend.searchItem(itemID);
+    }
+
+    /**
+     * Waits for the latency of one call, and then searches the backend for all the items.
+     *
+     * @param itemIDs the itemIDs to search for
+     * @return the found items and the identifiers of the items that were not found
+     * @throws DatabaseFailureException if the backend failed, or the call was interrupted
+     */
+    @Override
+    public ItemSearchResultDTO searchItems(Collection<String> itemIDs) throws DatabaseFailureException {
+        simulateCall(itemIDs.isEmpty() ? null : itemIDs.iterator().next());
+        return backend.searchItems(itemIDs);
+    }
+
+    /**
+     * Counts a call and waits for its latency.
+     *
+     * @param itemID the item the call is about, used in the exception if the call is interrupted
+     * @throws DatabaseFailureException if the call was interrupted
+     */
+    private void simulateCall(String itemID) throws DatabaseFailureException {
+        callCount.increment();
+        if (latencyNanos == 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(latencyNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseFailureException(itemID);
+        }
+    }
+
+    /**
+     * Gets the number of calls made to this backend.
+     *
+     * @return the number of calls
+     */
+    public long getCallCount() {
+        return callCount.sum();
+    }
+}
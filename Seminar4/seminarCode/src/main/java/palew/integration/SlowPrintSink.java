@@ -0,0 +1,44 @@
+package palew.integration;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import palew.model.Receipt;
+
+/**
+ * Simulates a slow receipt printer by pausing before every write and then passing the receipts
+ * on to another sink. The pause is paid once per batch, like the round trip to a real device.
+ */
+public class SlowPrintSink implements PrintSink {
+    private final PrintSink target;
+    private final long latencyNanos;
+
+    /**
+     * Creates a sink that pauses for the specified time before writing to the target.
+     *
+     * @param target the sink that receives the receipts after the pause
+     * @param latencyPerWrite the pause before every batch
+     * @throws IllegalArgumentException if target or latencyPerWrite is null, or if latencyPerWrite is negative
+     */
+    public SlowPrintSink(PrintSink target, Duration latencyPerWrite) throws IllegalArgumentException {
+        if (target == null) throw new IllegalArgumentException("Target sink must not be null.");
+        if (latencyPerWrite == null) throw new IllegalArgumentException("Latency must not be null.");
+        if (latencyPerWrite.isNegative()) throw new IllegalArgumentException("Latency cannot be negative.");
+        this.target = target;
+        this.latencyNanos = latencyPerWrite.toNanos();
+    }
+
+    @Override
+    public void print(List<Receipt> receipts) throws IOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(latencyNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while printing.");
+        }
+        target.print(receipts);
+    }
+}
@@ -0,0 +1,205 @@
+package palew.integration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.StockSnapshotDTO;
+
+/**
+ * Keeps the stock level of every stocked item in memory.
+ * <p>
+ * Every item has its own atomic counter, so lanes that sell items at the same time subtract
+ * from the counters without waiting for each other. Changes hold the read side of a stamped
+ * lock, which many lanes can hold at once, and {@link #snapshot()} briefly takes the write side,
+ * so a snapshot never contains only part of a sale. Items that have not been stocked with
+ * {@link #setStock(String, long, long)} or {@link #addStock(String, long)} are not tracked, and
+ * selling them does not change the ledger.
+ * <p>
+ * Stock levels may become negative when more items are sold than were stocked. When a sale
+ * takes the stock of an item from above its low-stock threshold to or below it, the
+ * {@link LowStockObserver}s are notified once, after the sale has been subtracted.
+ */
+public class StockLedger {
+    private final Map<String, StockCounter> counters = new ConcurrentHashMap<>();
+    private final StampedLock snapshotLock = new StampedLock();
+    private final List<LowStockObserver> lowStockObservers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sets the stock level and low-stock threshold of an item, and starts tracking it if it was not tracked.
+     *
+     * @param itemID the identifier of the item
+     * @param stockLevel the number of items in stock
+     * @param lowStockThreshold the stock level at or below which the stock is low
+     * @throws IllegalArgumentException if itemID is null
+     */
+    public void setStock(String itemID, long stockLevel, long lowStockThreshold) throws IllegalArgumentException {
+        if (itemID == null) throw new IllegalArgumentException("Item ID must not be null.");
+        long stamp = snapshotLock.readLock();
+        try {
+            StockCounter counter = counters.computeIfAbsent(itemID, id -> new StockCounter());
+            counter.lowStockThreshold = lowStockThreshold;
+            counter.level.set(stockLevel);
+        } finally {
+            snapshotLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds delivered items to the stock of an item. An item that was not tracked starts at zero
+     * with a low-stock threshold of zero.
+     *
+     * @param itemID the identifier of the item
+     * @param quantity the number of delivered items
+     * @return the stock level after the delivery
+     * @throws IllegalArgumentException if itemID is null or quantity is negative
+     */
+    public long addStock(String itemID, long quantity) throws IllegalArgumentException {
+        if (itemID == null) throw new IllegalArgumentException("Item ID must not be null.");
+        if (quantity < 0) throw new IllegalArgumentException("Quantity cannot be negative.");
+        long stamp = snapshotLock.readLock();
+        try {
+            return counters.computeIfAbsent(itemID, id -> new StockCounter()).level.addAndGet(quantity);
+        } finally {
+            snapshotLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Changes the stock level of a tracked item by a number of items that may be negative, for
+     * example when changes that were persisted before a restart are applied again. Low-stock
+     * observers are not notified.
+     *
+     * @param itemID the identifier of the item
+     * @param delta the number of items to add, negative to subtract
+     * @return true if the item is tracked and its stock was changed, false otherwise
+     * @throws IllegalArgumentException if itemID is null
+     */
+    public boolean adjustStock(String itemID, long delta) throws IllegalArgumentException {
+        if (itemID == null) throw new IllegalArgumentException("Item ID must not be null.");
+        long stamp = snapshotLock.readLock();
+        try {
+            StockCounter counter = counters.get(itemID);
+            if (counter == null) {
+                return false;
+            }
+            counter.level.addAndGet(delta);
+            return true;
+        } finally {
+            snapshotLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Subtracts the quantities sold during a sale from the stock of the items.
+     *
+     * @param itemList the list of items and their quantities
+     * @throws IllegalArgumentException if itemList is null
+     */
+    public void recordSale(List<ItemAndRunningTotalDTO> itemList) throws IllegalArgumentException {
+        if (itemList == null) throw new IllegalArgumentException("Item list must not be null.");
+        List<String> lowStockItemIDs = null;
+        List<Long> lowStockLevels = null;
+        long stamp = snapshotLock.readLock();
+        try {
+            for (ItemAndRunningTotalDTO line : itemList) {
+                String itemID = line.getItem().getItemID();
+                StockCounter counter = counters.get(itemID);
+                if (counter == null) {
+                    continue;
+                }
+                long quantity = line.getQuantity();
+                long stockLevel = counter.level.addAndGet(-quantity);
+                long threshold = counter.lowStockThreshold;
+                if (stockLevel <= threshold && stockLevel + quantity > threshold) {
+                    if (lowStockItemIDs == null) {
+                        lowStockItemIDs = new ArrayList<>();
+                        lowStockLevels = new ArrayList<>();
+                    }
+                    lowStockItemIDs.add(itemID);
+                    lowStockLevels.add(stockLevel);
+                }
+            }
+        } finally {
+            snapshotLock.unlockRead(stamp);
+        }
+        if (lowStockItemIDs != null) {
+            for (int i = 0; i < lowStockItemIDs.size(); i++) {
+                notifyObservers(lowStockItemIDs.get(i), lowStockLevels.get(i));
+            }
+        }
+    }
+
+    /**
+     * Gets the stock level of an item.
+     *
+     * @param itemID the identifier of the item
+     * @return the stock level, or zero if the item is not tracked
+     */
+    public long getStockLevel(String itemID) {
+        StockCounter counter = itemID == null ? null : counters.get(itemID);
+        return counter == null ? 0 : counter.level.get();
+    }
+
+    /**
+     * Checks if the stock of an item is tracked.
+     *
+     * @param itemID the identifier of the item
+     * @return true if the item has been stocked
+     */
+    public boolean isStocked(String itemID) {
+        return itemID != null && counters.containsKey(itemID);
+    }
+
+    /**
+     * Reads the stock levels of all tracked items. Sales that are being subtracted while the
+     * snapshot is taken are either completely included or not included at all.
+     *
+     * @return a snapshot of the stock levels
+     */
+    public StockSnapshotDTO snapshot() {
+        Map<String, Long> stockLevels = new HashMap<>();
+        Set<String> lowStockItemIDs = new HashSet<>();
+        long stamp = snapshotLock.writeLock();
+        try {
+            for (Map.Entry<String, StockCounter> entry : counters.entrySet()) {
+                long stockLevel = entry.getValue().level.get();
+                stockLevels.put(entry.getKey(), stockLevel);
+                if (stockLevel <= entry.getValue().lowStockThreshold) {
+                    lowStockItemIDs.add(entry.getKey());
+                }
+            }
+        } finally {
+            snapshotLock.unlockWrite(stamp);
+        }
+        return new StockSnapshotDTO(stockLevels, lowStockItemIDs);
+    }
+
+    /**
+     * Adds an observer to be notified when the stock of an item becomes low.
+     *
+     * @param observer the observer to be added
+     */
+    public void addLowStockObserver(LowStockObserver observer) {
+        lowStockObservers.add(observer);
+    }
+
+    private void notifyObservers(String itemID, long stockLevel) {
+        for (LowStockObserver observer : lowStockObservers) {
+            observer.stockIsLow(itemID, stockLevel);
+        }
+    }
+
+    private static class StockCounter {
+        private final AtomicLong level = new AtomicLong();
+        private volatile long lowStockThreshold;
+    }
+}
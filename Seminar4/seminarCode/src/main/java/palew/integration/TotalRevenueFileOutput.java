@@ -1,30 +1,244 @@
 package palew.integration;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import palew.model.Amount;
 import palew.model.SaleObserver;
 
 /**
  * A class that writes the total revenue to a file.
+ * <p>
+ * The file is kept open, and updates are buffered and written in group commits as decided
+ * by the {@link DurabilityPolicy}. In {@link Mode#APPEND} mode every update is appended as a
+ * line. In {@link Mode#CHECKPOINT} mode the file only holds the latest total, in a record of
+ * fixed size that is overwritten in place. An output with a commit interval is created with
+ * {@link #open(Path, Mode, DurabilityPolicy)}, which starts the timer once the output is fully
+ * constructed.
  */
-public class TotalRevenueFileOutput implements SaleObserver {
-    private Amount totalRevenue = new Amount(0);
+public class TotalRevenueFileOutput implements SaleObserver, AutoCloseable {
     private static final String FILE_NAME = "totalRevenue.txt";
+    private static final String RECORD_PREFIX = "Total Revenue: ";
+    private static final int CHECKPOINT_RECORD_SIZE = 48;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Decides how updates are stored in the file.
+     */
+    public enum Mode {
+        /**
+         * Every update is appended to the file as a line.
+         */
+        APPEND,
+        /**
+         * The file only holds the latest total, in a record of fixed size.
+         */
+        CHECKPOINT
+    }
+
+    private final Path file;
+    private final Mode mode;
+    private final DurabilityPolicy policy;
+    private final ByteBuffer pending;
+    private ScheduledExecutorService commitTimer;
+    private FileChannel channel;
+    private int pendingRecords;
+    private Amount totalRevenue = new Amount(0);
+
+    /**
+     * Creates an output that appends every update to <code>totalRevenue.txt</code>, without forcing it
+     * to the storage device.
+     */
+    public TotalRevenueFileOutput() {
+        this.file = Paths.get(FILE_NAME);
+        this.mode = Mode.APPEND;
+        this.policy = DurabilityPolicy.never();
+        this.pending = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    private TotalRevenueFileOutput(Path file, Mode mode, DurabilityPolicy policy) {
+        this.file = file;
+        this.mode = mode;
+        this.policy = policy;
+        this.pending = ByteBuffer.allocate(mode == Mode.CHECKPOINT ? CHECKPOINT_RECORD_SIZE : BUFFER_SIZE);
+    }
+
+    /**
+     * Opens an output that writes updates to the specified file. If the durability policy has a
+     * commit interval, a timer thread that commits the buffered updates is started.
+     *
+     * @param file the file to write to
+     * @param mode how updates are stored in the file
+     * @param policy when updates are written and forced to the storage device
+     * @return the opened output
+     * @throws IllegalArgumentException if any of the parameters are null
+     * @throws IOException if the file can not be opened
+     */
+    public static TotalRevenueFileOutput open(Path file, Mode mode, DurabilityPolicy policy)
+            throws IllegalArgumentException, IOException {
+        if (file == null || mode == null || policy == null) {
+            throw new IllegalArgumentException("None of the parameters can be null");
+        }
+        TotalRevenueFileOutput output = new TotalRevenueFileOutput(file, mode, policy);
+        output.openChannel();
+        output.startCommitTimer();
+        return output;
+    }
+
+    /**
+     * Opens an output that writes updates to a channel that is already open, for example a
+     * channel on another file system. The output closes the channel when it is closed.
+     *
+     * @param channel the channel to write to, positioned where updates shall be appended
+     * @param mode how updates are stored in the channel
+     * @param policy when updates are written and forced to the storage device
+     * @return the opened output
+     * @throws IllegalArgumentException if any of the parameters are null
+     * @throws IOException if the channel can not be prepared for a checkpoint record
+     */
+    public static TotalRevenueFileOutput open(FileChannel channel, Mode mode, DurabilityPolicy policy)
+            throws IllegalArgumentException, IOException {
+        if (channel == null || mode == null || policy == null) {
+            throw new IllegalArgumentException("None of the parameters can be null");
+        }
+        TotalRevenueFileOutput output = new TotalRevenueFileOutput(null, mode, policy);
+        if (mode == Mode.CHECKPOINT) {
+            channel.truncate(CHECKPOINT_RECORD_SIZE);
+        }
+        output.channel = channel;
+        output.startCommitTimer();
+        return output;
+    }
+
+    private synchronized void startCommitTimer() {
+        long interval = policy.getCommitIntervalMillis();
+        if (interval <= 0) {
+            return;
+        }
+        commitTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "total-revenue-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        commitTimer.scheduleAtFixedRate(this::commitQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
 
     @Override
-    public void updateTotalRevenue(Amount totalRevenue) {
+    public synchronized void updateTotalRevenue(Amount totalRevenue) {
         this.totalRevenue = totalRevenue;
         writeTotalRevenueToFile();
     }
 
     private void writeTotalRevenueToFile() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(FILE_NAME, true))) {
-            writer.println("Total Revenue: " + totalRevenue.getAmount());
+        byte[] record = (RECORD_PREFIX + totalRevenue.getAmount()).getBytes(StandardCharsets.US_ASCII);
+        try {
+            if (mode == Mode.CHECKPOINT) {
+                pending.clear();
+                pending.put(record, 0, Math.min(record.length, CHECKPOINT_RECORD_SIZE - 1));
+                while (pending.position() < CHECKPOINT_RECORD_SIZE - 1) {
+                    pending.put((byte) ' ');
+                }
+                pending.put((byte) '\n');
+                pendingRecords = 1;
+            } else {
+                if (pending.remaining() < record.length + 1) {
+                    commit();
+                }
+                pending.put(record).put((byte) '\n');
+                pendingRecords++;
+            }
+            int recordsPerCommit = policy.getRecordsPerCommit();
+            if (recordsPerCommit > 0 && pendingRecords >= recordsPerCommit) {
+                commit();
+            }
         } catch (IOException e) {
             System.err.println("Failed to write total revenue to file.");
         }
     }
+
+    /**
+     * Writes all buffered updates in one group commit, and forces them to the storage device
+     * if the durability policy says so. If the write fails, the updates that were not written
+     * stay buffered and are written by the next commit.
+     *
+     * @throws IOException if the updates can not be written
+     */
+    public synchronized void commit() throws IOException {
+        if (pendingRecords == 0) {
+            return;
+        }
+        openChannel();
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                if (mode == Mode.CHECKPOINT) {
+                    channel.write(pending, pending.position());
+                } else {
+                    channel.write(pending);
+                }
+            }
+        } finally {
+            if (mode == Mode.CHECKPOINT && pending.hasRemaining()) {
+                // The record is always written from the start of the file, so it is kept whole.
+                pending.position(pending.limit()).limit(pending.capacity());
+            } else {
+                pending.compact();
+            }
+        }
+        pendingRecords = 0;
+        if (policy.isSync()) {
+            channel.force(false);
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException e) {
+            System.err.println("Failed to write total revenue to file.");
+        }
+    }
+
+    private void openChannel() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        if (file == null) {
+            throw new ClosedChannelException();
+        }
+        if (mode == Mode.CHECKPOINT) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(CHECKPOINT_RECORD_SIZE);
+        } else {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Commits the buffered updates, forces the file to the storage device and closes it.
+     *
+     * @throws IOException if the updates can not be written or the file can not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (commitTimer != null) {
+            commitTimer.shutdownNow();
+        }
+        commit();
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+    }
 }
@@ -0,0 +1,484 @@
+package palew.integration;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.zip.CRC32;
+
+import palew.DTO.InventoryStoreStatisticsDTO;
+import palew.DTO.ItemAndRunningTotalDTO;
+
+/**
+ * Persists the stock changes of paid sales to a local append-only file, without making the
+ * paying thread wait for the disk.
+ * <p>
+ * Sold quantities are added to a per-item counter in memory, so an item sold in many sales
+ * between two flushes is written as one change. A background thread writes all pending
+ * changes as one batch at a fixed interval, or earlier when the number of items with pending
+ * changes reaches the configured maximum. Every batch is written with a checksum and forced
+ * to the storage device. If a batch can not be written, its changes are kept and written with
+ * the next batch.
+ * <p>
+ * When the store is opened it reads the batches already in the file and sums their changes per
+ * item, see {@link #getRecoveredDeltas()}. A batch that was only partly written when the
+ * program stopped is cut off the end of the file. Changes recorded after the last flush are
+ * lost if the program stops without calling {@link #close()}.
+ * <p>
+ * So that the file does not grow without bound, the absolute stock levels can be written to a
+ * checkpoint file next to it with {@link #checkpoint(Map)}, after which the file of changes is
+ * emptied. When the store is opened, the checkpoint is read first, see
+ * {@link #getRecoveredCheckpoint()}, and only the batches written after it are summed.
+ */
+public class WriteBehindInventoryStore implements AutoCloseable {
+    private static final int MAX_BATCH_HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int MAX_BATCH_LENGTH = 64 * 1024 * 1024;
+
+    private final Path file;
+    private final Path checkpointFile;
+    private final int maxPendingItems;
+    private final FileChannel channel;
+    private final Map<String, Long> recoveredCheckpoint;
+    private final Map<String, Long> recoveredDeltas;
+    private final StampedLock swapLock = new StampedLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+    private volatile Map<String, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+    private long nextSequence;
+
+    private final LongAdder recordedDeltaCount = new LongAdder();
+    private volatile long flushedDeltaCount;
+    private volatile long flushCount;
+    private volatile long failedFlushCount;
+    private volatile long bytesWritten;
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    private WriteBehindInventoryStore(Path file, int maxPendingItems) throws IOException {
+        this.file = file;
+        this.checkpointFile = file.resolveSibling(file.getFileName() + ".checkpoint");
+        this.maxPendingItems = maxPendingItems;
+        Map<String, Long> checkpoint = new TreeMap<>();
+        long firstSequence = readCheckpoint(checkpoint);
+        nextSequence = firstSequence;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Map<String, Long> recovered = new TreeMap<>();
+        try {
+            long validLength = recover(recovered, firstSequence);
+            if (validLength < channel.size()) {
+                channel.truncate(validLength);
+                channel.force(false);
+            }
+            channel.position(validLength);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.recoveredCheckpoint = Collections.unmodifiableMap(checkpoint);
+        this.recoveredDeltas = Collections.unmodifiableMap(recovered);
+    }
+
+    /**
+     * Opens the store, recovers the checkpoint and the changes that are already in the file and
+     * starts the background flushes.
+     *
+     * @param file the file to append the changes to. It is created if it does not exist.
+     * @param flushInterval the time between background flushes
+     * @param maxPendingItems the number of items with pending changes that triggers a flush
+     *                        before the interval has passed
+     * @return the opened store
+     * @throws IllegalArgumentException if file or flushInterval is null, if flushInterval is
+     *                                  shorter than 1 ms or if maxPendingItems is less than 1
+     * @throws IOException if the file or the checkpoint can not be opened or read
+     */
+    public static WriteBehindInventoryStore open(Path file, Duration flushInterval, int maxPendingItems)
+            throws IllegalArgumentException, IOException {
+        if (file == null) throw new IllegalArgumentException("File must not be null.");
+        if (flushInterval == null) throw new IllegalArgumentException("Flush interval must not be null.");
+        if (flushInterval.toMillis() < 1) throw new IllegalArgumentException("The flush interval must be at least 1 ms.");
+        if (maxPendingItems < 1) throw new IllegalArgumentException("Max pending items must be at least 1.");
+        WriteBehindInventoryStore store = new WriteBehindInventoryStore(file, maxPendingItems);
+        store.startFlusher(flushInterval.toMillis());
+        return store;
+    }
+
+    private void startFlusher(long interval) {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private long readCheckpoint(Map<String, Long> levels) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        // The checkpoint is replaced atomically, so unlike a batch in the file of changes it is
+        // never partly written, and a damaged checkpoint is an error.
+        ByteBuffer record = ByteBuffer.wrap(Files.readAllBytes(checkpointFile));
+        try {
+            int length = record.getInt();
+            if (length < MAX_BATCH_HEADER_SIZE || length != record.remaining() - Integer.BYTES) {
+                throw new IOException("The inventory checkpoint " + checkpointFile + " is damaged.");
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(record.array(), Integer.BYTES, length);
+            if (record.getInt(Integer.BYTES + length) != (int) checksum.getValue()) {
+                throw new IOException("The inventory checkpoint " + checkpointFile + " is damaged.");
+            }
+            return readBatch(record, levels) + 1;
+        } catch (RuntimeException e) {
+            throw new IOException("The inventory checkpoint " + checkpointFile + " is damaged.", e);
+        }
+    }
+
+    private long recover(Map<String, Long> recovered, long firstSequence) throws IOException {
+        long validLength = 0;
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        CRC32 checksum = new CRC32();
+        while (true) {
+            byte[] payload;
+            try {
+                int length = in.readInt();
+                if (length < MAX_BATCH_HEADER_SIZE || length > MAX_BATCH_LENGTH) {
+                    return validLength;
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+                checksum.reset();
+                checksum.update(payload);
+                if (in.readInt() != (int) checksum.getValue()) {
+                    return validLength;
+                }
+            } catch (EOFException e) {
+                return validLength;
+            }
+            Map<String, Long> batch = new TreeMap<>();
+            long sequence;
+            try {
+                sequence = readBatch(ByteBuffer.wrap(payload), batch);
+            } catch (RuntimeException e) {
+                return validLength;
+            }
+            // Batches before the checkpoint are only left in the file if the program stopped
+            // between writing the checkpoint and emptying the file, and are already counted.
+            if (sequence >= firstSequence) {
+                for (Map.Entry<String, Long> entry : batch.entrySet()) {
+                    recovered.merge(entry.getKey(), entry.getValue(), Long::sum);
+                }
+                nextSequence = Math.max(nextSequence, sequence + 1);
+            }
+            validLength += Integer.BYTES + payload.length + Integer.BYTES;
+        }
+    }
+
+    private static long readBatch(ByteBuffer payload, Map<String, Long> entries) {
+        long sequence = payload.getLong();
+        int entryCount = payload.getInt();
+        for (int i = 0; i < entryCount; i++) {
+            byte[] id = new byte[Short.toUnsignedInt(payload.getShort())];
+            payload.get(id);
+            entries.merge(new String(id, StandardCharsets.UTF_8), payload.getLong(), Long::sum);
+        }
+        return sequence;
+    }
+
+    /**
+     * Records the quantities sold during a sale as pending changes. The changes are written to
+     * the file by a later flush.
+     *
+     * @param itemList the list of items and their quantities
+     * @throws IllegalArgumentException if itemList is null
+     * @throws IllegalStateException if the store has been closed
+     */
+    public void recordSale(List<ItemAndRunningTotalDTO> itemList)
+            throws IllegalArgumentException, IllegalStateException {
+        if (itemList == null) throw new IllegalArgumentException("Item list must not be null.");
+        int pendingItems;
+        long stamp = swapLock.readLock();
+        try {
+            if (closed) throw new IllegalStateException("The store has been closed.");
+            Map<String, LongAdder> deltas = pendingDeltas;
+            for (ItemAndRunningTotalDTO line : itemList) {
+                deltas.computeIfAbsent(line.getItem().getItemID(), id -> new LongAdder()).add(-line.getQuantity());
+            }
+            pendingItems = deltas.size();
+        } finally {
+            swapLock.unlockRead(stamp);
+        }
+        recordedDeltaCount.add(itemList.size());
+        if (pendingItems >= maxPendingItems && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // The store is being closed, and close writes the pending changes.
+            }
+        }
+    }
+
+    /**
+     * Writes all pending changes to the file as one batch and forces it to the storage device.
+     * If the batch can not be written, the changes are kept and written by the next flush.
+     *
+     * @throws IOException if the batch can not be written
+     */
+    public void flush() throws IOException {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            Map<String, LongAdder> deltas;
+            long stamp = swapLock.writeLock();
+            try {
+                deltas = pendingDeltas;
+                if (deltas.isEmpty()) {
+                    return;
+                }
+                pendingDeltas = new ConcurrentHashMap<>();
+            } finally {
+                swapLock.unlockWrite(stamp);
+            }
+            writeBatch(deltas);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeBatch(Map<String, LongAdder> deltas) throws IOException {
+        long startNanos = System.nanoTime();
+        List<byte[]> ids = new ArrayList<>(deltas.size());
+        List<Long> values = new ArrayList<>(deltas.size());
+        int payloadLength = MAX_BATCH_HEADER_SIZE;
+        for (Map.Entry<String, LongAdder> entry : deltas.entrySet()) {
+            long delta = entry.getValue().sum();
+            if (delta == 0) {
+                continue;
+            }
+            byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            ids.add(id);
+            values.add(delta);
+            payloadLength += Short.BYTES + id.length + Long.BYTES;
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = encodeBatch(nextSequence, ids, values, payloadLength);
+        long position = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failedFlushCount++;
+            restorePending(deltas);
+            try {
+                channel.truncate(position);
+                channel.position(position);
+            } catch (IOException ignored) {
+                // The partly written batch fails its checksum and is cut off when the store is opened.
+            }
+            throw e;
+        }
+        nextSequence++;
+        flushCount++;
+        flushedDeltaCount += ids.size();
+        bytesWritten += buffer.limit();
+        long elapsed = System.nanoTime() - startNanos;
+        lastFlushNanos = elapsed;
+        maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+    }
+
+    private static ByteBuffer encodeBatch(long sequence, List<byte[]> ids, List<Long> values, int payloadLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + payloadLength + Integer.BYTES);
+        buffer.putInt(payloadLength);
+        buffer.putLong(sequence);
+        buffer.putInt(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            buffer.putShort((short) ids.get(i).length);
+            buffer.put(ids.get(i));
+            buffer.putLong(values.get(i));
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), Integer.BYTES, payloadLength);
+        buffer.putInt((int) checksum.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes the absolute stock levels to the checkpoint file and empties the file of changes,
+     * so the changes written so far are not read again when the store is opened. The levels
+     * must include every change recorded in this store, so a checkpoint can only be written
+     * while no changes are pending, for example before any sale is recorded in the store.
+     * <p>
+     * The checkpoint is written to a temporary file and moved over the previous one, and the
+     * file of changes is emptied after that. If the program stops in between, the changes left
+     * in the file are skipped when the store is opened.
+     *
+     * @param stockLevels the stock level of each item, with item identifiers as keys
+     * @throws IllegalArgumentException if stockLevels is null
+     * @throws IllegalStateException if the store has been closed or changes are pending
+     * @throws IOException if the checkpoint can not be written or the file can not be emptied
+     */
+    public void checkpoint(Map<String, Long> stockLevels)
+            throws IllegalArgumentException, IllegalStateException, IOException {
+        if (stockLevels == null) throw new IllegalArgumentException("Stock levels must not be null.");
+        flushLock.lock();
+        try {
+            long stamp = swapLock.readLock();
+            try {
+                if (closed) throw new IllegalStateException("The store has been closed.");
+                if (!pendingDeltas.isEmpty()) throw new IllegalStateException("Changes are pending.");
+            } finally {
+                swapLock.unlockRead(stamp);
+            }
+            List<byte[]> ids = new ArrayList<>(stockLevels.size());
+            List<Long> values = new ArrayList<>(stockLevels.size());
+            int payloadLength = MAX_BATCH_HEADER_SIZE;
+            for (Map.Entry<String, Long> entry : new TreeMap<>(stockLevels).entrySet()) {
+                byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                ids.add(id);
+                values.add(entry.getValue());
+                payloadLength += Short.BYTES + id.length + Long.BYTES;
+            }
+            // The checkpoint takes the sequence of the last batch, so every batch in the file
+            // is before it and later batches are after it.
+            ByteBuffer buffer = encodeBatch(nextSequence - 1, ids, values, payloadLength);
+            Path tempFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(false);
+            }
+            Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(false);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void restorePending(Map<String, LongAdder> deltas) {
+        long stamp = swapLock.readLock();
+        try {
+            Map<String, LongAdder> current = pendingDeltas;
+            for (Map.Entry<String, LongAdder> entry : deltas.entrySet()) {
+                current.computeIfAbsent(entry.getKey(), id -> new LongAdder()).add(entry.getValue().sum());
+            }
+        } finally {
+            swapLock.unlockRead(stamp);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Failed to write inventory changes to " + file + ".");
+        }
+    }
+
+    /**
+     * Gets the absolute stock levels in the checkpoint that was read when the store was opened.
+     *
+     * @return the checkpointed stock levels, sorted by item identifier, or an empty map if
+     *         there was no checkpoint
+     */
+    public Map<String, Long> getRecoveredCheckpoint() {
+        return recoveredCheckpoint;
+    }
+
+    /**
+     * Gets the changes per item that were in the file when the store was opened, after the
+     * checkpoint if there was one. Sales subtract from an item, so the changes are normally
+     * negative.
+     *
+     * @return the summed changes, sorted by item identifier
+     */
+    public Map<String, Long> getRecoveredDeltas() {
+        return recoveredDeltas;
+    }
+
+    /**
+     * Gets the pending change of an item, that is not written to the file yet.
+     *
+     * @param itemID the identifier of the item
+     * @return the pending change, or zero if the item has no pending change
+     */
+    public long getPendingDelta(String itemID) {
+        LongAdder delta = itemID == null ? null : pendingDeltas.get(itemID);
+        return delta == null ? 0 : delta.sum();
+    }
+
+    /**
+     * Gets the counters of the store.
+     *
+     * @return the current statistics
+     */
+    public InventoryStoreStatisticsDTO getStatistics() {
+        return new InventoryStoreStatisticsDTO(recordedDeltaCount.sum(), flushedDeltaCount, flushCount,
+                failedFlushCount, bytesWritten, pendingDeltas.size(),
+                TimeUnit.NANOSECONDS.toMicros(lastFlushNanos), TimeUnit.NANOSECONDS.toMicros(maxFlushNanos));
+    }
+
+    /**
+     * Stops the background flushes, writes the pending changes and closes the file.
+     *
+     * @throws IOException if the pending changes can not be written or the file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        long stamp = swapLock.writeLock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            swapLock.unlockWrite(stamp);
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -1,26 +1,69 @@
 package palew.main;
 
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+
+import javax.management.JMException;
 
 import palew.controller.Controller;
 import palew.integration.ExternalAccountingSystem;
 import palew.integration.ExternalInventorySystem;
 import palew.integration.Printer;
 import palew.model.Register;
+import palew.util.Metrics;
+import palew.util.MetricsReporter;
 import palew.view.View;
 
+/**
+ * Starts the program. The metrics are registered as JMX MBeans, and a report of them is appended
+ * to <code>metrics.txt</code> every minute and when the program ends. Starting the program with
+ * <code>--no-metrics</code> turns this off, together with the recording of latencies.
+ */
 public class Main {
+    private static final String NO_METRICS_OPTION = "--no-metrics";
+    private static final String METRICS_FILE_NAME = "metrics.txt";
+    private static final Duration METRICS_REPORT_INTERVAL = Duration.ofMinutes(1);
+
     public static void main(String[] args) {
+        boolean metricsEnabled = !Arrays.asList(args).contains(NO_METRICS_OPTION);
+        Metrics.getInstance().setEnabled(metricsEnabled);
+        if (!metricsEnabled) {
+            run();
+            return;
+        }
+        try (PrintWriter metricsOut = new PrintWriter(new FileWriter(METRICS_FILE_NAME, true))) {
+            try {
+                Metrics.getInstance().registerMBeans(ManagementFactory.getPlatformMBeanServer());
+            } catch (JMException e) {
+                System.err.println("Failed to register the metrics MBeans: " + e.getMessage());
+            }
+            MetricsReporter reporter = new MetricsReporter(Metrics.getInstance(), metricsOut, METRICS_REPORT_INTERVAL);
+            try {
+                run();
+            } finally {
+                reporter.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to open the metrics report " + METRICS_FILE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    private static void run() {
         try {
             Printer printer = new Printer();
             ExternalAccountingSystem accSystem = new ExternalAccountingSystem();
             ExternalInventorySystem invSystem = ExternalInventorySystem.getInstance();
             Register register = new Register();
             
-            Controller controller = new Controller(printer, accSystem, invSystem, register);
-            View view = new View(controller);
+            try (Controller controller = new Controller(printer, accSystem, invSystem, register)) {
+                View view = new View(controller);
 
-            view.execution2();
+                view.execution2();
+            }
 
         } catch (IOException e) {
             System.err.println("Unable to initialize the controller: " + e.getMessage());
@@ -1,20 +1,60 @@
 package palew.model;
 
-import java.util.Objects;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
- * This class represents a monetary amount used in the model
+ * This class represents a monetary amount used in the model.
+ * The amount is stored as a whole number of öre (minor currency units), so sums of
+ * amounts are always exact. Doubles and rates are rounded to whole öre when they are
+ * converted, using {@link #DEFAULT_ROUNDING} unless another rounding mode is given.
+ * <p>
+ * The static helpers work on öre as <code>long</code> values, so that hot paths can
+ * add and multiply without creating intermediate Amount objects.
  */
 public class Amount {
-    private final double amount; 
+    /**
+     * The rounding mode used when no other rounding mode is specified.
+     */
+    public static final RoundingMode DEFAULT_ROUNDING = RoundingMode.HALF_UP;
+
+    private static final int MINOR_UNITS_PER_UNIT = 100;
+    private static final long BASIS_POINTS_PER_UNIT = 10_000;
+
+    private final long minorUnits;
 
     /**
-     * Constructs an Amount with the specified value.
+     * Constructs an Amount with the specified value, rounded to whole öre with {@link #DEFAULT_ROUNDING}.
      *
      * @param amount the value of the amount
      */
     public Amount(double amount) {
-        this.amount = amount;
+        this(amount, DEFAULT_ROUNDING);
+    }
+
+    /**
+     * Constructs an Amount with the specified value, rounded to whole öre with the given rounding mode.
+     *
+     * @param amount the value of the amount
+     * @param roundingMode the rounding mode used to round the value to whole öre
+     * @throws ArithmeticException if the rounding mode is UNNECESSARY and the value has more than two decimals
+     */
+    public Amount(double amount, RoundingMode roundingMode) throws ArithmeticException {
+        this.minorUnits = toMinorUnits(amount, roundingMode);
+    }
+
+    private Amount(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * Creates an Amount from a number of öre.
+     *
+     * @param minorUnits the amount in öre
+     * @return an Amount representing the given number of öre
+     */
+    public static Amount ofMinorUnits(long minorUnits) {
+        return new Amount(minorUnits);
     }
 
     /**
@@ -23,7 +63,26 @@ public class Amount {
      * @return the value of the amount
      */
     public double getAmount() {
-        return amount;
+        return (double) minorUnits / MINOR_UNITS_PER_UNIT;
+    }
+
+    /**
+     * Returns the value of the amount in öre.
+     *
+     * @return the value of the amount in öre
+     */
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * Adds a specified amount to this amount and returns the result as a new Amount.
+     *
+     * @param amount the amount to add
+     * @return a new Amount representing the result of the addition
+     */
+    public Amount plus(Amount amount) {
+        return new Amount(Math.addExact(this.minorUnits, amount.minorUnits));
     }
 
     /**
@@ -33,7 +92,17 @@ public class Amount {
      * @return a new Amount representing the result of the subtraction
      */
     public Amount minus(Amount amount) {
-        return new Amount(this.amount - amount.getAmount());
+        return new Amount(Math.subtractExact(this.minorUnits, amount.minorUnits));
+    }
+
+    /**
+     * Multiplies this amount by a quantity and returns the result as a new Amount.
+     *
+     * @param quantity the quantity to multiply with
+     * @return a new Amount representing the result of the multiplication
+     */
+    public Amount times(int quantity) {
+        return new Amount(multiply(minorUnits, quantity));
     }
 
     /**
@@ -43,41 +112,131 @@ public class Amount {
      * @return true if this amount is less than the specified amount, false otherwise
      */
     public boolean isLessThan(Amount amount) {
-        return this.amount < amount.amount;
+        return this.minorUnits < amount.minorUnits;
+    }
+
+    /**
+     * Converts a value to whole öre.
+     *
+     * @param amount the value to convert
+     * @param roundingMode the rounding mode used to round the value to whole öre
+     * @return the value in öre
+     * @throws ArithmeticException if the rounding mode is UNNECESSARY and the value has more than two decimals
+     */
+    public static long toMinorUnits(double amount, RoundingMode roundingMode) throws ArithmeticException {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, roundingMode).longValueExact();
+    }
+
+    /**
+     * Converts a rate, for example a VAT rate of 0.25, to basis points (hundredths of a percent).
+     *
+     * @param rate the rate to convert
+     * @return the rate in basis points
+     */
+    public static long toBasisPoints(double rate) {
+        return Math.round(rate * BASIS_POINTS_PER_UNIT);
     }
 
+    /**
+     * Multiplies a number of öre by a quantity.
+     *
+     * @param minorUnits the amount in öre
+     * @param quantity the quantity to multiply with
+     * @return the product in öre
+     * @throws ArithmeticException if the result overflows
+     */
+    public static long multiply(long minorUnits, int quantity) throws ArithmeticException {
+        return Math.multiplyExact(minorUnits, (long) quantity);
+    }
+
+    /**
+     * Applies a rate to a number of öre, for example to calculate the VAT of a net price.
+     *
+     * @param minorUnits the amount in öre
+     * @param rateBasisPoints the rate in basis points, see {@link #toBasisPoints(double)}
+     * @param roundingMode the rounding mode used to round the result to whole öre
+     * @return the rate of the amount in öre
+     * @throws ArithmeticException if the result overflows, or if the rounding mode is UNNECESSARY
+     *                             and the result is not a whole number of öre
+     */
+    public static long applyRate(long minorUnits, long rateBasisPoints, RoundingMode roundingMode)
+            throws ArithmeticException {
+        return divide(Math.multiplyExact(minorUnits, rateBasisPoints), BASIS_POINTS_PER_UNIT, roundingMode);
+    }
+
+    /**
+     * Divides two whole numbers and rounds the quotient with the given rounding mode.
+     *
+     * @param dividend the number to divide
+     * @param divisor the number to divide by
+     * @param roundingMode the rounding mode used to round the quotient
+     * @return the rounded quotient
+     * @throws ArithmeticException if the divisor is zero, or if the rounding mode is UNNECESSARY
+     *                             and the division has a remainder
+     */
+    public static long divide(long dividend, long divisor, RoundingMode roundingMode) throws ArithmeticException {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = Long.signum(dividend) * Long.signum(divisor);
+        long awayFromZero = quotient + sign;
+        int comparedToHalf = Long.compare(Math.abs(remainder), Math.abs(divisor) - Math.abs(remainder));
+        switch (roundingMode) {
+            case UP:
+                return awayFromZero;
+            case DOWN:
+                return quotient;
+            case CEILING:
+                return sign > 0 ? awayFromZero : quotient;
+            case FLOOR:
+                return sign < 0 ? awayFromZero : quotient;
+            case HALF_UP:
+                return comparedToHalf >= 0 ? awayFromZero : quotient;
+            case HALF_DOWN:
+                return comparedToHalf > 0 ? awayFromZero : quotient;
+            case HALF_EVEN:
+                if (comparedToHalf == 0) {
+                    return (quotient & 1) == 0 ? quotient : awayFromZero;
+                }
+                return comparedToHalf > 0 ? awayFromZero : quotient;
+            default:
+                throw new ArithmeticException("Rounding necessary to divide " + dividend + " by " + divisor + ".");
+        }
+    }
 
     @Override
     /**
      * Indicates whether some other object is "equal to" this amount instance.
      * Overrides the default equals method to provide custom equality logic for Amount objects.
-     * 
+     *
      * @param obj the object with which to compare.
      * @return true if this object is the same as the obj argument; false otherwise.
      */
     public boolean equals(Object obj) {
 
         if (this == obj) return true;
-        
+
 
         if (obj == null || getClass() != obj.getClass()) return false;
-        
+
 
         Amount amount1 = (Amount) obj;
-        return Double.compare(amount1.amount, amount) == 0;
+        return amount1.minorUnits == minorUnits;
     }
-    
+
     @Override
     /**
      * Returns a hash code value for the object.
      * Overrides the default hashCode method to provide a custom hash code for Amount objects.
-     * 
+     *
      * @return a hash code value for this object.
      */
     public int hashCode() {
-        return Objects.hash(amount);
+        return Long.hashCode(minorUnits);
     }
-    
+
     /**
      * Returns a string representation of the amount, formatted to two decimal places.
      *
@@ -85,6 +244,12 @@ public class Amount {
      */
     @Override
     public String toString() {
-        return String.format("%.2f", amount);
+        long units = Math.abs(minorUnits / MINOR_UNITS_PER_UNIT);
+        long cents = Math.abs(minorUnits % MINOR_UNITS_PER_UNIT);
+        StringBuilder builder = new StringBuilder(24);
+        if (minorUnits < 0) builder.append('-');
+        builder.append(units).append('.');
+        if (cents < 10) builder.append('0');
+        return builder.append(cents).toString();
     }
 }
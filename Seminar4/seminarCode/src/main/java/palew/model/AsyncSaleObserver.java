@@ -0,0 +1,357 @@
+package palew.model;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers revenue updates to another observer on a dedicated virtual thread, so that a slow
+ * observer does not add latency to the payment that triggered the update.
+ * <p>
+ * Every AsyncSaleObserver has its own bounded queue and thread, so wrapping each observer
+ * separately keeps a slow observer from stalling the others. What happens when the queue
+ * is full is decided by the {@link BackpressurePolicy}. Updates that arrive after the observer
+ * has been closed are dropped and counted, since the payment that sent them has already been
+ * recorded and must not fail because of its observers.
+ */
+public class AsyncSaleObserver implements SaleObserver, AutoCloseable {
+
+    /**
+     * Decides what happens to an update that arrives when the queue is full.
+     */
+    public enum BackpressurePolicy {
+        /**
+         * The paying thread waits until there is room in the queue. No update is lost.
+         */
+        BLOCK,
+        /**
+         * The oldest queued update is dropped to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * The newest queued update is replaced by the new one. Since every update carries the
+         * total revenue, the observer still ends up with the latest total. Payments on different
+         * lanes can report their totals out of order, and the total revenue only grows, so an
+         * update with a lower total than one already accepted is discarded as outdated. The
+         * observer therefore never sees the total go down.
+         */
+        COALESCE
+    }
+
+    private final SaleObserver observer;
+    private final BackpressurePolicy policy;
+    private final int capacity;
+    private final ArrayDeque<RevenueUpdate> queue;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final Thread dispatcher;
+    private boolean closed;
+    private boolean delivering;
+    private long highestAcceptedTotal = Long.MIN_VALUE;
+
+    private long dispatchedCount;
+    private long droppedCount;
+    private long coalescedCount;
+    private long failedCount;
+    private long lastDispatchLagNanos;
+    private long maxDispatchLagNanos;
+    private int maxQueueDepth;
+
+    /**
+     * Creates an AsyncSaleObserver that delivers updates to the specified observer.
+     *
+     * @param observer the observer that shall receive the updates
+     * @param capacity the maximum number of queued updates
+     * @param policy what to do with an update that arrives when the queue is full
+     * @throws IllegalArgumentException if observer or policy is null, or if capacity is less than 1
+     */
+    public AsyncSaleObserver(SaleObserver observer, int capacity, BackpressurePolicy policy)
+            throws IllegalArgumentException {
+        if (observer == null) throw new IllegalArgumentException("Observer must not be null.");
+        if (policy == null) throw new IllegalArgumentException("Backpressure policy must not be null.");
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1.");
+        this.observer = observer;
+        this.policy = policy;
+        this.capacity = capacity;
+        this.queue = new ArrayDeque<>(capacity);
+        this.dispatcher = Thread.ofVirtual()
+                .name("sale-observer-" + observer.getClass().getSimpleName())
+                .start(this::dispatchUpdates);
+    }
+
+    /**
+     * Queues the update for delivery. Depending on the backpressure policy this may wait for
+     * room in the queue, or replace an update that has not been delivered yet. If the observer
+     * is closed, or is closed while this call waits for room, the update is dropped.
+     *
+     * @param totalRevenue The new total revenue.
+     */
+    @Override
+    public void updateTotalRevenue(Amount totalRevenue) {
+        RevenueUpdate update = new RevenueUpdate(totalRevenue, System.nanoTime());
+        lock.lock();
+        try {
+            if (closed) {
+                droppedCount++;
+                return;
+            }
+            if (policy == BackpressurePolicy.COALESCE) {
+                if (totalRevenue.getMinorUnits() < highestAcceptedTotal) {
+                    coalescedCount++;
+                    return;
+                }
+                highestAcceptedTotal = totalRevenue.getMinorUnits();
+            }
+            if (queue.size() == capacity) {
+                switch (policy) {
+                    case BLOCK:
+                        while (queue.size() == capacity && !closed) {
+                            notFull.awaitUninterruptibly();
+                        }
+                        if (closed) {
+                            droppedCount++;
+                            return;
+                        }
+                        break;
+                    case DROP_OLDEST:
+                        queue.pollFirst();
+                        droppedCount++;
+                        break;
+                    case COALESCE:
+                        RevenueUpdate replaced = queue.pollLast();
+                        update = new RevenueUpdate(totalRevenue, replaced.enqueuedAtNanos);
+                        coalescedCount++;
+                        break;
+                }
+            }
+            queue.addLast(update);
+            maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchUpdates() {
+        while (true) {
+            RevenueUpdate update;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                update = queue.pollFirst();
+                delivering = true;
+                long lag = System.nanoTime() - update.enqueuedAtNanos;
+                lastDispatchLagNanos = lag;
+                maxDispatchLagNanos = Math.max(maxDispatchLagNanos, lag);
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            deliver(update);
+        }
+    }
+
+    private void deliver(RevenueUpdate update) {
+        boolean delivered = false;
+        try {
+            observer.updateTotalRevenue(update.totalRevenue);
+            delivered = true;
+        } catch (RuntimeException e) {
+            // A failing observer must not stop the delivery of later updates.
+        }
+        lock.lock();
+        try {
+            if (delivered) {
+                dispatchedCount++;
+            } else {
+                failedCount++;
+            }
+            delivering = false;
+            if (queue.isEmpty()) {
+                drained.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting updates, delivers the updates that are already queued and waits for
+     * the dispatcher thread to finish. If the calling thread is interrupted while waiting, its
+     * interrupt flag is set again and the remaining updates are delivered in the background.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until all queued updates have been delivered, or until the timeout expires.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if the queue was drained, false if the timeout expired
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitDrained(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!queue.isEmpty() || delivering) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = drained.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of updates waiting to be delivered.
+     *
+     * @return the current queue depth
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the highest number of updates that have been waiting at the same time.
+     *
+     * @return the maximum queue depth
+     */
+    public int getMaxQueueDepth() {
+        lock.lock();
+        try {
+            return maxQueueDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of updates delivered to the observer.
+     *
+     * @return the number of delivered updates
+     */
+    public long getDispatchedCount() {
+        lock.lock();
+        try {
+            return dispatchedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of updates dropped by the DROP_OLDEST policy, or because they arrived
+     * after the observer was closed.
+     *
+     * @return the number of dropped updates
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of updates replaced by a newer update, or discarded as outdated, by the
+     * COALESCE policy.
+     *
+     * @return the number of coalesced updates
+     */
+    public long getCoalescedCount() {
+        lock.lock();
+        try {
+            return coalescedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of updates where the observer threw an exception.
+     *
+     * @return the number of failed deliveries
+     */
+    public long getFailedCount() {
+        lock.lock();
+        try {
+            return failedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the time between queueing and delivering the most recently delivered update.
+     *
+     * @param unit the unit of the returned time
+     * @return the dispatch lag of the last update
+     */
+    public long getLastDispatchLag(TimeUnit unit) {
+        lock.lock();
+        try {
+            return unit.convert(lastDispatchLagNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the longest time an update has waited between queueing and delivery.
+     *
+     * @param unit the unit of the returned time
+     * @return the maximum dispatch lag
+     */
+    public long getMaxDispatchLag(TimeUnit unit) {
+        lock.lock();
+        try {
+            return unit.convert(maxDispatchLagNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class RevenueUpdate {
+        private final Amount totalRevenue;
+        private final long enqueuedAtNanos;
+
+        private RevenueUpdate(Amount totalRevenue, long enqueuedAtNanos) {
+            this.totalRevenue = totalRevenue;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+}
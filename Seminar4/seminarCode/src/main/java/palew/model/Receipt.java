@@ -1,9 +1,8 @@
 package palew.model;
 
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
-import palew.DTO.ItemAndRunningTotalDTO;
 import palew.DTO.SaleStateDTO;
 
 /**
@@ -25,6 +24,17 @@ public class Receipt {
         this.saleState = saleState;
     }
 
+    /**
+     * Writes the text of the receipt to the output, line by line.
+     *
+     * @param out where the receipt is written
+     * @throws IllegalArgumentException if out is null
+     * @throws IOException if the output can not be written
+     */
+    public void renderTo(Appendable out) throws IllegalArgumentException, IOException {
+        ReceiptRenderer.render(saleState, out);
+    }
+
     /**
      * Returns a formatted String with the information in the Receipt.
      * 
@@ -32,42 +42,12 @@ public class Receipt {
      */
     @Override
     public String toString() {
-        StringBuilder builder = new StringBuilder();
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-
-        builder.append("----------------------- BEGINNING OF RECEIPT -----------------------\n");
-        builder.append("Time of sale: ").append(saleState.getTimeOfSale().format(dateFormatter)).append(" ").append(saleState.getTimeOfSale().format(timeFormatter)).append("\n");
-        
-        List<ItemAndRunningTotalDTO> itemList = saleState.getItemList();
-        for (ItemAndRunningTotalDTO item : itemList) {
-            builder.append(item.getItem().getItemDescription()).append(" ")
-                   .append(item.getQuantity()).append(" x ")
-                   .append(item.getItem().getPrice().getAmount()).append(" ")
-                   .append(item.getRunningTotal().getAmount()).append(" SEK\n");
+        StringBuilder builder = new StringBuilder(ReceiptRenderer.estimateLength(saleState));
+        try {
+            ReceiptRenderer.render(saleState, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        builder.append("\nTotal: ").append(saleState.getTotalPriceIncludingVAT().getAmount()).append(" SEK\n");
-        builder.append("VAT: ").append(String.format("%.2f", calculateTotalVAT())).append(" SEK\n");
-        builder.append("\nCash: ").append(saleState.getPaidAmount().getAmount()).append(" SEK\n");
-        builder.append("Change: ").append(saleState.getChange().getAmount()).append(" SEK\n");
-        builder.append("----------------------- END OF RECEIPT -----------------------");
-
         return builder.toString();
     }
-
-    /**
-     * Calculates the total VAT amount from the sale items to represent in the receipt.
-     * 
-     * @return the total VAT amount.
-     */
-    private double calculateTotalVAT() {
-        double totalVAT = 0;
-        for (ItemAndRunningTotalDTO item : saleState.getItemList()) {
-            double itemNetPrice = item.getItem().getPrice().getAmount();
-            double itemVAT = itemNetPrice * item.getItem().getVatRate();
-            totalVAT += itemVAT * item.getQuantity();
-        }
-        return totalVAT;
-    }
 }
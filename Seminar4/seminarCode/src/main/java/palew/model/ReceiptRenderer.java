@@ -0,0 +1,141 @@
+package palew.model;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.SaleStateDTO;
+
+/**
+ * Writes the text of a receipt line by line to an {@link Appendable}, such as a
+ * {@link java.io.Writer} or a {@link StringBuilder}, without building the whole receipt in memory
+ * first.
+ * <p>
+ * The item lines and the total VAT are produced in one pass over the items, and amounts are
+ * written digit by digit, so rendering a receipt creates no objects apart from those the
+ * {@link Appendable} creates. The text is the same as the one {@link Receipt#toString()} has
+ * always produced.
+ */
+public final class ReceiptRenderer {
+    private static final DateTimeFormatter TIME_OF_SALE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String HEADER = "----------------------- BEGINNING OF RECEIPT -----------------------\n";
+    private static final String FOOTER = "----------------------- END OF RECEIPT -----------------------";
+    private static final String CURRENCY = " SEK\n";
+    private static final long MINOR_UNITS_PER_UNIT = 100;
+    private static final long MAX_PLAIN_MINOR_UNITS = 1_000_000_000L;
+    private static final int ESTIMATED_LINE_LENGTH = 48;
+
+    private ReceiptRenderer() {
+    }
+
+    /**
+     * Writes the receipt of a sale to the output.
+     *
+     * @param saleState the sale to write the receipt for
+     * @param out where the receipt is written
+     * @throws IllegalArgumentException if saleState or out is null
+     * @throws IOException if the output can not be written
+     */
+    public static void render(SaleStateDTO saleState, Appendable out) throws IllegalArgumentException, IOException {
+        if (saleState == null) throw new IllegalArgumentException("Sale state DTO must not be null.");
+        if (out == null) throw new IllegalArgumentException("Output must not be null.");
+        out.append(HEADER);
+        out.append("Time of sale: ");
+        TIME_OF_SALE_FORMATTER.formatTo(saleState.getTimeOfSale(), out);
+        out.append('\n');
+
+        long totalVAT = 0;
+        List<ItemAndRunningTotalDTO> itemList = saleState.getItemList();
+        for (int i = 0; i < itemList.size(); i++) {
+            ItemAndRunningTotalDTO line = itemList.get(i);
+            long runningTotal = line.getRunningTotal().getMinorUnits();
+            totalVAT += line.getTotalIncludingVAT().getMinorUnits() - runningTotal;
+            out.append(line.getItem().getItemDescription()).append(' ');
+            appendLong(out, line.getQuantity());
+            out.append(" x ");
+            appendAmount(out, line.getItem().getPrice().getMinorUnits());
+            out.append(' ');
+            appendAmount(out, runningTotal);
+            out.append(CURRENCY);
+        }
+
+        out.append("\nTotal: ");
+        appendAmount(out, saleState.getTotalPriceIncludingVAT().getMinorUnits());
+        out.append(CURRENCY).append("VAT: ");
+        appendTwoDecimals(out, totalVAT);
+        out.append(CURRENCY).append("\nCash: ");
+        appendAmount(out, saleState.getPaidAmount().getMinorUnits());
+        out.append(CURRENCY).append("Change: ");
+        appendAmount(out, saleState.getChange().getMinorUnits());
+        out.append(CURRENCY).append(FOOTER);
+    }
+
+    /**
+     * Estimates the length of the receipt of a sale, for sizing a buffer before rendering.
+     *
+     * @param saleState the sale to estimate the receipt length for
+     * @return the estimated number of characters
+     * @throws IllegalArgumentException if saleState is null
+     */
+    public static int estimateLength(SaleStateDTO saleState) throws IllegalArgumentException {
+        if (saleState == null) throw new IllegalArgumentException("Sale state DTO must not be null.");
+        long estimate = HEADER.length() + FOOTER.length() + 4L * ESTIMATED_LINE_LENGTH
+                + (long) saleState.getItemList().size() * ESTIMATED_LINE_LENGTH;
+        return (int) Math.min(estimate, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Writes an amount the way <code>String.valueOf(amount.getAmount())</code> does, with at
+     * least one decimal and no trailing zeros. Amounts of ten million kronor or more are written
+     * in scientific notation by {@link Double#toString(double)}, so they are left to it.
+     */
+    private static void appendAmount(Appendable out, long minorUnits) throws IOException {
+        if (minorUnits <= -MAX_PLAIN_MINOR_UNITS || minorUnits >= MAX_PLAIN_MINOR_UNITS) {
+            out.append(Double.toString((double) minorUnits / MINOR_UNITS_PER_UNIT));
+            return;
+        }
+        if (minorUnits < 0) {
+            out.append('-');
+            minorUnits = -minorUnits;
+        }
+        appendLong(out, minorUnits / MINOR_UNITS_PER_UNIT);
+        out.append('.');
+        int cents = (int) (minorUnits % MINOR_UNITS_PER_UNIT);
+        out.append((char) ('0' + cents / 10));
+        if (cents % 10 != 0) {
+            out.append((char) ('0' + cents % 10));
+        }
+    }
+
+    /**
+     * Writes an amount the way {@link Amount#toString()} does, always with two decimals.
+     */
+    private static void appendTwoDecimals(Appendable out, long minorUnits) throws IOException {
+        if (minorUnits < 0) {
+            out.append('-');
+        }
+        appendLong(out, Math.abs(minorUnits / MINOR_UNITS_PER_UNIT));
+        out.append('.');
+        int cents = (int) Math.abs(minorUnits % MINOR_UNITS_PER_UNIT);
+        out.append((char) ('0' + cents / 10)).append((char) ('0' + cents % 10));
+    }
+
+    private static void appendLong(Appendable out, long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.append(Long.toString(value));
+                return;
+            }
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+}
@@ -1,27 +1,67 @@
 package palew.model;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Represents a cash register that keeps track of the balance.
+ * The balance is updated lock-free, so several lanes can pay into the same register at once.
  */
 public class Register {
-    private Amount balance;
+    private final AtomicLong balance;
+    private final AtomicLong cashInCount;
+    private final AtomicLong cashOutCount;
 
     /**
      * Constructs a Register with an initial balance of 0.
      */
     public Register() {
-        this.balance = new Amount(0);
+        this.balance = new AtomicLong();
+        this.cashInCount = new AtomicLong();
+        this.cashOutCount = new AtomicLong();
     }
 
     /**
-     * Updates the balance by adding the specified amount.
+     * Updates the balance by adding the specified amount, for example cash paid by a customer.
      * 
      * @param amount the amount to add to the balance.
      * @throws IllegalArgumentException if amount is null
      */
     public void updateBalance(Amount amount) throws IllegalArgumentException {
         if (amount == null) throw new IllegalArgumentException("Amount must not be null");
-        balance = new Amount(balance.getAmount() + amount.getAmount());
+        balance.addAndGet(amount.getMinorUnits());
+        cashInCount.incrementAndGet();
+    }
+
+    /**
+     * Records a cash payment: the amount the customer paid goes in and the change goes out, as one
+     * update of the balance. A balance read at the same time therefore either includes the whole
+     * payment or none of it. The payment counts as a cash-in event, and the change, if any, as a
+     * cash-out event.
+     *
+     * @param paid the amount paid by the customer
+     * @param change the change given back to the customer
+     * @throws IllegalArgumentException if paid or change is null
+     */
+    public void recordPayment(Amount paid, Amount change) throws IllegalArgumentException {
+        if (paid == null) throw new IllegalArgumentException("Paid amount must not be null");
+        if (change == null) throw new IllegalArgumentException("Change must not be null");
+        balance.addAndGet(Math.subtractExact(paid.getMinorUnits(), change.getMinorUnits()));
+        cashInCount.incrementAndGet();
+        if (change.getMinorUnits() > 0) {
+            cashOutCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Updates the balance by removing the specified amount, for example change given to a customer.
+     * 
+     * @param amount the amount to remove from the balance.
+     * @throws IllegalArgumentException if amount is null
+     */
+    public void recordCashOut(Amount amount) throws IllegalArgumentException {
+        if (amount == null) throw new IllegalArgumentException("Amount must not be null");
+        balance.addAndGet(-amount.getMinorUnits());
+        cashOutCount.incrementAndGet();
     }
 
     /**
@@ -30,6 +70,28 @@ public class Register {
      * @return the current balance.
      */
     public Amount getBalance() {
-        return balance;
+        return Amount.ofMinorUnits(balance.get());
+    }
+
+    long getBalanceInMinorUnits() {
+        return balance.get();
+    }
+
+    /**
+     * Gets the number of times cash has been put into the register.
+     * 
+     * @return the number of cash-in events.
+     */
+    public long getCashInCount() {
+        return cashInCount.get();
+    }
+
+    /**
+     * Gets the number of times cash has been taken out of the register.
+     * 
+     * @return the number of cash-out events.
+     */
+    public long getCashOutCount() {
+        return cashOutCount.get();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package palew.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import palew.DTO.RegisterSummaryDTO;
+
+/**
+ * Manages the cash registers of a store, one per checkout lane.
+ * <p>
+ * Registers are created the first time their number is used. Each register updates its
+ * balance lock-free, and the store balance is read by summing the registers, so reading
+ * it never stops checkouts. The store balance contains every cash event that completed
+ * before it was read. A payment and its change are one event, so the balance never includes the
+ * cash a customer paid without the change they got back.
+ */
+public class RegisterPool {
+    private final Map<Integer, Register> registers = new ConcurrentSkipListMap<>();
+
+    /**
+     * Constructs an empty RegisterPool.
+     */
+    public RegisterPool() {
+    }
+
+    /**
+     * Constructs a RegisterPool where the specified register is register number 0.
+     *
+     * @param register the register to use as register number 0
+     * @throws IllegalArgumentException if register is null
+     */
+    public RegisterPool(Register register) throws IllegalArgumentException {
+        if (register == null) throw new IllegalArgumentException("Register must not be null");
+        registers.put(0, register);
+    }
+
+    /**
+     * Gets the register with the specified number, creating it if it does not exist.
+     *
+     * @param registerNumber the number of the register
+     * @return the register
+     */
+    public Register getRegister(int registerNumber) {
+        Register register = registers.get(registerNumber);
+        if (register == null) {
+            register = registers.computeIfAbsent(registerNumber, newNumber -> new Register());
+        }
+        return register;
+    }
+
+    /**
+     * Gets the sum of the balances of all registers.
+     *
+     * @return the balance of the store
+     */
+    public Amount getStoreBalance() {
+        long total = 0;
+        for (Register register : registers.values()) {
+            total += register.getBalanceInMinorUnits();
+        }
+        return Amount.ofMinorUnits(total);
+    }
+
+    /**
+     * Gets the state of every register, ordered by register number.
+     *
+     * @return a summary of each register
+     */
+    public List<RegisterSummaryDTO> getRegisterSummaries() {
+        List<RegisterSummaryDTO> summaries = new ArrayList<>();
+        for (Map.Entry<Integer, Register> entry : registers.entrySet()) {
+            Register register = entry.getValue();
+            summaries.add(new RegisterSummaryDTO(entry.getKey(), register.getBalance(),
+                    register.getCashInCount(), register.getCashOutCount()));
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,82 @@
+package palew.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import palew.DTO.RevenueSnapshotDTO;
+
+/**
+ * Keeps track of the revenue of the store, per checkout lane.
+ * <p>
+ * Every lane has its own striped counter, so payments on different lanes do not contend,
+ * and even payments on the same lane rarely do. The counters are only summed when the
+ * revenue is read. A snapshot contains every payment that was recorded before the
+ * snapshot was requested, and its total always equals the sum of its lanes.
+ */
+public class RevenueLedger {
+    private static final RevenueLedger instance = new RevenueLedger();
+    private final Map<Integer, LongAdder> revenueByLane = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the revenue ledger of the store, shared by all sales that are not given a ledger of their own.
+     *
+     * @return the store's revenue ledger
+     */
+    public static RevenueLedger getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records revenue on the specified lane.
+     *
+     * @param lane the lane number
+     * @param amount the revenue to record
+     * @throws IllegalArgumentException if amount is null
+     */
+    public void recordRevenue(int lane, Amount amount) throws IllegalArgumentException {
+        if (amount == null) throw new IllegalArgumentException("Amount must not be null");
+        recordRevenue(lane, amount.getMinorUnits());
+    }
+
+    /**
+     * Records revenue on the specified lane.
+     *
+     * @param lane the lane number
+     * @param minorUnits the revenue to record in öre
+     */
+    public void recordRevenue(int lane, long minorUnits) {
+        LongAdder laneRevenue = revenueByLane.get(lane);
+        if (laneRevenue == null) {
+            laneRevenue = revenueByLane.computeIfAbsent(lane, newLane -> new LongAdder());
+        }
+        laneRevenue.add(minorUnits);
+    }
+
+    /**
+     * Reads the revenue of all lanes.
+     *
+     * @return a snapshot of the revenue, in total and per lane
+     */
+    public RevenueSnapshotDTO snapshot() {
+        Map<Integer, Amount> revenue = new HashMap<>();
+        for (Map.Entry<Integer, LongAdder> lane : revenueByLane.entrySet()) {
+            revenue.put(lane.getKey(), Amount.ofMinorUnits(lane.getValue().sum()));
+        }
+        return new RevenueSnapshotDTO(revenue);
+    }
+
+    /**
+     * Reads the total revenue of all lanes.
+     *
+     * @return the total revenue
+     */
+    public Amount getTotalRevenue() {
+        long total = 0;
+        for (LongAdder laneRevenue : revenueByLane.values()) {
+            total += laneRevenue.sum();
+        }
+        return Amount.ofMinorUnits(total);
+    }
+}
@@ -2,36 +2,68 @@ package palew.model;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import palew.DTO.ItemAndRunningTotalDTO;
 import palew.DTO.ItemDTO;
 import palew.DTO.SaleStateDTO;
 import palew.DTO.SaleSummaryDTO;
+import palew.util.LatencyHistogram;
+import palew.util.Metrics;
+import palew.util.SaleEvents;
 
 /**
  * Represents a sale transaction, including the items purchased, their quantities,
  * the total price, and the time of the sale.
+ * <p>
+ * The running totals are kept as öre in primitive fields and the lines are updated in
+ * place, so registering an item does not allocate. Amounts and DTOs are only created
+ * when they are read.
  */
 public class Sale {
+    private static final LatencyHistogram OBSERVER_DISPATCH_LATENCY = Metrics.getInstance().histogram("sale.notifyObservers");
+
     private LocalDateTime timeOfSale; 
-    private Amount totalPrice; 
-    private Amount totalPriceIncludingVAT; 
-    private List<ItemAndRunningTotalDTO> items;
+    private long totalPrice;
+    private long totalVAT;
+    private long totalPriceIncludingVAT;
+    private List<SaleLine> lines;
+    private Map<String, SaleLine> linesByItemID;
     private boolean isCompleted; 
+    private final RevenueLedger revenueLedger;
+    private final int lane;
 
-    private static Amount totalRevenue = new Amount(0); 
     private List<SaleObserver> saleObservers = new ArrayList<>();
+    /**
+     * Initializes a new instance of the Sale class on lane 0, 
+     * that records its revenue in the store's revenue ledger.
+     */
+    public Sale() {
+        this(RevenueLedger.getInstance(), 0);
+    }
+
     /**
      * Initializes a new instance of the Sale class, 
      * sets the time of the sale, initializes the items list,
      * and sets the initial total prices to zero.
+     * 
+     * @param revenueLedger the ledger the revenue of the sale is recorded in
+     * @param lane the checkout lane the sale is made on
+     * @throws IllegalArgumentException if revenueLedger is null
      */
-    public Sale() {
+    public Sale(RevenueLedger revenueLedger, int lane) throws IllegalArgumentException {
+        if (revenueLedger == null) throw new IllegalArgumentException("Revenue ledger must not be null.");
+        this.revenueLedger = revenueLedger;
+        this.lane = lane;
         setTimeOfSale();
-        items = new ArrayList<>();
-        totalPrice = new Amount(0);
-        totalPriceIncludingVAT = new Amount(0);
+        lines = new ArrayList<>();
+        linesByItemID = new HashMap<>();
+        totalPrice = 0;
+        totalVAT = 0;
+        totalPriceIncludingVAT = 0;
         isCompleted = false;
     }
 
@@ -57,7 +89,16 @@ public class Sale {
      * @return the running total price
      */
     public Amount getRunningTotal() {
-        return totalPrice;
+        return Amount.ofMinorUnits(totalPrice);
+    }
+
+    /**
+     * Gets the total VAT of the sale.
+     * 
+     * @return the total VAT
+     */
+    public Amount getTotalVAT() {
+        return Amount.ofMinorUnits(totalVAT);
     }
 
     /**
@@ -66,7 +107,7 @@ public class Sale {
      * @return the running total price including VAT
      */
     public Amount getRunningTotalIncludingVAT() {
-        return totalPriceIncludingVAT;
+        return Amount.ofMinorUnits(totalPriceIncludingVAT);
     }
 
     /**
@@ -77,60 +118,139 @@ public class Sale {
      * @return a SaleSummaryDTO containing the item, quantity, total price,
      *         and the total price including VAT
      * @throws IllegalArgumentException if item is null or quantity is less than or equal to 0
+     * @throws ArithmeticException if the quantity or a total of the sale would overflow
      */
-    public SaleSummaryDTO registerItem(ItemDTO item, int quantity) throws IllegalArgumentException {
+    public SaleSummaryDTO registerItem(ItemDTO item, int quantity) throws IllegalArgumentException, ArithmeticException {
+        SaleLine line = registerLine(item, quantity);
+
+        return new SaleSummaryDTO(line.toDTO(), getRunningTotalIncludingVAT(), getRunningTotal());
+    }
+
+    /**
+     * Registers an item in the sale with the specified quantity, without creating a summary.
+     * Use this instead of {@link #registerItem(ItemDTO, int)} when the summary is not needed.
+     * 
+     * @param item the item being registered
+     * @param quantity the quantity of the item being registered
+     * @throws IllegalArgumentException if item is null or quantity is less than or equal to 0
+     * @throws ArithmeticException if the quantity or a total of the sale would overflow
+     */
+    public void addItem(ItemDTO item, int quantity) throws IllegalArgumentException, ArithmeticException {
+        registerLine(item, quantity);
+    }
+
+    /**
+     * Registers many items in the sale at once, updating the totals only once. Either
+     * all items are registered or, if any of them is invalid or a quantity or total would
+     * overflow, none of them.
+     * 
+     * @param items the items being registered
+     * @param quantities the quantity of each item, at the same index as the item
+     * @throws IllegalArgumentException if the arrays are null or of different lengths, if an item
+     *                                  is null or if a quantity is less than or equal to 0
+     * @throws ArithmeticException if a quantity or total of the sale would overflow
+     */
+    public void addItems(ItemDTO[] items, int[] quantities) throws IllegalArgumentException, ArithmeticException {
+        if (items == null || quantities == null || items.length != quantities.length) {
+            throw new IllegalArgumentException("Every item must have a quantity");
+        }
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] == null || quantities[i] <= 0) {
+                throw new IllegalArgumentException("Item cannot be null and quantity must be greater than 0");
+            }
+        }
+
+        // The new lines and totals are computed on copies first, so an overflow on any item
+        // leaves the sale unchanged.
+        Map<String, SaleLine> stagedLines = new LinkedHashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            SaleLine staged = stagedLines.get(items[i].getItemID());
+            if (staged == null) {
+                SaleLine line = linesByItemID.get(items[i].getItemID());
+                staged = line == null ? new SaleLine(items[i]) : new SaleLine(line);
+                stagedLines.put(items[i].getItemID(), staged);
+            }
+            staged.addQuantity(quantities[i]);
+        }
+        long newTotalPrice = totalPrice;
+        long newTotalPriceIncludingVAT = totalPriceIncludingVAT;
+        for (SaleLine staged : stagedLines.values()) {
+            SaleLine line = linesByItemID.get(staged.getItemID());
+            long previousLineTotal = line == null ? 0 : line.getLineTotal();
+            long previousLineTotalIncludingVAT = line == null ? 0 : line.getLineTotalIncludingVAT();
+            newTotalPrice = Math.addExact(newTotalPrice, staged.getLineTotal() - previousLineTotal);
+            newTotalPriceIncludingVAT = Math.addExact(newTotalPriceIncludingVAT,
+                    staged.getLineTotalIncludingVAT() - previousLineTotalIncludingVAT);
+        }
+
+        for (SaleLine staged : stagedLines.values()) {
+            SaleLine line = linesByItemID.get(staged.getItemID());
+            if (line == null) {
+                linesByItemID.put(staged.getItemID(), staged);
+                lines.add(staged);
+            } else {
+                line.copyFrom(staged);
+            }
+        }
+        totalPrice = newTotalPrice;
+        totalPriceIncludingVAT = newTotalPriceIncludingVAT;
+        totalVAT = totalPriceIncludingVAT - totalPrice;
+    }
+
+    private SaleLine registerLine(ItemDTO item, int quantity) throws IllegalArgumentException, ArithmeticException {
         if (item == null || quantity <= 0) {
             throw new IllegalArgumentException("Item cannot be null and quantity must be greater than 0");
         }
 
-        ItemAndRunningTotalDTO itemAndRunningTotalDTO = updateSaleState(item, quantity);
-
-        return new SaleSummaryDTO(itemAndRunningTotalDTO, totalPriceIncludingVAT, totalPrice);
+        SaleEvents.ItemRegistered event = new SaleEvents.ItemRegistered();
+        event.begin();
+        SaleLine line = updateSaleState(item, quantity);
+        event.end();
+        if (event.shouldCommit()) {
+            event.lane = lane;
+            event.itemID = item.getItemID();
+            event.quantity = quantity;
+            event.commit();
+        }
+        return line;
     }
 
     /**
      * Updates the sale state with a new item by adjusting the total prices and
-     * adding the item to the list.
+     * adding the item to its line. If the quantity or a total would overflow, the
+     * sale is left unchanged.
      * 
      * @param item the item being purchased
      * @param quantity the quantity of the item being purchased
-     * @return the updated ItemAndRunningTotalDTO
+     * @return the updated line
+     * @throws ArithmeticException if the quantity or a total of the sale would overflow
      */
-    private ItemAndRunningTotalDTO updateSaleState(ItemDTO item, int quantity) {
-        int index = indexIfAlreadyRegistered(item);
-    
-        ItemAndRunningTotalDTO itemAndRunningTotalDTO;
-        if (index != -1) {
-            ItemAndRunningTotalDTO existingItem = items.get(index);
-            int newQuantity = existingItem.getQuantity() + quantity;
-            itemAndRunningTotalDTO = new ItemAndRunningTotalDTO(item, newQuantity);
-            items.set(index, itemAndRunningTotalDTO);
-        } else {
-            itemAndRunningTotalDTO = new ItemAndRunningTotalDTO(item, quantity);
-            items.add(itemAndRunningTotalDTO);
+    private SaleLine updateSaleState(ItemDTO item, int quantity) throws ArithmeticException {
+        // The new line and totals are computed first, and the sale is only changed once they are known.
+        // The new quantity is staged in the line itself, so adding to an existing line does not allocate.
+        SaleLine line = linesByItemID.get(item.getItemID());
+        boolean isNewLine = line == null;
+        if (isNewLine) {
+            line = new SaleLine(item);
         }
-    
-        Amount itemTotal = new Amount(item.getPrice().getAmount() * quantity); // Calculate the total price for the item
-        Amount itemTotalIncludingVAT = new Amount(itemTotal.getAmount() * (1 + item.getVatRate())); // Calculate the total price including VAT
-        totalPrice = new Amount(totalPrice.getAmount() + itemTotal.getAmount()); // Update the running total price
-        totalPriceIncludingVAT = new Amount(totalPriceIncludingVAT.getAmount() + itemTotalIncludingVAT.getAmount()); // Update the running total price including VAT
-    
-        return itemAndRunningTotalDTO;
-    }
+        line.stageQuantity(quantity);
 
-    /**
-     * Checks if an item is already registered in the sale and returns its index.
-     * 
-     * @param searchedItem the item being searched for
-     * @return the index of the item if found, -1 otherwise
-     */
-    private int indexIfAlreadyRegistered(ItemDTO searchedItem) {
-        for (int i = 0; i < items.size(); i++) {
-            if (items.get(i).getItem().getItemID().equals(searchedItem.getItemID())) {
-                return i;
-            }
+        // The totals change by the difference between the new and the previous line, so they always
+        // equal the sum of the rounded line totals.
+        long newTotalPrice = Math.addExact(totalPrice, line.getStagedLineTotal() - line.getLineTotal());
+        long newTotalPriceIncludingVAT = Math.addExact(totalPriceIncludingVAT,
+                line.getStagedLineTotalIncludingVAT() - line.getLineTotalIncludingVAT());
+
+        line.applyStagedQuantity();
+        if (isNewLine) {
+            linesByItemID.put(item.getItemID(), line);
+            lines.add(line);
         }
-        return -1;
+        totalPrice = newTotalPrice;
+        totalPriceIncludingVAT = newTotalPriceIncludingVAT;
+        totalVAT = totalPriceIncludingVAT - totalPrice;
+    
+        return line;
     }
 
     /**
@@ -142,14 +262,29 @@ public class Sale {
      * @throws IllegalArgumentException if the paid amount is less than the total price including VAT
      */
     public SaleStateDTO recordPayment(Amount paidAmount) throws IllegalArgumentException {
-        if (paidAmount.isLessThan(totalPriceIncludingVAT)) {
-            throw new IllegalArgumentException("Insufficient payment amount.");
+        SaleEvents.Payment event = new SaleEvents.Payment();
+        event.begin();
+        boolean accepted = false;
+        try {
+            if (paidAmount.getMinorUnits() < totalPriceIncludingVAT) {
+                throw new IllegalArgumentException("Insufficient payment amount.");
+            }
+            Amount change = Amount.ofMinorUnits(paidAmount.getMinorUnits() - totalPriceIncludingVAT);
+            isCompleted = true;
+            revenueLedger.recordRevenue(lane, totalPriceIncludingVAT);
+            notifyObservers(revenueLedger.getTotalRevenue());
+            accepted = true;
+            return new SaleStateDTO(this, paidAmount, change);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.lane = lane;
+                event.lineCount = lines.size();
+                event.totalMinorUnits = totalPriceIncludingVAT;
+                event.accepted = accepted;
+                event.commit();
+            }
         }
-        Amount change = paidAmount.minus(totalPriceIncludingVAT);
-        isCompleted = true;
-        totalRevenue = new Amount(totalRevenue.getAmount() + totalPriceIncludingVAT.getAmount());
-        notifyObservers();
-        return new SaleStateDTO(this, paidAmount, change);
     }
 
     /**
@@ -163,10 +298,20 @@ public class Sale {
 
     /**
      * Notifies all observers about the updated total revenue.
+     * 
+     * @param totalRevenue the total revenue after this sale was paid
      */
-    private void notifyObservers() {
-        for (SaleObserver obs : saleObservers) {
-            obs.updateTotalRevenue(totalRevenue);
+    private void notifyObservers(Amount totalRevenue) {
+        if (saleObservers.isEmpty()) {
+            return;
+        }
+        long start = OBSERVER_DISPATCH_LATENCY.startTimer();
+        try {
+            for (SaleObserver obs : saleObservers) {
+                obs.updateTotalRevenue(totalRevenue);
+            }
+        } finally {
+            OBSERVER_DISPATCH_LATENCY.stopTimer(start);
         }
     }
 
@@ -176,7 +321,11 @@ public class Sale {
      * @return a list of ItemAndRunningTotalDTO objects representing the items and their quantities
      */
     public List<ItemAndRunningTotalDTO> getItems() {
-        return new ArrayList<>(items); 
+        List<ItemAndRunningTotalDTO> items = new ArrayList<>(lines.size());
+        for (SaleLine line : lines) {
+            items.add(line.toDTO());
+        }
+        return items;
     }
 
     /**
@@ -187,4 +336,13 @@ public class Sale {
     public boolean isCompleted() {
         return isCompleted;
     }
+
+    /**
+     * Gets the checkout lane the sale is made on.
+     * 
+     * @return the lane number
+     */
+    public int getLane() {
+        return lane;
+    }
 }
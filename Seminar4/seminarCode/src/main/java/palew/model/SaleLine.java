@@ -0,0 +1,145 @@
+package palew.model;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+
+/**
+ * A mutable line in a sale, holding the quantity of one item and the line totals in öre.
+ * Lines are only used inside a sale, callers get {@link ItemAndRunningTotalDTO}s instead.
+ */
+class SaleLine {
+    private final ItemDTO item;
+    private final long priceInMinorUnits;
+    private final long vatRateBasisPoints;
+    private int quantity;
+    private long lineTotal;
+    private long lineTotalIncludingVAT;
+    private int stagedQuantity;
+    private long stagedLineTotal;
+    private long stagedLineTotalIncludingVAT;
+
+    /**
+     * Creates an empty line for the specified item.
+     *
+     * @param item the item of the line
+     */
+    SaleLine(ItemDTO item) {
+        this.item = item;
+        this.priceInMinorUnits = item.getPrice().getMinorUnits();
+        this.vatRateBasisPoints = Amount.toBasisPoints(item.getVatRate());
+    }
+
+    /**
+     * Creates a copy of a line, that can be changed without changing the original.
+     *
+     * @param line the line to copy
+     */
+    SaleLine(SaleLine line) {
+        this.item = line.item;
+        this.priceInMinorUnits = line.priceInMinorUnits;
+        this.vatRateBasisPoints = line.vatRateBasisPoints;
+        copyFrom(line);
+    }
+
+    /**
+     * Adds a quantity of the item to the line and recalculates the line totals. If the quantity
+     * or a total would overflow, the line is left unchanged.
+     *
+     * @param addedQuantity the quantity to add
+     * @throws ArithmeticException if the quantity or a line total would overflow
+     */
+    void addQuantity(int addedQuantity) {
+        stageQuantity(addedQuantity);
+        applyStagedQuantity();
+    }
+
+    /**
+     * Calculates the quantity and line totals the line would have after adding a quantity of the
+     * item, without changing the line. The staged values are applied with {@link #applyStagedQuantity()}.
+     *
+     * @param addedQuantity the quantity to add
+     * @throws ArithmeticException if the quantity or a line total would overflow
+     */
+    void stageQuantity(int addedQuantity) {
+        int newQuantity = Math.addExact(quantity, addedQuantity);
+        long newLineTotal = Amount.multiply(priceInMinorUnits, newQuantity);
+        stagedLineTotalIncludingVAT = Math.addExact(newLineTotal,
+                Amount.applyRate(newLineTotal, vatRateBasisPoints, Amount.DEFAULT_ROUNDING));
+        stagedLineTotal = newLineTotal;
+        stagedQuantity = newQuantity;
+    }
+
+    /**
+     * Sets the quantity and line totals to those calculated by the last call to {@link #stageQuantity(int)}.
+     */
+    void applyStagedQuantity() {
+        quantity = stagedQuantity;
+        lineTotal = stagedLineTotal;
+        lineTotalIncludingVAT = stagedLineTotalIncludingVAT;
+    }
+
+    /**
+     * Sets the quantity and line totals of this line to those of another line of the same item.
+     *
+     * @param line the line to copy the quantity and totals from
+     */
+    void copyFrom(SaleLine line) {
+        quantity = line.quantity;
+        lineTotal = line.lineTotal;
+        lineTotalIncludingVAT = line.lineTotalIncludingVAT;
+    }
+
+    /**
+     * Gets the identifier of the item of the line.
+     *
+     * @return the item ID
+     */
+    String getItemID() {
+        return item.getItemID();
+    }
+
+    /**
+     * Gets the total price of the line in öre.
+     *
+     * @return the line total
+     */
+    long getLineTotal() {
+        return lineTotal;
+    }
+
+    /**
+     * Gets the total price of the line including VAT in öre.
+     *
+     * @return the line total including VAT
+     */
+    long getLineTotalIncludingVAT() {
+        return lineTotalIncludingVAT;
+    }
+
+    /**
+     * Gets the total price of the line in öre after the last staged quantity is applied.
+     *
+     * @return the staged line total
+     */
+    long getStagedLineTotal() {
+        return stagedLineTotal;
+    }
+
+    /**
+     * Gets the total price of the line including VAT in öre after the last staged quantity is applied.
+     *
+     * @return the staged line total including VAT
+     */
+    long getStagedLineTotalIncludingVAT() {
+        return stagedLineTotalIncludingVAT;
+    }
+
+    /**
+     * Creates a DTO with the current state of the line.
+     *
+     * @return the item and running total of the line
+     */
+    ItemAndRunningTotalDTO toDTO() {
+        return new ItemAndRunningTotalDTO(item, quantity);
+    }
+}
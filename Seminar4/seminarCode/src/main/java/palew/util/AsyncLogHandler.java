@@ -0,0 +1,331 @@
+package palew.util;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A log handler that writes on a background thread, so that logging does not add disk
+ * writes to the checkout thread.
+ * <p>
+ * Logged exceptions are put in a ring buffer that is allocated once, and a flusher thread
+ * writes them to the log file in batches. An exception that is identical to the one logged
+ * just before it (same type and message) is folded into that entry and written as one
+ * counted summary that names the exception. This also holds when the entry before it has
+ * already been written, so a burst that spans several flushes is written in full only once.
+ * Once the fold window has passed since the exception was last written in full, it is
+ * written in full again. Only a limited number of stack traces are written per second, later
+ * entries in the same second are written without stack trace. If the ring buffer is full,
+ * new entries are dropped and the number of dropped entries is written to the log, so
+ * memory use stays bounded during bursts.
+ */
+public class AsyncLogHandler extends LogHandler implements AutoCloseable {
+    private static final String LOG_FILE_NAME = "log.txt";
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int DEFAULT_STACK_TRACES_PER_SECOND = 10;
+    private static final long DEFAULT_FOLD_WINDOW_MILLIS = 10_000;
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Entry[] ring;
+    private final Entry[] batch;
+    private final int stackTracesPerSecond;
+    private final long foldWindowMillis;
+    private Thread flusher;
+    private int head;
+    private int size;
+    private boolean closed;
+    private long droppedSinceLastFlush;
+    private long droppedCount;
+    private long foldedCount;
+    private Class<?> lastExceptionClass;
+    private String lastExceptionMessage;
+    private long lastExceptionTimeMillis;
+
+    private long currentSecond;
+    private int stackTracesThisSecond;
+
+    private AsyncLogHandler(String logFileName, int capacity, int stackTracesPerSecond, long foldWindowMillis)
+            throws IOException {
+        super(logFileName, false);
+        this.stackTracesPerSecond = stackTracesPerSecond;
+        this.foldWindowMillis = foldWindowMillis;
+        this.ring = new Entry[capacity];
+        this.batch = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Entry();
+            batch[i] = new Entry();
+        }
+    }
+
+    /**
+     * Opens an asynchronous log handler that appends to <code>log.txt</code>, and starts its
+     * flusher thread.
+     *
+     * @return the opened log handler
+     * @throws IOException if the log file can not be opened.
+     */
+    public static AsyncLogHandler open() throws IOException {
+        return open(LOG_FILE_NAME, DEFAULT_CAPACITY, DEFAULT_STACK_TRACES_PER_SECOND);
+    }
+
+    /**
+     * Opens an asynchronous log handler that appends to the specified file, and starts its
+     * flusher thread.
+     *
+     * @param logFileName The name of the log file.
+     * @param capacity The number of entries the ring buffer can hold.
+     * @param stackTracesPerSecond The maximum number of stack traces written per second.
+     * @return the opened log handler
+     * @throws IOException if the log file can not be opened.
+     * @throws IllegalArgumentException if capacity is less than 1 or stackTracesPerSecond is negative.
+     */
+    public static AsyncLogHandler open(String logFileName, int capacity, int stackTracesPerSecond)
+            throws IOException, IllegalArgumentException {
+        return open(logFileName, capacity, stackTracesPerSecond, DEFAULT_FOLD_WINDOW_MILLIS);
+    }
+
+    /**
+     * Opens an asynchronous log handler that appends to the specified file, and starts its
+     * flusher thread.
+     *
+     * @param logFileName The name of the log file.
+     * @param capacity The number of entries the ring buffer can hold.
+     * @param stackTracesPerSecond The maximum number of stack traces written per second.
+     * @param foldWindowMillis The time after an exception was last written in full during which
+     *                         repetitions of it are folded, also when its entry has been written.
+     * @return the opened log handler
+     * @throws IOException if the log file can not be opened.
+     * @throws IllegalArgumentException if capacity is less than 1, or stackTracesPerSecond or
+     *                                  foldWindowMillis is negative.
+     */
+    public static AsyncLogHandler open(String logFileName, int capacity, int stackTracesPerSecond, long foldWindowMillis)
+            throws IOException, IllegalArgumentException {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1.");
+        if (stackTracesPerSecond < 0) throw new IllegalArgumentException("Stack traces per second cannot be negative.");
+        if (foldWindowMillis < 0) throw new IllegalArgumentException("Fold window cannot be negative.");
+        AsyncLogHandler logger = new AsyncLogHandler(logFileName, capacity, stackTracesPerSecond, foldWindowMillis);
+        logger.startFlusher();
+        return logger;
+    }
+
+    private void startFlusher() {
+        flusher = new Thread(this::flushContinuously, "async-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues a log entry describing a thrown exception. The entry is written by the flusher thread.
+     *
+     * @param exception The exception that shall be logged.
+     */
+    @Override
+    public void logException(Exception exception) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            // An entry that is still queued is always folded into, a written one only within the fold window.
+            boolean sameAsLast = exception.getClass() == lastExceptionClass
+                    && Objects.equals(exception.getMessage(), lastExceptionMessage)
+                    && (size > 0 || now - lastExceptionTimeMillis < foldWindowMillis);
+            if (sameAsLast && size > 0) {
+                Entry newest = ring[(head + size - 1) % ring.length];
+                newest.repetitions++;
+                newest.lastTimeMillis = now;
+                foldedCount++;
+                return;
+            }
+            if (size == ring.length) {
+                droppedSinceLastFlush++;
+                droppedCount++;
+                return;
+            }
+            Entry entry = ring[(head + size) % ring.length];
+            if (sameAsLast) {
+                // The entry for this exception has already been written, only the repetitions are left.
+                entry.setRepetition(exception, now);
+                foldedCount++;
+            } else {
+                entry.set(exception, now);
+                lastExceptionClass = exception.getClass();
+                lastExceptionMessage = exception.getMessage();
+                lastExceptionTimeMillis = now;
+            }
+            size++;
+            if (size == 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushContinuously() {
+        while (true) {
+            int batchSize;
+            long dropped;
+            boolean stopping;
+            lock.lock();
+            try {
+                while (size == 0 && droppedSinceLastFlush == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                batchSize = size;
+                for (int i = 0; i < batchSize; i++) {
+                    Entry entry = ring[(head + i) % ring.length];
+                    batch[i].copyFrom(entry);
+                    entry.clear();
+                }
+                head = (head + batchSize) % ring.length;
+                size = 0;
+                dropped = droppedSinceLastFlush;
+                droppedSinceLastFlush = 0;
+                stopping = closed;
+            } finally {
+                lock.unlock();
+            }
+            writeBatch(batchSize, dropped);
+            if (stopping) {
+                return;
+            }
+            sleepUntilNextFlush();
+        }
+    }
+
+    private void writeBatch(int batchSize, long dropped) {
+        for (int i = 0; i < batchSize; i++) {
+            Entry entry = batch[i];
+            if (!entry.repetitionsOnly) {
+                writeEntry(toLocalDateTime(entry.firstTimeMillis), entry.exception, mayWriteStackTrace(entry.firstTimeMillis));
+            }
+            if (entry.repetitions > 0) {
+                writeLine(toLocalDateTime(entry.lastTimeMillis), "The same exception was thrown "
+                        + entry.repetitions + " more times: " + entry.exception.getClass().getName()
+                        + ": " + entry.exception.getMessage() + "\n");
+            }
+            entry.clear();
+        }
+        if (dropped > 0) {
+            writeLine(LocalDateTime.now(), dropped + " log entries were dropped because the log buffer was full.\n");
+        }
+        flush();
+    }
+
+    private boolean mayWriteStackTrace(long timeMillis) {
+        long second = timeMillis / 1000;
+        if (second != currentSecond) {
+            currentSecond = second;
+            stackTracesThisSecond = 0;
+        }
+        if (stackTracesThisSecond < stackTracesPerSecond) {
+            stackTracesThisSecond++;
+            return true;
+        }
+        return false;
+    }
+
+    private void sleepUntilNextFlush() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(FLUSH_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long timeMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timeMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Gets the number of entries that were dropped because the ring buffer was full.
+     *
+     * @return the number of dropped entries
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of entries that were folded into the entry before them.
+     *
+     * @return the number of folded entries
+     */
+    public long getFoldedCount() {
+        lock.lock();
+        try {
+            return foldedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all queued entries to the log file and closes it.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        flusher.interrupt();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.close();
+    }
+
+    private static class Entry {
+        private Exception exception;
+        private long firstTimeMillis;
+        private long lastTimeMillis;
+        private int repetitions;
+        private boolean repetitionsOnly;
+
+        private void set(Exception exception, long timeMillis) {
+            this.exception = exception;
+            this.firstTimeMillis = timeMillis;
+            this.lastTimeMillis = timeMillis;
+            this.repetitions = 0;
+            this.repetitionsOnly = false;
+        }
+
+        private void setRepetition(Exception exception, long timeMillis) {
+            set(exception, timeMillis);
+            this.repetitions = 1;
+            this.repetitionsOnly = true;
+        }
+
+        private void copyFrom(Entry other) {
+            this.exception = other.exception;
+            this.firstTimeMillis = other.firstTimeMillis;
+            this.lastTimeMillis = other.lastTimeMillis;
+            this.repetitions = other.repetitions;
+            this.repetitionsOnly = other.repetitionsOnly;
+        }
+
+        private void clear() {
+            this.exception = null;
+        }
+    }
+}
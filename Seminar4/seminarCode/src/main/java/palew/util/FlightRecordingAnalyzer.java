@@ -0,0 +1,96 @@
+package palew.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarises the {@link SaleEvents} of a JDK Flight Recorder recording into the latencies of
+ * each phase of a sale. Every phase gets a latency histogram, and the result is reported
+ * like the {@link Metrics} of a running program.
+ * <p>
+ * The phases are <code>sale.start</code>, <code>sale.registerItem</code>,
+ * <code>inventory.lookup.hit</code>, <code>.miss</code> and <code>.failed</code>,
+ * <code>sale.recordPayment</code> and <code>.rejected</code>, <code>payment.accounting</code>,
+ * <code>payment.inventory</code> and <code>payment.receipt</code>, <code>printer.print</code>,
+ * <code>printer.spooledBatch</code> and <code>log.write</code>. A payment step or print that
+ * failed is counted in its own phase, with <code>.failed</code> added to the name. Other events
+ * in the recording are ignored.
+ * <p>
+ * Events below their threshold are not in the recording, so the recording should be made with
+ * the thresholds of the sale events set to 0 ms, for example by
+ * <code>-XX:StartFlightRecording:filename=lane.jfr,palew.ItemRegistered#threshold=0ms,...</code>,
+ * or by enabling them with {@link jdk.jfr.Recording#enable(String)}.
+ */
+public final class FlightRecordingAnalyzer {
+
+    private FlightRecordingAnalyzer() {
+    }
+
+    /**
+     * Reads a recording and records the duration of every sale event in the histogram of its phase.
+     *
+     * @param recording the recording file
+     * @return the latencies of the phases, by phase name
+     * @throws IllegalArgumentException if recording is null
+     * @throws IOException if the recording can not be read
+     */
+    public static Metrics analyze(Path recording) throws IllegalArgumentException, IOException {
+        if (recording == null) throw new IllegalArgumentException("Recording must not be null.");
+        Metrics phases = new Metrics();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String phase = phaseOf(event);
+                if (phase != null) {
+                    phases.histogram(phase).record(event.getDuration().toNanos());
+                }
+            }
+        }
+        return phases;
+    }
+
+    private static String phaseOf(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case SaleEvents.SALE_STARTED:
+                return "sale.start";
+            case SaleEvents.ITEM_REGISTERED:
+                return "sale.registerItem";
+            case SaleEvents.INVENTORY_LOOKUP:
+                if (event.getBoolean("failed")) {
+                    return "inventory.lookup.failed";
+                }
+                return event.getBoolean("hit") ? "inventory.lookup.hit" : "inventory.lookup.miss";
+            case SaleEvents.PAYMENT:
+                return event.getBoolean("accepted") ? "sale.recordPayment" : "sale.recordPayment.rejected";
+            case SaleEvents.PAYMENT_STEP:
+                return withFailure("payment." + event.getString("step").toLowerCase(), event);
+            case SaleEvents.RECEIPT_PRINT:
+                return withFailure(event.getBoolean("spooled") ? "printer.spooledBatch" : "printer.print", event);
+            case SaleEvents.LOG_WRITE:
+                return "log.write";
+            default:
+                return null;
+        }
+    }
+
+    private static String withFailure(String phase, RecordedEvent event) {
+        return event.getBoolean("failed") ? phase + ".failed" : phase;
+    }
+
+    /**
+     * Writes the per-phase latencies of a recording to standard output.
+     *
+     * @param args the path of the recording file
+     * @throws IOException if the recording can not be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java palew.util.FlightRecordingAnalyzer <recording.jfr>");
+            return;
+        }
+        analyze(Path.of(args[0])).writeReport(System.out);
+    }
+}
@@ -0,0 +1,247 @@
+package palew.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import palew.DTO.LatencySnapshotDTO;
+
+/**
+ * Records latencies in nanoseconds into logarithmic buckets, with a relative error of at most
+ * about three percent, for any latency up to {@link Long#MAX_VALUE}.
+ * <p>
+ * Every power of two is split into {@value #SUB_BUCKET_COUNT} equally wide buckets, so recording
+ * a latency only increments one counter and takes no lock. The counters are kept in stripes, and
+ * a thread always records into the stripe chosen by its thread ID, so threads on different
+ * processors seldom write to the same counters. The stripes are added together when the
+ * histogram is read. Reading is far more expensive than recording and is meant for reports.
+ * <p>
+ * Reading the clock costs about as much as a very short operation, so a histogram for such an
+ * operation can be created with a sample interval. Then {@link #startTimer()} only reads the
+ * clock for a random one in every interval calls, and {@link #stopTimer(long)} records that
+ * latency as many times as the interval. The count, mean and percentiles stay unbiased
+ * estimates, while most calls only cost a random number.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+    private static final int SUM_SLOT = BUCKET_COUNT;
+    private static final int MAX_STRIPES = 16;
+    private static final double[] REPORTED_PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * The value {@link #startTimer()} returns for a call that is not timed.
+     */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private final String name;
+    private final int sampleInterval;
+    private final int sampleMask;
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+    private volatile boolean enabled = true;
+
+    /**
+     * Creates an empty histogram that times every call.
+     *
+     * @param name the name of the measured operation
+     * @throws IllegalArgumentException if name is null
+     */
+    public LatencyHistogram(String name) throws IllegalArgumentException {
+        this(name, 1);
+    }
+
+    /**
+     * Creates an empty histogram that times one in every sample interval calls.
+     *
+     * @param name the name of the measured operation
+     * @param sampleInterval the number of calls per timed call, a power of two
+     * @throws IllegalArgumentException if name is null, or if sampleInterval is not a positive power of two
+     */
+    public LatencyHistogram(String name, int sampleInterval) throws IllegalArgumentException {
+        if (name == null) throw new IllegalArgumentException("Name must not be null.");
+        if (sampleInterval < 1 || Integer.bitCount(sampleInterval) != 1) {
+            throw new IllegalArgumentException("Sample interval must be a positive power of two.");
+        }
+        this.name = name;
+        this.sampleInterval = sampleInterval;
+        this.sampleMask = sampleInterval - 1;
+        int stripeCount = Math.min(MAX_STRIPES,
+                Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1);
+        this.stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT + 1);
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * Gets the name of the measured operation.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Turns recording on or off. A histogram that is turned off ignores new latencies.
+     *
+     * @param enabled true to record latencies
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the number of calls per timed call.
+     *
+     * @return the sample interval
+     */
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * Records one latency, whatever the sample interval is. Negative latencies are recorded as zero.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        if (enabled) {
+            record(nanos, 1);
+        }
+    }
+
+    /**
+     * Starts timing a call, if this call is sampled and recording is enabled.
+     *
+     * @return the start time to pass to {@link #stopTimer(long)}, or {@link #NOT_TIMED}
+     */
+    public long startTimer() {
+        if (!enabled || (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0)) {
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time of a call that was started with {@link #startTimer()}, weighted by the
+     * sample interval. Does nothing if the call was not timed.
+     *
+     * @param startNanos the value returned by startTimer
+     */
+    public void stopTimer(long startNanos) {
+        if (startNanos != NOT_TIMED) {
+            record(System.nanoTime() - startNanos, sampleInterval);
+        }
+    }
+
+    private void record(long nanos, int weight) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().threadId() & stripeMask];
+        stripe.getAndAdd(bucketIndex(nanos), weight);
+        stripe.getAndAdd(SUM_SLOT, nanos * weight);
+    }
+
+    private static int bucketIndex(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) nanos;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (nanos >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long highestValueInBucket(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        long next = (subBucket + 1) << shift;
+        return next <= 0 ? Long.MAX_VALUE : next - 1;
+    }
+
+    /**
+     * Adds the stripes together and calculates the count, mean, percentiles and maximum.
+     *
+     * @return the recorded latencies at this point in time
+     */
+    public LatencySnapshotDTO snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long bucketCount = stripe.get(i);
+                counts[i] += bucketCount;
+                count += bucketCount;
+            }
+            sum += stripe.get(SUM_SLOT);
+        }
+        if (count == 0) {
+            return new LatencySnapshotDTO(0, 0, 0, 0, 0, 0, 0);
+        }
+        long[] percentiles = new long[REPORTED_PERCENTILES.length];
+        int next = 0;
+        long seen = 0;
+        long max = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            seen += counts[i];
+            max = highestValueInBucket(i);
+            while (next < percentiles.length && seen >= Math.ceil(REPORTED_PERCENTILES[next] * count)) {
+                percentiles[next++] = max;
+            }
+        }
+        while (next < percentiles.length) {
+            percentiles[next++] = max;
+        }
+        return new LatencySnapshotDTO(count, Math.max(0, sum / count), percentiles[0], percentiles[1],
+                percentiles[2], percentiles[3], max);
+    }
+
+    private static double toMicros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getCount() {
+        return snapshot().getCount();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return toMicros(snapshot().getMeanNanos());
+    }
+
+    @Override
+    public double getP50Micros() {
+        return toMicros(snapshot().getP50Nanos());
+    }
+
+    @Override
+    public double getP90Micros() {
+        return toMicros(snapshot().getP90Nanos());
+    }
+
+    @Override
+    public double getP99Micros() {
+        return toMicros(snapshot().getP99Nanos());
+    }
+
+    @Override
+    public double getP999Micros() {
+        return toMicros(snapshot().getP999Nanos());
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return toMicros(snapshot().getMaxNanos());
+    }
+}
@@ -0,0 +1,55 @@
+package palew.util;
+
+/**
+ * The management interface of a {@link LatencyHistogram}, as shown in JMX consoles.
+ */
+public interface LatencyHistogramMXBean {
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return the count
+     */
+    long getCount();
+
+    /**
+     * Gets the mean latency.
+     *
+     * @return the mean in microseconds
+     */
+    double getMeanMicros();
+
+    /**
+     * Gets the median latency.
+     *
+     * @return the 50th percentile in microseconds
+     */
+    double getP50Micros();
+
+    /**
+     * Gets the 90th percentile latency.
+     *
+     * @return the 90th percentile in microseconds
+     */
+    double getP90Micros();
+
+    /**
+     * Gets the 99th percentile latency.
+     *
+     * @return the 99th percentile in microseconds
+     */
+    double getP99Micros();
+
+    /**
+     * Gets the 99.9th percentile latency.
+     *
+     * @return the 99.9th percentile in microseconds
+     */
+    double getP999Micros();
+
+    /**
+     * Gets the highest recorded latency.
+     *
+     * @return the maximum in microseconds
+     */
+    double getMaxMicros();
+}
@@ -1,8 +1,10 @@
 package palew.util;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
@@ -12,30 +14,102 @@ import java.time.format.FormatStyle;
  */
 public class LogHandler {
     private static final String LOG_FILE_NAME = "log.txt";
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM);
     private PrintWriter logFile;
 
     public LogHandler() throws IOException {
-        logFile = new PrintWriter(new FileWriter(LOG_FILE_NAME, true), true);
+        this(LOG_FILE_NAME);
+    }
+
+    /**
+     * Creates a log handler that appends to the specified file, and writes every entry
+     * through to the file directly.
+     *
+     * @param logFileName The name of the log file.
+     * @throws IOException if the log file can not be opened.
+     */
+    public LogHandler(String logFileName) throws IOException {
+        this(logFileName, true);
+    }
+
+    /**
+     * Creates a log handler that appends to the specified file.
+     *
+     * @param logFileName The name of the log file.
+     * @param autoFlush true if every entry shall be written through to the file directly,
+     *                  false if entries are buffered until {@link #flush()} is called.
+     * @throws IOException if the log file can not be opened.
+     */
+    protected LogHandler(String logFileName, boolean autoFlush) throws IOException {
+        logFile = new PrintWriter(new BufferedWriter(new FileWriter(logFileName, true)), autoFlush);
     }
 
     /**
      * Writes a log entry describing a thrown exception.
-     * 
+     *
      * @param exception The exception that shall be logged.
      */
     public void logException(Exception exception) {
-        StringBuilder logMsgBuilder = new StringBuilder();
-        logMsgBuilder.append(createTime());
-        logMsgBuilder.append(", Exception was thrown: ");
-        logMsgBuilder.append(exception.getMessage());
-        logFile.println(logMsgBuilder);
-        exception.printStackTrace(logFile);
-        logFile.println("\n");
-    }
-
-    private String createTime() {
-        LocalDateTime now = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM);
-        return now.format(formatter);
+        writeEntry(LocalDateTime.now(), exception, true);
+    }
+
+    /**
+     * Writes a log entry describing a thrown exception.
+     *
+     * @param time The time the exception was logged.
+     * @param exception The exception that shall be logged.
+     * @param withStackTrace true if the stack trace of the exception shall be written.
+     */
+    protected void writeEntry(LocalDateTime time, Exception exception, boolean withStackTrace) {
+        SaleEvents.LogWrite event = new SaleEvents.LogWrite();
+        event.begin();
+        StringWriter entry = new StringWriter();
+        PrintWriter entryWriter = new PrintWriter(entry);
+        entryWriter.print(time.format(TIME_FORMATTER));
+        entryWriter.print(", Exception was thrown: ");
+        entryWriter.print(exception.getMessage());
+        if (withStackTrace) {
+            entryWriter.println();
+            exception.printStackTrace(entryWriter);
+            entryWriter.print("\n");
+        }
+        // The entry is written in one call, so entries logged at the same time by other lanes do not interleave.
+        logFile.println(entry);
+        event.end();
+        if (event.shouldCommit()) {
+            event.exceptionClass = exception.getClass().getName();
+            event.stackTraceWritten = withStackTrace;
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes a log entry with a line of text.
+     *
+     * @param time The time the entry was logged.
+     * @param message The text that shall be written.
+     */
+    protected void writeLine(LocalDateTime time, String message) {
+        SaleEvents.LogWrite event = new SaleEvents.LogWrite();
+        event.begin();
+        logFile.println(time.format(TIME_FORMATTER) + ", " + message);
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes all buffered entries to the log file.
+     */
+    public void flush() {
+        logFile.flush();
+    }
+
+    /**
+     * Writes all buffered entries to the log file and closes it.
+     */
+    public void close() {
+        logFile.close();
     }
 }
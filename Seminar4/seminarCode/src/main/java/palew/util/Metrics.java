@@ -0,0 +1,226 @@
+package palew.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import palew.DTO.LatencySnapshotDTO;
+
+/**
+ * Keeps the counters and latency histograms of the program by name, and makes them available
+ * as a text report and as JMX MBeans.
+ * <p>
+ * Counters are {@link LongAdder}s, so they can be incremented from many threads without
+ * contention. A counter or histogram is created the first time its name is asked for, and the
+ * same instance is returned every time after that. Recording latencies can be turned off at
+ * run time, for example from a JMX console, to measure the cost of the recording itself.
+ */
+public class Metrics implements MetricsMXBean {
+    /**
+     * The sample interval for histograms of operations that take less than a microsecond, such
+     * as scanning an item that is already in the sale.
+     */
+    public static final int FAST_OPERATION_SAMPLE_INTERVAL = 256;
+
+    private static final String DOMAIN = "palew.metrics";
+    private static final Metrics instance = new Metrics();
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private volatile boolean enabled = true;
+    private volatile MBeanServer mbeanServer;
+
+    /**
+     * Creates an empty set of metrics. The program records into {@link #getInstance()}.
+     */
+    public Metrics() {
+    }
+
+    /**
+     * Returns the metrics that the program records into.
+     *
+     * @return the shared metrics
+     */
+    public static Metrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Gets the latency histogram with the specified name, and creates it if it does not exist.
+     * A new histogram times every call.
+     *
+     * @param name the name of the measured operation
+     * @return the histogram
+     * @throws IllegalArgumentException if name is null
+     */
+    public LatencyHistogram histogram(String name) throws IllegalArgumentException {
+        return histogram(name, 1);
+    }
+
+    /**
+     * Gets the latency histogram with the specified name, and creates it with the specified
+     * sample interval if it does not exist. Use a sample interval above one for operations that
+     * take less than a few microseconds, where reading the clock is a noticeable part of the time.
+     *
+     * @param name the name of the measured operation
+     * @param sampleInterval the number of calls per timed call of a new histogram, a power of two
+     * @return the histogram
+     * @throws IllegalArgumentException if name is null, or if sampleInterval is not a positive power of two
+     */
+    public LatencyHistogram histogram(String name, int sampleInterval) throws IllegalArgumentException {
+        if (name == null) throw new IllegalArgumentException("Name must not be null.");
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        LatencyHistogram created = new LatencyHistogram(name, sampleInterval);
+        created.setEnabled(enabled);
+        histogram = histograms.putIfAbsent(name, created);
+        if (histogram != null) {
+            return histogram;
+        }
+        MBeanServer server = mbeanServer;
+        if (server != null) {
+            registerHistogram(server, created);
+        }
+        return created;
+    }
+
+    /**
+     * Gets the counter with the specified name, and creates it if it does not exist.
+     *
+     * @param name the name of the counter
+     * @return the counter
+     * @throws IllegalArgumentException if name is null
+     */
+    public LongAdder counter(String name) throws IllegalArgumentException {
+        if (name == null) throw new IllegalArgumentException("Name must not be null.");
+        LongAdder counter = counters.get(name);
+        if (counter != null) {
+            return counter;
+        }
+        LongAdder created = new LongAdder();
+        counter = counters.putIfAbsent(name, created);
+        return counter == null ? created : counter;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.setEnabled(enabled);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            values.put(counter.getKey(), counter.getValue().sum());
+        }
+        return values;
+    }
+
+    /**
+     * Gets the recorded latencies of every histogram.
+     *
+     * @return the latencies, by histogram name
+     */
+    public Map<String, LatencySnapshotDTO> getLatencies() {
+        Map<String, LatencySnapshotDTO> snapshots = new TreeMap<>();
+        for (LatencyHistogram histogram : histograms.values()) {
+            snapshots.put(histogram.getName(), histogram.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Writes a text report with one line for every counter and every histogram that has
+     * recorded something. Latencies are written in microseconds.
+     *
+     * @param out where the report is written
+     * @throws IllegalArgumentException if out is null
+     * @throws IOException if the report can not be written
+     */
+    public void writeReport(Appendable out) throws IllegalArgumentException, IOException {
+        if (out == null) throw new IllegalArgumentException("Output must not be null.");
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            out.append(counter.getKey()).append(" count=").append(String.valueOf(counter.getValue())).append('\n');
+        }
+        for (Map.Entry<String, LatencySnapshotDTO> latency : getLatencies().entrySet()) {
+            LatencySnapshotDTO snapshot = latency.getValue();
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            out.append(latency.getKey()).append(" count=").append(String.valueOf(snapshot.getCount()));
+            appendMicros(out, " mean=", snapshot.getMeanNanos());
+            appendMicros(out, " p50=", snapshot.getP50Nanos());
+            appendMicros(out, " p90=", snapshot.getP90Nanos());
+            appendMicros(out, " p99=", snapshot.getP99Nanos());
+            appendMicros(out, " p99.9=", snapshot.getP999Nanos());
+            appendMicros(out, " max=", snapshot.getMaxNanos());
+            out.append('\n');
+        }
+    }
+
+    private static void appendMicros(Appendable out, String label, long nanos) throws IOException {
+        long tenthsOfMicros = (nanos + 50) / 100;
+        out.append(label).append(String.valueOf(tenthsOfMicros / 10)).append('.')
+           .append((char) ('0' + tenthsOfMicros % 10)).append("us");
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        try {
+            writeReport(report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return report.toString();
+    }
+
+    /**
+     * Registers the metrics and every histogram as MBeans in the specified server, under the
+     * domain <code>palew.metrics</code>. Histograms created later are registered when they are
+     * created.
+     *
+     * @param server the MBean server, usually {@link java.lang.management.ManagementFactory#getPlatformMBeanServer()}
+     * @throws IllegalArgumentException if server is null
+     * @throws JMException if an MBean can not be registered
+     */
+    public synchronized void registerMBeans(MBeanServer server) throws IllegalArgumentException, JMException {
+        if (server == null) throw new IllegalArgumentException("MBean server must not be null.");
+        ObjectName name = new ObjectName(DOMAIN, "type", "Metrics");
+        if (!server.isRegistered(name)) {
+            server.registerMBean(this, name);
+        }
+        mbeanServer = server;
+        for (LatencyHistogram histogram : histograms.values()) {
+            registerHistogram(server, histogram);
+        }
+    }
+
+    private static void registerHistogram(MBeanServer server, LatencyHistogram histogram) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=Latency,name=" + ObjectName.quote(histogram.getName()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(histogram, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Failed to register the latency histogram " + histogram.getName() + ": " + e.getMessage());
+        }
+    }
+}
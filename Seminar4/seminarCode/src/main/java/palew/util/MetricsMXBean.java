@@ -0,0 +1,36 @@
+package palew.util;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link Metrics}, as shown in JMX consoles.
+ */
+public interface MetricsMXBean {
+    /**
+     * Checks if latencies are recorded.
+     *
+     * @return true if recording is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Turns the recording of latencies on or off. Counters are always updated.
+     *
+     * @param enabled true to record latencies
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Gets the current value of every counter.
+     *
+     * @return the counters, by name
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Gets a text report of every counter and latency histogram.
+     *
+     * @return the report
+     */
+    String getReport();
+}
@@ -0,0 +1,77 @@
+package palew.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the report of a {@link Metrics} to an output at a fixed interval, on a background
+ * thread, and once more when the reporter is closed. Every report starts with a line with the
+ * time it was written. If the output is {@link Flushable}, it is flushed after every report.
+ */
+public class MetricsReporter implements AutoCloseable {
+    private final Metrics metrics;
+    private final Appendable out;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Starts writing reports. The first report is written one interval from now.
+     *
+     * @param metrics the metrics to report
+     * @param out where the reports are written
+     * @param interval the time between two reports
+     * @throws IllegalArgumentException if metrics, out or interval is null, or if interval is not positive
+     */
+    public MetricsReporter(Metrics metrics, Appendable out, Duration interval) throws IllegalArgumentException {
+        if (metrics == null) throw new IllegalArgumentException("Metrics must not be null.");
+        if (out == null) throw new IllegalArgumentException("Output must not be null.");
+        if (interval == null) throw new IllegalArgumentException("Interval must not be null.");
+        if (interval.isNegative() || interval.isZero()) throw new IllegalArgumentException("Interval must be positive.");
+        this.metrics = metrics;
+        this.out = out;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = interval.toNanos();
+        scheduler.scheduleAtFixedRate(this::writeReport, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void writeReport() {
+        try {
+            synchronized (out) {
+                out.append("--- Metrics at ").append(LocalDateTime.now().toString()).append(" ---\n");
+                metrics.writeReport(out);
+                if (out instanceof Flushable flushable) {
+                    flushable.flush();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write the metrics report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops writing reports, and writes a last report so the latencies since the previous report
+     * are not lost. A report that is being written is finished first. If the calling thread is
+     * interrupted while waiting for it, the reporter thread is interrupted, no last report is
+     * written and the interrupt status of the calling thread is set again.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        writeReport();
+    }
+}
@@ -0,0 +1,258 @@
+package palew.util;
+
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The JDK Flight Recorder events of the sale lifecycle. A recording that contains them shows
+ * where a lane spent its time next to the GC, I/O and lock events of the JVM, and can be
+ * summarised with {@link FlightRecordingAnalyzer}.
+ * <p>
+ * An event is created, begun and ended around the work it measures, and its fields are only
+ * set if {@link Event#shouldCommit()} returns true. When no recording is running, or the event
+ * is disabled or shorter than its threshold, this costs almost nothing. Events that happen once
+ * per item have a threshold, so that a default recording only contains the slow ones; the
+ * analyser needs a recording with the thresholds set to 0 ms. No stack traces are recorded.
+ */
+public final class SaleEvents {
+    /**
+     * The name of the event that a sale was started.
+     */
+    public static final String SALE_STARTED = "palew.SaleStarted";
+
+    /**
+     * The name of the event that an item was registered.
+     */
+    public static final String ITEM_REGISTERED = "palew.ItemRegistered";
+
+    /**
+     * The name of the event that an item was searched for in the inventory.
+     */
+    public static final String INVENTORY_LOOKUP = "palew.InventoryLookup";
+
+    /**
+     * The name of the event that a payment was recorded.
+     */
+    public static final String PAYMENT = "palew.Payment";
+
+    /**
+     * The name of the event that a step after a payment was run.
+     */
+    public static final String PAYMENT_STEP = "palew.PaymentStep";
+
+    /**
+     * The name of the event that receipts were printed.
+     */
+    public static final String RECEIPT_PRINT = "palew.ReceiptPrint";
+
+    /**
+     * The name of the event that a log entry was written.
+     */
+    public static final String LOG_WRITE = "palew.LogWrite";
+
+    /**
+     * The names of all the events, for example to enable them in a {@link jdk.jfr.Recording}.
+     */
+    public static final List<String> NAMES = List.of(SALE_STARTED, ITEM_REGISTERED, INVENTORY_LOOKUP, PAYMENT,
+            PAYMENT_STEP, RECEIPT_PRINT, LOG_WRITE);
+
+    private static final String CATEGORY = "Point of Sale";
+
+    private SaleEvents() {
+    }
+
+    /**
+     * A sale was started.
+     */
+    @Name(SALE_STARTED)
+    @Label("Sale Started")
+    @Category({CATEGORY, "Sale"})
+    @StackTrace(false)
+    public static final class SaleStarted extends Event {
+        /**
+         * The ID of the sale, or 0 for the single sale of the controller.
+         */
+        @Label("Sale ID")
+        public long saleID;
+
+        /**
+         * The checkout lane of the sale.
+         */
+        @Label("Lane")
+        public int lane;
+    }
+
+    /**
+     * An item was registered in a sale.
+     */
+    @Name(ITEM_REGISTERED)
+    @Label("Item Registered")
+    @Category({CATEGORY, "Sale"})
+    @Threshold("20 us")
+    @StackTrace(false)
+    public static final class ItemRegistered extends Event {
+        /**
+         * The checkout lane of the sale.
+         */
+        @Label("Lane")
+        public int lane;
+
+        /**
+         * The ID of the registered item.
+         */
+        @Label("Item ID")
+        public String itemID;
+
+        /**
+         * The registered quantity.
+         */
+        @Label("Quantity")
+        public int quantity;
+    }
+
+    /**
+     * An item was searched for in the inventory.
+     */
+    @Name(INVENTORY_LOOKUP)
+    @Label("Inventory Lookup")
+    @Category({CATEGORY, "Inventory"})
+    @Threshold("20 us")
+    @StackTrace(false)
+    public static final class InventoryLookup extends Event {
+        /**
+         * The ID of the searched item.
+         */
+        @Label("Item ID")
+        public String itemID;
+
+        /**
+         * True if the item was found.
+         */
+        @Label("Hit")
+        @Description("True if the item was found, false if it does not exist or the search failed")
+        public boolean hit;
+
+        /**
+         * True if the inventory could not be searched.
+         */
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    /**
+     * A payment was recorded in a sale.
+     */
+    @Name(PAYMENT)
+    @Label("Payment")
+    @Category({CATEGORY, "Sale"})
+    @StackTrace(false)
+    public static final class Payment extends Event {
+        /**
+         * The checkout lane of the sale.
+         */
+        @Label("Lane")
+        public int lane;
+
+        /**
+         * The number of lines in the sale.
+         */
+        @Label("Line Count")
+        public int lineCount;
+
+        /**
+         * The total price including VAT, in öre.
+         */
+        @Label("Total")
+        @Description("The total price including VAT, in öre")
+        public long totalMinorUnits;
+
+        /**
+         * True if the payment was accepted.
+         */
+        @Label("Accepted")
+        public boolean accepted;
+    }
+
+    /**
+     * A step that updates an external system after a payment was run.
+     */
+    @Name(PAYMENT_STEP)
+    @Label("Payment Step")
+    @Category({CATEGORY, "Payment"})
+    @StackTrace(false)
+    public static final class PaymentStep extends Event {
+        /**
+         * The name of the step, as in {@link palew.DTO.PaymentResultDTO.Step}.
+         */
+        @Label("Step")
+        public String step;
+
+        /**
+         * The checkout lane of the sale.
+         */
+        @Label("Lane")
+        public int lane;
+
+        /**
+         * True if the step threw an exception.
+         */
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    /**
+     * Receipts were printed.
+     */
+    @Name(RECEIPT_PRINT)
+    @Label("Receipt Print")
+    @Category({CATEGORY, "Printer"})
+    @StackTrace(false)
+    public static final class ReceiptPrint extends Event {
+        /**
+         * The number of receipts printed at once.
+         */
+        @Label("Receipt Count")
+        public int receiptCount;
+
+        /**
+         * True if the receipts were printed by the print spooler.
+         */
+        @Label("Spooled")
+        public boolean spooled;
+
+        /**
+         * True if the receipts could not be printed.
+         */
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    /**
+     * An entry was written to the log file.
+     */
+    @Name(LOG_WRITE)
+    @Label("Log Write")
+    @Category({CATEGORY, "Log"})
+    @Threshold("20 us")
+    @StackTrace(false)
+    public static final class LogWrite extends Event {
+        /**
+         * The class of the logged exception, or null for a line of text.
+         */
+        @Label("Exception Class")
+        public String exceptionClass;
+
+        /**
+         * True if the stack trace of the exception was written.
+         */
+        @Label("Stack Trace Written")
+        public boolean stackTraceWritten;
+    }
+}
@@ -0,0 +1,173 @@
+package controller;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.DTO.ItemDTO;
+import palew.controller.Controller;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.Printer;
+import palew.model.Amount;
+import palew.model.Receipt;
+import palew.model.RegisterPool;
+import palew.model.RevenueLedger;
+import palew.util.LogHandler;
+
+public class ControllerConcurrencyTest {
+    private static final String[] ITEM_IDS = {"abc123", "def456", "ghi789"};
+    private static final int LANES = 64;
+    private static final int SALES_PER_LANE = 50;
+    private static final int SALES_OPEN_PER_LANE = 4;
+    private static final int SCANS_PER_SALE = 40;
+
+    private Controller controller;
+    private ExternalInventorySystem invSystem;
+    private RegisterPool registers;
+    private RevenueLedger revenueLedger;
+
+    @BeforeEach
+    public void setUp() {
+        try {
+            invSystem = ExternalInventorySystem.getInstance();
+            Printer silentPrinter = new Printer() {
+                @Override
+                public void print(Receipt receipt) {
+                }
+            };
+            registers = new RegisterPool();
+            revenueLedger = new RevenueLedger();
+            controller = new Controller(silentPrinter, new ExternalAccountingSystem(), invSystem, registers,
+                                        new LogHandler(), revenueLedger);
+        } catch (IllegalArgumentException | IOException e) {
+            fail("Exception occurred during setup: " + e.getMessage());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        controller.close();
+        controller = null;
+        invSystem = null;
+        registers = null;
+        revenueLedger = null;
+    }
+
+    @Test
+    public void testOpenSalesAreIndependent() throws Exception {
+        long firstSale = controller.openSale();
+        long secondSale = controller.openSale();
+        controller.scanItem(firstSale, "abc123", 2);
+        controller.scanItem(secondSale, "def456");
+
+        assertEquals(72.0, controller.endSale(firstSale).getAmount(), 1e-9,
+                     "First sale should only contain its own items.");
+        assertEquals(24.0, controller.endSale(secondSale).getAmount(), 1e-9,
+                     "Second sale should only contain its own items.");
+    }
+
+    @Test
+    public void testPaidSaleIsClosed() throws Exception {
+        long saleID = controller.openSale();
+        controller.scanItem(saleID, "abc123");
+        controller.recordPayment(saleID, new Amount(100));
+
+        assertThrows(IllegalStateException.class, () -> controller.endSale(saleID),
+                     "A paid sale should no longer be open.");
+    }
+
+    @Test
+    public void testRevenueIsRecordedInTheControllersLedger() throws Exception {
+        long saleID = controller.openSale(3);
+        controller.scanItem(saleID, "abc123");
+        Amount total = controller.endSale(saleID);
+        controller.recordPayment(saleID, new Amount(100));
+
+        assertEquals(total, revenueLedger.snapshot().getRevenue(3), "The sale should be recorded on its lane.");
+        assertEquals(total, controller.getRevenue().getTotalRevenue(),
+                     "The controller should only report the revenue of its own ledger.");
+    }
+
+    @Test
+    public void testUnknownSaleID() {
+        assertThrows(IllegalStateException.class, () -> controller.scanItem(12345L, "abc123"),
+                     "Scanning into a sale that was never opened should throw IllegalStateException.");
+    }
+
+    @Test
+    public void testConcurrentLanesDoNotCorruptEachOther() throws Exception {
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        LongAdder paidTotals = new LongAdder();
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService lanes = Executors.newFixedThreadPool(LANES);
+        for (int lane = 0; lane < LANES; lane++) {
+            int laneNumber = lane;
+            lanes.submit(() -> {
+                try {
+                    startGate.await();
+                    runLane(laneNumber, new Random(laneNumber), paidTotals, failures);
+                } catch (Exception e) {
+                    failures.add("Lane failed: " + e);
+                }
+            });
+        }
+        startGate.countDown();
+        lanes.shutdown();
+
+        assertTrue(lanes.awaitTermination(60, TimeUnit.SECONDS), "All lanes should finish in time.");
+        assertTrue(failures.isEmpty(), "Sales should not be affected by other lanes: " + failures.peek());
+        assertEquals(paidTotals.sum(), registers.getStoreBalance().getMinorUnits(),
+                     "The registers should hold the total of all sales after change was given.");
+        assertEquals(paidTotals.sum(), revenueLedger.snapshot().getTotalRevenue().getMinorUnits(),
+                     "The revenue should be the total of all sales.");
+        assertEquals(LANES, registers.getRegisterSummaries().size(), "Every lane should have used its own register.");
+    }
+
+    private void runLane(int lane, Random random, LongAdder paidTotals, Queue<String> failures) throws Exception {
+        for (int round = 0; round < SALES_PER_LANE / SALES_OPEN_PER_LANE; round++) {
+            List<Long> saleIDs = new ArrayList<>();
+            double[] expectedTotals = new double[SALES_OPEN_PER_LANE];
+            for (int i = 0; i < SALES_OPEN_PER_LANE; i++) {
+                saleIDs.add(controller.openSale(lane));
+            }
+            for (int scan = 0; scan < SCANS_PER_SALE; scan++) {
+                for (int i = 0; i < SALES_OPEN_PER_LANE; i++) {
+                    ItemDTO item = invSystem.searchItem(ITEM_IDS[random.nextInt(ITEM_IDS.length)]);
+                    int quantity = 1 + random.nextInt(3);
+                    controller.scanItem(saleIDs.get(i), item.getItemID(), quantity);
+                    expectedTotals[i] += item.getPrice().getAmount() * quantity * (1 + item.getVatRate());
+                }
+            }
+            for (int i = 0; i < SALES_OPEN_PER_LANE; i++) {
+                long saleID = saleIDs.get(i);
+                Amount totalAmount = controller.endSale(saleID);
+                double total = totalAmount.getAmount();
+                if (Math.abs(total - expectedTotals[i]) > 1e-6) {
+                    failures.add("Sale " + saleID + " has total " + total + ", expected " + expectedTotals[i]);
+                }
+                Amount change = controller.recordPayment(saleID, new Amount(total + 10));
+                if (Math.abs(change.getAmount() - 10) > 1e-6) {
+                    failures.add("Sale " + saleID + " gave change " + change + ", expected 10.00");
+                }
+                paidTotals.add(totalAmount.getMinorUnits());
+            }
+        }
+    }
+}
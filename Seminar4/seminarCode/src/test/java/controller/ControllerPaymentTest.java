@@ -0,0 +1,188 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.PaymentResultDTO;
+import palew.DTO.SaleStateDTO;
+import palew.controller.Controller;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.Printer;
+import palew.model.Amount;
+import palew.model.Receipt;
+import palew.model.Register;
+import palew.model.RegisterPool;
+import palew.util.LogHandler;
+
+public class ControllerPaymentTest {
+    @TempDir
+    Path directory;
+
+    private volatile long accountingMillis;
+    private volatile long inventoryMillis;
+    private volatile long printMillis;
+    private volatile boolean failAccounting;
+    private volatile boolean jamCashDrawer;
+    private final AtomicInteger startedSteps = new AtomicInteger();
+    private final AtomicInteger printedReceipts = new AtomicInteger();
+    private RegisterPool registers;
+    private LogHandler logger;
+    private Controller controller;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ExternalAccountingSystem slowAccounting = new ExternalAccountingSystem() {
+            @Override
+            public void recordSale(SaleStateDTO saleState) {
+                startedSteps.incrementAndGet();
+                pause(accountingMillis);
+                if (failAccounting) {
+                    throw new IllegalStateException("The accounting service is down.");
+                }
+            }
+        };
+        ExternalInventorySystem slowInventory = new ExternalInventorySystem(
+                itemID -> ExternalInventorySystem.getInstance().searchItem(itemID)) {
+            @Override
+            public void updateInventory(List<ItemAndRunningTotalDTO> itemList) {
+                startedSteps.incrementAndGet();
+                pause(inventoryMillis);
+                super.updateInventory(itemList);
+            }
+        };
+        Printer slowPrinter = new Printer() {
+            @Override
+            public void print(Receipt receipt) {
+                startedSteps.incrementAndGet();
+                pause(printMillis);
+                printedReceipts.incrementAndGet();
+            }
+        };
+        registers = new RegisterPool(new Register() {
+            @Override
+            public void recordPayment(Amount paid, Amount change) {
+                if (jamCashDrawer) {
+                    throw new IllegalStateException("The cash drawer is jammed.");
+                }
+                super.recordPayment(paid, change);
+            }
+        });
+        logger = new LogHandler(directory.resolve("log.txt").toString());
+        controller = new Controller(slowPrinter, slowAccounting, slowInventory, registers, logger);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        controller.close();
+        logger.close();
+        controller = null;
+        registers = null;
+    }
+
+    private static void pause(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long openSaleWithChair() throws Exception {
+        long saleID = controller.openSale();
+        controller.scanItem(saleID, "abc123");
+        return saleID;
+    }
+
+    @Test
+    public void testPaymentWaitsForSlowestStepOnly() throws Exception {
+        accountingMillis = 300;
+        inventoryMillis = 300;
+        printMillis = 200;
+        long saleID = openSaleWithChair();
+
+        long start = System.nanoTime();
+        PaymentResultDTO result = controller.completePayment(saleID, new Amount(100));
+        long paymentMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(result.isComplete(), "Every step should complete.");
+        assertTrue(paymentMillis >= 300, "The payment should wait for the slowest step.");
+        assertTrue(paymentMillis < 700, "The steps should run at the same time, took " + paymentMillis + " ms.");
+        assertTrue(result.getStepMicros(PaymentResultDTO.Step.ACCOUNTING) >= 300_000,
+                   "The time of each step should be reported.");
+        assertEquals(new Amount(64), result.getChange(), "The change should be returned.");
+        assertEquals(new Amount(36), registers.getRegister(0).getBalance(), "The register should be updated.");
+    }
+
+    @Test
+    public void testFailedStepDoesNotUndoPayment() throws Exception {
+        failAccounting = true;
+        long saleID = openSaleWithChair();
+
+        PaymentResultDTO result = controller.completePayment(saleID, new Amount(100));
+        logger.flush();
+
+        assertEquals(PaymentResultDTO.Outcome.FAILED, result.getOutcome(PaymentResultDTO.Step.ACCOUNTING),
+                     "The failed step should be reported.");
+        assertEquals(List.of(PaymentResultDTO.Step.ACCOUNTING), result.getIncompleteSteps(),
+                     "The other steps should complete.");
+        assertEquals(new Amount(36), registers.getRegister(0).getBalance(), "The payment should be kept.");
+        assertTrue(Files.readString(directory.resolve("log.txt")).contains("The accounting service is down."),
+                   "The failure should be logged.");
+    }
+
+    @Test
+    public void testSlowStepTimesOut() throws Exception {
+        printMillis = 2_000;
+        controller.setPaymentStepTimeout(PaymentResultDTO.Step.RECEIPT, Duration.ofMillis(100));
+        long saleID = openSaleWithChair();
+
+        long start = System.nanoTime();
+        Amount change = controller.recordPayment(saleID, new Amount(100));
+        long paymentMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(new Amount(64), change, "The change should be returned even if the receipt is late.");
+        assertTrue(paymentMillis < 1_000, "The payment should not wait past the timeout, took " + paymentMillis + " ms.");
+    }
+
+    @Test
+    public void testFailedRegisterUpdateStartsNoStep() throws Exception {
+        jamCashDrawer = true;
+        long saleID = openSaleWithChair();
+
+        assertThrows(IllegalStateException.class, () -> controller.completePayment(saleID, new Amount(100)),
+                     "The failure of the register should be reported.");
+        controller.close();
+
+        assertEquals(0, startedSteps.get(), "No step should be started for a payment the register did not take.");
+    }
+
+    @Test
+    public void testCloseWaitsForRunningSteps() throws Exception {
+        printMillis = 300;
+        controller.setPaymentStepTimeout(PaymentResultDTO.Step.RECEIPT, Duration.ofMillis(50));
+        controller.recordPayment(openSaleWithChair(), new Amount(100));
+        long saleID = openSaleWithChair();
+
+        controller.close();
+
+        assertEquals(1, printedReceipts.get(), "Close should wait for the receipt that is being printed.");
+        assertThrows(IllegalStateException.class, () -> controller.completePayment(saleID, new Amount(100)),
+                     "A closed controller should not take payments.");
+        assertEquals(3, startedSteps.get(), "No step should be started after close.");
+    }
+}
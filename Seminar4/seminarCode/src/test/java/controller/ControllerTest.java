@@ -1,14 +1,19 @@
 package controller;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import palew.DTO.BulkScanSummaryDTO;
+import palew.DTO.OrderLineDTO;
 import palew.DTO.SaleSummaryDTO;
 import palew.controller.Controller;
 import palew.integration.DatabaseFailureException;
@@ -42,6 +47,7 @@ public void setUp() {
 
     @AfterEach
     public void tearDown() {
+        controller.close();
         accSystem = null;
         invSystem = null;
         printer = null;
@@ -49,6 +55,12 @@ public void setUp() {
         controller = null;
     }
 
+    @Test
+    public void testNullInventorySystemIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Controller(printer, accSystem, null, register),
+                     "A controller without an inventory system should be rejected.");
+    }
+
     @Test
     public void testStartSale() {
         controller.startSale();
@@ -191,4 +203,46 @@ public void setUp() {
 
         assertEquals(expectedChange, change, "Change should match the expected change.");
     }
+
+    @Test
+    public void testScanItemsMatchesScanningOneByOne() throws Exception {
+        long bulkSale = controller.openSale();
+        BulkScanSummaryDTO summary = controller.scanItems(bulkSale, List.of(
+                new OrderLineDTO("abc123", 1), new OrderLineDTO("def456", 2),
+                new OrderLineDTO("abc123", 3), new OrderLineDTO("ghi789", 1)));
+        long loopSale = controller.openSale();
+        controller.scanItem(loopSale, "abc123", 1);
+        controller.scanItem(loopSale, "def456", 2);
+        controller.scanItem(loopSale, "abc123", 3);
+        controller.scanItem(loopSale, "ghi789", 1);
+
+        assertEquals(4, summary.getRegisteredLineCount(), "Every line should be registered.");
+        assertEquals(3, summary.getDistinctItemCount(), "Lines with the same item should be merged.");
+        assertEquals(controller.endSale(loopSale), summary.getTotalPriceIncludingVAT(),
+                     "The total should be the same as when the lines are scanned one by one.");
+        assertEquals(controller.endSale(loopSale), controller.endSale(bulkSale), "The sale should hold the order.");
+    }
+
+    @Test
+    public void testScanItemsReportsBadLines() throws Exception {
+        long saleID = controller.openSale();
+        BulkScanSummaryDTO summary = controller.scanItems(saleID, List.of(
+                new OrderLineDTO("abc123", 1), new OrderLineDTO("notReal123", 1),
+                new OrderLineDTO("def456", 0), new OrderLineDTO("abc123", 1)));
+
+        assertEquals(2, summary.getRegisteredLineCount(), "The valid lines should still be registered.");
+        assertEquals(Map.of(1, "Item with identifier notReal123 was not found.", 2, "Quantity must be greater than 0."),
+                     summary.getLineErrors(), "Bad lines should be reported by their index in the order.");
+        assertEquals(controller.endSale(saleID), summary.getTotalPriceIncludingVAT(),
+                     "The summary should hold the total of the sale.");
+    }
+
+    @Test
+    public void testScanItemsDatabaseFailureRegistersNothing() {
+        long saleID = controller.openSale();
+        assertThrows(DatabaseFailureException.class, () -> controller.scanItems(saleID, List.of(
+                new OrderLineDTO("abc123", 1), new OrderLineDTO("xyz999", 1))),
+                "A database failure should fail the whole order.");
+        assertEquals(0, controller.endSale(saleID).getMinorUnits(), "No line should be registered.");
+    }
 }
@@ -0,0 +1,305 @@
+package integration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.DTO.AccountingStatisticsDTO;
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.SaleStateDTO;
+import palew.controller.Controller;
+import palew.integration.AccountingPipeline;
+import palew.integration.AccountingSink;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.FileAccountingSink;
+import palew.integration.Printer;
+import palew.model.Amount;
+import palew.model.Receipt;
+import palew.model.RegisterPool;
+import palew.util.LogHandler;
+
+public class AccountingPipelineTest {
+    private static final Duration LONG_LINGER = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    private Path journalFile;
+    private List<List<SaleStateDTO>> deliveredBatches;
+    private AccountingSink recordingSink;
+    private AccountingPipeline pipeline;
+    private ItemDTO chair;
+
+    @BeforeEach
+    public void setUp() {
+        journalFile = directory.resolve("accounting.journal");
+        deliveredBatches = new CopyOnWriteArrayList<>();
+        recordingSink = sales -> deliveredBatches.add(new ArrayList<>(sales));
+        chair = new ItemDTO("abc123", 30.0, 0.2, "A chair");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        pipeline = null;
+        deliveredBatches = null;
+        recordingSink = null;
+    }
+
+    private SaleStateDTO createSale(int quantity) {
+        ItemAndRunningTotalDTO line = new ItemAndRunningTotalDTO(chair, quantity);
+        Amount total = line.getTotalIncludingVAT();
+        return new SaleStateDTO(LocalDateTime.of(2025, 5, 1, 12, 0), List.of(line), total,
+                total.plus(new Amount(10)), new Amount(10));
+    }
+
+    private int deliveredSaleCount() {
+        int count = 0;
+        for (List<SaleStateDTO> batch : deliveredBatches) {
+            count += batch.size();
+        }
+        return count;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testFullBatchesAreSent() throws IOException {
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 10, LONG_LINGER, 1);
+        for (int i = 0; i < 30; i++) {
+            pipeline.recordSale(createSale(1));
+        }
+        pipeline.close();
+
+        assertEquals(3, deliveredBatches.size(), "The sales should be sent in full batches.");
+        assertEquals(30, pipeline.getStatistics().getSentSaleCount(), "Every sale should be sent.");
+    }
+
+    @Test
+    public void testLingerSendsPartialBatch() throws Exception {
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 100, Duration.ofMillis(20), 1);
+        for (int i = 0; i < 3; i++) {
+            pipeline.recordSale(createSale(i + 1));
+        }
+        awaitCondition(() -> deliveredSaleCount() == 3);
+
+        assertEquals(1, deliveredBatches.size(), "The sales should be sent together when the linger time is over.");
+        assertEquals(3, deliveredBatches.get(0).get(2).getItemList().get(0).getQuantity(),
+                     "The sales should be sent in the order they were paid.");
+    }
+
+    @Test
+    public void testFailedBatchIsRetried() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        AccountingSink flakySink = sales -> {
+            if (calls.incrementAndGet() <= 2) {
+                throw new IOException("The accounting service is unavailable.");
+            }
+            recordingSink.sendBatch(sales);
+        };
+        pipeline = new AccountingPipeline(flakySink, journalFile, 10, Duration.ZERO, 1);
+        pipeline.recordSale(createSale(1));
+        pipeline.close();
+
+        AccountingStatisticsDTO statistics = pipeline.getStatistics();
+        assertEquals(1, deliveredSaleCount(), "The sale should be delivered after the service recovers.");
+        assertEquals(2, statistics.getRetryCount(), "Both failures should be retried.");
+        assertEquals(0, statistics.getParkedSaleCount(), "No sale should be given up on.");
+    }
+
+    @Test
+    public void testParkedBatchIsSentWhenSinkRecovers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AccountingSink outageSink = sales -> {
+            if (calls.incrementAndGet() <= 6) {
+                throw new IOException("The accounting service is down.");
+            }
+            recordingSink.sendBatch(sales);
+        };
+        pipeline = new AccountingPipeline(outageSink, journalFile, 10, Duration.ZERO, 1);
+        pipeline.recordSale(createSale(1));
+        awaitCondition(() -> pipeline.getStatistics().getParkedSaleCount() == 1);
+        assertEquals(1, pipeline.getStatistics().getParkedSaleCount(), "The sale should be parked after 5 attempts.");
+        awaitCondition(() -> deliveredSaleCount() == 1);
+
+        assertEquals(1, deliveredSaleCount(), "The parked sale should be delivered after the service recovers.");
+        assertEquals(0, pipeline.getStatistics().getParkedSaleCount(), "No sale should be parked any more.");
+        assertEquals(6, pipeline.getStatistics().getRetryCount(), "Every failure should be retried.");
+        pipeline.close();
+        deliveredBatches.clear();
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 10, Duration.ZERO, 1);
+        pipeline.close();
+        assertEquals(0, deliveredSaleCount(), "The delivered parked sale should be removed from the journal.");
+    }
+
+    @Test
+    public void testQueuedSalesAreJournaled() throws IOException {
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 10, LONG_LINGER, 1);
+        for (int i = 0; i < 3; i++) {
+            pipeline.recordSale(createSale(i + 1));
+        }
+        Path crashedJournal = directory.resolve("crashed.journal");
+        Files.copy(journalFile, crashedJournal);
+        pipeline.close();
+        deliveredBatches.clear();
+
+        pipeline = new AccountingPipeline(recordingSink, crashedJournal, 10, Duration.ZERO, 1);
+        pipeline.close();
+        assertEquals(3, deliveredSaleCount(), "Sales still in the queue should be sent after a crash.");
+    }
+
+    @Test
+    public void testSalesFromConcurrentLanesAreJournaled() throws Exception {
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 10_000, LONG_LINGER, 1);
+        ExecutorService lanes = Executors.newFixedThreadPool(8);
+        for (int lane = 0; lane < 8; lane++) {
+            lanes.execute(() -> {
+                for (int i = 0; i < 100; i++) {
+                    pipeline.recordSale(createSale(i + 1));
+                }
+            });
+        }
+        lanes.shutdown();
+        assertTrue(lanes.awaitTermination(10, TimeUnit.SECONDS), "The lanes should finish.");
+        Path crashedJournal = directory.resolve("crashed.journal");
+        Files.copy(journalFile, crashedJournal);
+        pipeline.close();
+        deliveredBatches.clear();
+
+        pipeline = new AccountingPipeline(recordingSink, crashedJournal, 10_000, Duration.ZERO, 1);
+        pipeline.close();
+        assertEquals(800, deliveredSaleCount(), "Every sale should be in the journal when recordSale returns.");
+    }
+
+    @Test
+    public void testUnsentSalesAreSentAfterRestart() throws IOException {
+        AccountingSink downSink = sales -> {
+            throw new IOException("The accounting service is down.");
+        };
+        pipeline = new AccountingPipeline(downSink, journalFile, 10, Duration.ZERO, 1);
+        for (int i = 0; i < 5; i++) {
+            pipeline.recordSale(createSale(i + 1));
+        }
+        pipeline.close();
+        assertEquals(5, pipeline.getStatistics().getParkedSaleCount(), "The sales should be parked in the journal.");
+
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 10, Duration.ZERO, 1);
+        pipeline.close();
+        assertEquals(5, deliveredSaleCount(), "The journaled sales should be sent after the restart.");
+        List<SaleStateDTO> lastBatch = deliveredBatches.get(deliveredBatches.size() - 1);
+        assertEquals(createSale(5).getTotalPriceIncludingVAT(), lastBatch.get(lastBatch.size() - 1).getTotalPriceIncludingVAT(),
+                     "The journaled sales should keep their totals.");
+    }
+
+    @Test
+    public void testDeliveredSalesAreNotSentAgain() throws IOException {
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 10, Duration.ZERO, 1);
+        pipeline.recordSale(createSale(1));
+        pipeline.close();
+        deliveredBatches.clear();
+
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 10, Duration.ZERO, 1);
+        pipeline.close();
+        assertEquals(0, deliveredSaleCount(), "An acknowledged sale should not be sent again.");
+    }
+
+    @Test
+    public void testInFlightBatchesAreLimited() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        AccountingSink slowSink = sales -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+        };
+        pipeline = new AccountingPipeline(slowSink, journalFile, 1, Duration.ZERO, 2);
+        for (int i = 0; i < 5; i++) {
+            pipeline.recordSale(createSale(1));
+        }
+        awaitCondition(() -> concurrent.get() == 2);
+        Thread.sleep(50);
+
+        assertEquals(2, pipeline.getStatistics().getInFlightBatchCount(), "Only two batches should be in flight.");
+        release.countDown();
+        pipeline.close();
+        assertEquals(2, maxConcurrent.get(), "The sink should never see more than two batches at once.");
+        assertEquals(5, pipeline.getStatistics().getSentBatchCount(), "All batches should be sent in the end.");
+    }
+
+    @Test
+    public void testPaymentIsSentThroughPipeline() throws Exception {
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 10, Duration.ZERO, 1);
+        Printer silentPrinter = new Printer() {
+            @Override
+            public void print(Receipt receipt) {
+            }
+        };
+        Controller controller = new Controller(silentPrinter, new ExternalAccountingSystem(pipeline),
+                new ExternalInventorySystem(itemID -> chair), new RegisterPool(), new LogHandler());
+        long saleID = controller.openSale();
+        controller.scanItem(saleID, "abc123", 2);
+        controller.recordPayment(saleID, new Amount(100));
+        pipeline.close();
+
+        assertEquals(1, deliveredSaleCount(), "The paid sale should be sent to the accounting sink.");
+        assertEquals(new Amount(100), deliveredBatches.get(0).get(0).getPaidAmount(),
+                     "The sent sale should hold the paid amount.");
+    }
+
+    @Test
+    public void testFileSinkWritesOneLinePerSale() throws IOException {
+        Path accountingFile = directory.resolve("accounting.txt");
+        try (FileAccountingSink fileSink = new FileAccountingSink(accountingFile)) {
+            pipeline = new AccountingPipeline(fileSink, journalFile, 10, Duration.ZERO, 1);
+            pipeline.recordSale(createSale(1));
+            pipeline.recordSale(createSale(2));
+            pipeline.close();
+        }
+
+        List<String> lines = Files.readAllLines(accountingFile);
+        assertEquals(2, lines.size(), "Every sale should be written as one line.");
+        assertTrue(lines.get(1).endsWith(";abc123*2"), "The line should list the items and quantities: " + lines.get(1));
+    }
+
+    @Test
+    public void testRecordAfterClose() throws IOException {
+        pipeline = new AccountingPipeline(recordingSink, journalFile, 10, Duration.ZERO, 1);
+        pipeline.close();
+
+        assertThrows(IllegalStateException.class, () -> pipeline.recordSale(createSale(1)),
+                     "A closed pipeline should not accept sales.");
+    }
+}
@@ -0,0 +1,172 @@
+package integration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.DTO.CacheStatisticsDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.ItemSearchResultDTO;
+import palew.integration.CachingInventoryBackend;
+import palew.integration.DatabaseFailureException;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.InventoryBackend;
+import palew.integration.ItemNotFoundException;
+import palew.integration.SimulatedRemoteInventoryBackend;
+import palew.util.LatencyHistogram;
+import palew.util.Metrics;
+
+public class CachingInventoryBackendTest {
+    private static final Duration LONG_TTL = Duration.ofMinutes(10);
+
+    private Map<String, ItemDTO> items;
+    private SimulatedRemoteInventoryBackend remote;
+
+    @BeforeEach
+    public void setUp() {
+        items = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            items.put("sku" + i, new ItemDTO("sku" + i, 10 + i, 0.25, "Item number " + i));
+        }
+        InventoryBackend local = itemID -> {
+            if ("broken".equals(itemID)) {
+                throw new DatabaseFailureException(itemID);
+            }
+            ItemDTO item = items.get(itemID);
+            if (item == null) {
+                throw new ItemNotFoundException(itemID);
+            }
+            return item;
+        };
+        remote = new SimulatedRemoteInventoryBackend(local, Duration.ZERO);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        items = null;
+        remote = null;
+    }
+
+    @Test
+    public void testRepeatedSearchIsAnsweredByCache() throws Exception {
+        LatencyHistogram backendLatency = Metrics.getInstance().histogram("inventory.backend.searchItem");
+        long timedSearches = backendLatency.snapshot().getCount();
+        CachingInventoryBackend cache = new CachingInventoryBackend(remote, 100, LONG_TTL, LONG_TTL);
+        ItemDTO first = cache.searchItem("sku1");
+        ItemDTO second = cache.searchItem("sku1");
+
+        assertSame(first, second, "The cached item should be returned.");
+        assertEquals(1, remote.getCallCount(), "Only the first search should reach the backend.");
+        CacheStatisticsDTO statistics = cache.getStatistics();
+        assertEquals(1, statistics.getHitCount(), "The second search should be a hit.");
+        assertEquals(1, statistics.getMissCount(), "The first search should be a miss.");
+        assertEquals(1, statistics.getSize(), "One item should be cached.");
+        assertEquals(timedSearches + 1, backendLatency.snapshot().getCount(), "The search of the backend should be timed.");
+    }
+
+    @Test
+    public void testNotFoundIsCached() {
+        CachingInventoryBackend cache = new CachingInventoryBackend(remote, 100, LONG_TTL, LONG_TTL);
+        for (int i = 0; i < 5; i++) {
+            assertThrows(ItemNotFoundException.class, () -> cache.searchItem("unknown"),
+                         "An unknown item should not be found.");
+        }
+
+        assertEquals(1, remote.getCallCount(), "A repeated unknown barcode should not reach the backend again.");
+        assertEquals(4, cache.getStatistics().getNegativeHitCount(), "Repeats should be negative hits.");
+    }
+
+    @Test
+    public void testNotFoundIsNotCachedWithoutNegativeTimeToLive() {
+        CachingInventoryBackend cache = new CachingInventoryBackend(remote, 100, LONG_TTL, Duration.ZERO);
+        assertThrows(ItemNotFoundException.class, () -> cache.searchItem("unknown"));
+        assertThrows(ItemNotFoundException.class, () -> cache.searchItem("unknown"));
+
+        assertEquals(2, remote.getCallCount(), "Every search for an unknown item should reach the backend.");
+    }
+
+    @Test
+    public void testDatabaseFailureIsNotCached() {
+        CachingInventoryBackend cache = new CachingInventoryBackend(remote, 100, LONG_TTL, LONG_TTL);
+        assertThrows(DatabaseFailureException.class, () -> cache.searchItem("broken"));
+        assertThrows(DatabaseFailureException.class, () -> cache.searchItem("broken"));
+
+        assertEquals(2, remote.getCallCount(), "A failed search should be retried against the backend.");
+    }
+
+    @Test
+    public void testEntriesExpire() throws Exception {
+        CachingInventoryBackend cache = new CachingInventoryBackend(remote, 100, Duration.ofMillis(20), LONG_TTL);
+        cache.searchItem("sku1");
+        Thread.sleep(50);
+        cache.searchItem("sku1");
+
+        assertEquals(2, remote.getCallCount(), "An expired item should be searched in the backend again.");
+        assertEquals(1, cache.getStatistics().getExpirationCount(), "The expiration should be counted.");
+    }
+
+    @Test
+    public void testPopularItemsSurviveScan() throws Exception {
+        CachingInventoryBackend cache = new CachingInventoryBackend(remote, 5, LONG_TTL, LONG_TTL);
+        cache.searchItem("sku0");
+        cache.searchItem("sku0");
+        cache.searchItem("sku1");
+        cache.searchItem("sku1");
+        for (int i = 2; i < 10; i++) {
+            cache.searchItem("sku" + i);
+        }
+        long callsBefore = remote.getCallCount();
+        cache.searchItem("sku0");
+        cache.searchItem("sku1");
+
+        assertEquals(callsBefore, remote.getCallCount(), "Items searched more than once should not be evicted by a scan.");
+        CacheStatisticsDTO statistics = cache.getStatistics();
+        assertEquals(5, statistics.getSize(), "The cache should not grow beyond its maximum size.");
+        assertEquals(5, statistics.getEvictionCount(), "Items scanned once should be evicted to make room.");
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        CachingInventoryBackend cache = new CachingInventoryBackend(remote, 100, LONG_TTL, LONG_TTL);
+        cache.searchItem("sku1");
+        cache.invalidate("sku1");
+        cache.searchItem("sku1");
+
+        assertEquals(2, remote.getCallCount(), "An invalidated item should be searched in the backend again.");
+    }
+
+    @Test
+    public void testInventorySystemSearchesBackend() throws Exception {
+        CachingInventoryBackend cache = new CachingInventoryBackend(remote, 100, LONG_TTL, LONG_TTL);
+        ExternalInventorySystem invSystem = new ExternalInventorySystem(cache);
+
+        assertEquals("Item number 3", invSystem.searchItem("sku3").getItemDescription(),
+                     "The inventory system should search its backend.");
+        assertThrows(DatabaseFailureException.class, () -> invSystem.searchItem("xyz999"),
+                     "The simulated database failure should still be thrown.");
+    }
+
+    @Test
+    public void testSearchItemsFetchesUncachedItemsInOneCall() throws Exception {
+        CachingInventoryBackend cache = new CachingInventoryBackend(remote, 100, LONG_TTL, LONG_TTL);
+        cache.searchItem("sku1");
+        ItemSearchResultDTO result = cache.searchItems(List.of("sku2", "sku1", "unknown", "sku3"));
+
+        assertEquals(List.of("sku2", "sku1", "sku3"), List.copyOf(result.getFoundItems().keySet()),
+                     "Cached and fetched items should be returned in the order they were searched for.");
+        assertEquals(Set.of("unknown"), result.getMissingItemIDs(), "The unknown item should be missing.");
+        assertEquals(2, remote.getCallCount(), "All uncached items should be fetched in one call.");
+
+        cache.searchItems(List.of("sku2", "unknown", "sku3"));
+        assertEquals(2, remote.getCallCount(), "Found and missing results of the batch should be cached.");
+    }
+}
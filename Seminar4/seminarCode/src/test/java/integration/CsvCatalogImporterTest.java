@@ -0,0 +1,136 @@
+package integration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.DTO.CatalogImportDTO;
+import palew.integration.CsvCatalogImporter;
+import palew.integration.ItemNotFoundException;
+import palew.integration.MappedItemCatalog;
+
+public class CsvCatalogImporterTest {
+    private static final int ROW_COUNT = 100_000;
+
+    @TempDir
+    Path tempDir;
+
+    private Path csvFile;
+    private Path snapshotFile;
+    private CsvCatalogImporter importer;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        csvFile = tempDir.resolve("prices.csv");
+        snapshotFile = tempDir.resolve("prices.catalog");
+        importer = new CsvCatalogImporter(4);
+        List<String> lines = new ArrayList<>();
+        lines.add("itemID,price,vatRate,description");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            if (i == 10) {
+                lines.add("sku" + i + ",-1,0.25,Negative price");
+            } else if (i == 60_000) {
+                lines.add("sku" + i + ",12.00,1.5,Too much VAT");
+            } else if (i == ROW_COUNT - 1) {
+                lines.add("sku" + i + ",twelve,0.25,Not a number");
+            } else {
+                lines.add("sku" + i + "," + (i % 1000 + 0.5) + ",0.25,Item number " + i + ", in stock");
+            }
+        }
+        Files.write(csvFile, lines);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        csvFile = null;
+        snapshotFile = null;
+        importer = null;
+    }
+
+    @Test
+    public void testValidRowsAreImported() throws IOException, ItemNotFoundException {
+        CatalogImportDTO result = importer.importCsv(csvFile, snapshotFile);
+        MappedItemCatalog catalog = MappedItemCatalog.open(snapshotFile);
+
+        assertEquals(ROW_COUNT, result.getRowCount(), "Every item row should be read.");
+        assertEquals(ROW_COUNT - 3, result.getImportedItemCount(), "Every valid row should be imported.");
+        assertEquals(ROW_COUNT - 3, catalog.getItemCount(), "The snapshot should hold every imported item.");
+        assertEquals("Item number 50000, in stock", catalog.searchItem("sku50000").getItemDescription(),
+                     "The description should be the rest of the row.");
+        assertEquals(998.5, catalog.searchItem("sku99998").getPrice().getAmount(), 1e-9,
+                     "The last valid row should be imported.");
+        assertFalse(catalog.containsItem("sku10"), "A rejected row should not be imported.");
+    }
+
+    @Test
+    public void testBadRowsAreReportedWithLineNumbers() throws IOException {
+        CatalogImportDTO result = importer.importCsv(csvFile, snapshotFile);
+
+        assertEquals(3, result.getRejectedRowCount(), "Every bad row should be rejected.");
+        assertEquals(List.of(12L, 60_002L, (long) ROW_COUNT + 1), new ArrayList<>(result.getRejectedRows().keySet()),
+                     "Rejected rows should be reported with their line numbers in the file.");
+        assertEquals("Price cannot be negative.", result.getRejectedRows().get(12L),
+                     "The reason should be the one given by the ItemDTO rules.");
+    }
+
+    @Test
+    public void testLoadOrImportUsesSnapshot() throws IOException {
+        importer.importCsv(csvFile, snapshotFile);
+        Files.write(csvFile, List.of("abc123,30,0.25,A chair"));
+        Files.setLastModifiedTime(csvFile, FileTime.fromMillis(Files.getLastModifiedTime(snapshotFile).toMillis() - 1000));
+
+        MappedItemCatalog catalog = importer.loadOrImport(csvFile, snapshotFile);
+
+        assertEquals(ROW_COUNT - 3, catalog.getItemCount(), "An up to date snapshot should be loaded.");
+    }
+
+    @Test
+    public void testLoadOrImportReimportsNewerCsv() throws IOException {
+        importer.importCsv(csvFile, snapshotFile);
+        Files.write(csvFile, List.of("abc123,30,0.25,A chair"));
+        Files.setLastModifiedTime(csvFile, FileTime.fromMillis(Files.getLastModifiedTime(snapshotFile).toMillis() + 1000));
+
+        MappedItemCatalog catalog = importer.loadOrImport(csvFile, snapshotFile);
+
+        assertEquals(1, catalog.getItemCount(), "A newer price file should be imported again.");
+        assertTrue(catalog.containsItem("abc123"), "The new price file should be in the snapshot.");
+    }
+
+    @Test
+    public void testSingleParserImportsEveryChunkInOrder() throws IOException {
+        CatalogImportDTO result = new CsvCatalogImporter(1).importCsv(csvFile, snapshotFile);
+        MappedItemCatalog catalog = MappedItemCatalog.open(snapshotFile);
+
+        assertEquals(ROW_COUNT - 3, catalog.getItemCount(), "Every chunk should be imported.");
+        assertEquals(List.of(12L, 60_002L, (long) ROW_COUNT + 1), new ArrayList<>(result.getRejectedRows().keySet()),
+                     "The chunks should be merged in file order.");
+    }
+
+    @Test
+    public void testFailedImportDeletesTemporaryFile() throws IOException {
+        Files.createDirectory(snapshotFile);
+        Files.createFile(snapshotFile.resolve("in-use"));
+
+        assertThrows(IOException.class, () -> importer.importCsv(csvFile, snapshotFile),
+                     "A snapshot that can not be replaced should fail the import.");
+        assertFalse(Files.exists(tempDir.resolve("prices.catalog.tmp")), "The temporary file should be deleted.");
+    }
+
+    @Test
+    public void testInvalidParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new CsvCatalogImporter(0),
+                     "An importer without threads should be rejected.");
+    }
+}
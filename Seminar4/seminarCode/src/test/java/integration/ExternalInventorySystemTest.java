@@ -1,12 +1,17 @@
 package integration;
 
+import java.util.List;
+import java.util.Set;
+
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import palew.DTO.ItemDTO;
+import palew.DTO.ItemSearchResultDTO;
 import palew.integration.DatabaseFailureException;
 import palew.integration.ExternalInventorySystem;
 import palew.integration.ItemNotFoundException;
@@ -50,6 +55,21 @@ public class ExternalInventorySystemTest {
         
     }
 
-    
-}
+    @Test
+    public void testSearchItemsReturnsFoundAndMissing() throws DatabaseFailureException {
+        ItemSearchResultDTO result = externalInventorySystem.searchItems(
+                List.of("def456", "notReal123", "abc123", "def456"));
+
+        assertEquals(List.of("def456", "abc123"), List.copyOf(result.getFoundItems().keySet()),
+                     "Found items should be returned once, in the order they were searched for.");
+        assertEquals(Set.of("notReal123"), result.getMissingItemIDs(), "Missing items should be reported.");
+        assertEquals("A chair", result.getItem("abc123").getItemDescription(), "The found item should match.");
+    }
 
+    @Test
+    public void testSearchItemsDatabaseFailure() {
+        assertThrows(DatabaseFailureException.class,
+                     () -> externalInventorySystem.searchItems(List.of("abc123", "xyz999")),
+                     "The simulated database failure should fail the whole batch.");
+    }
+}
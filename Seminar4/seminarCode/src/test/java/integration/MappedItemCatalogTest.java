@@ -0,0 +1,121 @@
+package integration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.DTO.ItemDTO;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.ItemNotFoundException;
+import palew.integration.MappedItemCatalog;
+import palew.integration.MappedItemCatalogBuilder;
+
+public class MappedItemCatalogTest {
+    private static final int ITEM_COUNT = 5000;
+
+    @TempDir
+    Path tempDir;
+
+    private Path csvFile;
+    private Path catalogFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        csvFile = tempDir.resolve("items.csv");
+        catalogFile = tempDir.resolve("items.catalog");
+        List<String> lines = new ArrayList<>();
+        lines.add("itemID,price,vatRate,description");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            lines.add("sku" + i + "," + (i + 0.25) + ",0.25,Item number " + i);
+        }
+        lines.add("");
+        lines.add("åäö1,12.5,0.12,\"A chair, with \"\"arms\"\"\"");
+        Files.write(csvFile, lines);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ExternalInventorySystem.getInstance().useCatalog(null);
+        csvFile = null;
+        catalogFile = null;
+    }
+
+    @Test
+    public void testEveryItemCanBeFound() throws IOException, ItemNotFoundException {
+        int itemCount = MappedItemCatalogBuilder.buildFromCsv(csvFile, catalogFile);
+        MappedItemCatalog catalog = MappedItemCatalog.open(catalogFile);
+
+        assertEquals(ITEM_COUNT + 1, itemCount, "Every row should become an item.");
+        assertEquals(itemCount, catalog.getItemCount(), "The catalog should hold every item.");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            ItemDTO item = catalog.searchItem("sku" + i);
+            assertEquals("sku" + i, item.getItemID(), "The item ID should match.");
+            assertEquals(i + 0.25, item.getPrice().getAmount(), 1e-9, "The price should match.");
+            assertEquals(0.25, item.getVatRate(), 1e-9, "The VAT rate should match.");
+            assertEquals("Item number " + i, item.getItemDescription(), "The description should match.");
+        }
+        ItemDTO quoted = catalog.searchItem("åäö1");
+        assertEquals("A chair, with \"arms\"", quoted.getItemDescription(),
+                     "A quoted description may contain commas and quotes.");
+    }
+
+    @Test
+    public void testMissingItem() throws IOException {
+        MappedItemCatalogBuilder.buildFromCsv(csvFile, catalogFile);
+        MappedItemCatalog catalog = MappedItemCatalog.open(catalogFile);
+
+        assertFalse(catalog.containsItem("sku" + ITEM_COUNT), "An item that was not exported should not exist.");
+        ItemNotFoundException e = assertThrows(ItemNotFoundException.class, () -> catalog.searchItem("notReal123"),
+                                               "Searching for a missing item should throw.");
+        assertEquals("notReal123", e.getItemIdentifier(), "The exception should name the missing item.");
+    }
+
+    @Test
+    public void testLastDuplicateWins() throws IOException, ItemNotFoundException {
+        Files.write(csvFile, List.of("abc123,30,0.25,Old chair", "def456,20,0.25,A table", "abc123,35,0.25,New chair"));
+        int itemCount = MappedItemCatalogBuilder.buildFromCsv(csvFile, catalogFile);
+        MappedItemCatalog catalog = MappedItemCatalog.open(catalogFile);
+
+        assertEquals(2, itemCount, "Duplicates should only be counted once.");
+        assertEquals("New chair", catalog.searchItem("abc123").getItemDescription(), "The last row should win.");
+    }
+
+    @Test
+    public void testInvalidRowIsRejected() throws IOException {
+        Files.write(csvFile, List.of("abc123,30,0.25,A chair", "def456,-20,0.25,A table"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> MappedItemCatalogBuilder.buildFromCsv(csvFile, catalogFile),
+                "A row that is not a valid item should be rejected.");
+        assertTrue(e.getMessage().contains("line 2"), "The error should name the line of the invalid row.");
+    }
+
+    @Test
+    public void testNotACatalogFile() {
+        assertThrows(IOException.class, () -> MappedItemCatalog.open(csvFile),
+                     "A file that is not a catalog should not be opened.");
+    }
+
+    @Test
+    public void testInventorySystemUsesCatalog() throws Exception {
+        MappedItemCatalogBuilder.buildFromCsv(csvFile, catalogFile);
+        ExternalInventorySystem invSystem = ExternalInventorySystem.getInstance();
+        invSystem.useCatalog(MappedItemCatalog.open(catalogFile));
+
+        assertEquals("Item number 42", invSystem.searchItem("sku42").getItemDescription(),
+                     "Items should be searched in the attached catalog.");
+        assertThrows(ItemNotFoundException.class, () -> invSystem.searchItem("abc123"),
+                     "The predefined items should not be searched while a catalog is attached.");
+    }
+}
@@ -0,0 +1,189 @@
+package integration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.PrintStatisticsDTO;
+import palew.DTO.SaleStateDTO;
+import palew.controller.Controller;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.FilePrintSink;
+import palew.integration.PrintSink;
+import palew.integration.PrintSpooler;
+import palew.integration.Printer;
+import palew.integration.SlowPrintSink;
+import palew.model.Amount;
+import palew.model.Receipt;
+import palew.model.RegisterPool;
+import palew.util.LogHandler;
+
+public class PrintSpoolerTest {
+    @TempDir
+    Path directory;
+
+    private List<List<Receipt>> printedBatches;
+    private PrintSink recordingSink;
+    private PrintSpooler spooler;
+
+    @BeforeEach
+    public void setUp() {
+        printedBatches = new CopyOnWriteArrayList<>();
+        recordingSink = receipts -> printedBatches.add(new ArrayList<>(receipts));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (spooler != null) {
+            spooler.close();
+        }
+        spooler = null;
+        printedBatches = null;
+        recordingSink = null;
+    }
+
+    private Receipt createReceipt(int quantity) {
+        ItemAndRunningTotalDTO line = new ItemAndRunningTotalDTO(new ItemDTO("abc123", 30.0, 0.2, "A chair"), quantity);
+        Amount total = line.getTotalIncludingVAT();
+        return new Receipt(new SaleStateDTO(LocalDateTime.of(2025, 5, 1, 12, 0), List.of(line), total, total,
+                new Amount(0)));
+    }
+
+    @Test
+    public void testReceiptsArePrintedInOrderToFile() throws Exception {
+        Path file = directory.resolve("receipts.txt");
+        List<Receipt> receipts = List.of(createReceipt(1), createReceipt(2), createReceipt(3));
+        try (FilePrintSink fileSink = new FilePrintSink(file)) {
+            spooler = new PrintSpooler(fileSink, 10);
+            for (Receipt receipt : receipts) {
+                spooler.submit(receipt);
+            }
+            assertTrue(spooler.awaitDrained(5, TimeUnit.SECONDS), "The receipts should be printed.");
+        }
+
+        StringBuilder expected = new StringBuilder();
+        for (Receipt receipt : receipts) {
+            expected.append(receipt).append('\n');
+        }
+        assertEquals(expected.toString(), Files.readString(file, StandardCharsets.UTF_8),
+                     "The file should hold every receipt, in the order they were submitted.");
+    }
+
+    @Test
+    public void testPaymentDoesNotWaitForSlowPrinter() throws Exception {
+        spooler = new PrintSpooler(new SlowPrintSink(recordingSink, Duration.ofMillis(500)), 10);
+        Controller controller = new Controller(new Printer(spooler), new ExternalAccountingSystem(),
+                ExternalInventorySystem.getInstance(), new RegisterPool(), new LogHandler());
+        long saleID = controller.openSale();
+        controller.scanItem(saleID, "abc123");
+
+        long start = System.nanoTime();
+        controller.recordPayment(saleID, new Amount(100));
+        long paymentMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(paymentMillis < 400, "The payment should not wait for the printer, took " + paymentMillis + " ms.");
+        assertTrue(spooler.awaitDrained(5, TimeUnit.SECONDS), "The receipt should be printed later.");
+        assertEquals(1, spooler.getStatistics().getPrintedReceiptCount(), "The receipt should be printed once.");
+    }
+
+    @Test
+    public void testQueuedReceiptsAreBatched() throws Exception {
+        CountDownLatch printing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        spooler = new PrintSpooler(receipts -> {
+            printing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            recordingSink.print(receipts);
+        }, 100);
+        spooler.submit(createReceipt(21));
+        assertTrue(printing.await(5, TimeUnit.SECONDS), "The first receipt should be printing.");
+        for (int i = 1; i <= 20; i++) {
+            spooler.submit(createReceipt(i));
+        }
+        release.countDown();
+        assertTrue(spooler.awaitDrained(5, TimeUnit.SECONDS), "The receipts should be printed.");
+
+        PrintStatisticsDTO statistics = spooler.getStatistics();
+        assertEquals(21, statistics.getPrintedReceiptCount(), "Every receipt should be printed.");
+        assertEquals(2, statistics.getWriteCount(), "Receipts queued behind a write should share the next write.");
+        assertEquals(20, statistics.getMaxSpoolDepth(), "The spool depth should be reported.");
+        assertEquals(0, statistics.getSpoolDepth(), "The spool should be empty.");
+    }
+
+    @Test
+    public void testFailingSinkDoesNotStopSpooler() throws Exception {
+        Receipt unprintable = createReceipt(1);
+        AtomicInteger attempts = new AtomicInteger();
+        spooler = new PrintSpooler(receipts -> {
+            if (receipts.contains(unprintable)) {
+                attempts.incrementAndGet();
+                throw new IOException("Out of paper.");
+            }
+            recordingSink.print(receipts);
+        }, 10);
+        spooler.submit(unprintable);
+        assertTrue(spooler.awaitDrained(5, TimeUnit.SECONDS), "The failed receipt should be handled.");
+        spooler.submit(createReceipt(2));
+        assertTrue(spooler.awaitDrained(5, TimeUnit.SECONDS), "The next receipt should be printed.");
+
+        PrintStatisticsDTO statistics = spooler.getStatistics();
+        assertEquals(3, attempts.get(), "A failed batch should be written again a limited number of times.");
+        assertEquals(1, statistics.getFailedReceiptCount(), "The failed receipt should be counted.");
+        assertEquals(1, statistics.getPrintedReceiptCount(), "The next receipt should be printed.");
+    }
+
+    @Test
+    public void testBatchIsWrittenAgainAfterFailure() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        spooler = new PrintSpooler(receipts -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("Paper jam.");
+            }
+            recordingSink.print(receipts);
+        }, 10);
+        spooler.submit(createReceipt(1));
+        assertTrue(spooler.awaitDrained(5, TimeUnit.SECONDS), "The receipt should be handled.");
+
+        PrintStatisticsDTO statistics = spooler.getStatistics();
+        assertEquals(1, printedBatches.size(), "The receipt should be printed when the printer recovers.");
+        assertEquals(0, statistics.getFailedReceiptCount(), "No receipt should be dropped.");
+        assertEquals(1, statistics.getPrintedReceiptCount(), "The receipt should be counted as printed.");
+    }
+
+    @Test
+    public void testClosePrintsQueuedReceipts() throws Exception {
+        spooler = new PrintSpooler(new SlowPrintSink(recordingSink, Duration.ofMillis(20)), 10);
+        for (int i = 1; i <= 5; i++) {
+            spooler.submit(createReceipt(i));
+        }
+        spooler.close();
+
+        assertEquals(5, printedBatches.stream().mapToInt(List::size).sum(), "Close should print queued receipts.");
+        assertThrows(IllegalStateException.class, () -> spooler.submit(createReceipt(1)),
+                     "A closed spooler should not accept receipts.");
+    }
+}
@@ -0,0 +1,176 @@
+package integration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.DTO.ItemDTO;
+import palew.DTO.OrderLineDTO;
+import palew.DTO.RecoveredSaleDTO;
+import palew.controller.Controller;
+import palew.integration.DurabilityPolicy;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.Printer;
+import palew.integration.SaleJournal;
+import palew.model.Amount;
+import palew.model.Receipt;
+import palew.model.RegisterPool;
+import palew.util.LogHandler;
+
+public class SaleJournalTest {
+    @TempDir
+    Path directory;
+
+    private Path journalDirectory;
+    private SaleJournal journal;
+    private Controller controller;
+
+    @BeforeEach
+    public void setUp() {
+        journalDirectory = directory.resolve("journal");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        journal = null;
+        controller = null;
+    }
+
+    private Controller createController() {
+        Printer silentPrinter = new Printer() {
+            @Override
+            public void print(Receipt receipt) {
+            }
+        };
+        try {
+            return new Controller(silentPrinter, new ExternalAccountingSystem(), ExternalInventorySystem.getInstance(),
+                    new RegisterPool(), new LogHandler());
+        } catch (IOException e) {
+            fail("Exception occurred during setup: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void restart(DurabilityPolicy policy) throws IOException {
+        journal = SaleJournal.open(journalDirectory, policy);
+        controller = createController();
+    }
+
+    @Test
+    public void testOpenSaleIsRecoveredAfterCrash() throws Exception {
+        restart(DurabilityPolicy.never());
+        controller.attachJournal(journal);
+        long openSale = controller.openSale(2);
+        controller.scanItem(openSale, "abc123", 2);
+        controller.scanItem(openSale, "def456");
+        controller.scanItem(openSale, "abc123");
+        Amount expectedTotal = controller.endSale(openSale);
+        long paidSale = controller.openSale(2);
+        controller.scanItem(paidSale, "ghi789");
+        controller.recordPayment(paidSale, new Amount(100));
+
+        restart(DurabilityPolicy.never());
+        List<Long> recoveredSaleIDs = controller.attachJournal(journal);
+
+        assertEquals(List.of(openSale), recoveredSaleIDs, "Only the unpaid sale should be recovered.");
+        assertEquals(expectedTotal, controller.endSale(openSale), "The recovered sale should hold all scanned items.");
+        assertTrue(controller.openSale() > paidSale, "New sales should not reuse IDs from the journal.");
+        assertThrows(IllegalStateException.class, () -> controller.endSale(paidSale),
+                     "A paid sale should not be recovered.");
+    }
+
+    @Test
+    public void testRecoveredSaleKeepsLaneAndScanOrder() throws Exception {
+        restart(DurabilityPolicy.never());
+        controller.attachJournal(journal);
+        long saleID = controller.openSale(3);
+        controller.scanItem(saleID, "def456");
+        controller.scanItems(saleID, List.of(new OrderLineDTO("abc123", 2), new OrderLineDTO("ghi789", 1)));
+
+        restart(DurabilityPolicy.never());
+        RecoveredSaleDTO recoveredSale = journal.getRecoveredSales().get(0);
+
+        assertEquals(3, recoveredSale.getLane(), "The sale should be recovered on its lane.");
+        assertEquals(List.of("def456", "abc123", "ghi789"),
+                     recoveredSale.getScannedItems().stream().map(line -> line.getItem().getItemID()).toList(),
+                     "The items should be recovered in the order they were scanned.");
+        assertTrue(Files.exists(journalDirectory.resolve("lane-3.log")), "Every lane should have its own segment.");
+    }
+
+    @Test
+    public void testTornRecordIsCutOff() throws Exception {
+        restart(DurabilityPolicy.never());
+        controller.attachJournal(journal);
+        long saleID = controller.openSale(1);
+        controller.scanItem(saleID, "abc123");
+        journal.close();
+        Path segment = journalDirectory.resolve("lane-1.log");
+        long validLength = Files.size(segment);
+        Files.write(segment, new byte[] {0, 0, 0, 9, 2, 0, 0}, StandardOpenOption.APPEND);
+
+        restart(DurabilityPolicy.never());
+        assertEquals(1, journal.getRecoveredSales().size(), "The complete records should still be recovered.");
+        assertEquals(validLength, Files.size(segment), "The torn record should be cut off the segment.");
+        controller.attachJournal(journal);
+        controller.scanItem(saleID, "def456");
+
+        restart(DurabilityPolicy.never());
+        assertEquals(2, journal.getRecoveredSales().get(0).getScannedItems().size(),
+                     "Records written after the recovery should be readable.");
+    }
+
+    @Test
+    public void testAbandonedRecoveredSaleDoesNotKeepSegmentGrowing() throws Exception {
+        ItemDTO chair = new ItemDTO("abc123", 30.0, 0.25, "A chair");
+        journal = SaleJournal.open(journalDirectory, DurabilityPolicy.everyRecords(1_000));
+        journal.recordOpen(1, 0);
+        journal.recordItem(1, 0, chair, 2);
+        journal.close();
+
+        journal = SaleJournal.open(journalDirectory, DurabilityPolicy.everyRecords(1_000));
+        for (long saleID = 2; saleID < 200_000; saleID++) {
+            journal.recordOpen(saleID, 0);
+            journal.recordItem(saleID, 0, chair, 1);
+            journal.recordPayment(saleID, 0);
+        }
+        journal.close();
+        assertTrue(Files.size(journalDirectory.resolve("lane-0.log")) < 8 * 1024 * 1024,
+                   "The segment should be compacted although a recovered sale is never paid.");
+
+        journal = SaleJournal.open(journalDirectory, DurabilityPolicy.never());
+        assertEquals(1, journal.getRecoveredSales().size(), "Only the abandoned sale should be recovered.");
+        RecoveredSaleDTO recoveredSale = journal.getRecoveredSales().get(0);
+        assertEquals(1, recoveredSale.getSaleID(), "The abandoned sale should keep its ID.");
+        assertEquals(2, recoveredSale.getScannedItems().get(0).getQuantity(),
+                     "The abandoned sale should keep its items after the compaction.");
+    }
+
+    @Test
+    public void testBufferedRecordsAreWrittenOnCommit() throws Exception {
+        restart(DurabilityPolicy.everyRecords(1_000));
+        controller.attachJournal(journal);
+        long saleID = controller.openSale(0);
+        controller.scanItem(saleID, "abc123");
+        Path segment = journalDirectory.resolve("lane-0.log");
+        assertEquals(0, Files.size(segment), "Records should be buffered until the group commit.");
+
+        journal.commit();
+        assertTrue(Files.size(segment) > 0, "A commit should write the buffered records.");
+        assertEquals(0, journal.getFailedWriteCount(), "No write should fail.");
+    }
+}
@@ -0,0 +1,121 @@
+package integration;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.SaleStateDTO;
+import palew.integration.SaleStateCodec;
+import palew.model.Amount;
+import palew.model.Receipt;
+
+public class SaleStateCodecTest {
+    private SaleStateCodec codec;
+    private SaleStateDTO saleState;
+
+    @BeforeEach
+    public void setUp() {
+        codec = new SaleStateCodec();
+        ItemAndRunningTotalDTO chairs = new ItemAndRunningTotalDTO(new ItemDTO("abc123", 30.0, 0.25, "A chair"), 2);
+        ItemAndRunningTotalDTO lamp = new ItemAndRunningTotalDTO(new ItemDTO("ghi789", 15.5, 0.12, "A lamp"), 1);
+        Amount total = chairs.getTotalIncludingVAT().plus(lamp.getTotalIncludingVAT());
+        saleState = new SaleStateDTO(LocalDateTime.of(2025, 5, 1, 12, 30, 15, 123_000_000), List.of(chairs, lamp),
+                total, new Amount(100), new Amount(100).minus(total));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        codec = null;
+        saleState = null;
+    }
+
+    private static void assertSameSale(SaleStateDTO expected, SaleStateDTO actual) {
+        assertEquals(expected.getTimeOfSale(), actual.getTimeOfSale(), "The time of sale should survive the round trip.");
+        assertEquals(expected.getTotalPriceIncludingVAT(), actual.getTotalPriceIncludingVAT(), "The total should survive the round trip.");
+        assertEquals(expected.getPaidAmount(), actual.getPaidAmount(), "The paid amount should survive the round trip.");
+        assertEquals(expected.getChange(), actual.getChange(), "The change should survive the round trip.");
+        assertEquals(expected.getItemList().size(), actual.getItemList().size(), "Every line should survive the round trip.");
+        for (int i = 0; i < expected.getItemList().size(); i++) {
+            ItemAndRunningTotalDTO expectedLine = expected.getItemList().get(i);
+            ItemAndRunningTotalDTO actualLine = actual.getItemList().get(i);
+            assertEquals(expectedLine.getItem().getItemID(), actualLine.getItem().getItemID(), "Item IDs should match.");
+            assertEquals(expectedLine.getItem().getPrice(), actualLine.getItem().getPrice(), "Prices should match.");
+            assertEquals(expectedLine.getItem().getVatRate(), actualLine.getItem().getVatRate(), "VAT rates should match.");
+            assertEquals(expectedLine.getItem().getItemDescription(), actualLine.getItem().getItemDescription(),
+                         "Descriptions should match.");
+            assertEquals(expectedLine.getQuantity(), actualLine.getQuantity(), "Quantities should match.");
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        byte[] encoded = codec.encode(saleState);
+
+        assertEquals(codec.encodedSize(saleState), encoded.length, "The encoded size should be exact.");
+        assertSameSale(saleState, codec.decode(ByteBuffer.wrap(encoded)));
+        assertEquals(new Receipt(saleState).toString(), new Receipt(codec.decode(ByteBuffer.wrap(encoded))).toString(),
+                     "A decoded sale should print the same receipt.");
+    }
+
+    @Test
+    public void testRoundTripWithUnusualValues() {
+        ItemDTO item = new ItemDTO("åäö-1", 1_000_000.99, 0.123456789, "Smörgåsbord för 12 personer");
+        ItemAndRunningTotalDTO line = new ItemAndRunningTotalDTO(item, 40_000);
+        SaleStateDTO unusual = new SaleStateDTO(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1), List.of(line),
+                line.getTotalIncludingVAT(), line.getTotalIncludingVAT(), new Amount(0));
+
+        assertSameSale(unusual, codec.decode(ByteBuffer.wrap(codec.encode(unusual))));
+    }
+
+    @Test
+    public void testReusableBufferHoldsManySales() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+        for (int i = 0; i < 10; i++) {
+            codec.encode(saleState, buffer);
+        }
+        buffer.flip();
+        for (int i = 0; i < 10; i++) {
+            assertSameSale(saleState, codec.decode(buffer));
+        }
+        assertEquals(0, buffer.remaining(), "Every encoded byte should be read.");
+    }
+
+    @Test
+    public void testEncodingIsCompact() {
+        assertTrue(codec.encode(saleState).length < 64,
+                   "Two lines should take less than 64 bytes, was " + codec.encode(saleState).length);
+    }
+
+    @Test
+    public void testTooSmallBufferIsLeftUnchanged() {
+        ByteBuffer buffer = ByteBuffer.allocate(10);
+
+        assertThrows(BufferOverflowException.class, () -> codec.encode(saleState, buffer),
+                     "A sale that does not fit should not be written.");
+        assertEquals(0, buffer.position(), "The position should not move when the sale does not fit.");
+    }
+
+    @Test
+    public void testInvalidInputIsRejected() {
+        byte[] encoded = codec.encode(saleState);
+        byte[] otherVersion = encoded.clone();
+        otherVersion[0] = 99;
+        ByteBuffer truncated = ByteBuffer.wrap(encoded, 0, encoded.length - 3);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(ByteBuffer.wrap(otherVersion)),
+                     "An unknown version should be rejected.");
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated),
+                     "A truncated sale should be rejected.");
+        assertEquals(0, truncated.position(), "The position should not move when decoding fails.");
+    }
+}
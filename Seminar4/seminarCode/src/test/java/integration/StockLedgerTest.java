@@ -0,0 +1,156 @@
+package integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.StockSnapshotDTO;
+import palew.controller.Controller;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.Printer;
+import palew.integration.StockLedger;
+import palew.model.Amount;
+import palew.model.Receipt;
+import palew.model.RegisterPool;
+import palew.util.LogHandler;
+
+public class StockLedgerTest {
+    private static final int THREADS = 8;
+    private static final int SALES_PER_THREAD = 5_000;
+
+    private StockLedger ledger;
+    private ItemDTO chair;
+    private ItemDTO table;
+
+    @BeforeEach
+    public void setUp() {
+        ledger = new StockLedger();
+        chair = new ItemDTO("abc123", 30.0, 0.2, "A chair");
+        table = new ItemDTO("def456", 20.0, 0.2, "A table");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ledger = null;
+        chair = null;
+        table = null;
+    }
+
+    @Test
+    public void testRecordSaleSubtractsQuantities() {
+        ledger.setStock("abc123", 10, 2);
+        ledger.recordSale(List.of(new ItemAndRunningTotalDTO(chair, 3), new ItemAndRunningTotalDTO(table, 1)));
+
+        assertEquals(7, ledger.getStockLevel("abc123"), "The sold quantity should be subtracted.");
+        assertFalse(ledger.isStocked("def456"), "Selling an item that is not stocked should not start tracking it.");
+    }
+
+    @Test
+    public void testNoLostDecrements() throws InterruptedException {
+        ledger.setStock("abc123", 1_000_000, 0);
+        ledger.setStock("def456", 1_000_000, 0);
+        List<ItemAndRunningTotalDTO> sale = List.of(new ItemAndRunningTotalDTO(chair, 2), new ItemAndRunningTotalDTO(table, 1));
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService lanes = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            lanes.submit(() -> {
+                startGate.await();
+                for (int j = 0; j < SALES_PER_THREAD; j++) {
+                    ledger.recordSale(sale);
+                }
+                return null;
+            });
+        }
+        startGate.countDown();
+        lanes.shutdown();
+
+        assertTrue(lanes.awaitTermination(30, TimeUnit.SECONDS), "All lanes should finish in time.");
+        assertEquals(1_000_000 - 2L * THREADS * SALES_PER_THREAD, ledger.getStockLevel("abc123"),
+                     "Every decrement of every lane should be counted.");
+        assertEquals(1_000_000 - (long) THREADS * SALES_PER_THREAD, ledger.getStockLevel("def456"),
+                     "Every decrement of every lane should be counted.");
+    }
+
+    @Test
+    public void testLowStockIsReportedOnce() throws InterruptedException {
+        ledger.setStock("abc123", 1_000, 100);
+        Queue<Long> alerts = new ConcurrentLinkedQueue<>();
+        ledger.addLowStockObserver((itemID, stockLevel) -> alerts.add(stockLevel));
+        List<ItemAndRunningTotalDTO> sale = List.of(new ItemAndRunningTotalDTO(chair, 1));
+        ExecutorService lanes = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            lanes.submit(() -> {
+                for (int j = 0; j < 120; j++) {
+                    ledger.recordSale(sale);
+                }
+            });
+        }
+        lanes.shutdown();
+
+        assertTrue(lanes.awaitTermination(30, TimeUnit.SECONDS), "All lanes should finish in time.");
+        assertEquals(List.of(100L), new ArrayList<>(alerts), "Crossing the threshold should be reported exactly once.");
+        assertEquals(List.of("abc123").toString(), ledger.snapshot().getLowStockItemIDs().toString(),
+                     "The snapshot should list the item as low on stock.");
+    }
+
+    @Test
+    public void testSnapshotNeverContainsHalfASale() throws InterruptedException {
+        ledger.setStock("abc123", 1_000_000, 0);
+        ledger.setStock("def456", 1_000_000, 0);
+        List<ItemAndRunningTotalDTO> sale = List.of(new ItemAndRunningTotalDTO(chair, 1), new ItemAndRunningTotalDTO(table, 1));
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService lanes = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            lanes.submit(() -> {
+                while (running.get()) {
+                    ledger.recordSale(sale);
+                }
+            });
+        }
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                StockSnapshotDTO snapshot = ledger.snapshot();
+                assertEquals(snapshot.getStockLevel("abc123"), snapshot.getStockLevel("def456"),
+                             "Both lines of every sale should be in the snapshot, or none of them.");
+            }
+        } finally {
+            running.set(false);
+            lanes.shutdown();
+        }
+        assertTrue(lanes.awaitTermination(30, TimeUnit.SECONDS), "All lanes should finish in time.");
+    }
+
+    @Test
+    public void testPaymentUpdatesStock() throws Exception {
+        ExternalInventorySystem invSystem = new ExternalInventorySystem(itemID -> chair);
+        invSystem.getStockLedger().setStock("abc123", 10, 0);
+        Printer silentPrinter = new Printer() {
+            @Override
+            public void print(Receipt receipt) {
+            }
+        };
+        Controller controller = new Controller(silentPrinter, new ExternalAccountingSystem(), invSystem,
+                new RegisterPool(), new LogHandler());
+        long saleID = controller.openSale();
+        controller.scanItem(saleID, "abc123", 4);
+        controller.recordPayment(saleID, new Amount(1000));
+
+        assertEquals(6, invSystem.getStockLedger().getStockLevel("abc123"), "A paid sale should be subtracted from stock.");
+    }
+}
@@ -0,0 +1,224 @@
+package integration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.integration.DurabilityPolicy;
+import palew.integration.TotalRevenueFileOutput;
+import palew.integration.TotalRevenueFileOutput.Mode;
+import palew.model.Amount;
+
+public class TotalRevenueFileOutputTest {
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() {
+        file = tempDir.resolve("totalRevenue.txt");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        file = null;
+    }
+
+    @Test
+    public void testAppendWritesEveryUpdate() throws IOException {
+        try (TotalRevenueFileOutput output = TotalRevenueFileOutput.open(file, Mode.APPEND, DurabilityPolicy.never())) {
+            output.updateTotalRevenue(new Amount(72));
+            output.updateTotalRevenue(new Amount(144));
+            assertEquals(List.of("Total Revenue: 72.0", "Total Revenue: 144.0"), Files.readAllLines(file),
+                         "Without group commits every update should be written directly.");
+        }
+    }
+
+    @Test
+    public void testGroupCommitEveryRecords() throws IOException {
+        try (TotalRevenueFileOutput output = TotalRevenueFileOutput.open(file, Mode.APPEND,
+                DurabilityPolicy.everyRecords(3))) {
+            output.updateTotalRevenue(new Amount(1));
+            output.updateTotalRevenue(new Amount(2));
+            assertEquals(0, Files.size(file), "Updates should be buffered until the group is complete.");
+            output.updateTotalRevenue(new Amount(3));
+            assertEquals(3, Files.readAllLines(file).size(), "A complete group should be written at once.");
+            output.updateTotalRevenue(new Amount(4));
+        }
+        assertEquals(4, Files.readAllLines(file).size(), "Closing should write the remaining updates.");
+    }
+
+    @Test
+    public void testGroupCommitEveryMillis() throws IOException, InterruptedException {
+        try (TotalRevenueFileOutput output = TotalRevenueFileOutput.open(file, Mode.APPEND,
+                DurabilityPolicy.everyMillis(10))) {
+            output.updateTotalRevenue(new Amount(1));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (Files.size(file) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(List.of("Total Revenue: 1.0"), Files.readAllLines(file),
+                         "Buffered updates should be written when the interval has passed.");
+        }
+    }
+
+    @Test
+    public void testCheckpointKeepsOnlyLatestTotal() throws IOException {
+        try (TotalRevenueFileOutput output = TotalRevenueFileOutput.open(file, Mode.CHECKPOINT,
+                DurabilityPolicy.everyRecords(1))) {
+            output.updateTotalRevenue(new Amount(1000.5));
+            long sizeAfterFirstUpdate = Files.size(file);
+            output.updateTotalRevenue(new Amount(72));
+            assertEquals(sizeAfterFirstUpdate, Files.size(file), "The checkpoint file should not grow.");
+        }
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size(), "The checkpoint file should only hold one record.");
+        assertTrue(lines.get(0).startsWith("Total Revenue: 72.0 "), "The checkpoint should hold the latest total.");
+    }
+
+    @Test
+    public void testFailedCommitKeepsUnwrittenUpdates() throws IOException {
+        FailingFileChannel channel = new FailingFileChannel(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        try (TotalRevenueFileOutput output = TotalRevenueFileOutput.open(channel, Mode.APPEND,
+                DurabilityPolicy.everyRecords(1))) {
+            output.updateTotalRevenue(new Amount(1));
+            channel.failAfterBytes(5);
+            output.updateTotalRevenue(new Amount(2));
+            output.updateTotalRevenue(new Amount(3));
+            channel.failAfterBytes(Long.MAX_VALUE);
+            output.updateTotalRevenue(new Amount(4));
+        }
+        assertEquals(List.of("Total Revenue: 1.0", "Total Revenue: 2.0", "Total Revenue: 3.0", "Total Revenue: 4.0"),
+                     Files.readAllLines(file), "Updates that could not be written should be written by the next commit.");
+    }
+
+    /**
+     * A file channel that throws an IOException when a set number of bytes has been written.
+     */
+    private static class FailingFileChannel extends FileChannel {
+        private final FileChannel target;
+        private long bytesBeforeFailure = Long.MAX_VALUE;
+
+        private FailingFileChannel(FileChannel target) {
+            this.target = target;
+        }
+
+        private void failAfterBytes(long bytes) {
+            bytesBeforeFailure = bytes;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            if (bytesBeforeFailure == 0) {
+                throw new IOException("The disk is full.");
+            }
+            ByteBuffer allowed = source.slice();
+            allowed.limit((int) Math.min(allowed.limit(), bytesBeforeFailure));
+            int written = target.write(allowed);
+            source.position(source.position() + written);
+            if (bytesBeforeFailure != Long.MAX_VALUE) {
+                bytesBeforeFailure -= written;
+            }
+            return written;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            return target.read(destination);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinations, int offset, int length) throws IOException {
+            return target.read(destinations, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return target.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            target.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return target.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            target.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            target.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel destination) throws IOException {
+            return target.transferTo(position, count, destination);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer destination, long position) throws IOException {
+            return target.read(destination, position);
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return target.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return target.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return target.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            target.close();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package integration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.DTO.InventoryStoreStatisticsDTO;
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.WriteBehindInventoryStore;
+
+public class WriteBehindInventoryStoreTest {
+    private static final Duration NO_BACKGROUND_FLUSH = Duration.ofHours(1);
+    private static final int THREADS = 8;
+    private static final int SALES_PER_THREAD = 2_000;
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private WriteBehindInventoryStore store;
+    private List<ItemAndRunningTotalDTO> sale;
+
+    @BeforeEach
+    public void setUp() {
+        file = directory.resolve("inventory.log");
+        ItemDTO chair = new ItemDTO("abc123", 30.0, 0.2, "A chair");
+        ItemDTO table = new ItemDTO("def456", 20.0, 0.2, "A table");
+        sale = List.of(new ItemAndRunningTotalDTO(chair, 2), new ItemAndRunningTotalDTO(table, 1));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+        store = null;
+        sale = null;
+    }
+
+    @Test
+    public void testDeltasAreCoalescedPerItem() throws IOException {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        for (int i = 0; i < 100; i++) {
+            store.recordSale(sale);
+        }
+        assertEquals(-200, store.getPendingDelta("abc123"), "The sales should be summed in memory.");
+        store.flush();
+
+        InventoryStoreStatisticsDTO statistics = store.getStatistics();
+        assertEquals(200, statistics.getRecordedDeltaCount(), "Every sale line should be counted.");
+        assertEquals(2, statistics.getFlushedDeltaCount(), "One change per item should be written.");
+        assertEquals(1, statistics.getFlushCount(), "The changes should be written as one batch.");
+        assertEquals(0, statistics.getPendingItemCount(), "Nothing should be pending after a flush.");
+        assertEquals(statistics.getBytesWritten(), Files.size(file), "The written bytes should be counted.");
+    }
+
+    @Test
+    public void testChangesAreRecoveredAfterRestart() throws IOException {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        store.recordSale(sale);
+        store.flush();
+        store.recordSale(sale);
+        store.close();
+
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        assertEquals(Map.of("abc123", -4L, "def456", -2L), store.getRecoveredDeltas(),
+                     "The changes of both batches should be recovered.");
+    }
+
+    @Test
+    public void testTornBatchIsCutOff() throws IOException {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        store.recordSale(sale);
+        store.close();
+        long validLength = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        assertEquals(Map.of("abc123", -2L, "def456", -1L), store.getRecoveredDeltas(),
+                     "Only the complete batch should be recovered.");
+        assertEquals(validLength, Files.size(file), "The torn batch should be cut off the file.");
+        store.recordSale(sale);
+        store.close();
+
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        assertEquals(Map.of("abc123", -4L, "def456", -2L), store.getRecoveredDeltas(),
+                     "Batches written after the recovery should be readable.");
+    }
+
+    @Test
+    public void testTooManyPendingItemsTriggerFlush() throws Exception {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 2);
+        store.recordSale(sale);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (store.getStatistics().getFlushCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, store.getStatistics().getFlushCount(),
+                     "Reaching the maximum number of pending items should flush before the interval.");
+    }
+
+    @Test
+    public void testNoDeltaIsLostWhileFlushing() throws Exception {
+        store = WriteBehindInventoryStore.open(file, Duration.ofMillis(1), 1_000);
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService lanes = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            lanes.submit(() -> {
+                startGate.await();
+                for (int j = 0; j < SALES_PER_THREAD; j++) {
+                    store.recordSale(sale);
+                }
+                return null;
+            });
+        }
+        startGate.countDown();
+        lanes.shutdown();
+        assertTrue(lanes.awaitTermination(30, TimeUnit.SECONDS), "All lanes should finish in time.");
+        store.close();
+
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        assertEquals(-2L * THREADS * SALES_PER_THREAD, store.getRecoveredDeltas().get("abc123"),
+                     "Every sale recorded during background flushes should be persisted.");
+    }
+
+    @Test
+    public void testRecoveredChangesAreAppliedToStock() throws IOException {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        store.recordSale(sale);
+        store.close();
+
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        ExternalInventorySystem invSystem = new ExternalInventorySystem(itemID -> sale.get(0).getItem());
+        invSystem.getStockLedger().setStock("abc123", 10, 0);
+        invSystem.useInventoryStore(store);
+        invSystem.updateInventory(sale);
+
+        assertEquals(6, invSystem.getStockLedger().getStockLevel("abc123"),
+                     "Both the recovered and the new sale should be subtracted.");
+        assertEquals(-2, store.getPendingDelta("abc123"), "The new sale should be pending in the store.");
+        assertEquals(0, Files.size(file), "The recovered changes should be replaced by a checkpoint.");
+    }
+
+    @Test
+    public void testCheckpointIsNotCountedTwice() throws IOException {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        ExternalInventorySystem invSystem = new ExternalInventorySystem(itemID -> sale.get(0).getItem());
+        invSystem.getStockLedger().setStock("abc123", 10, 0);
+        invSystem.useInventoryStore(store);
+        invSystem.updateInventory(sale);
+        store.close();
+
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        assertEquals(Map.of("abc123", 10L), store.getRecoveredCheckpoint(), "The checkpoint should be recovered.");
+        assertEquals(Map.of("abc123", -2L, "def456", -1L), store.getRecoveredDeltas(),
+                     "Only the changes after the checkpoint should be recovered.");
+        invSystem = new ExternalInventorySystem(itemID -> sale.get(0).getItem());
+        invSystem.getStockLedger().setStock("abc123", 10, 0);
+        invSystem.getStockLedger().setStock("ghi789", 5, 0);
+        invSystem.useInventoryStore(store);
+        store.close();
+
+        assertEquals(8, invSystem.getStockLedger().getStockLevel("abc123"),
+                     "The checkpoint should replace the level set by the caller.");
+        assertEquals(5, invSystem.getStockLedger().getStockLevel("ghi789"),
+                     "An item that is not in the checkpoint should keep the level set by the caller.");
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        assertEquals(Map.of("abc123", 8L, "def456", -1L, "ghi789", 5L), store.getRecoveredCheckpoint(),
+                     "The new levels should be written as the checkpoint.");
+        assertEquals(Map.of(), store.getRecoveredDeltas(), "No change should be read again.");
+    }
+
+    @Test
+    public void testStockIsRestoredIntoEmptyLedger() throws IOException {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        ExternalInventorySystem invSystem = new ExternalInventorySystem(itemID -> sale.get(0).getItem());
+        invSystem.getStockLedger().setStock("abc123", 100, 0);
+        invSystem.useInventoryStore(store);
+        invSystem.updateInventory(sale);
+        store.close();
+
+        for (int restart = 1; restart <= 2; restart++) {
+            store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+            invSystem = new ExternalInventorySystem(itemID -> sale.get(0).getItem());
+            invSystem.useInventoryStore(store);
+            store.close();
+
+            assertEquals(98, invSystem.getStockLedger().getStockLevel("abc123"),
+                         "The persisted level should be loaded into an empty ledger after restart " + restart + ".");
+            assertEquals(-1, invSystem.getStockLedger().getStockLevel("def456"),
+                         "An item with only recovered changes should be loaded as well.");
+        }
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        assertEquals(Map.of("abc123", 98L, "def456", -1L), store.getRecoveredCheckpoint(),
+                     "The restored levels should be kept in the checkpoint.");
+    }
+
+    @Test
+    public void testChangesLeftBeforeCheckpointAreSkipped() throws IOException {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        store.recordSale(sale);
+        store.flush();
+        byte[] changes = Files.readAllBytes(file);
+        store.checkpoint(Map.of("abc123", 8L));
+        store.recordSale(sale);
+        store.close();
+        byte[] laterChanges = Files.readAllBytes(file);
+        Files.write(file, changes);
+        Files.write(file, laterChanges, StandardOpenOption.APPEND);
+
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        assertEquals(Map.of("abc123", -2L, "def456", -1L), store.getRecoveredDeltas(),
+                     "Changes that are in the checkpoint should be skipped.");
+    }
+
+    @Test
+    public void testCheckpointWithPendingChanges() throws IOException {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        store.recordSale(sale);
+
+        assertThrows(IllegalStateException.class, () -> store.checkpoint(Map.of("abc123", 8L)),
+                     "A checkpoint should not be written while changes are pending.");
+    }
+
+    @Test
+    public void testRecordAfterClose() throws IOException {
+        store = WriteBehindInventoryStore.open(file, NO_BACKGROUND_FLUSH, 1_000);
+        store.close();
+
+        assertThrows(IllegalStateException.class, () -> store.recordSale(sale),
+                     "A closed store should not accept changes.");
+    }
+}
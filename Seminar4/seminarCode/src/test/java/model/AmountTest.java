@@ -1,8 +1,11 @@
 package model;
 
+import java.math.RoundingMode;
+
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -48,4 +51,49 @@ public class AmountTest {
         Amount greaterAmount = new Amount(50.0);
         assertFalse(amount.isLessThan(greaterAmount), "Amount 100.0 should not be less than 50.0.");
     }
+
+    @Test
+    public void testStoredInMinorUnits() {
+        assertEquals(10000, amount.getMinorUnits(), "100.0 should be stored as 10000 öre.");
+        assertEquals(amount, Amount.ofMinorUnits(10000), "An amount created from öre should equal the same value.");
+    }
+
+    @Test
+    public void testRoundingModes() {
+        assertEquals(101, new Amount(1.005).getMinorUnits(), "1.005 should round half up by default.");
+        assertEquals(100, new Amount(1.005, RoundingMode.HALF_EVEN).getMinorUnits(), "1.005 should round half even to 1.00.");
+        assertEquals(100, new Amount(1.009, RoundingMode.DOWN).getMinorUnits(), "1.009 should round down to 1.00.");
+        assertThrows(ArithmeticException.class, () -> new Amount(1.001, RoundingMode.UNNECESSARY),
+                     "Rounding UNNECESSARY should throw when the value has more than two decimals.");
+    }
+
+    @Test
+    public void testSumIsExact() {
+        Amount sum = Amount.ofMinorUnits(0);
+        for (int i = 0; i < 1000; i++) {
+            sum = sum.plus(new Amount(0.1));
+        }
+        assertEquals(new Amount(100.0), sum, "Adding 0.1 a thousand times should give exactly 100.00.");
+    }
+
+    @Test
+    public void testTimes() {
+        assertEquals(new Amount(300.0), amount.times(3), "100.0 times 3 should be 300.0.");
+    }
+
+    @Test
+    public void testApplyRate() {
+        assertEquals(2500, Amount.applyRate(10000, Amount.toBasisPoints(0.25), Amount.DEFAULT_ROUNDING),
+                     "25% of 100.00 should be 25.00.");
+        assertEquals(13, Amount.applyRate(105, Amount.toBasisPoints(0.12), RoundingMode.HALF_UP),
+                     "12% of 1.05 is 0.126 and should round half up to 0.13.");
+        assertEquals(12, Amount.applyRate(105, Amount.toBasisPoints(0.12), RoundingMode.FLOOR),
+                     "12% of 1.05 is 0.126 and should round down to 0.12.");
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("100.00", amount.toString(), "100.0 should be formatted with two decimals.");
+        assertEquals("-0.05", Amount.ofMinorUnits(-5).toString(), "Negative amounts should keep their sign.");
+    }
 }
@@ -0,0 +1,168 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.model.Amount;
+import palew.model.AsyncSaleObserver;
+import palew.model.AsyncSaleObserver.BackpressurePolicy;
+import palew.model.SaleObserver;
+
+public class AsyncSaleObserverTest {
+    private List<Amount> received;
+    private CountDownLatch gate;
+    private SaleObserver gatedObserver;
+
+    @BeforeEach
+    public void setUp() {
+        received = new CopyOnWriteArrayList<>();
+        gate = new CountDownLatch(1);
+        gatedObserver = totalRevenue -> {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(totalRevenue);
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        received = null;
+        gate = null;
+        gatedObserver = null;
+    }
+
+    @Test
+    public void testBlockDeliversAllUpdatesInOrder() throws InterruptedException {
+        AsyncSaleObserver observer = new AsyncSaleObserver(received::add, 2, BackpressurePolicy.BLOCK);
+        for (int i = 1; i <= 100; i++) {
+            observer.updateTotalRevenue(new Amount(i));
+        }
+        observer.close();
+        assertEquals(100, received.size(), "Every update should be delivered.");
+        assertEquals(new Amount(100), received.get(99), "Updates should be delivered in order.");
+        assertEquals(100, observer.getDispatchedCount(), "Every delivery should be counted.");
+    }
+
+    @Test
+    public void testSlowObserverDoesNotBlockPayment() throws InterruptedException {
+        AsyncSaleObserver observer = new AsyncSaleObserver(gatedObserver, 10, BackpressurePolicy.DROP_OLDEST);
+        long start = System.nanoTime();
+        for (int i = 1; i <= 5; i++) {
+            observer.updateTotalRevenue(new Amount(i));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < 1000, "Queueing updates should not wait for the observer.");
+        assertTrue(observer.getQueueDepth() >= 4, "Updates should wait in the queue while the observer is busy.");
+        gate.countDown();
+        observer.close();
+        assertEquals(5, received.size(), "Queued updates should be delivered when the observer catches up.");
+    }
+
+    @Test
+    public void testDropOldest() throws InterruptedException {
+        AsyncSaleObserver observer = new AsyncSaleObserver(gatedObserver, 2, BackpressurePolicy.DROP_OLDEST);
+        observer.updateTotalRevenue(new Amount(1));
+        waitUntilQueueEmpty(observer);
+        for (int i = 2; i <= 6; i++) {
+            observer.updateTotalRevenue(new Amount(i));
+        }
+        gate.countDown();
+        observer.close();
+        assertEquals(List.of(new Amount(1), new Amount(5), new Amount(6)), received,
+                     "Only the newest updates should be kept when the queue is full.");
+        assertEquals(3, observer.getDroppedCount(), "Dropped updates should be counted.");
+    }
+
+    @Test
+    public void testCoalesceKeepsLatestTotal() throws InterruptedException {
+        AsyncSaleObserver observer = new AsyncSaleObserver(gatedObserver, 2, BackpressurePolicy.COALESCE);
+        observer.updateTotalRevenue(new Amount(1));
+        waitUntilQueueEmpty(observer);
+        for (int i = 2; i <= 6; i++) {
+            observer.updateTotalRevenue(new Amount(i));
+        }
+        gate.countDown();
+        observer.close();
+        assertEquals(List.of(new Amount(1), new Amount(2), new Amount(6)), received,
+                     "The newest queued update should be replaced by the latest total.");
+        assertEquals(3, observer.getCoalescedCount(), "Coalesced updates should be counted.");
+    }
+
+    @Test
+    public void testCoalesceDiscardsOutdatedTotals() throws InterruptedException {
+        AsyncSaleObserver observer = new AsyncSaleObserver(gatedObserver, 2, BackpressurePolicy.COALESCE);
+        observer.updateTotalRevenue(new Amount(1));
+        waitUntilQueueEmpty(observer);
+        observer.updateTotalRevenue(new Amount(3));
+        observer.updateTotalRevenue(new Amount(5));
+        observer.updateTotalRevenue(new Amount(4));
+        observer.updateTotalRevenue(new Amount(2));
+        gate.countDown();
+        observer.close();
+        assertEquals(List.of(new Amount(1), new Amount(3), new Amount(5)), received,
+                     "A total reported after a higher one should not be delivered.");
+        assertEquals(2, observer.getCoalescedCount(), "Outdated updates should be counted.");
+    }
+
+    @Test
+    public void testFailingObserverDoesNotStopDispatch() throws InterruptedException {
+        AsyncSaleObserver observer = new AsyncSaleObserver(totalRevenue -> {
+            if (totalRevenue.getMinorUnits() == 100) throw new IllegalStateException("Observer failed");
+            received.add(totalRevenue);
+        }, 10, BackpressurePolicy.BLOCK);
+        observer.updateTotalRevenue(new Amount(1));
+        observer.updateTotalRevenue(new Amount(2));
+        assertTrue(observer.awaitDrained(5, TimeUnit.SECONDS), "The queue should be drained.");
+        assertEquals(1, observer.getFailedCount(), "The failed delivery should be counted.");
+        assertEquals(List.of(new Amount(2)), received, "Later updates should still be delivered.");
+        observer.close();
+    }
+
+    @Test
+    public void testClosedObserverDropsUpdates() throws InterruptedException {
+        AsyncSaleObserver observer = new AsyncSaleObserver(received::add, 2, BackpressurePolicy.BLOCK);
+        observer.close();
+        observer.updateTotalRevenue(new Amount(1));
+
+        assertEquals(List.of(), received, "A closed observer should not deliver updates.");
+        assertEquals(1, observer.getDroppedCount(), "The update should be counted as dropped.");
+    }
+
+    @Test
+    public void testCloseReleasesBlockedPayment() throws InterruptedException {
+        AsyncSaleObserver observer = new AsyncSaleObserver(gatedObserver, 1, BackpressurePolicy.BLOCK);
+        observer.updateTotalRevenue(new Amount(1));
+        waitUntilQueueEmpty(observer);
+        observer.updateTotalRevenue(new Amount(2));
+        Thread payment = Thread.ofVirtual().start(() -> observer.updateTotalRevenue(new Amount(3)));
+        while (payment.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        Thread closer = Thread.ofVirtual().start(observer::close);
+        payment.join(TimeUnit.SECONDS.toMillis(5));
+        gate.countDown();
+        closer.join();
+
+        assertFalse(payment.isAlive(), "Close should release the blocked payment.");
+        assertEquals(1, observer.getDroppedCount(), "The blocked update should be counted as dropped.");
+        assertEquals(List.of(new Amount(1), new Amount(2)), received, "The queued updates should still be delivered.");
+    }
+
+    private void waitUntilQueueEmpty(AsyncSaleObserver observer) throws InterruptedException {
+        while (observer.getQueueDepth() > 0) {
+            Thread.sleep(1);
+        }
+    }
+}
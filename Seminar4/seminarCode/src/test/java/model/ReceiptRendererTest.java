@@ -0,0 +1,96 @@
+package model;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.SaleStateDTO;
+import palew.model.Amount;
+import palew.model.Receipt;
+import palew.model.ReceiptRenderer;
+
+public class ReceiptRendererTest {
+    private List<ItemAndRunningTotalDTO> itemList;
+
+    @BeforeEach
+    public void setUp() {
+        itemList = new ArrayList<>();
+        itemList.add(new ItemAndRunningTotalDTO(new ItemDTO("abc123", 30.0, 0.25, "A chair"), 2));
+        itemList.add(new ItemAndRunningTotalDTO(new ItemDTO("def456", 0.05, 0.12, "A nail"), 7));
+        itemList.add(new ItemAndRunningTotalDTO(new ItemDTO("ghi789", 1234.99, 0.06, "A sofa"), 1));
+        itemList.add(new ItemAndRunningTotalDTO(new ItemDTO("jkl012", 12.5, 0.0, "A book"), 3));
+        itemList.add(new ItemAndRunningTotalDTO(new ItemDTO("mno345", 9_999_999.99, 0.25, "A yacht"), 2));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        itemList = null;
+    }
+
+    private SaleStateDTO createSaleState(Amount paid) {
+        Amount total = new Amount(0);
+        for (ItemAndRunningTotalDTO line : itemList) {
+            total = total.plus(line.getTotalIncludingVAT());
+        }
+        return new SaleStateDTO(LocalDateTime.of(2025, 1, 2, 3, 4, 5), itemList, total, paid, paid.minus(total));
+    }
+
+    private static String renderAsBefore(SaleStateDTO saleState) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("----------------------- BEGINNING OF RECEIPT -----------------------\n");
+        builder.append("Time of sale: ").append(saleState.getTimeOfSale().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
+               .append(" ").append(saleState.getTimeOfSale().format(DateTimeFormatter.ofPattern("HH:mm:ss"))).append("\n");
+        long totalVAT = 0;
+        for (ItemAndRunningTotalDTO item : saleState.getItemList()) {
+            builder.append(item.getItem().getItemDescription()).append(" ")
+                   .append(item.getQuantity()).append(" x ")
+                   .append(item.getItem().getPrice().getAmount()).append(" ")
+                   .append(item.getRunningTotal().getAmount()).append(" SEK\n");
+            totalVAT += item.getTotalIncludingVAT().getMinorUnits() - item.getRunningTotal().getMinorUnits();
+        }
+        builder.append("\nTotal: ").append(saleState.getTotalPriceIncludingVAT().getAmount()).append(" SEK\n");
+        builder.append("VAT: ").append(Amount.ofMinorUnits(totalVAT)).append(" SEK\n");
+        builder.append("\nCash: ").append(saleState.getPaidAmount().getAmount()).append(" SEK\n");
+        builder.append("Change: ").append(saleState.getChange().getAmount()).append(" SEK\n");
+        builder.append("----------------------- END OF RECEIPT -----------------------");
+        return builder.toString();
+    }
+
+    @Test
+    public void testRenderedTextIsUnchanged() {
+        SaleStateDTO saleState = createSaleState(new Amount(30_000_000));
+
+        assertEquals(renderAsBefore(saleState), new Receipt(saleState).toString(),
+                     "The receipt text should be the same as before the renderer was introduced.");
+    }
+
+    @Test
+    public void testRenderToWriter() throws IOException {
+        SaleStateDTO saleState = createSaleState(new Amount(30_000_000));
+        StringWriter writer = new StringWriter();
+
+        new Receipt(saleState).renderTo(writer);
+
+        assertEquals(new Receipt(saleState).toString(), writer.toString(),
+                     "Streaming the receipt should give the same text as toString.");
+    }
+
+    @Test
+    public void testNullOutput() {
+        SaleStateDTO saleState = createSaleState(new Amount(30_000_000));
+
+        assertThrows(IllegalArgumentException.class, () -> ReceiptRenderer.render(saleState, null),
+                     "Rendering to a null output should throw IllegalArgumentException.");
+    }
+}
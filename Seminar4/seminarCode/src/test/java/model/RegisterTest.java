@@ -1,40 +1,114 @@
-package model;
-import org.junit.jupiter.api.AfterEach;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
-
-import palew.model.Amount;
-import palew.model.Register;
-
-public class RegisterTest {
-    private Register register;
-
-    @BeforeEach
-    public void setUp() {
-        register = new Register();
-    }
-
-    @AfterEach
-    public void tearDown() {
-        register = null;
-    }
-
-    @Test
-    public void testUpdateBalance() {
-        Amount initialBalance = register.getBalance();
-        Amount amountToAdd = new Amount(100);
-        register.updateBalance(amountToAdd);
-        Amount newBalance = register.getBalance();
-        assertEquals(initialBalance.getAmount() + amountToAdd.getAmount(), newBalance.getAmount(),
-                     "Balance should be updated correctly with a positive amount.");
-    }
-
-    @Test
-    public void testGetBalance() {
-        Amount balance = register.getBalance();
-        assertNotNull(balance, "Initial balance should not be null.");
-        assertEquals(0, balance.getAmount(), "Initial balance should be 0.");
-    }
-}
+package model;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.model.Amount;
+import palew.DTO.RegisterSummaryDTO;
+import palew.model.Register;
+import palew.model.RegisterPool;
+
+public class RegisterTest {
+    private Register register;
+
+    @BeforeEach
+    public void setUp() {
+        register = new Register();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        register = null;
+    }
+
+    @Test
+    public void testUpdateBalance() {
+        Amount initialBalance = register.getBalance();
+        Amount amountToAdd = new Amount(100);
+        register.updateBalance(amountToAdd);
+        Amount newBalance = register.getBalance();
+        assertEquals(initialBalance.getAmount() + amountToAdd.getAmount(), newBalance.getAmount(),
+                     "Balance should be updated correctly with a positive amount.");
+    }
+
+    @Test
+    public void testGetBalance() {
+        Amount balance = register.getBalance();
+        assertNotNull(balance, "Initial balance should not be null.");
+        assertEquals(0, balance.getAmount(), "Initial balance should be 0.");
+    }
+
+    @Test
+    public void testCashOut() {
+        register.updateBalance(new Amount(100));
+        register.recordCashOut(new Amount(28));
+        assertEquals(new Amount(72), register.getBalance(), "Cash out should be removed from the balance.");
+        assertEquals(1, register.getCashInCount(), "One cash-in event should be counted.");
+        assertEquals(1, register.getCashOutCount(), "One cash-out event should be counted.");
+    }
+
+    @Test
+    public void testConcurrentUpdatesAreNotLost() throws InterruptedException {
+        int threads = 16;
+        int paymentsPerThread = 10_000;
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService payers = Executors.newFixedThreadPool(threads);
+        Amount payment = new Amount(0.01);
+        for (int thread = 0; thread < threads; thread++) {
+            payers.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < paymentsPerThread; i++) {
+                    register.updateBalance(payment);
+                }
+                return null;
+            });
+        }
+        startGate.countDown();
+        payers.shutdown();
+
+        assertTrue(payers.awaitTermination(30, TimeUnit.SECONDS), "All payments should finish in time.");
+        assertEquals(threads * paymentsPerThread, register.getBalance().getMinorUnits(), "No payment should be lost.");
+        assertEquals(threads * paymentsPerThread, register.getCashInCount(), "Every payment should be counted.");
+    }
+
+    @Test
+    public void testPaymentAndChangeAreOneUpdate() throws InterruptedException {
+        RegisterPool registers = new RegisterPool(register);
+        Thread payer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                register.recordPayment(new Amount(100), new Amount(28));
+            }
+        });
+        while (payer.isAlive()) {
+            long balance = registers.getStoreBalance().getMinorUnits();
+            assertEquals(0, balance % 7_200, "The balance should never hold a payment without its change: " + balance);
+        }
+        payer.join();
+
+        assertEquals(new Amount(7_200_000), register.getBalance(), "Every payment should be added.");
+        assertEquals(100_000, register.getCashInCount(), "Every payment should be a cash-in event.");
+        assertEquals(100_000, register.getCashOutCount(), "Every change should be a cash-out event.");
+    }
+
+    @Test
+    public void testRegisterPoolStoreBalance() {
+        RegisterPool registers = new RegisterPool(register);
+        registers.getRegister(0).updateBalance(new Amount(50));
+        registers.getRegister(3).updateBalance(new Amount(20));
+        registers.getRegister(3).recordCashOut(new Amount(5));
+        assertEquals(register, registers.getRegister(0), "The given register should be register 0.");
+        assertEquals(new Amount(65), registers.getStoreBalance(), "The store balance should be the sum of all registers.");
+        RegisterSummaryDTO summary = registers.getRegisterSummaries().get(1);
+        assertEquals(3, summary.getRegisterNumber(), "Summaries should be ordered by register number.");
+        assertEquals(new Amount(15), summary.getBalance(), "The summary should contain the balance of the register.");
+        assertEquals(1, summary.getCashOutCount(), "The summary should contain the cash-out count of the register.");
+    }
+}
@@ -0,0 +1,89 @@
+package model;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.DTO.ItemDTO;
+import palew.DTO.RevenueSnapshotDTO;
+import palew.model.Amount;
+import palew.model.RevenueLedger;
+import palew.model.Sale;
+
+public class RevenueLedgerTest {
+    private static final int THREADS = 16;
+    private static final int PAYMENTS_PER_THREAD = 10_000;
+
+    private RevenueLedger ledger;
+
+    @BeforeEach
+    public void setUp() {
+        ledger = new RevenueLedger();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ledger = null;
+    }
+
+    @Test
+    public void testEmptyLedger() {
+        RevenueSnapshotDTO snapshot = ledger.snapshot();
+        assertEquals(Amount.ofMinorUnits(0), snapshot.getTotalRevenue(), "A new ledger should have no revenue.");
+        assertEquals(Amount.ofMinorUnits(0), snapshot.getRevenue(3), "A lane without payments should have no revenue.");
+    }
+
+    @Test
+    public void testRevenuePerLane() {
+        ledger.recordRevenue(1, new Amount(10.5));
+        ledger.recordRevenue(2, new Amount(4.0));
+        ledger.recordRevenue(1, new Amount(0.25));
+        RevenueSnapshotDTO snapshot = ledger.snapshot();
+        assertEquals(new Amount(10.75), snapshot.getRevenue(1), "Lane 1 should have the sum of its payments.");
+        assertEquals(new Amount(4.0), snapshot.getRevenue(2), "Lane 2 should have the sum of its payments.");
+        assertEquals(new Amount(14.75), snapshot.getTotalRevenue(), "The total should be the sum of all lanes.");
+        assertEquals(new Amount(14.75), ledger.getTotalRevenue(), "The total should be the sum of all lanes.");
+    }
+
+    @Test
+    public void testSaleRecordsRevenueOnItsLane() {
+        Sale sale = new Sale(ledger, 7);
+        sale.registerItem(new ItemDTO("abc123", 30.0, 0.2, "A chair"), 2);
+        sale.recordPayment(new Amount(100));
+        assertEquals(new Amount(72.0), ledger.snapshot().getRevenue(7), "The sale should record its total on its lane.");
+    }
+
+    @Test
+    public void testConcurrentPaymentsAreNotLost() throws InterruptedException {
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService payers = Executors.newFixedThreadPool(THREADS);
+        for (int thread = 0; thread < THREADS; thread++) {
+            int lane = thread % 4;
+            payers.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                    ledger.recordRevenue(lane, 1);
+                }
+                return null;
+            });
+        }
+        startGate.countDown();
+        payers.shutdown();
+
+        assertTrue(payers.awaitTermination(30, TimeUnit.SECONDS), "All payments should finish in time.");
+        RevenueSnapshotDTO snapshot = ledger.snapshot();
+        assertEquals(THREADS * PAYMENTS_PER_THREAD, snapshot.getTotalRevenue().getMinorUnits(),
+                     "No payment should be lost.");
+        for (int lane = 0; lane < 4; lane++) {
+            assertEquals(THREADS / 4 * PAYMENTS_PER_THREAD, snapshot.getRevenue(lane).getMinorUnits(),
+                         "No payment should be lost on lane " + lane + ".");
+        }
+    }
+}
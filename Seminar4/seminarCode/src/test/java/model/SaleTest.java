@@ -1,91 +1,188 @@
-package model;
-
-import java.util.List;
-
-import org.junit.jupiter.api.AfterEach;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
-
-import palew.DTO.ItemAndRunningTotalDTO;
-import palew.DTO.ItemDTO;
-import palew.DTO.SaleStateDTO;
-import palew.DTO.SaleSummaryDTO;
-import palew.model.Amount;
-import palew.model.Sale;
-
-public class SaleTest {
-    private Sale sale;
-
-    @BeforeEach
-    public void setUp() {
-        sale = new Sale();
-    }
-
-    @AfterEach
-    public void tearDown() {
-        sale = null;
-    }
-
-    @Test
-    public void testConstructor() {
-        // Test the constructor to ensure it initializes the sale correctly
-        sale = new Sale();
-        assertNotNull(sale.getTimeOfSale());
-        assertEquals(0, sale.getRunningTotal().getAmount());
-        assertEquals(0, sale.getRunningTotalIncludingVAT().getAmount());
-        assertFalse(sale.isCompleted());
-        assertEquals(0, sale.getItems().size());
-    }
-
-    @Test
-    public void testRegisterItem() {
-        ItemDTO item = new ItemDTO("abc123", 30.0, 0.2, "A chair");
-        int quantity = 2;
-        SaleSummaryDTO saleSummaryDTO = sale.registerItem(item, quantity);
-        assertNotNull(saleSummaryDTO, "SaleSummaryDTO should not be null.");
-        assertEquals(item, saleSummaryDTO.getItemAndRunningTotal().getItem(),
-                     "Registered item in SaleSummaryDTO should match the registered item.");
-        assertEquals(quantity, saleSummaryDTO.getItemAndRunningTotal().getQuantity(),
-                     "Quantity in SaleSummaryDTO should match the registered quantity.");
-    }
-
-    @Test
-    public void testRecordPaymentInsufficientPayment() {
-        sale.registerItem(new ItemDTO("abc123", 30.0, 0.2, "A chair"), 2);
-        assertThrows(IllegalArgumentException.class, () -> {
-            sale.recordPayment(new Amount(50));
-        });
-    }
-    
-
-    @Test
-    public void testGetItems() {
-
-        ItemDTO item1 = new ItemDTO("abc123", 30.0, 0.2, "A chair");
-        ItemDTO item2 = new ItemDTO("def456", 20.0, 0.2, "A table");
-        sale.registerItem(item1, 1);
-        sale.registerItem(item2, 2);
-        List<ItemAndRunningTotalDTO> items = sale.getItems();
-        assertNotNull(items, "List of items should not be null.");
-        assertEquals(2, items.size(), "Number of items should match the registered items.");
-        assertEquals(item1, items.get(0).getItem(), "First item in list should match the first registered item.");
-        assertEquals(item2, items.get(1).getItem(), "Second item in list should match the second registered item.");
-    }
-
-    @Test
-    public void testRecordPaymentSufficientPayment() {
-
-        sale = new Sale();
-        sale.registerItem(new ItemDTO("abc123", 30.0, 0.2, "A chair"), 2);
-        SaleStateDTO saleState = sale.recordPayment(new Amount(100));
-        assertNotNull(saleState);
-        assertTrue(sale.isCompleted());
-        assertEquals(100.0, saleState.getPaidAmount().getAmount());
-        assertEquals(28.0, saleState.getChange().getAmount());
-    }
-}
+package model;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.DTO.ItemAndRunningTotalDTO;
+import palew.DTO.ItemDTO;
+import palew.DTO.SaleStateDTO;
+import palew.DTO.SaleSummaryDTO;
+import palew.model.Amount;
+import palew.model.Sale;
+import palew.util.LatencyHistogram;
+import palew.util.Metrics;
+
+public class SaleTest {
+    private Sale sale;
+
+    @BeforeEach
+    public void setUp() {
+        sale = new Sale();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sale = null;
+    }
+
+    @Test
+    public void testConstructor() {
+        // Test the constructor to ensure it initializes the sale correctly
+        sale = new Sale();
+        assertNotNull(sale.getTimeOfSale());
+        assertEquals(0, sale.getRunningTotal().getAmount());
+        assertEquals(0, sale.getRunningTotalIncludingVAT().getAmount());
+        assertFalse(sale.isCompleted());
+        assertEquals(0, sale.getItems().size());
+    }
+
+    @Test
+    public void testRegisterItem() {
+        ItemDTO item = new ItemDTO("abc123", 30.0, 0.2, "A chair");
+        int quantity = 2;
+        SaleSummaryDTO saleSummaryDTO = sale.registerItem(item, quantity);
+        assertNotNull(saleSummaryDTO, "SaleSummaryDTO should not be null.");
+        assertEquals(item, saleSummaryDTO.getItemAndRunningTotal().getItem(),
+                     "Registered item in SaleSummaryDTO should match the registered item.");
+        assertEquals(quantity, saleSummaryDTO.getItemAndRunningTotal().getQuantity(),
+                     "Quantity in SaleSummaryDTO should match the registered quantity.");
+    }
+
+    @Test
+    public void testRecordPaymentInsufficientPayment() {
+        sale.registerItem(new ItemDTO("abc123", 30.0, 0.2, "A chair"), 2);
+        assertThrows(IllegalArgumentException.class, () -> {
+            sale.recordPayment(new Amount(50));
+        });
+    }
+    
+
+    @Test
+    public void testGetItems() {
+
+        ItemDTO item1 = new ItemDTO("abc123", 30.0, 0.2, "A chair");
+        ItemDTO item2 = new ItemDTO("def456", 20.0, 0.2, "A table");
+        sale.registerItem(item1, 1);
+        sale.registerItem(item2, 2);
+        List<ItemAndRunningTotalDTO> items = sale.getItems();
+        assertNotNull(items, "List of items should not be null.");
+        assertEquals(2, items.size(), "Number of items should match the registered items.");
+        assertEquals(item1, items.get(0).getItem(), "First item in list should match the first registered item.");
+        assertEquals(item2, items.get(1).getItem(), "Second item in list should match the second registered item.");
+    }
+
+    @Test
+    public void testRegisterSameItemTwiceMergesLine() {
+        ItemDTO item1 = new ItemDTO("abc123", 30.0, 0.2, "A chair");
+        ItemDTO item2 = new ItemDTO("def456", 20.0, 0.2, "A table");
+        sale.registerItem(item1, 1);
+        sale.registerItem(item2, 1);
+        sale.registerItem(item1, 2);
+        List<ItemAndRunningTotalDTO> items = sale.getItems();
+        assertEquals(2, items.size(), "An item registered twice should only have one line.");
+        assertEquals(item1, items.get(0).getItem(), "The merged line should keep its original position.");
+        assertEquals(3, items.get(0).getQuantity(), "The merged line should contain the total quantity.");
+        assertEquals(1, items.get(1).getQuantity(), "Other lines should not be affected by the merge.");
+    }
+
+    @Test
+    public void testAddItemUpdatesTotals() {
+        sale.addItem(new ItemDTO("abc123", 30.0, 0.25, "A chair"), 2);
+        sale.addItem(new ItemDTO("def456", 10.0, 0.12, "A table"), 1);
+        assertEquals(new Amount(70.0), sale.getRunningTotal(), "Total price should be the sum of the lines.");
+        assertEquals(new Amount(16.2), sale.getTotalVAT(), "Total VAT should be the sum of the VAT of the lines.");
+        assertEquals(new Amount(86.2), sale.getRunningTotalIncludingVAT(),
+                     "Total price including VAT should be the total price plus the total VAT.");
+    }
+
+    @Test
+    public void testAddItemsMatchesAddItem() {
+        ItemDTO chair = new ItemDTO("abc123", 30.0, 0.25, "A chair");
+        ItemDTO table = new ItemDTO("def456", 10.0, 0.12, "A table");
+        sale.addItem(chair, 1);
+        sale.addItems(new ItemDTO[] {table, chair}, new int[] {1, 1});
+        assertEquals(new Amount(70.0), sale.getRunningTotal(), "Total price should be the sum of the lines.");
+        assertEquals(new Amount(86.2), sale.getRunningTotalIncludingVAT(),
+                     "Total price including VAT should be the same as when the items are added one by one.");
+        assertEquals(2, sale.getItems().get(0).getQuantity(), "Items already in the sale should be merged.");
+    }
+
+    @Test
+    public void testAddItemsRejectsWholeBatch() {
+        ItemDTO chair = new ItemDTO("abc123", 30.0, 0.25, "A chair");
+        assertThrows(IllegalArgumentException.class,
+                     () -> sale.addItems(new ItemDTO[] {chair, null}, new int[] {1, 1}),
+                     "A batch with an invalid item should be rejected.");
+        assertEquals(0, sale.getItems().size(), "No item of a rejected batch should be registered.");
+    }
+
+    @Test
+    public void testFailedObserverDispatchIsTimed() {
+        LatencyHistogram dispatchLatency = Metrics.getInstance().histogram("sale.notifyObservers");
+        long timedDispatches = dispatchLatency.snapshot().getCount();
+        sale.addSaleObserver(totalRevenue -> {
+            throw new IllegalStateException("The display is disconnected.");
+        });
+        assertThrows(IllegalStateException.class, () -> sale.recordPayment(new Amount(10)),
+                     "The failure of the observer should be passed on.");
+        assertEquals(timedDispatches + 1, dispatchLatency.snapshot().getCount(),
+                     "A dispatch that fails should still be timed.");
+    }
+
+    @Test
+    public void testAddItemOverflowAddsNoLine() {
+        ItemDTO yacht = new ItemDTO("jkl012", 1e15, 0.25, "A yacht");
+        assertThrows(ArithmeticException.class, () -> sale.addItem(yacht, 100),
+                     "An item whose line total overflows should be rejected.");
+        assertEquals(0, sale.getItems().size(), "A rejected item should not leave an empty line in the sale.");
+        assertEquals(new Amount(0), sale.getRunningTotal(), "Total price should be unchanged.");
+    }
+
+    @Test
+    public void testAddItemTotalOverflowLeavesSaleUnchanged() {
+        ItemDTO yacht = new ItemDTO("jkl012", 5e16, 0, "A yacht");
+        ItemDTO island = new ItemDTO("mno345", 5e16, 0, "An island");
+        sale.addItem(yacht, 1);
+        assertThrows(ArithmeticException.class, () -> sale.addItem(island, 1),
+                     "An item that makes the total of the sale overflow should be rejected.");
+        assertEquals(1, sale.getItems().size(), "The rejected item should not be added to the sale.");
+        assertEquals(new Amount(5e16), sale.getRunningTotal(), "Total price should be unchanged.");
+        assertEquals(new Amount(5e16), sale.getRunningTotalIncludingVAT(),
+                     "Total price including VAT should be unchanged.");
+    }
+
+    @Test
+    public void testAddItemsOverflowLeavesSaleUnchanged() {
+        ItemDTO chair = new ItemDTO("abc123", 30.0, 0.25, "A chair");
+        ItemDTO table = new ItemDTO("def456", 10.0, 0.12, "A table");
+        sale.addItem(chair, 1);
+        assertThrows(ArithmeticException.class,
+                     () -> sale.addItems(new ItemDTO[] {table, chair}, new int[] {1, Integer.MAX_VALUE}),
+                     "A batch where the quantity of the last item overflows should be rejected.");
+        assertEquals(1, sale.getItems().size(), "No item of a rejected batch should be registered.");
+        assertEquals(1, sale.getItems().get(0).getQuantity(), "The quantity of the item should be unchanged.");
+        assertEquals(new Amount(30.0), sale.getRunningTotal(), "Total price should be unchanged.");
+        assertEquals(new Amount(37.5), sale.getRunningTotalIncludingVAT(),
+                     "Total price including VAT should be unchanged.");
+    }
+
+    @Test
+    public void testRecordPaymentSufficientPayment() {
+
+        sale = new Sale();
+        sale.registerItem(new ItemDTO("abc123", 30.0, 0.2, "A chair"), 2);
+        SaleStateDTO saleState = sale.recordPayment(new Amount(100));
+        assertNotNull(saleState);
+        assertTrue(sale.isCompleted());
+        assertEquals(100.0, saleState.getPaidAmount().getAmount());
+        assertEquals(28.0, saleState.getChange().getAmount());
+    }
+}
@@ -0,0 +1,146 @@
+package util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.integration.ItemNotFoundException;
+import palew.util.AsyncLogHandler;
+
+public class AsyncLogHandlerTest {
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+
+    @BeforeEach
+    public void setUp() {
+        logFile = tempDir.resolve("log.txt");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logFile = null;
+    }
+
+    @Test
+    public void testRepeatedExceptionsAreFolded() throws IOException {
+        AsyncLogHandler logger = AsyncLogHandler.open(logFile.toString(), 16, 10);
+        for (int i = 0; i < 100; i++) {
+            logger.logException(new ItemNotFoundException("xyz999"));
+        }
+        logger.close();
+
+        String log = Files.readString(logFile);
+        int entries = countOccurrences(log, "Exception was thrown");
+        assertEquals(100, entries + logger.getFoldedCount(),
+                     "Every repetition should either be folded or written as an entry.");
+        assertTrue(entries < 100, "Repeated identical exceptions should be folded into counted summaries.");
+        assertTrue(log.contains("more times"), "Folded exceptions should be written as a counted summary.");
+        assertTrue(log.contains("\tat "), "The first occurrence should be written with its stack trace.");
+    }
+
+    @Test
+    public void testRepetitionsAfterAFlushAreFolded() throws IOException, InterruptedException {
+        AsyncLogHandler logger = AsyncLogHandler.open(logFile.toString(), 16, 10);
+        ItemNotFoundException exception = new ItemNotFoundException("xyz999");
+        logger.logException(exception);
+        waitUntilWritten();
+        for (int i = 0; i < 5; i++) {
+            logger.logException(new ItemNotFoundException("xyz999"));
+        }
+        logger.close();
+
+        String log = Files.readString(logFile);
+        assertEquals(1, countOccurrences(log, "Exception was thrown"),
+                     "A repetition of an entry that was already written should not be written in full.");
+        assertTrue(log.contains("The same exception was thrown 5 more times: "
+                                + ItemNotFoundException.class.getName() + ": " + exception.getMessage()),
+                   "The counted summary should name the exception: " + log);
+        assertEquals(5, logger.getFoldedCount(), "Every repetition should be folded.");
+    }
+
+    @Test
+    public void testRepetitionsAfterTheFoldWindowAreWrittenInFull() throws IOException, InterruptedException {
+        AsyncLogHandler logger = AsyncLogHandler.open(logFile.toString(), 16, 10, 50);
+        logger.logException(new ItemNotFoundException("xyz999"));
+        waitUntilWritten();
+        Thread.sleep(100);
+        logger.logException(new ItemNotFoundException("xyz999"));
+        logger.close();
+
+        String log = Files.readString(logFile);
+        assertEquals(2, countOccurrences(log, "Exception was thrown"),
+                     "A repetition after the fold window should be written in full: " + log);
+        assertEquals(0, logger.getFoldedCount(), "No exception should have been folded.");
+    }
+
+    @Test
+    public void testDistinctExceptionsAreAllWritten() throws IOException {
+        AsyncLogHandler logger = AsyncLogHandler.open(logFile.toString(), 16, 10);
+        logger.logException(new ItemNotFoundException("abc000"));
+        logger.logException(new ItemNotFoundException("abc001"));
+        logger.logException(new ItemNotFoundException("abc000"));
+        logger.close();
+
+        String log = Files.readString(logFile);
+        assertEquals(3, countOccurrences(log, "Exception was thrown"),
+                     "Exceptions that differ from the one before them should not be folded.");
+        assertEquals(0, logger.getFoldedCount(), "No exception should have been folded.");
+    }
+
+    @Test
+    public void testBurstIsBoundedByCapacity() throws IOException {
+        int capacity = 8;
+        AsyncLogHandler logger = AsyncLogHandler.open(logFile.toString(), capacity, 0);
+        int logged = 10_000;
+        for (int i = 0; i < logged; i++) {
+            logger.logException(new ItemNotFoundException("id" + i));
+        }
+        logger.close();
+
+        List<String> lines = Files.readAllLines(logFile);
+        long written = lines.stream().filter(line -> line.contains("Exception was thrown")).count();
+        assertEquals(logged, written + logger.getDroppedCount(),
+                     "Every exception should either be written or counted as dropped.");
+        if (logger.getDroppedCount() > 0) {
+            assertTrue(lines.stream().anyMatch(line -> line.contains("were dropped")),
+                       "Dropped entries should be reported in the log.");
+        }
+        assertTrue(lines.stream().noneMatch(line -> line.trim().startsWith("at ")),
+                   "No stack traces should be written when the limit is zero.");
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> AsyncLogHandler.open(logFile.toString(), 0, 10),
+                     "A ring buffer without room should be rejected.");
+    }
+
+    private void waitUntilWritten() throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.size(logFile) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static int countOccurrences(String text, String pattern) {
+        int count = 0;
+        int index = text.indexOf(pattern);
+        while (index >= 0) {
+            count++;
+            index = text.indexOf(pattern, index + pattern.length());
+        }
+        return count;
+    }
+}
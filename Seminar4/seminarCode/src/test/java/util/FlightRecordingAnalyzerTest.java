@@ -0,0 +1,119 @@
+package util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.Recording;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.DTO.LatencySnapshotDTO;
+import palew.controller.Controller;
+import palew.integration.DatabaseFailureException;
+import palew.integration.ExternalAccountingSystem;
+import palew.integration.ExternalInventorySystem;
+import palew.integration.ItemNotFoundException;
+import palew.integration.PrintSpooler;
+import palew.integration.Printer;
+import palew.model.Amount;
+import palew.model.RegisterPool;
+import palew.util.FlightRecordingAnalyzer;
+import palew.util.LogHandler;
+import palew.util.SaleEvents;
+
+public class FlightRecordingAnalyzerTest {
+    @TempDir
+    Path directory;
+
+    private Recording recording;
+    private PrintSpooler spooler;
+    private LogHandler logger;
+    private Controller controller;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        recording = new Recording();
+        for (String name : SaleEvents.NAMES) {
+            recording.enable(name).withThreshold(Duration.ZERO);
+        }
+        spooler = new PrintSpooler(receipts -> { }, 16);
+        logger = new LogHandler(directory.resolve("log.txt").toString());
+        controller = new Controller(new Printer(spooler), new ExternalAccountingSystem(),
+                ExternalInventorySystem.getInstance(), new RegisterPool(), logger);
+        recording.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recording.close();
+        controller.close();
+        spooler.close();
+        logger.close();
+        controller = null;
+    }
+
+    private Map<String, LatencySnapshotDTO> analyzeRecording() throws IOException {
+        Path file = directory.resolve("sale.jfr");
+        recording.stop();
+        recording.dump(file);
+        return FlightRecordingAnalyzer.analyze(file).getLatencies();
+    }
+
+    private static long countOf(Map<String, LatencySnapshotDTO> phases, String phase) {
+        LatencySnapshotDTO latencies = phases.get(phase);
+        return latencies == null ? 0 : latencies.getCount();
+    }
+
+    @Test
+    public void testEveryPhaseOfASaleIsSummarised() throws Exception {
+        long saleID = controller.openSale(2);
+        controller.scanItem(saleID, "abc123", 2);
+        controller.scanItem(saleID, "def456");
+        assertThrows(ItemNotFoundException.class, () -> controller.scanItem(saleID, "nosuchitem"));
+        controller.completePayment(saleID, new Amount(1000));
+        assertTrue(spooler.awaitDrained(5, TimeUnit.SECONDS), "The receipt should be printed.");
+        logger.logException(new IllegalStateException("The lane stalled."));
+
+        Map<String, LatencySnapshotDTO> phases = analyzeRecording();
+        assertEquals(1, countOf(phases, "sale.start"), "The start of the sale should be recorded.");
+        assertEquals(2, countOf(phases, "sale.registerItem"), "Every registered item should be recorded.");
+        assertEquals(2, countOf(phases, "inventory.lookup.hit"), "Found items should be lookup hits.");
+        assertEquals(1, countOf(phases, "inventory.lookup.miss"), "An unknown item should be a lookup miss.");
+        assertEquals(1, countOf(phases, "sale.recordPayment"), "The payment should be recorded.");
+        for (String step : new String[] {"accounting", "inventory", "receipt"}) {
+            assertTrue(countOf(phases, "payment." + step) >= 1, "The " + step + " step should be recorded.");
+        }
+        assertTrue(countOf(phases, "printer.spooledBatch") >= 1, "The spooled print should be recorded.");
+        assertTrue(countOf(phases, "log.write") >= 1, "The log write should be recorded.");
+        assertTrue(phases.get("sale.recordPayment").getMaxNanos() > 0, "The duration of the phase should be recorded.");
+    }
+
+    @Test
+    public void testFailuresAreSummarisedAsTheirOwnPhases() throws Exception {
+        long saleID = controller.openSale();
+        controller.scanItem(saleID, "abc123");
+        assertThrows(DatabaseFailureException.class, () -> controller.scanItem(saleID, "xyz999"));
+        assertThrows(IllegalArgumentException.class, () -> controller.completePayment(saleID, new Amount(1)));
+
+        Map<String, LatencySnapshotDTO> phases = analyzeRecording();
+        assertEquals(1, countOf(phases, "inventory.lookup.failed"), "A failed lookup should be its own phase.");
+        assertEquals(1, countOf(phases, "sale.recordPayment.rejected"), "A rejected payment should be its own phase.");
+        assertNull(phases.get("sale.recordPayment"), "No payment should be accepted.");
+    }
+
+    @Test
+    public void testNullRecordingIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> FlightRecordingAnalyzer.analyze(null),
+                     "A missing recording should be rejected.");
+    }
+}
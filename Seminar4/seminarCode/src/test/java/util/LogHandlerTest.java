@@ -0,0 +1,68 @@
+package util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import palew.util.LogHandler;
+
+public class LogHandlerTest {
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private LogHandler logger;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        logFile = tempDir.resolve("log.txt");
+        logger = new LogHandler(logFile.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.close();
+        logFile = null;
+    }
+
+    @Test
+    public void testEntriesFromConcurrentLanesDoNotInterleave() throws Exception {
+        ExecutorService lanes = Executors.newFixedThreadPool(8);
+        for (int lane = 0; lane < 8; lane++) {
+            String message = "The scanner on lane " + lane + " failed.";
+            lanes.execute(() -> {
+                for (int i = 0; i < 50; i++) {
+                    logger.logException(new IllegalStateException(message));
+                }
+            });
+        }
+        lanes.shutdown();
+        assertTrue(lanes.awaitTermination(10, TimeUnit.SECONDS), "The lanes should finish.");
+        logger.flush();
+
+        List<String> lines = Files.readAllLines(logFile);
+        int entries = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            int start = lines.get(i).indexOf(", Exception was thrown: ");
+            if (start < 0) {
+                continue;
+            }
+            entries++;
+            String message = lines.get(i).substring(start + ", Exception was thrown: ".length());
+            assertEquals("java.lang.IllegalStateException: " + message, lines.get(i + 1),
+                         "The stack trace should follow the line of its own entry.");
+        }
+        assertEquals(400, entries, "Every entry should be written.");
+    }
+}
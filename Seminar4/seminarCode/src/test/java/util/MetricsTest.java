@@ -0,0 +1,153 @@
+package util;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import palew.DTO.LatencySnapshotDTO;
+import palew.util.LatencyHistogram;
+import palew.util.Metrics;
+import palew.util.MetricsReporter;
+
+public class MetricsTest {
+    private Metrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = new Metrics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        metrics = null;
+    }
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = metrics.histogram("test.operation");
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos * 1_000);
+        }
+
+        LatencySnapshotDTO snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.getCount(), "Every latency should be counted.");
+        assertEquals(50_000_500, snapshot.getMeanNanos(), "The mean should be exact.");
+        assertWithinPrecision(50_000_000, snapshot.getP50Nanos(), "median");
+        assertWithinPrecision(99_000_000, snapshot.getP99Nanos(), "99th percentile");
+        assertWithinPrecision(100_000_000, snapshot.getMaxNanos(), "maximum");
+    }
+
+    private static void assertWithinPrecision(long expected, long actual, String description) {
+        assertTrue(actual >= expected && actual <= expected * 1.04,
+                   "The " + description + " should be at most 4 percent high, was " + actual + " for " + expected);
+    }
+
+    @Test
+    public void testStripesAreMergedOnRead() throws Exception {
+        LatencyHistogram histogram = metrics.histogram("test.operation");
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            threads.execute(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    histogram.record(j);
+                    metrics.counter("test.calls").increment();
+                }
+            });
+        }
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS), "The threads should finish.");
+
+        assertEquals(80_000, histogram.snapshot().getCount(), "Every thread's latencies should be counted.");
+        assertEquals(80_000L, metrics.getCounters().get("test.calls"), "Every increment should be counted.");
+        assertSame(histogram, metrics.histogram("test.operation"), "A name should always give the same histogram.");
+    }
+
+    @Test
+    public void testSampledTimersEstimateTheCallCount() {
+        LatencyHistogram histogram = metrics.histogram("test.fast", 16);
+        int timedCalls = 0;
+        for (int i = 0; i < 16_000; i++) {
+            long start = histogram.startTimer();
+            if (start != LatencyHistogram.NOT_TIMED) {
+                timedCalls++;
+            }
+            histogram.stopTimer(start);
+        }
+
+        long count = histogram.snapshot().getCount();
+        assertEquals(timedCalls * 16L, count, "Every timed call should be weighted by the sample interval.");
+        assertTrue(count > 12_800 && count < 19_200, "The count should estimate the number of calls, was " + count);
+        assertSame(histogram, metrics.histogram("test.fast"), "A name should always give the same histogram.");
+    }
+
+    @Test
+    public void testDisabledHistogramsIgnoreLatencies() {
+        LatencyHistogram histogram = metrics.histogram("test.operation");
+        metrics.setEnabled(false);
+        histogram.record(1_000);
+        LatencyHistogram later = metrics.histogram("test.later");
+        later.record(1_000);
+        assertEquals(LatencyHistogram.NOT_TIMED, histogram.startTimer(), "A disabled histogram should not read the clock.");
+        metrics.setEnabled(true);
+        histogram.record(1_000);
+
+        assertEquals(1, histogram.snapshot().getCount(), "Only latencies recorded while enabled should count.");
+        assertEquals(0, later.snapshot().getCount(), "A histogram created while disabled should be disabled.");
+    }
+
+    @Test
+    public void testHistogramsAreExposedAsMBeans() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        metrics.histogram("controller.scanItem").record(2_000);
+        metrics.registerMBeans(server);
+        metrics.histogram("controller.endSale").record(3_000);
+        metrics.counter("controller.scanItem.failed").increment();
+
+        ObjectName scanItem = new ObjectName("palew.metrics:type=Latency,name=\"controller.scanItem\"");
+        ObjectName endSale = new ObjectName("palew.metrics:type=Latency,name=\"controller.endSale\"");
+        assertEquals(1L, server.getAttribute(scanItem, "Count"), "The histogram should be readable over JMX.");
+        assertEquals(3.0, (Double) server.getAttribute(endSale, "MaxMicros"), 0.1,
+                     "Histograms created after registration should be registered too.");
+        String report = (String) server.getAttribute(new ObjectName("palew.metrics:type=Metrics"), "Report");
+        assertTrue(report.contains("controller.scanItem.failed count=1"), "The report should list the counters.");
+    }
+
+    @Test
+    public void testReporterWritesPeriodically() throws Exception {
+        metrics.histogram("controller.recordPayment").record(1_500);
+        StringWriter out = new StringWriter();
+        try (MetricsReporter reporter = new MetricsReporter(metrics, out, Duration.ofMillis(20))) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!out.toString().contains("controller.recordPayment") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertTrue(out.toString().contains("controller.recordPayment count=1 mean=1.5us"),
+                   "The report should be written with the latencies in microseconds: " + out);
+    }
+
+    @Test
+    public void testCloseWritesLastReport() {
+        StringWriter out = new StringWriter();
+        MetricsReporter reporter = new MetricsReporter(metrics, out, Duration.ofHours(1));
+        metrics.histogram("controller.endSale").record(2_000);
+        reporter.close();
+
+        assertTrue(out.toString().contains("controller.endSale count=1"),
+                   "Close should report the latencies recorded since the last report: " + out);
+    }
+}